@@ -0,0 +1,74 @@
+package ceri.bench.common;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.data.ByteArray;
+import ceri.common.data.ByteProvider;
+
+/**
+ * Decoding of multi-byte values from byte arrays, by index and by sequential reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteProviderBenchmark {
+	@Param({ "64", "4096" })
+	public int size;
+	private ByteProvider bytes;
+
+	@Setup
+	public void setup() {
+		var array = new byte[size];
+		new Random(0).nextBytes(array);
+		bytes = ByteArray.Immutable.wrap(array);
+	}
+
+	@Benchmark
+	public long getIntMsb() {
+		long sum = 0;
+		for (int i = 0; i + Integer.BYTES <= size; i += Integer.BYTES)
+			sum += bytes.getIntMsb(i);
+		return sum;
+	}
+
+	@Benchmark
+	public long getLongLsb() {
+		long sum = 0;
+		for (int i = 0; i + Long.BYTES <= size; i += Long.BYTES)
+			sum += bytes.getLongLsb(i);
+		return sum;
+	}
+
+	@Benchmark
+	public long readInt() {
+		long sum = 0;
+		var reader = bytes.reader(0);
+		for (int i = 0; i + Integer.BYTES <= size; i += Integer.BYTES)
+			sum += reader.readInt();
+		return sum;
+	}
+
+	@Benchmark
+	public byte[] copy() {
+		return bytes.copy(0);
+	}
+
+	@Benchmark
+	public String getString() {
+		return bytes.getString(0);
+	}
+}
@@ -0,0 +1,78 @@
+package ceri.bench.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ceri.common.io.BufferedOutputStream;
+import ceri.common.io.CoalescingOutputStream;
+import ceri.common.test.TestConnector;
+
+/**
+ * Small frames written to a test connector, flushed per frame through a buffered stream, compared
+ * with frames coalesced into one write per batch. Each connector write consumes CPU tokens to model
+ * the cost of a native write call. Scores are per frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoalescingOutputStreamBenchmark {
+	private static final int FRAMES = 64;
+	@Param({ "8", "64" })
+	public int frameSize;
+	@Param({ "0", "500" })
+	public int writeTokens;
+	private TestConnector connector;
+	private OutputStream buffered;
+	private CoalescingOutputStream coalesced;
+	private byte[] frame;
+
+	@SuppressWarnings("resource")
+	@Setup
+	public void setup() {
+		connector = TestConnector.of();
+		connector.writeOverride((_, _, _) -> Blackhole.consumeCPU(writeTokens));
+		buffered = new BufferedOutputStream(connector.out());
+		coalesced = CoalescingOutputStream.of(connector.out(), FRAMES * frameSize, 0);
+		frame = new byte[frameSize];
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		coalesced.close();
+		connector.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public void flushPerFrame() throws IOException {
+		for (int i = 0; i < FRAMES; i++) {
+			buffered.write(frame);
+			buffered.flush();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public void coalescedPerBatch() throws IOException {
+		for (int i = 0; i < FRAMES; i++)
+			coalesced.write(frame);
+		coalesced.flush();
+	}
+}
@@ -0,0 +1,46 @@
+package ceri.bench.common;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.color.ColorSpaces;
+
+/**
+ * Color space conversions from and to rgb int values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorSpacesBenchmark {
+	private int rgb = 0x123456;
+
+	@Benchmark
+	public int hsbRoundTrip() {
+		return ColorSpaces.hsbToRgb(ColorSpaces.rgbToHsb(rgb++ & 0xffffff));
+	}
+
+	@Benchmark
+	public int xybRoundTrip() {
+		return ColorSpaces.xybToRgb(ColorSpaces.rgbToXyb(rgb++ & 0xffffff));
+	}
+
+	@Benchmark
+	public int xyzRoundTrip() {
+		return ColorSpaces.xyzToRgb(ColorSpaces.rgbToXyz(rgb++ & 0xffffff));
+	}
+
+	@Benchmark
+	public int cctToRgb() {
+		return ColorSpaces.cctToRgb(1000 + (rgb++ & 0x1fff));
+	}
+}
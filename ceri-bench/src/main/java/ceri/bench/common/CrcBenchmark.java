@@ -0,0 +1,55 @@
+package ceri.bench.common;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.data.ByteArray;
+import ceri.common.data.ByteProvider;
+import ceri.common.data.CrcAlgorithm;
+
+/**
+ * CRC generation over byte arrays and byte providers, for common algorithm widths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrcBenchmark {
+	@Param({ "crc8Smbus", "crc16Xmodem", "crc32IsoHdlc", "crc64Xz" })
+	public CrcAlgorithm.Std std;
+	@Param({ "16", "1024" })
+	public int size;
+	private CrcAlgorithm algorithm;
+	private byte[] array;
+	private ByteProvider bytes;
+
+	@Setup
+	public void setup() {
+		algorithm = std.algorithm();
+		array = new byte[size];
+		new Random(0).nextBytes(array);
+		bytes = ByteArray.Immutable.wrap(array);
+	}
+
+	@Benchmark
+	public long array() {
+		return algorithm.start().add(array).crc();
+	}
+
+	@Benchmark
+	public long provider() {
+		return algorithm.start().add(bytes).crc();
+	}
+}
@@ -0,0 +1,44 @@
+package ceri.bench.common;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.event.Listeners;
+
+/**
+ * Synchronous event fan-out to listeners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenersBenchmark {
+	@Param({ "1", "16" })
+	public int listenerCount;
+	private final Listeners<Integer> listeners = Listeners.of();
+	private int value = 0;
+	private long sum = 0;
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < listenerCount; i++)
+			listeners.listen(v -> sum += v);
+	}
+
+	@Benchmark
+	public long accept() {
+		listeners.accept(value++);
+		return sum;
+	}
+}
@@ -0,0 +1,63 @@
+package ceri.bench.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.stream.Streams;
+
+/**
+ * Pipelines of ceri streams, compared with the equivalent java.util.stream pipelines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+	@Param({ "16", "1024" })
+	public int size;
+	private int[] ints;
+	private List<String> strings;
+
+	@Setup
+	public void setup() {
+		ints = java.util.stream.IntStream.range(0, size).toArray();
+		strings = java.util.stream.IntStream.range(0, size).mapToObj(Integer::toString).toList();
+	}
+
+	@Benchmark
+	public int intFilterMapSum() {
+		return Streams.ints(ints).filter(i -> (i & 1) == 0).map(i -> i * 3).sum();
+	}
+
+	@Benchmark
+	public int jdkIntFilterMapSum() {
+		return java.util.stream.IntStream.of(ints).filter(i -> (i & 1) == 0).map(i -> i * 3).sum();
+	}
+
+	@Benchmark
+	public List<Integer> objMapFilterList() {
+		return Streams.from(strings).map(String::length).filter(n -> n > 1).toList();
+	}
+
+	@Benchmark
+	public List<Integer> jdkObjMapFilterList() {
+		return strings.stream().map(String::length).filter(n -> n > 1).toList();
+	}
+
+	@Benchmark
+	public long sliceCount() {
+		return Streams.slice(0, size).filter(i -> i % 3 == 0).count();
+	}
+}
@@ -0,0 +1,52 @@
+package ceri.bench.common;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.text.Dsv;
+import ceri.common.text.Regex;
+
+/**
+ * Regex splitting, matching and number decoding, and delimiter-separated value parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+	private static final Pattern INT_NUM = Pattern.compile(Regex.Common.INT_NUM);
+	private static final String COMMAS = "alpha, beta ,gamma,delta , epsilon,zeta, eta, theta";
+	private static final String CSV = "1,\"quoted, value\",3.5,,\"a \"\"b\"\" c\",end";
+	private final Dsv dsv = Dsv.of(Dsv.Codec.CSV);
+
+	@Benchmark
+	public List<String> splitComma() {
+		return Regex.Split.COMMA.list(COMMAS);
+	}
+
+	@Benchmark
+	public long decodeNumber() {
+		return INT_NUM.matcher("0x7fff").matches() ? Regex.Common.decodeLong("0x7fff") : 0L;
+	}
+
+	@Benchmark
+	public List<String> dsvSplit() {
+		return Dsv.split(CSV, Dsv.Codec.CSV);
+	}
+
+	@Benchmark
+	public List<String> dsvParseLine() {
+		return dsv.parseLine(CSV);
+	}
+}
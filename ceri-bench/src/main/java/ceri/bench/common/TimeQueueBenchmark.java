@@ -0,0 +1,57 @@
+package ceri.bench.common;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.collect.TimeQueue;
+import ceri.common.time.TimeSupplier;
+
+/**
+ * Scheduling and removal of timed items, with a fixed queue depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeQueueBenchmark {
+	@Param({ "16", "1024" })
+	public int depth;
+	private TimeQueue<Integer> queue;
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		queue = TimeQueue.of(TimeSupplier.millis);
+		for (next = 0; next < depth; next++)
+			queue.add(next, next);
+	}
+
+	@Benchmark
+	public Integer addRemove() {
+		queue.add(next, next);
+		next++;
+		return queue.remove();
+	}
+
+	@Benchmark
+	public boolean setExisting() {
+		int i = next++ % depth;
+		return queue.set(i, next);
+	}
+
+	@Benchmark
+	public long nextTime() {
+		return queue.nextTime();
+	}
+}
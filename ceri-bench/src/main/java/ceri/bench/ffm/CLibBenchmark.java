@@ -0,0 +1,89 @@
+package ceri.bench.ffm;
+
+import java.lang.foreign.Arena;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.ffm.clib.ffm.CException;
+import ceri.ffm.clib.ffm.CFcntl;
+import ceri.ffm.clib.ffm.CString;
+import ceri.ffm.clib.ffm.CUnistd;
+import ceri.ffm.core.CallArena;
+
+/**
+ * C library calls through FFM, covering argument marshalling into the per-call arena, critical
+ * calls with heap arrays, and cached string arguments. Per-call allocation from a new confined
+ * arena is compared with the thread call arena.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class CLibBenchmark {
+	private static final String PATH = "/dev/null";
+	private final byte[] bytes = new byte[64];
+	private int[] pipe;
+
+	@Setup
+	public void setup() throws CException {
+		pipe = CUnistd.pipe();
+	}
+
+	@TearDown
+	public void tearDown() {
+		CUnistd.closeSilently(pipe);
+	}
+
+	@Benchmark
+	public long confinedArena() {
+		try (var arena = Arena.ofConfined()) {
+			return arena.allocate(bytes.length).address();
+		}
+	}
+
+	@Benchmark
+	public long callArena() {
+		try (var arena = CallArena.open()) {
+			return arena.allocate(bytes.length).address();
+		}
+	}
+
+	@Benchmark
+	public int pipeWriteRead() throws CException {
+		CUnistd.write(pipe[1], bytes);
+		return CUnistd.read(pipe[0], bytes);
+	}
+
+	@Benchmark
+	public int[] pipeOpenClose() throws CException {
+		var fds = CUnistd.pipe();
+		CUnistd.closeSilently(fds);
+		return fds;
+	}
+
+	@Benchmark
+	public boolean openClose() throws CException {
+		return CUnistd.close(CFcntl.open(PATH, CFcntl.Open.O_RDONLY));
+	}
+
+	@Benchmark
+	public boolean isatty() throws CException {
+		return CUnistd.isatty(pipe[0]);
+	}
+
+	@Benchmark
+	public String strerror() {
+		return CString.strerror(2);
+	}
+}
@@ -0,0 +1,38 @@
+package ceri.bench.ffm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.ffm.clib.ffm.CException;
+import ceri.ffm.clib.ffm.CLib;
+import ceri.ffm.clib.ffm.CUnistd;
+
+/**
+ * FFM downcall overhead, through the library proxy directly, and with error verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class CallBenchmark {
+	private final CLib.Native lib = CLib.library.get();
+
+	@Benchmark
+	public int proxy() {
+		return lib.getpagesize();
+	}
+
+	@Benchmark
+	public int verified() throws CException {
+		return CUnistd.getpagesize();
+	}
+}
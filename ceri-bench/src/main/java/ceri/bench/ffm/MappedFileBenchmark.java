@@ -0,0 +1,116 @@
+package ceri.bench.ffm;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.data.ByteStream;
+import ceri.ffm.util.MappedFile;
+import ceri.jna.clib.CFileDescriptor;
+import ceri.jna.clib.FileDescriptor;
+import ceri.jna.clib.Mmap;
+
+/**
+ * Sequential read throughput of a file, through a buffered input stream reader, compared with
+ * readers over FFM and JNA memory-mapped windows. Scores are per file read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-native-access=ALL-UNNAMED")
+public class MappedFileBenchmark {
+	@Param({ "65536", "16777216" })
+	public int size;
+	private Path path;
+	private MappedFile ffm;
+	private CFileDescriptor fd;
+	private Mmap mmap;
+	private byte[] buffer;
+
+	@Setup
+	public void setup() throws IOException {
+		path = Files.createTempFile(getClass().getSimpleName(), null);
+		var bytes = new byte[size];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = (byte) i;
+		Files.write(path, bytes);
+		ffm = MappedFile.read(path);
+		fd = CFileDescriptor.open(path.toString(), FileDescriptor.Open.RDONLY);
+		mmap = Mmap.file(Mmap.Visibility.SHARED, size, fd, 0).protections(Mmap.Protection.READ)
+			.map();
+		mmap.advise(Mmap.Advice.SEQUENTIAL);
+		buffer = new byte[size];
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		mmap.close();
+		fd.close();
+		ffm.close();
+		Files.delete(path);
+	}
+
+	@Benchmark
+	public long streamLongs() throws IOException {
+		try (var r = ByteStream.reader(new BufferedInputStream(new FileInputStream(path.toFile())))) {
+			long sum = 0;
+			for (int i = 0; i < size; i += Long.BYTES)
+				sum += r.readLongMsb();
+			return sum;
+		}
+	}
+
+	@Benchmark
+	public long ffmLongs() {
+		var r = ffm.memory().reader(0);
+		long sum = 0;
+		for (int i = 0; i < size; i += Long.BYTES)
+			sum += r.readLongMsb();
+		return sum;
+	}
+
+	@Benchmark
+	public long jnaLongs() {
+		var r = mmap.memory().reader(0);
+		long sum = 0;
+		for (int i = 0; i < size; i += Long.BYTES)
+			sum += r.readLongMsb();
+		return sum;
+	}
+
+	@Benchmark
+	public byte[] streamBulk() throws IOException {
+		try (var r = ByteStream.reader(new FileInputStream(path.toFile()))) {
+			r.readInto(buffer);
+			return buffer;
+		}
+	}
+
+	@Benchmark
+	public byte[] ffmBulk() {
+		ffm.memory().copyTo(0, buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public byte[] jnaBulk() {
+		mmap.memory().copyTo(0, buffer);
+		return buffer;
+	}
+}
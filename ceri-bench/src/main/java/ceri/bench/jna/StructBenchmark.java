@@ -0,0 +1,66 @@
+package ceri.bench.jna;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.common.time.TimeSpec;
+import ceri.jna.clib.jna.CPoll.pollfd;
+import ceri.jna.clib.jna.CTime.timeval;
+import ceri.jna.type.Struct;
+
+/**
+ * JNA struct marshalling, by reflective field write and read, compared with flyweight views of
+ * struct memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StructBenchmark {
+	@Param({ "1", "64" })
+	public int count;
+	private pollfd[] pollfds;
+	private pollfd.View view;
+	private final timeval timeval = new timeval();
+	private long micros = 0;
+
+	@Setup
+	public void setup() {
+		pollfds = pollfd.array(count);
+		view = new pollfd.View(Struct.pointer(pollfds));
+	}
+
+	@Benchmark
+	public int pollfdWriteRead() {
+		for (int i = 0; i < count; i++)
+			pollfds[i].fd = i;
+		Struct.write(pollfds);
+		Struct.read(pollfds);
+		return pollfds[count - 1].revents;
+	}
+
+	@Benchmark
+	public int pollfdView() {
+		int revents = 0;
+		for (int i = 0; i < count; i++)
+			revents |= view.index(i).fd(i).revents();
+		return revents;
+	}
+
+	@Benchmark
+	public TimeSpec timevalWriteRead() {
+		Struct.write(timeval.time(TimeSpec.ofMicros(0, micros++)));
+		return Struct.read(timeval).time();
+	}
+}
@@ -0,0 +1,57 @@
+package ceri.bench.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ceri.log.concurrent.Dispatcher;
+
+/**
+ * Asynchronous event fan-out through a dispatcher thread, measured from dispatch until all
+ * listeners have received the event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+	private static final long POLL_TIMEOUT_MS = 100;
+	@Param({ "1", "16" })
+	public int listenerCount;
+	private final AtomicLong received = new AtomicLong();
+	private Dispatcher.Direct<Long> dispatcher;
+	private long sent = 0;
+
+	@Setup
+	public void setup() {
+		dispatcher = Dispatcher.direct(POLL_TIMEOUT_MS);
+		for (int i = 0; i < listenerCount; i++)
+			dispatcher.listen(_ -> received.incrementAndGet());
+	}
+
+	@TearDown
+	public void tearDown() {
+		dispatcher.close();
+	}
+
+	@Benchmark
+	public long dispatch() {
+		dispatcher.dispatch(sent++);
+		long expected = sent * listenerCount;
+		while (received.get() < expected)
+			Thread.onSpinWait();
+		return expected;
+	}
+}
@@ -0,0 +1,559 @@
+package ceri.common.array;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import ceri.common.collect.Lists;
+import ceri.common.concurrent.Locker;
+import ceri.common.data.ByteProvider;
+import ceri.common.data.IntProvider;
+import ceri.common.data.LongProvider;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Functions;
+import ceri.common.util.Validate;
+
+/**
+ * Utility to create large primitive arrays without initially knowing the required size. Unlike
+ * DynamicArray, values are appended into a list of fixed-size chunks, so existing values are never
+ * copied as the array grows. Chunks are heap or off-heap memory segments from a pool, and are
+ * returned to the pool on close. Values are accessed through a provider view without flattening,
+ * or copied once into an array on request. A provider view is only valid until the builder is
+ * closed or cleared. Not thread-safe; pools are thread-safe.
+ */
+public abstract class ChunkedArray implements Functions.Closeable {
+	/** Default chunk size in bytes. */
+	public static final int CHUNK_DEF = 64 * 1024;
+	private static final Pool HEAP_DEF = Pool.heap(CHUNK_DEF, 0);
+	private final Pool pool;
+	private final ValueLayout layout;
+	private final int shift;
+	private final int mask;
+	private final List<MemorySegment> chunks = Lists.of();
+	private int index = 0;
+
+	/**
+	 * Allocates fixed-size chunks, and holds released chunks for reuse, up to a maximum count.
+	 * Chunk size is a power of 2, and chunks are aligned for all primitive layouts.
+	 */
+	public static class Pool {
+		private final Locker locker = Locker.of();
+		private final Deque<MemorySegment> free = new ArrayDeque<>();
+		private final Functions.Supplier<MemorySegment> allocator;
+		public final int chunkBytes;
+		private final int maxPooled;
+		private int allocated = 0;
+
+		/**
+		 * Creates a pool of heap chunks.
+		 */
+		public static Pool heap(int chunkBytes, int maxPooled) {
+			return new Pool(chunkBytes, maxPooled,
+				() -> MemorySegment.ofArray(new long[chunkBytes / Long.BYTES]));
+		}
+
+		/**
+		 * Creates a pool of off-heap chunks. Each chunk is released by the garbage collector when
+		 * no longer reachable.
+		 */
+		public static Pool direct(int chunkBytes, int maxPooled) {
+			return new Pool(chunkBytes, maxPooled,
+				() -> Arena.ofAuto().allocate(chunkBytes, Long.BYTES));
+		}
+
+		/**
+		 * Creates a pool of off-heap chunks allocated from the arena. Chunks are released when the
+		 * arena is closed.
+		 */
+		public static Pool direct(Arena arena, int chunkBytes, int maxPooled) {
+			Objects.requireNonNull(arena);
+			return new Pool(chunkBytes, maxPooled, () -> arena.allocate(chunkBytes, Long.BYTES));
+		}
+
+		private Pool(int chunkBytes, int maxPooled, Functions.Supplier<MemorySegment> allocator) {
+			if (chunkBytes < Long.BYTES || Integer.bitCount(chunkBytes) != 1) throw Exceptions
+				.illegalArg("Chunk size must be a power of 2 >= %d: %d", Long.BYTES, chunkBytes);
+			this.chunkBytes = chunkBytes;
+			this.maxPooled = Validate.min(maxPooled, 0);
+			this.allocator = allocator;
+		}
+
+		/**
+		 * Returns the number of chunks allocated by the pool.
+		 */
+		public int allocated() {
+			return locker.getAsInt(() -> allocated);
+		}
+
+		/**
+		 * Returns the number of released chunks available for reuse.
+		 */
+		public int pooled() {
+			return locker.getAsInt(free::size);
+		}
+
+		/**
+		 * Provides a released chunk, or allocates a new chunk. Chunk content is undefined.
+		 */
+		public MemorySegment acquire() {
+			var chunk = locker.get(() -> {
+				var segment = free.poll();
+				if (segment == null) allocated++;
+				return segment;
+			});
+			return chunk != null ? chunk : allocator.get();
+		}
+
+		/**
+		 * Releases a chunk for reuse; the chunk is dropped if the pool is full.
+		 */
+		public void release(MemorySegment chunk) {
+			if (chunk == null || chunk.byteSize() != chunkBytes) return;
+			locker.run(() -> {
+				if (free.size() < maxPooled) free.push(chunk);
+			});
+		}
+	}
+
+	/**
+	 * Create a byte array builder with unpooled heap chunks of default size.
+	 */
+	public static OfByte bytes() {
+		return bytes(HEAP_DEF);
+	}
+
+	/**
+	 * Create a byte array builder with chunks from the pool.
+	 */
+	public static OfByte bytes(Pool pool) {
+		return new OfByte(pool);
+	}
+
+	/**
+	 * Create an int array builder with unpooled heap chunks of default size.
+	 */
+	public static OfInt ints() {
+		return ints(HEAP_DEF);
+	}
+
+	/**
+	 * Create an int array builder with chunks from the pool.
+	 */
+	public static OfInt ints(Pool pool) {
+		return new OfInt(pool);
+	}
+
+	/**
+	 * Create a long array builder with unpooled heap chunks of default size.
+	 */
+	public static OfLong longs() {
+		return longs(HEAP_DEF);
+	}
+
+	/**
+	 * Create a long array builder with chunks from the pool.
+	 */
+	public static OfLong longs(Pool pool) {
+		return new OfLong(pool);
+	}
+
+	/**
+	 * For building byte arrays.
+	 */
+	public static class OfByte extends ChunkedArray implements Functions.IntConsumer {
+		private static final ValueLayout.OfByte LAYOUT = ValueLayout.JAVA_BYTE;
+
+		private OfByte(Pool pool) {
+			super(pool, LAYOUT);
+		}
+
+		@Override
+		public void accept(int value) {
+			tail().set(LAYOUT, offset(index()), (byte) value);
+			inc();
+		}
+
+		/**
+		 * Get the value at index.
+		 */
+		public byte get(int index) {
+			Objects.checkIndex(index, index());
+			return chunk(index).get(LAYOUT, offset(index));
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(byte... values) {
+			return append(values, 0, values.length);
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(int... values) {
+			for (int value : values)
+				accept(value);
+			return index();
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(byte[] array, int offset, int length) {
+			Validate.slice(array.length, offset, length);
+			return appendArray(array, offset, length);
+		}
+
+		/**
+		 * Appends the provided values and returns the new index.
+		 */
+		public int append(ByteProvider provider) {
+			var buffer = new byte[Math.min(provider.length(), chunkLength())];
+			for (int i = 0; i < provider.length(); i += buffer.length) {
+				int n = Math.min(buffer.length, provider.length() - i);
+				provider.copyTo(i, buffer, 0, n);
+				appendArray(buffer, 0, n);
+			}
+			return index();
+		}
+
+		/**
+		 * Returns a view of the values, without copying.
+		 */
+		public ByteProvider provider() {
+			return new Bytes(this, 0, index());
+		}
+
+		/**
+		 * Returns a copy of the values as an array.
+		 */
+		public byte[] array() {
+			var array = new byte[index()];
+			copyToArray(0, array, 0, array.length);
+			return array;
+		}
+	}
+
+	/**
+	 * For building int arrays.
+	 */
+	public static class OfInt extends ChunkedArray implements Functions.IntConsumer {
+		private static final ValueLayout.OfInt LAYOUT = ValueLayout.JAVA_INT;
+
+		private OfInt(Pool pool) {
+			super(pool, LAYOUT);
+		}
+
+		@Override
+		public void accept(int value) {
+			tail().set(LAYOUT, offset(index()), value);
+			inc();
+		}
+
+		/**
+		 * Get the value at index.
+		 */
+		public int get(int index) {
+			Objects.checkIndex(index, index());
+			return chunk(index).get(LAYOUT, offset(index));
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(int... values) {
+			return append(values, 0, values.length);
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(int[] array, int offset, int length) {
+			Validate.slice(array.length, offset, length);
+			return appendArray(array, offset, length);
+		}
+
+		/**
+		 * Returns a view of the values, without copying.
+		 */
+		public IntProvider provider() {
+			return new Ints(this, 0, index());
+		}
+
+		/**
+		 * Returns a copy of the values as an array.
+		 */
+		public int[] array() {
+			var array = new int[index()];
+			copyToArray(0, array, 0, array.length);
+			return array;
+		}
+	}
+
+	/**
+	 * For building long arrays.
+	 */
+	public static class OfLong extends ChunkedArray implements Functions.LongConsumer {
+		private static final ValueLayout.OfLong LAYOUT = ValueLayout.JAVA_LONG;
+
+		private OfLong(Pool pool) {
+			super(pool, LAYOUT);
+		}
+
+		@Override
+		public void accept(long value) {
+			tail().set(LAYOUT, offset(index()), value);
+			inc();
+		}
+
+		/**
+		 * Get the value at index.
+		 */
+		public long get(int index) {
+			Objects.checkIndex(index, index());
+			return chunk(index).get(LAYOUT, offset(index));
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(long... values) {
+			return append(values, 0, values.length);
+		}
+
+		/**
+		 * Appends the values and returns the new index.
+		 */
+		public int append(long[] array, int offset, int length) {
+			Validate.slice(array.length, offset, length);
+			return appendArray(array, offset, length);
+		}
+
+		/**
+		 * Returns a view of the values, without copying.
+		 */
+		public LongProvider provider() {
+			return new Longs(this, 0, index());
+		}
+
+		/**
+		 * Returns a copy of the values as an array.
+		 */
+		public long[] array() {
+			var array = new long[index()];
+			copyToArray(0, array, 0, array.length);
+			return array;
+		}
+	}
+
+	private ChunkedArray(Pool pool, ValueLayout layout) {
+		Objects.requireNonNull(pool);
+		this.pool = pool;
+		this.layout = layout;
+		int length = pool.chunkBytes / (int) layout.byteSize();
+		shift = Integer.numberOfTrailingZeros(length);
+		mask = length - 1;
+	}
+
+	/**
+	 * Returns the number of values.
+	 */
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * Returns the number of values per chunk.
+	 */
+	public int chunkLength() {
+		return mask + 1;
+	}
+
+	/**
+	 * Returns the number of chunks in use.
+	 */
+	public int chunks() {
+		return chunks.size();
+	}
+
+	/**
+	 * Releases chunks to the pool, and resets the index. Provider views are no longer valid.
+	 */
+	public void clear() {
+		for (var chunk : chunks)
+			pool.release(chunk);
+		chunks.clear();
+		index = 0;
+	}
+
+	@Override
+	public void close() {
+		clear();
+	}
+
+	/**
+	 * Returns the chunk containing the value index.
+	 */
+	MemorySegment chunk(int index) {
+		return chunks.get(index >>> shift);
+	}
+
+	/**
+	 * Returns the byte offset of the value index within its chunk.
+	 */
+	long offset(int index) {
+		return (index & mask) * layout.byteSize();
+	}
+
+	/**
+	 * Returns the chunk for the next appended value, adding a chunk if needed.
+	 */
+	MemorySegment tail() {
+		int i = index >>> shift;
+		if (i == chunks.size()) chunks.add(pool.acquire());
+		return chunks.get(i);
+	}
+
+	void inc() {
+		index++;
+	}
+
+	/**
+	 * Copies values from a primitive array, chunk by chunk. Returns the new index.
+	 */
+	int appendArray(Object array, int offset, int length) {
+		while (length > 0) {
+			var chunk = tail();
+			int n = Math.min(length, chunkLength() - (index & mask));
+			MemorySegment.copy(array, offset, chunk, layout, offset(index), n);
+			offset += n;
+			length -= n;
+			index += n;
+		}
+		return index;
+	}
+
+	/**
+	 * Copies values to a primitive array, chunk by chunk. Returns the index after copying.
+	 */
+	int copyToArray(int index, Object array, int offset, int length) {
+		while (length > 0) {
+			int n = Math.min(length, chunkLength() - (index & mask));
+			MemorySegment.copy(chunk(index), layout, offset(index), array, offset, n);
+			offset += n;
+			length -= n;
+			index += n;
+		}
+		return index;
+	}
+
+	/**
+	 * A byte provider view of chunked values.
+	 */
+	private record Bytes(OfByte chunked, int offset, int length) implements ByteProvider {
+		@Override
+		public byte getByte(int index) {
+			Objects.checkIndex(index, length);
+			return chunked.get(offset + index);
+		}
+
+		@Override
+		public ByteProvider slice(int index, int length) {
+			if (Validate.slice(length(), index, length)) return this;
+			return new Bytes(chunked, offset + index, length);
+		}
+
+		@Override
+		public int copyTo(int index, byte[] array, int offset, int length) {
+			Validate.slice(length(), index, length);
+			Validate.slice(array.length, offset, length);
+			chunked.copyToArray(this.offset + index, array, offset, length);
+			return offset + length;
+		}
+
+		@Override
+		public int writeTo(int index, OutputStream out, int length) throws IOException {
+			Validate.slice(length(), index, length);
+			var buffer = new byte[Math.min(length, chunked.chunkLength())];
+			while (length > 0) {
+				int n = Math.min(length, buffer.length);
+				copyTo(index, buffer, 0, n);
+				out.write(buffer, 0, n);
+				index += n;
+				length -= n;
+			}
+			return index;
+		}
+
+		@Override
+		public String toString() {
+			return ByteProvider.toHex(this);
+		}
+	}
+
+	/**
+	 * An int provider view of chunked values.
+	 */
+	private record Ints(OfInt chunked, int offset, int length) implements IntProvider {
+		@Override
+		public int getInt(int index) {
+			Objects.checkIndex(index, length);
+			return chunked.get(offset + index);
+		}
+
+		@Override
+		public IntProvider slice(int index, int length) {
+			if (Validate.slice(length(), index, length)) return this;
+			return new Ints(chunked, offset + index, length);
+		}
+
+		@Override
+		public int copyTo(int index, int[] array, int offset, int length) {
+			Validate.slice(length(), index, length);
+			Validate.slice(array.length, offset, length);
+			chunked.copyToArray(this.offset + index, array, offset, length);
+			return offset + length;
+		}
+
+		@Override
+		public String toString() {
+			return IntProvider.toString(this);
+		}
+	}
+
+	/**
+	 * A long provider view of chunked values.
+	 */
+	private record Longs(OfLong chunked, int offset, int length) implements LongProvider {
+		@Override
+		public long getLong(int index) {
+			Objects.checkIndex(index, length);
+			return chunked.get(offset + index);
+		}
+
+		@Override
+		public LongProvider slice(int index, int length) {
+			if (Validate.slice(length(), index, length)) return this;
+			return new Longs(chunked, offset + index, length);
+		}
+
+		@Override
+		public int copyTo(int index, long[] array, int offset, int length) {
+			Validate.slice(length(), index, length);
+			Validate.slice(array.length, offset, length);
+			chunked.copyToArray(this.offset + index, array, offset, length);
+			return offset + length;
+		}
+
+		@Override
+		public String toString() {
+			return LongProvider.toString(this);
+		}
+	}
+}
@@ -0,0 +1,716 @@
+package ceri.common.collect;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import ceri.common.except.Exceptions;
+import ceri.common.reflect.Reflect;
+
+/**
+ * Compact immutable collections, copied into exact-size arrays. Used by Immutable factory methods
+ * for read-mostly lookup tables: there are no entry objects and no wrapper indirection. Nulls are
+ * allowed, and iteration follows the order of the source collection.
+ * <ul>
+ * <li>list: a flat array</li>
+ * <li>set and map: keys and values in arrays, with an open-addressing table of indexes; small
+ * key sets use a table size with no collisions, so lookups take a single probe</li>
+ * <li>sorted map: sorted key and value arrays, with binary search; sub-maps share the arrays</li>
+ * </ul>
+ */
+class Compact {
+	private static final int PERFECT_MAX = 64; // max keys to search for a perfect table
+	private static final int PERFECT_BITS = 3; // max extra table bits for a perfect table
+	private static final int GOLDEN = 0x9e3779b9;
+
+	private Compact() {}
+
+	/**
+	 * Copies the list into a flat array list.
+	 */
+	public static <T> List<T> list(Collection<? extends T> list) {
+		if (list == null || list.isEmpty()) return Immutable.list();
+		return new FlatList<>(list.toArray());
+	}
+
+	/**
+	 * Copies the set into an open-addressing set.
+	 */
+	public static <T> Set<T> set(Collection<? extends T> set) {
+		if (set == null || set.isEmpty()) return Immutable.set();
+		var keys = set.toArray();
+		return new OpenSet<>(keys, Table.of(keys));
+	}
+
+	/**
+	 * Copies the map into an open-addressing map.
+	 */
+	public static <K, V> Map<K, V> map(Map<? extends K, ? extends V> map) {
+		if (map == null || map.isEmpty()) return Immutable.map();
+		var keys = new Object[map.size()];
+		var values = new Object[keys.length];
+		copy(map, keys, values);
+		return new OpenMap<>(keys, values, Table.of(keys));
+	}
+
+	/**
+	 * Copies the sorted map into a sorted-array map, with the same comparator.
+	 */
+	public static <K, V> SortedMap<K, V> sortedMap(SortedMap<K, ? extends V> map) {
+		if (map == null) return null;
+		var keys = new Object[map.size()];
+		var values = new Object[keys.length];
+		copy(map, keys, values);
+		return new SortedArrayMap<>(keys, values, 0, keys.length, map.comparator());
+	}
+
+	private static void copy(Map<?, ?> map, Object[] keys, Object[] values) {
+		int i = 0;
+		for (var entry : map.entrySet()) {
+			keys[i] = entry.getKey();
+			values[i++] = entry.getValue();
+		}
+	}
+
+	/**
+	 * An open-addressing table of key indexes, with linear probing. Slots hold index + 1, with 0
+	 * for an empty slot.
+	 */
+	static class Table {
+		private final Object[] keys;
+		private final int[] slots;
+		private final int shift;
+
+		public static Table of(Object[] keys) {
+			int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(keys.length * 2 - 1));
+			if (keys.length <= PERFECT_MAX) for (int b = bits; b <= bits + PERFECT_BITS; b++) {
+				var table = new Table(keys, b);
+				if (table.perfect()) return table;
+			}
+			return new Table(keys, bits);
+		}
+
+		private Table(Object[] keys, int bits) {
+			this.keys = keys;
+			slots = new int[1 << bits];
+			shift = 32 - bits;
+			for (int i = 0; i < keys.length; i++)
+				slots[free(keys[i])] = i + 1;
+		}
+
+		/**
+		 * Returns the key index, or -1 if not found.
+		 */
+		public int indexOf(Object key) {
+			int mask = slots.length - 1;
+			for (int i = slot(key);; i = (i + 1) & mask) {
+				int index = slots[i] - 1;
+				if (index < 0) return -1;
+				var k = keys[index];
+				if (k == key || (key != null && key.equals(k))) return index;
+			}
+		}
+
+		/**
+		 * Returns the maximum number of probes for a key lookup.
+		 */
+		public int maxProbes() {
+			int max = 0;
+			for (var key : keys) {
+				int probes = 1;
+				for (int i = slot(key); keys[slots[i] - 1] != key; i = (i + 1) & (slots.length - 1))
+					probes++;
+				max = Math.max(max, probes);
+			}
+			return max;
+		}
+
+		private boolean perfect() {
+			for (var key : keys)
+				if (keys[slots[slot(key)] - 1] != key) return false;
+			return true;
+		}
+
+		private int free(Object key) {
+			int mask = slots.length - 1;
+			int i = slot(key);
+			while (slots[i] != 0)
+				i = (i + 1) & mask;
+			return i;
+		}
+
+		private int slot(Object key) {
+			return (Objects.hashCode(key) * GOLDEN) >>> shift;
+		}
+	}
+
+	/**
+	 * Iterates over an array range.
+	 */
+	private static class ArrayIterator<T> implements Iterator<T> {
+		private final Object[] array;
+		private final int end;
+		private int i;
+
+		public ArrayIterator(Object[] array, int start, int end) {
+			this.array = array;
+			this.end = end;
+			i = start;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return i < end;
+		}
+
+		@Override
+		public T next() {
+			if (i >= end) throw new NoSuchElementException();
+			return Reflect.unchecked(array[i++]);
+		}
+	}
+
+	/**
+	 * An immutable list backed by an exact-size array.
+	 */
+	static class FlatList<T> extends AbstractList<T> implements RandomAccess {
+		private final Object[] array;
+
+		private FlatList(Object[] array) {
+			this.array = array;
+		}
+
+		@Override
+		public T get(int index) {
+			return Reflect.unchecked(array[Objects.checkIndex(index, array.length)]);
+		}
+
+		@Override
+		public int size() {
+			return array.length;
+		}
+
+		@Override
+		public int indexOf(Object o) {
+			for (int i = 0; i < array.length; i++)
+				if (Objects.equals(o, array[i])) return i;
+			return -1;
+		}
+
+		@Override
+		public int lastIndexOf(Object o) {
+			for (int i = array.length - 1; i >= 0; i--)
+				if (Objects.equals(o, array[i])) return i;
+			return -1;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return indexOf(o) >= 0;
+		}
+
+		@Override
+		public Object[] toArray() {
+			return array.clone();
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new ArrayIterator<>(array, 0, array.length);
+		}
+
+		@Override
+		public void forEach(Consumer<? super T> action) {
+			for (var t : array)
+				action.accept(Reflect.unchecked(t));
+		}
+
+		@Override
+		public boolean add(T e) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends T> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super T> filter) {
+			throw unsupported();
+		}
+
+		@Override
+		public void replaceAll(UnaryOperator<T> operator) {
+			throw unsupported();
+		}
+
+		@Override
+		public void sort(Comparator<? super T> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public void clear() {
+			throw unsupported();
+		}
+	}
+
+	/**
+	 * Base for immutable collection views; all mutators fail, regardless of arguments.
+	 */
+	private static abstract class ReadOnlyCollection<T> extends AbstractCollection<T> {
+		@Override
+		public boolean add(T e) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends T> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> c) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super T> filter) {
+			throw unsupported();
+		}
+
+		@Override
+		public void clear() {
+			throw unsupported();
+		}
+	}
+
+	/**
+	 * Base for immutable set views.
+	 */
+	private static abstract class ReadOnlySet<T> extends ReadOnlyCollection<T> implements Set<T> {
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) return true;
+			if (!(obj instanceof Set<?> set) || set.size() != size()) return false;
+			try {
+				return containsAll(set);
+			} catch (ClassCastException | NullPointerException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = 0;
+			for (var t : this)
+				hash += Objects.hashCode(t);
+			return hash;
+		}
+	}
+
+	/**
+	 * An immutable set with keys in an array, and an open-addressing index table.
+	 */
+	static class OpenSet<T> extends ReadOnlySet<T> {
+		private final Object[] keys;
+		final Table table;
+
+		private OpenSet(Object[] keys, Table table) {
+			this.keys = keys;
+			this.table = table;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return table.indexOf(o) >= 0;
+		}
+
+		@Override
+		public int size() {
+			return keys.length;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return new ArrayIterator<>(keys, 0, keys.length);
+		}
+
+		@Override
+		public Object[] toArray() {
+			return keys.clone();
+		}
+
+		@Override
+		public void forEach(Consumer<? super T> action) {
+			for (var t : keys)
+				action.accept(Reflect.unchecked(t));
+		}
+
+	}
+
+	/**
+	 * Base immutable map with keys and values in arrays. Entry, key and value views are created
+	 * on demand.
+	 */
+	private static abstract class ArrayMap<K, V> extends AbstractMap<K, V> {
+		final Object[] keys;
+		final Object[] values;
+		final int start;
+		final int end;
+
+		protected ArrayMap(Object[] keys, Object[] values, int start, int end) {
+			this.keys = keys;
+			this.values = values;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Returns the key index, or -1 if not found.
+		 */
+		protected abstract int indexOf(Object key);
+
+		@Override
+		public V get(Object key) {
+			int i = indexOf(key);
+			return i < 0 ? null : Reflect.unchecked(values[i]);
+		}
+
+		@Override
+		public V getOrDefault(Object key, V defaultValue) {
+			int i = indexOf(key);
+			return i < 0 ? defaultValue : Reflect.unchecked(values[i]);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return indexOf(key) >= 0;
+		}
+
+		@Override
+		public boolean containsValue(Object value) {
+			for (int i = start; i < end; i++)
+				if (Objects.equals(value, values[i])) return true;
+			return false;
+		}
+
+		@Override
+		public int size() {
+			return end - start;
+		}
+
+		@Override
+		public void forEach(BiConsumer<? super K, ? super V> action) {
+			for (int i = start; i < end; i++)
+				action.accept(Reflect.unchecked(keys[i]), Reflect.unchecked(values[i]));
+		}
+
+		@Override
+		public Set<K> keySet() {
+			return new ReadOnlySet<>() {
+				@Override
+				public Iterator<K> iterator() {
+					return new ArrayIterator<>(keys, start, end);
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					return containsKey(o);
+				}
+
+				@Override
+				public int size() {
+					return ArrayMap.this.size();
+				}
+			};
+		}
+
+		@Override
+		public Collection<V> values() {
+			return new ReadOnlyCollection<>() {
+				@Override
+				public Iterator<V> iterator() {
+					return new ArrayIterator<>(values, start, end);
+				}
+
+				@Override
+				public int size() {
+					return ArrayMap.this.size();
+				}
+			};
+		}
+
+		@Override
+		public Set<Entry<K, V>> entrySet() {
+			return new ReadOnlySet<>() {
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new Iterator<>() {
+						private int i = start;
+
+						@Override
+						public boolean hasNext() {
+							return i < end;
+						}
+
+						@Override
+						public Entry<K, V> next() {
+							if (i >= end) throw new NoSuchElementException();
+							var entry = new SimpleImmutableEntry<K, V>(Reflect.unchecked(keys[i]),
+								Reflect.unchecked(values[i]));
+							i++;
+							return entry;
+						}
+					};
+				}
+
+				@Override
+				public boolean contains(Object o) {
+					if (!(o instanceof Entry<?, ?> entry)) return false;
+					int i = indexOf(entry.getKey());
+					return i >= 0 && Objects.equals(values[i], entry.getValue());
+				}
+
+				@Override
+				public int size() {
+					return ArrayMap.this.size();
+				}
+			};
+		}
+
+		@Override
+		public V put(K key, V value) {
+			throw unsupported();
+		}
+
+		@Override
+		public void putAll(Map<? extends K, ? extends V> m) {
+			throw unsupported();
+		}
+
+		@Override
+		public V remove(Object key) {
+			throw unsupported();
+		}
+
+		@Override
+		public void clear() {
+			throw unsupported();
+		}
+
+		@Override
+		public V putIfAbsent(K key, V value) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean remove(Object key, Object value) {
+			throw unsupported();
+		}
+
+		@Override
+		public boolean replace(K key, V oldValue, V newValue) {
+			throw unsupported();
+		}
+
+		@Override
+		public V replace(K key, V value) {
+			throw unsupported();
+		}
+
+		@Override
+		public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+			throw unsupported();
+		}
+
+		@Override
+		public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+			throw unsupported();
+		}
+
+		@Override
+		public V computeIfPresent(K key,
+			BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+			throw unsupported();
+		}
+
+		@Override
+		public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+			throw unsupported();
+		}
+
+		@Override
+		public V merge(K key, V value,
+			BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+			throw unsupported();
+		}
+	}
+
+	/**
+	 * An immutable map with an open-addressing index table.
+	 */
+	static class OpenMap<K, V> extends ArrayMap<K, V> {
+		final Table table;
+
+		private OpenMap(Object[] keys, Object[] values, Table table) {
+			super(keys, values, 0, keys.length);
+			this.table = table;
+		}
+
+		@Override
+		protected int indexOf(Object key) {
+			return table.indexOf(key);
+		}
+	}
+
+	/**
+	 * An immutable sorted map, with binary search over sorted key and value arrays. Sub-maps are
+	 * views over a range of the arrays, and keep the bounds they were created with; as with
+	 * TreeMap, a sub-map fails with IllegalArgumentException for bounds outside its range.
+	 */
+	static class SortedArrayMap<K, V> extends ArrayMap<K, V> implements SortedMap<K, V> {
+		private static final Object OPEN = new Object();
+		private final Comparator<? super K> comparator;
+		private final Object lo; // inclusive, or OPEN
+		private final Object hi; // exclusive, or OPEN
+
+		private SortedArrayMap(Object[] keys, Object[] values, int start, int end,
+			Comparator<? super K> comparator) {
+			this(keys, values, start, end, comparator, OPEN, OPEN);
+		}
+
+		private SortedArrayMap(Object[] keys, Object[] values, int start, int end,
+			Comparator<? super K> comparator, Object lo, Object hi) {
+			super(keys, values, start, end);
+			this.comparator = comparator;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		public Comparator<? super K> comparator() {
+			return comparator;
+		}
+
+		@Override
+		public K firstKey() {
+			if (isEmpty()) throw new NoSuchElementException();
+			return Reflect.unchecked(keys[start]);
+		}
+
+		@Override
+		public K lastKey() {
+			if (isEmpty()) throw new NoSuchElementException();
+			return Reflect.unchecked(keys[end - 1]);
+		}
+
+		@Override
+		public SortedMap<K, V> subMap(K fromKey, K toKey) {
+			if (compare(fromKey, toKey) > 0)
+				throw Exceptions.illegalArg("fromKey > toKey: %s, %s", fromKey, toKey);
+			verifyRange("fromKey", fromKey, false);
+			verifyRange("toKey", toKey, true);
+			return sub(lower(fromKey), lower(toKey), fromKey, toKey);
+		}
+
+		@Override
+		public SortedMap<K, V> headMap(K toKey) {
+			verifyRange("toKey", toKey, true);
+			return sub(start, lower(toKey), lo, toKey);
+		}
+
+		@Override
+		public SortedMap<K, V> tailMap(K fromKey) {
+			verifyRange("fromKey", fromKey, false);
+			return sub(lower(fromKey), end, fromKey, hi);
+		}
+
+		@Override
+		protected int indexOf(Object key) {
+			int i = lower(key);
+			return i < end && compare(keys[i], key) == 0 ? i : -1;
+		}
+
+		private SortedMap<K, V> sub(int start, int end, Object lo, Object hi) {
+			return new SortedArrayMap<>(keys, values, start, end, comparator, lo, hi);
+		}
+
+		/**
+		 * Fails if the key is outside the sub-map bounds. A key for an upper bound may equal the
+		 * exclusive upper bound.
+		 */
+		private void verifyRange(String name, Object key, boolean upper) {
+			boolean tooLow = lo != OPEN && compare(key, lo) < 0;
+			int c = hi == OPEN ? -1 : compare(key, hi);
+			if (tooLow || c > 0 || (c == 0 && !upper))
+				throw Exceptions.illegalArg("%s out of range: %s", name, key);
+		}
+
+		/**
+		 * Returns the index of the first key not less than the given key.
+		 */
+		private int lower(Object key) {
+			int lo = start;
+			int hi = end;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (compare(keys[mid], key) < 0) lo = mid + 1;
+				else hi = mid;
+			}
+			return lo;
+		}
+
+		private int compare(Object k0, Object k1) {
+			if (comparator != null) return comparator.compare(Reflect.unchecked(k0),
+				Reflect.unchecked(k1));
+			Comparable<Object> c = Reflect.unchecked(k0);
+			return c.compareTo(k1);
+		}
+	}
+
+	private static UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException();
+	}
+}
@@ -32,15 +32,16 @@ public class Immutable {
 	 * Provides unmodifiable collection wrappers and compatible mutable collections.
 	 */
 	public static class Wrap<T> { // implements Functions.Function<T, T> {
-		private static final Wrap<Collection<?>> COLLECT =
-			new Wrap<>(Collections::unmodifiableCollection, Collections::emptyList, Lists::of);
-		private static final Wrap<SequencedCollection<?>> SEQ_COLLECT = new Wrap<>(
-			Collections::unmodifiableSequencedCollection, Collections::emptyList, Lists::of);
-		private static final Wrap<List<?>> LIST =
-			new Wrap<>(Collections::unmodifiableList, Collections::emptyList, Lists::of);
+		private static final Wrap<Collection<?>> COLLECT = new Wrap<>(
+			Collections::unmodifiableCollection, Compact::list, Collections::emptyList, Lists::of);
+		private static final Wrap<SequencedCollection<?>> SEQ_COLLECT =
+			new Wrap<>(Collections::unmodifiableSequencedCollection, Compact::list,
+				Collections::emptyList, Lists::of);
+		private static final Wrap<List<?>> LIST = new Wrap<>(Collections::unmodifiableList,
+			Compact::list, Collections::emptyList, Lists::of);
 		private static final Wrap<List<?>> LINK_LIST = LIST.to(Lists::link);
 		private static final Wrap<Set<?>> SET =
-			new Wrap<>(Collections::unmodifiableSet, Collections::emptySet, Sets::of);
+			new Wrap<>(Collections::unmodifiableSet, Compact::set, Collections::emptySet, Sets::of);
 		private static final Wrap<SequencedSet<?>> SEQ_SET = new Wrap<>(
 			Collections::unmodifiableSequencedSet, Collections::emptySortedSet, Sets::link);
 		private static final Wrap<SortedSet<?>> SORT_SET =
@@ -49,15 +50,17 @@ public class Immutable {
 			Collections::unmodifiableNavigableSet, Collections::emptyNavigableSet, Sets::tree);
 		private static final Wrap<Set<?>> ID_SET = SET.to(Sets::id);
 		private static final Wrap<Map<?, ?>> MAP =
-			new Wrap<>(Collections::unmodifiableMap, Collections::emptyMap, Maps::of);
+			new Wrap<>(Collections::unmodifiableMap, Compact::map, Collections::emptyMap, Maps::of);
 		private static final Wrap<SequencedMap<?, ?>> SEQ_MAP = new Wrap<>(
 			Collections::unmodifiableSequencedMap, Collections::emptySortedMap, Maps::link);
-		private static final Wrap<SortedMap<?, ?>> SORT_MAP =
-			new Wrap<>(Collections::unmodifiableSortedMap, Collections::emptySortedMap, Maps::tree);
+		private static final Wrap<SortedMap<?, ?>> SORT_MAP = new Wrap<>(
+			Collections::unmodifiableSortedMap, Compact::sortedMap, Collections::emptySortedMap,
+			Maps::tree);
 		private static final Wrap<NavigableMap<?, ?>> NAV_MAP = new Wrap<>(
 			Collections::unmodifiableNavigableMap, Collections::emptyNavigableMap, Maps::tree);
 		private static final Wrap<Map<?, ?>> ID_MAP = MAP.to(Maps::id);
 		private final Functions.Operator<T> wrapper;
+		private final Functions.Operator<T> compactor;
 		private final Functions.Supplier<? extends T> supplier;
 		private final Functions.Supplier<? extends T> emptySupplier;
 
@@ -189,13 +192,21 @@ public class Immutable {
 
 		private Wrap(Functions.Operator<T> wrapper, Functions.Supplier<? extends T> emptySupplier,
 			Functions.Supplier<? extends T> supplier) {
+			this(wrapper, wrapper, emptySupplier, supplier);
+		}
+
+		private <U extends T> Wrap(Functions.Operator<T> wrapper,
+			Functions.Function<? super T, U> compactor,
+			Functions.Supplier<? extends T> emptySupplier, Functions.Supplier<? extends T> supplier) {
 			this.wrapper = wrapper;
+			this.compactor = compactor::apply;
 			this.supplier = supplier;
 			this.emptySupplier = emptySupplier;
 		}
 
 		/**
-		 * Creates a copy of the wrapper with a new collection supplier.
+		 * Creates a copy of the wrapper with a new collection supplier. The new collection type is
+		 * kept in the wrapped collection, without compacting.
 		 */
 		public Wrap<T> to(Functions.Supplier<? extends T> supplier) {
 			if (supplier == null) return this;
@@ -224,13 +235,23 @@ public class Immutable {
 		}
 
 		/**
-		 * Wraps a new type as unmodifiable, after applying the populator.
+		 * Converts a new collection to immutable form; converts null to empty collection. List,
+		 * set, map and sorted map types are copied to compact array storage, as the new collection
+		 * is not referenced elsewhere. Other types are wrapped as unmodifiable.
+		 */
+		public T freeze(T type) {
+			if (type == null) return empty();
+			return compactor.apply(type);
+		}
+
+		/**
+		 * Creates a new immutable type, after applying the populator.
 		 */
 		public <E extends Exception> T wrap(Excepts.Consumer<E, ? super T> populator) throws E {
 			if (populator == null) return empty();
 			var type = mutable();
 			populator.accept(type);
-			return apply(type);
+			return freeze(type);
 		}
 	}
 
@@ -366,7 +387,7 @@ public class Immutable {
 	public static <T, C extends Collection<T>> C of(Wrap<C> wrap, T[] array, int offset,
 		int length) {
 		if (wrap == null) return null;
-		return wrap.apply(Collectable.add(wrap.mutable(), array, offset, length));
+		return wrap.freeze(Collectable.add(wrap.mutable(), array, offset, length));
 	}
 
 	/**
@@ -374,7 +395,7 @@ public class Immutable {
 	 */
 	public static <T, C extends Collection<T>> C of(Wrap<C> wrap, Iterable<? extends T> values) {
 		if (wrap == null) return null;
-		return wrap.apply(Collectable.add(wrap.mutable(), values));
+		return wrap.freeze(Collectable.add(wrap.mutable(), values));
 	}
 
 	/**
@@ -383,7 +404,7 @@ public class Immutable {
 	public static <K, V, M extends Map<K, V>> M of(Wrap<M> wrap,
 		Map<? extends K, ? extends V> map) {
 		if (wrap == null) return null;
-		return wrap.apply(Maps.put(wrap.mutable(), map));
+		return wrap.freeze(Maps.put(wrap.mutable(), map));
 	}
 
 	/**
@@ -454,7 +475,7 @@ public class Immutable {
 		Excepts.Function<? extends E, ? super T, ? extends U> mapper, T[] array, int offset,
 		int length) throws E {
 		if (wrap == null) return null;
-		return wrap.apply(Collectable.adaptAdd(wrap.mutable(), mapper, array, offset, length));
+		return wrap.freeze(Collectable.adaptAdd(wrap.mutable(), mapper, array, offset, length));
 	}
 
 	/**
@@ -462,7 +483,7 @@ public class Immutable {
 	 */
 	public static <E extends Exception, T, U, C extends Collection<U>> C adapt(Wrap<C> wrap,
 		Excepts.Function<? extends E, ? super T, ? extends U> mapper, Iterable<T> values) throws E {
-		return wrap.apply(Collectable.adaptAdd(wrap.mutable(), mapper, values));
+		return wrap.freeze(Collectable.adaptAdd(wrap.mutable(), mapper, values));
 	}
 
 	/**
@@ -472,7 +493,7 @@ public class Immutable {
 		Excepts.Function<? extends E, ? super K, ? extends T> keyMapper,
 		Excepts.Function<? extends E, ? super V, ? extends U> valueMapper, Map<K, V> map) throws E {
 		if (wrap == null) return null;
-		return wrap.apply(Maps.adaptPut(wrap.mutable(), keyMapper, valueMapper, map));
+		return wrap.freeze(Maps.adaptPut(wrap.mutable(), keyMapper, valueMapper, map));
 	}
 
 	/**
@@ -483,7 +504,7 @@ public class Immutable {
 		Excepts.BiFunction<? extends E, ? super K, ? super V, ? extends U> valueMapper,
 		Map<K, V> map) throws E {
 		if (wrap == null) return null;
-		return wrap.apply(Maps.biAdaptPut(wrap.mutable(), keyMapper, valueMapper, map));
+		return wrap.freeze(Maps.biAdaptPut(wrap.mutable(), keyMapper, valueMapper, map));
 	}
 
 	/**
@@ -492,7 +513,7 @@ public class Immutable {
 	public static <K, V, R extends Map<V, K>> R invert(Wrap<R> wrap,
 		Map<? extends K, ? extends V> map) {
 		if (wrap == null) return null;
-		return wrap.apply(Maps.invertPut(wrap.mutable(), map));
+		return wrap.freeze(Maps.invertPut(wrap.mutable(), map));
 	}
 
 	/**
@@ -502,7 +523,7 @@ public class Immutable {
 		Excepts.BiFunction<? extends E, ? super K, ? super V, ? extends T> unmapper, Map<K, V> map)
 		throws E {
 		if (wrap == null) return null;
-		return wrap.apply(Collectable.convertAdd(wrap.mutable(), unmapper, map));
+		return wrap.freeze(Collectable.convertAdd(wrap.mutable(), unmapper, map));
 	}
 
 	/**
@@ -534,7 +555,7 @@ public class Immutable {
 		int length) throws E {
 		if (wrap == null) return null;
 		return wrap
-			.apply(Maps.convertPut(wrap.mutable(), keyMapper, valueMapper, values, offset, length));
+			.freeze(Maps.convertPut(wrap.mutable(), keyMapper, valueMapper, values, offset, length));
 	}
 
 	/**
@@ -545,7 +566,7 @@ public class Immutable {
 		Excepts.Function<? extends E, ? super T, ? extends V> valueMapper, Iterable<T> values)
 		throws E {
 		if (wrap == null) return null;
-		return wrap.apply(Maps.convertPut(wrap.mutable(), keyMapper, valueMapper, values));
+		return wrap.freeze(Maps.convertPut(wrap.mutable(), keyMapper, valueMapper, values));
 	}
 
 	// lists
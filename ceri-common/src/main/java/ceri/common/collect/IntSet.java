@@ -0,0 +1,152 @@
+package ceri.common.collect;
+
+import ceri.common.function.Excepts;
+import ceri.common.stream.IntStream;
+
+/**
+ * A set of primitive int values in an open-addressing hash table, without boxing. Values may be
+ * stored on heap, or off heap to keep large sets out of the garbage-collected heap. Iteration
+ * order is not defined, and the set must not be modified while iterating. Not thread-safe.
+ */
+public class IntSet {
+	private static final int SIZE_DEF = 16;
+	private final IntTable table;
+
+	/**
+	 * Creates a heap set containing the values.
+	 */
+	public static IntSet of(int... values) {
+		var set = sized(values.length);
+		for (int value : values)
+			set.add(value);
+		return set;
+	}
+
+	/**
+	 * Creates a heap set containing the stream values.
+	 */
+	public static <E extends Exception> IntSet from(IntStream<E> stream) throws E {
+		var set = sized(SIZE_DEF);
+		stream.forEach(set::add);
+		return set;
+	}
+
+	/**
+	 * Creates an empty heap set with capacity for the expected number of values.
+	 */
+	public static IntSet sized(int expected) {
+		return new IntSet(new IntTable(expected, false, false));
+	}
+
+	/**
+	 * Creates an empty off-heap set with capacity for the expected number of values. Memory is
+	 * released when the set is no longer reachable.
+	 */
+	public static IntSet direct(int expected) {
+		return new IntSet(new IntTable(expected, true, false));
+	}
+
+	private IntSet(IntTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns true if values are stored off heap.
+	 */
+	public boolean direct() {
+		return table.direct();
+	}
+
+	public int size() {
+		return table.size();
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(int value) {
+		return table.find(value) >= 0;
+	}
+
+	/**
+	 * Adds the value, and returns true if not already present.
+	 */
+	public boolean add(int value) {
+		return table.insert(value) < 0;
+	}
+
+	/**
+	 * Removes the value, and returns true if it was present.
+	 */
+	public boolean remove(int value) {
+		int i = table.find(value);
+		if (i < 0) return false;
+		table.removeAt(i);
+		return true;
+	}
+
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Passes each value to the consumer.
+	 */
+	public <E extends Exception> void forEach(Excepts.IntConsumer<E> consumer) throws E {
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			consumer.accept(table.key(i));
+	}
+
+	/**
+	 * Streams the values.
+	 */
+	public IntStream<RuntimeException> stream() {
+		return IntStream.from(table.keys());
+	}
+
+	/**
+	 * Copies the values to an array.
+	 */
+	public int[] toArray() {
+		var array = new int[size()];
+		int n = 0;
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			array[n++] = table.key(i);
+		return array;
+	}
+
+	/**
+	 * Approximate memory used by the table, in bytes.
+	 */
+	public long bytes() {
+		return table.bytes();
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			hash += Integer.hashCode(table.key(i));
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof IntSet other) || size() != other.size()) return false;
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			if (!other.contains(table.key(i))) return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		var b = new StringBuilder().append('[');
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1)) {
+			if (b.length() > 1) b.append(", ");
+			b.append(table.key(i));
+		}
+		return b.append(']').toString();
+	}
+}
@@ -0,0 +1,262 @@
+package ceri.common.collect;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * An open-addressing hash table of int keys with linear probing, and optional object values. Key
+ * 0 marks an empty slot, so a 0 key is held in an extra slot after the table. Removal shifts
+ * entries back rather than leaving deleted markers, so lookups stay short after churn. Keys are
+ * stored in a heap array, or in off-heap memory that is released when no longer reachable. Not
+ * thread-safe.
+ */
+class IntTable {
+	private static final int CAPACITY_MIN = 8;
+	private static final int CAPACITY_MAX = 1 << 30;
+	private final boolean direct;
+	private final boolean hasValues;
+	private Keys keys;
+	private Object[] values;
+	private int capacity;
+	private int mask;
+	private int limit;
+	private int size = 0;
+	private boolean zero = false;
+
+	/**
+	 * Key storage.
+	 */
+	private interface Keys {
+		int get(int i);
+
+		void set(int i, int key);
+
+		void clear();
+	}
+
+	/**
+	 * Keys stored in a heap array.
+	 */
+	private record HeapKeys(int[] array) implements Keys {
+		@Override
+		public int get(int i) {
+			return array[i];
+		}
+
+		@Override
+		public void set(int i, int key) {
+			array[i] = key;
+		}
+
+		@Override
+		public void clear() {
+			Arrays.fill(array, 0);
+		}
+	}
+
+	/**
+	 * Keys stored in off-heap memory, released by the garbage collector.
+	 */
+	private record DirectKeys(MemorySegment segment) implements Keys {
+		@Override
+		public int get(int i) {
+			return segment.getAtIndex(ValueLayout.JAVA_INT, i);
+		}
+
+		@Override
+		public void set(int i, int key) {
+			segment.setAtIndex(ValueLayout.JAVA_INT, i, key);
+		}
+
+		@Override
+		public void clear() {
+			segment.fill((byte) 0);
+		}
+	}
+
+	public IntTable(int expected, boolean direct, boolean hasValues) {
+		this.direct = direct;
+		this.hasValues = hasValues;
+		allocate(capacity(expected));
+	}
+
+	public boolean direct() {
+		return direct;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The number of key slots, excluding the 0 key slot.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the slot index of the key, or -1 if not present.
+	 */
+	public int find(int key) {
+		if (key == 0) return zero ? capacity : -1;
+		for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+			int k = keys.get(i);
+			if (k == key) return i;
+			if (k == 0) return -1;
+		}
+	}
+
+	/**
+	 * Adds the key if not present. Returns the slot index if the key exists, or -(index + 1) for
+	 * a newly added key.
+	 */
+	public int insert(int key) {
+		if (key == 0) {
+			if (zero) return capacity;
+			zero = true;
+			size++;
+			return -capacity - 1;
+		}
+		int i = hash(key) & mask;
+		for (int k; (k = keys.get(i)) != 0; i = (i + 1) & mask)
+			if (k == key) return i;
+		keys.set(i, key);
+		if (++size <= limit) return -i - 1;
+		rehash(capacity << 1);
+		return -find(key) - 1;
+	}
+
+	public int key(int i) {
+		return i == capacity ? 0 : keys.get(i);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <V> V value(int i) {
+		return (V) values[i];
+	}
+
+	public void value(int i, Object value) {
+		values[i] = value;
+	}
+
+	/**
+	 * Removes the entry at the slot index, shifting back any following entries displaced by
+	 * collision.
+	 */
+	public void removeAt(int i) {
+		size--;
+		if (hasValues) values[i] = null;
+		if (i == capacity) {
+			zero = false;
+			return;
+		}
+		for (int last = i;; last = i) {
+			for (i = (last + 1) & mask;; i = (i + 1) & mask) {
+				int k = keys.get(i);
+				if (k == 0) {
+					keys.set(last, 0);
+					if (hasValues) values[last] = null;
+					return;
+				}
+				int slot = hash(k) & mask;
+				if (last <= i ? (last >= slot || slot > i) : (last >= slot && slot > i)) {
+					keys.set(last, k);
+					if (hasValues) values[last] = values[i];
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the next occupied slot index from the given index, or -1 if no more entries.
+	 */
+	public int next(int i) {
+		for (; i < capacity; i++)
+			if (keys.get(i) != 0) return i;
+		return i == capacity && zero ? capacity : -1;
+	}
+
+	public void clear() {
+		if (size == 0) return;
+		keys.clear();
+		if (hasValues) Arrays.fill(values, null);
+		size = 0;
+		zero = false;
+	}
+
+	/**
+	 * Iterates over keys.
+	 */
+	public PrimitiveIterator.OfInt keys() {
+		return new PrimitiveIterator.OfInt() {
+			private int i = IntTable.this.next(0);
+
+			@Override
+			public boolean hasNext() {
+				return i >= 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (i < 0) throw new NoSuchElementException();
+				int key = key(i);
+				i = IntTable.this.next(i + 1);
+				return key;
+			}
+		};
+	}
+
+	/**
+	 * Approximate memory used by the table, in bytes.
+	 */
+	public long bytes() {
+		long bytes = (long) capacity * Integer.BYTES;
+		if (hasValues) bytes += (long) (capacity + 1) * Integer.BYTES; // compressed references
+		return bytes;
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	private static int capacity(int expected) {
+		long n = Math.max(CAPACITY_MIN, (long) expected * 3 / 2 + 1);
+		if (n >= CAPACITY_MAX) return CAPACITY_MAX;
+		return Integer.highestOneBit((int) n - 1) << 1;
+	}
+
+	private void allocate(int capacity) {
+		if (capacity <= 0 || capacity > CAPACITY_MAX)
+			throw new IllegalStateException("Table is full: " + size);
+		this.capacity = capacity;
+		mask = capacity - 1;
+		limit = capacity / 4 * 3;
+		keys = direct ? new DirectKeys(Arena.ofAuto().allocate(ValueLayout.JAVA_INT, capacity)) :
+			new HeapKeys(new int[capacity]);
+		values = hasValues ? new Object[capacity + 1] : null;
+	}
+
+	private void rehash(int newCapacity) {
+		var oldKeys = keys;
+		var oldValues = values;
+		int oldCapacity = capacity;
+		allocate(newCapacity);
+		for (int i = 0; i < oldCapacity; i++) {
+			int key = oldKeys.get(i);
+			if (key == 0) continue;
+			int j = hash(key) & mask;
+			while (keys.get(j) != 0)
+				j = (j + 1) & mask;
+			keys.set(j, key);
+			if (hasValues) values[j] = oldValues[i];
+		}
+		if (hasValues) values[capacity] = oldValues[oldCapacity];
+	}
+}
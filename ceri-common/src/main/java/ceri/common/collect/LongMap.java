@@ -0,0 +1,192 @@
+package ceri.common.collect;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import ceri.common.function.Functions;
+import ceri.common.stream.LongStream;
+import ceri.common.stream.Stream;
+
+/**
+ * A map of primitive long keys to values in an open-addressing hash table, without boxing keys.
+ * Keys may be stored on heap, or off heap to keep large key tables out of the garbage-collected
+ * heap; values are always heap references. Null values are permitted. Iteration order is not
+ * defined, and the map must not be modified while iterating. Not thread-safe.
+ */
+public class LongMap<V> {
+	private static final int SIZE_DEF = 16;
+	private final LongTable table;
+
+	/**
+	 * Receives a key and value.
+	 */
+	@FunctionalInterface
+	public interface Consumer<E extends Exception, V> {
+		void accept(long key, V value) throws E;
+	}
+
+	/**
+	 * Creates an empty heap map.
+	 */
+	public static <V> LongMap<V> of() {
+		return sized(SIZE_DEF);
+	}
+
+	/**
+	 * Creates an empty heap map with capacity for the expected number of entries.
+	 */
+	public static <V> LongMap<V> sized(int expected) {
+		return new LongMap<>(new LongTable(expected, false, true));
+	}
+
+	/**
+	 * Creates an empty map with off-heap keys, and capacity for the expected number of entries.
+	 * Memory is released when the map is no longer reachable.
+	 */
+	public static <V> LongMap<V> direct(int expected) {
+		return new LongMap<>(new LongTable(expected, true, true));
+	}
+
+	private LongMap(LongTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns true if keys are stored off heap.
+	 */
+	public boolean direct() {
+		return table.direct();
+	}
+
+	public int size() {
+		return table.size();
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return table.find(key) >= 0;
+	}
+
+	/**
+	 * Returns the value for the key, or null if not present.
+	 */
+	public V get(long key) {
+		return getOrDefault(key, null);
+	}
+
+	/**
+	 * Returns the value for the key, or the default if not present.
+	 */
+	public V getOrDefault(long key, V def) {
+		int i = table.find(key);
+		return i < 0 ? def : table.value(i);
+	}
+
+	/**
+	 * Sets the value for the key, and returns the previous value, or null if not present.
+	 */
+	public V put(long key, V value) {
+		int i = table.insert(key);
+		if (i < 0) {
+			table.value(-i - 1, value);
+			return null;
+		}
+		V old = table.value(i);
+		table.value(i, value);
+		return old;
+	}
+
+	/**
+	 * Sets the value if the key is not present. Returns the existing value, or null if not
+	 * present.
+	 */
+	public V putIfAbsent(long key, V value) {
+		int i = table.insert(key);
+		if (i >= 0) return table.value(i);
+		table.value(-i - 1, value);
+		return null;
+	}
+
+	/**
+	 * Returns the value for the key, or calls the function to create and add the value if not
+	 * present.
+	 */
+	public V computeIfAbsent(long key, Functions.LongFunction<? extends V> fn) {
+		int i = table.find(key);
+		if (i >= 0) return table.value(i);
+		V value = fn.apply(key);
+		table.value(-table.insert(key) - 1, value);
+		return value;
+	}
+
+	/**
+	 * Removes the key, and returns its value, or null if not present.
+	 */
+	public V remove(long key) {
+		int i = table.find(key);
+		if (i < 0) return null;
+		V value = table.value(i);
+		table.removeAt(i);
+		return value;
+	}
+
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Passes each key and value to the consumer.
+	 */
+	public <E extends Exception> void forEach(Consumer<E, ? super V> consumer) throws E {
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			consumer.accept(table.key(i), table.value(i));
+	}
+
+	/**
+	 * Streams the keys.
+	 */
+	public LongStream<RuntimeException> keys() {
+		return LongStream.from(table.keys());
+	}
+
+	/**
+	 * Streams the values.
+	 */
+	public Stream<RuntimeException, V> values() {
+		return Stream.from(new Iterator<V>() {
+			private int i = table.next(0);
+
+			@Override
+			public boolean hasNext() {
+				return i >= 0;
+			}
+
+			@Override
+			public V next() {
+				if (i < 0) throw new NoSuchElementException();
+				V value = table.value(i);
+				i = table.next(i + 1);
+				return value;
+			}
+		});
+	}
+
+	/**
+	 * Approximate memory used by the table, in bytes, excluding values.
+	 */
+	public long bytes() {
+		return table.bytes();
+	}
+
+	@Override
+	public String toString() {
+		var b = new StringBuilder().append('{');
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1)) {
+			if (b.length() > 1) b.append(", ");
+			b.append(table.key(i)).append('=').append((Object) table.value(i));
+		}
+		return b.append('}').toString();
+	}
+}
@@ -0,0 +1,152 @@
+package ceri.common.collect;
+
+import ceri.common.function.Excepts;
+import ceri.common.stream.LongStream;
+
+/**
+ * A set of primitive long values in an open-addressing hash table, without boxing. Values may be
+ * stored on heap, or off heap to keep large sets out of the garbage-collected heap. Iteration
+ * order is not defined, and the set must not be modified while iterating. Not thread-safe.
+ */
+public class LongSet {
+	private static final int SIZE_DEF = 16;
+	private final LongTable table;
+
+	/**
+	 * Creates a heap set containing the values.
+	 */
+	public static LongSet of(long... values) {
+		var set = sized(values.length);
+		for (long value : values)
+			set.add(value);
+		return set;
+	}
+
+	/**
+	 * Creates a heap set containing the stream values.
+	 */
+	public static <E extends Exception> LongSet from(LongStream<E> stream) throws E {
+		var set = sized(SIZE_DEF);
+		stream.forEach(set::add);
+		return set;
+	}
+
+	/**
+	 * Creates an empty heap set with capacity for the expected number of values.
+	 */
+	public static LongSet sized(int expected) {
+		return new LongSet(new LongTable(expected, false, false));
+	}
+
+	/**
+	 * Creates an empty off-heap set with capacity for the expected number of values. Memory is
+	 * released when the set is no longer reachable.
+	 */
+	public static LongSet direct(int expected) {
+		return new LongSet(new LongTable(expected, true, false));
+	}
+
+	private LongSet(LongTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns true if values are stored off heap.
+	 */
+	public boolean direct() {
+		return table.direct();
+	}
+
+	public int size() {
+		return table.size();
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(long value) {
+		return table.find(value) >= 0;
+	}
+
+	/**
+	 * Adds the value, and returns true if not already present.
+	 */
+	public boolean add(long value) {
+		return table.insert(value) < 0;
+	}
+
+	/**
+	 * Removes the value, and returns true if it was present.
+	 */
+	public boolean remove(long value) {
+		int i = table.find(value);
+		if (i < 0) return false;
+		table.removeAt(i);
+		return true;
+	}
+
+	public void clear() {
+		table.clear();
+	}
+
+	/**
+	 * Passes each value to the consumer.
+	 */
+	public <E extends Exception> void forEach(Excepts.LongConsumer<E> consumer) throws E {
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			consumer.accept(table.key(i));
+	}
+
+	/**
+	 * Streams the values.
+	 */
+	public LongStream<RuntimeException> stream() {
+		return LongStream.from(table.keys());
+	}
+
+	/**
+	 * Copies the values to an array.
+	 */
+	public long[] toArray() {
+		var array = new long[size()];
+		int n = 0;
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			array[n++] = table.key(i);
+		return array;
+	}
+
+	/**
+	 * Approximate memory used by the table, in bytes.
+	 */
+	public long bytes() {
+		return table.bytes();
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			hash += Long.hashCode(table.key(i));
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (!(obj instanceof LongSet other) || size() != other.size()) return false;
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1))
+			if (!other.contains(table.key(i))) return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		var b = new StringBuilder().append('[');
+		for (int i = table.next(0); i >= 0; i = table.next(i + 1)) {
+			if (b.length() > 1) b.append(", ");
+			b.append(table.key(i));
+		}
+		return b.append(']').toString();
+	}
+}
@@ -0,0 +1,89 @@
+package ceri.common.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Excepts;
+
+/**
+ * Waits until a System.nanoTime() deadline with better precision than sleeping. The thread parks
+ * while the remaining time exceeds the spin threshold, then busy-spins until the deadline. The spin
+ * threshold covers the park overshoot of the OS scheduler; a calibrated threshold is measured by
+ * sampling short parks.
+ */
+public class PrecisionDelay {
+	private static final int CALIBRATE_SAMPLES = 50;
+	private static final long CALIBRATE_PARK_NS = 50_000L;
+	private static final long SPIN_MIN_NS = 10_000L;
+	private static final long SPIN_MAX_NS = 2_000_000L;
+	private static final Excepts.Supplier<RuntimeException, PrecisionDelay> calibrated =
+		Lazy.of(PrecisionDelay::calibrate);
+	/** Spins for the entire wait. */
+	public static final PrecisionDelay SPIN = new PrecisionDelay(Long.MAX_VALUE);
+	private final long spinNs;
+
+	/**
+	 * Returns a shared instance, calibrated on first use.
+	 */
+	public static PrecisionDelay calibrated() {
+		return calibrated.get();
+	}
+
+	/**
+	 * Creates an instance that parks until the given nanoseconds remain, then spins.
+	 */
+	public static PrecisionDelay of(long spinNs) {
+		if (spinNs < 0) throw Exceptions.illegalArg("Spin time must be >= 0: %d", spinNs);
+		return new PrecisionDelay(spinNs);
+	}
+
+	/**
+	 * Measures the park overshoot of the current system, and creates an instance with a spin
+	 * threshold that covers the worst sample.
+	 */
+	public static PrecisionDelay calibrate() {
+		long worst = 0;
+		for (int i = 0; i < CALIBRATE_SAMPLES; i++) {
+			long t0 = System.nanoTime();
+			LockSupport.parkNanos(CALIBRATE_PARK_NS);
+			worst = Math.max(worst, System.nanoTime() - t0 - CALIBRATE_PARK_NS);
+		}
+		return of(Math.clamp(worst * 2, SPIN_MIN_NS, SPIN_MAX_NS));
+	}
+
+	private PrecisionDelay(long spinNs) {
+		this.spinNs = spinNs;
+	}
+
+	/**
+	 * The remaining time below which the wait spins instead of parking.
+	 */
+	public long spinNs() {
+		return spinNs;
+	}
+
+	/**
+	 * Waits for the given nanoseconds. Throws RuntimeInterruptedException if interrupted.
+	 */
+	public void delay(long delayNs) {
+		until(System.nanoTime() + delayNs);
+	}
+
+	/**
+	 * Waits until System.nanoTime() reaches the deadline, and returns the lateness in nanoseconds.
+	 * Throws RuntimeInterruptedException if interrupted.
+	 */
+	public long until(long deadlineNs) {
+		while (true) {
+			Concurrent.checkRuntimeInterrupted();
+			long remaining = deadlineNs - System.nanoTime();
+			if (remaining <= 0) return -remaining;
+			if (remaining > spinNs) LockSupport.parkNanos(remaining - spinNs);
+			else Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "(" + spinNs + "ns)";
+	}
+}
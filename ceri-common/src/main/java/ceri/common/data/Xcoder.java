@@ -1,5 +1,7 @@
 package ceri.common.data;
 
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -18,9 +20,14 @@ import ceri.common.text.Strings;
 import ceri.common.util.Basics;
 
 /**
- * Type transcoders.
+ * Type transcoders. Lookups are specialized when the transcoder is built: values are decoded by
+ * direct array index for dense value ranges, or by binary search of sorted values otherwise;
+ * enum types are encoded by ordinal, and single-bit enum types are decoded as enum sets.
  */
 public class Xcoder {
+	/** The maximum value range for direct array decoding. */
+	private static final int DENSE_MAX = 256;
+
 	private Xcoder() {}
 
 	/**
@@ -103,12 +110,14 @@ public class Xcoder {
 	public static class Type<T> {
 		private final Class<?> typeCls;
 		private final Map<T, Long> values;
-		private final Map<Long, T> types;
+		private final Decoder<T> decoder;
+		private final Encoder encoder;
 
 		protected Type(Map<Long, T> types) {
-			this.types = Immutable.wrap(types);
 			values = Immutable.invertMap(Maps::link, types);
 			typeCls = typeClass(types);
+			decoder = decoder(types);
+			encoder = Encoder.of(values);
 		}
 
 		/**
@@ -136,6 +145,7 @@ public class Xcoder {
 		 * Provides the type value, or 0 if unmapped.
 		 */
 		public long encode(T t) {
+			if (encoder != null) return encoder.encode(t);
 			return values.getOrDefault(t, 0L);
 		}
 
@@ -150,7 +160,7 @@ public class Xcoder {
 		 * Provides the type with the exact value, or null.
 		 */
 		public T decode(long value) {
-			return types.get(value);
+			return decoder.decode(value);
 		}
 
 		/**
@@ -229,7 +239,7 @@ public class Xcoder {
 		 * Returns true if a type has the exact value.
 		 */
 		public boolean isValid(long value) {
-			return value == 0 || types.containsKey(value);
+			return value == 0 || decode(value) != null;
 		}
 
 		/**
@@ -243,7 +253,7 @@ public class Xcoder {
 		 * Returns true if the type is mapped to the value.
 		 */
 		public boolean is(long value, T t) {
-			return Objects.equals(types.get(value), t);
+			return Objects.equals(decode(value), t);
 		}
 
 		/**
@@ -353,9 +363,11 @@ public class Xcoder {
 	 * A multiple type transcoder.
 	 */
 	public static class Types<T> extends Type<T> {
+		private final Bits bits;
 
 		protected Types(Map<Long, T> types) {
 			super(types);
+			bits = Bits.of(super.values);
 		}
 
 		/**
@@ -501,6 +513,7 @@ public class Xcoder {
 		 * Provides a set of types with non-overlapping bits within the value, and any remainder.
 		 */
 		public Rem<T> decodeAllRem(long value) {
+			if (bits != null) return decodeBits(value);
 			var set = Sets.<T>link();
 			for (var entry : super.values.entrySet()) {
 				var v = entry.getValue();
@@ -602,7 +615,17 @@ public class Xcoder {
 			return hasAll(Maths.uint(value), ts);
 		}
 
+		private Rem<T> decodeBits(long value) {
+			var set = bits.<T>decode(value);
+			if (set.isEmpty()) {
+				T zero = decode(0);
+				if (zero != null) set.add(zero);
+			}
+			return rem(set, value & ~bits.mask());
+		}
+
 		private long rem(long value) {
+			if (bits != null) return value & ~bits.mask();
 			for (var v : super.values.values()) {
 				if ((v & value) != v) continue;
 				value &= ~v;
@@ -614,6 +637,125 @@ public class Xcoder {
 
 	// support
 
+	/**
+	 * Decodes a value to a type without boxing.
+	 */
+	private interface Decoder<T> {
+		T decode(long value);
+	}
+
+	/**
+	 * Decodes by index from the minimum value; for dense value ranges.
+	 */
+	private record Dense<T>(long min, Object[] types) implements Decoder<T> {
+		@SuppressWarnings("unchecked")
+		@Override
+		public T decode(long value) {
+			long i = value - min;
+			if (Long.compareUnsigned(i, types.length) >= 0) return null;
+			return (T) types[(int) i];
+		}
+	}
+
+	/**
+	 * Decodes by binary search of sorted values; for sparse value ranges.
+	 */
+	private record Sparse<T>(long[] values, Object[] types) implements Decoder<T> {
+		@SuppressWarnings("unchecked")
+		@Override
+		public T decode(long value) {
+			int i = Arrays.binarySearch(values, value);
+			return i < 0 ? null : (T) types[i];
+		}
+	}
+
+	/**
+	 * Encodes enum types by ordinal; types that are not mapped have value 0.
+	 */
+	private record Encoder(Class<?> cls, long[] values) {
+		public static Encoder of(Map<?, Long> values) {
+			var cls = enumClass(values.keySet(), false);
+			if (cls == null) return null;
+			var array = new long[cls.getEnumConstants().length];
+			for (var entry : values.entrySet())
+				array[((Enum<?>) entry.getKey()).ordinal()] = entry.getValue();
+			return new Encoder(cls, array);
+		}
+
+		public long encode(Object t) {
+			if (t instanceof Enum<?> e && e.getDeclaringClass() == cls) return values[e.ordinal()];
+			return 0L;
+		}
+	}
+
+	/**
+	 * Decodes enum types that each have a single bit, or 0, by set bit index. Only used if the
+	 * types are in ordinal order, so enum set iteration matches the mapped order.
+	 */
+	@SuppressWarnings("rawtypes")
+	private record Bits(Class<? extends Enum> cls, long mask, Enum<?>[] types) {
+		public static Bits of(Map<?, Long> values) {
+			var cls = enumClass(values.keySet(), true);
+			if (cls == null) return null;
+			long mask = 0L;
+			var types = new Enum<?>[Long.SIZE];
+			for (var entry : values.entrySet()) {
+				long value = entry.getValue();
+				if (value == 0L) continue;
+				if (Long.bitCount(value) != 1) return null;
+				types[Long.numberOfTrailingZeros(value)] = (Enum<?>) entry.getKey();
+				mask |= value;
+			}
+			return new Bits(cls, mask, types);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> Set<T> decode(long value) {
+			var set = EnumSet.noneOf(cls);
+			for (long v = value & mask; v != 0L; v &= v - 1)
+				set.add(types[Long.numberOfTrailingZeros(v)]);
+			return (Set<T>) set;
+		}
+	}
+
+	private static <T> Decoder<T> decoder(Map<Long, T> types) {
+		int n = types.size();
+		var values = new long[n];
+		int i = 0;
+		for (long value : types.keySet())
+			values[i++] = value;
+		Arrays.sort(values);
+		long span = n == 0 ? 0 : values[n - 1] - values[0]; // negative on overflow
+		if (n > 0 && span >= 0 && span < DENSE_MAX) {
+			var array = new Object[(int) span + 1];
+			for (var entry : types.entrySet())
+				array[(int) (entry.getKey() - values[0])] = entry.getValue();
+			return new Dense<>(values[0], array);
+		}
+		var array = new Object[n];
+		for (i = 0; i < n; i++)
+			array[i] = types.get(values[i]);
+		return new Sparse<>(values, array);
+	}
+
+	/**
+	 * Returns the enum class if all types are constants of a single enum, otherwise null. If
+	 * ordered, the types must also be in ascending ordinal order.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static Class<? extends Enum> enumClass(Iterable<?> types, boolean ordered) {
+		Class<? extends Enum> cls = null;
+		int ordinal = -1;
+		for (var type : types) {
+			if (!(type instanceof Enum<?> e)) return null;
+			if (cls == null) cls = e.getDeclaringClass();
+			else if (e.getDeclaringClass() != cls) return null;
+			if (ordered && e.ordinal() <= ordinal) return null;
+			ordinal = e.ordinal();
+		}
+		return cls;
+	}
+
 	private static Class<?> typeClass(Map<Long, ?> types) {
 		if (Maps.isEmpty(types)) return Object.class;
 		return Iterables.first(types.values()).getClass();
@@ -0,0 +1,635 @@
+package ceri.common.event;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import ceri.common.collect.Immutable;
+import ceri.common.collect.Lists;
+import ceri.common.collect.Sets;
+import ceri.common.concurrent.Locker;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Functions;
+import ceri.common.text.ToString;
+import ceri.common.util.Validate;
+
+/**
+ * Bridges push-only listenable sources and java.util.concurrent.Flow, with bounded buffers and
+ * demand signalling. A publisher buffers source events per subscriber, and delivers them as
+ * requested; when a buffer is full, events are dropped, conflated, or the subscription fails,
+ * depending on the overflow policy. A relay subscribes to a publisher with bounded demand, and
+ * notifies listeners. Operators batch, sample or debounce listenable events, so fast sources can
+ * be throttled before reaching listeners.
+ */
+public class Flows {
+	private Flows() {}
+
+	/**
+	 * Handling of an event when a subscriber buffer is full.
+	 */
+	public enum Overflow {
+		/** Drops the new event. */
+		dropNewest,
+		/** Drops the oldest buffered event. */
+		dropOldest,
+		/** Replaces all buffered events with the new event; for state updates. */
+		conflate,
+		/** Fails the subscription with an IllegalStateException. */
+		error;
+	}
+
+	/**
+	 * Publisher configuration; the buffer capacity is per subscriber.
+	 */
+	public record Config(int capacity, Overflow overflow) {
+		public static final Config DEFAULT = new Config(256, Overflow.dropOldest);
+
+		public Config {
+			Validate.min(capacity, 1);
+			Objects.requireNonNull(overflow);
+		}
+	}
+
+	/**
+	 * Creates a publisher of source events with default configuration. Events are delivered on
+	 * the source or requesting thread.
+	 */
+	public static <T> Publisher<T> publisher(Listenable<T> source) {
+		return publisher(source, Config.DEFAULT, Runnable::run);
+	}
+
+	/**
+	 * Creates a publisher of source events. Events are delivered to each subscriber by the
+	 * executor, one task at a time.
+	 */
+	public static <T> Publisher<T> publisher(Listenable<T> source, Config config,
+		Executor executor) {
+		return new Publisher<>(source, config, executor);
+	}
+
+	/**
+	 * Subscribes to the publisher, and notifies listeners of received items. Items are requested
+	 * in batches, with at most the batch size outstanding.
+	 */
+	public static <T> Relay<T> relay(Flow.Publisher<? extends T> publisher, int batch) {
+		var relay = new Relay<T>(batch);
+		publisher.subscribe(relay);
+		return relay;
+	}
+
+	/**
+	 * Batches source events into lists, notified when the batch reaches the maximum size, or when
+	 * the window time has passed since the first event of the batch. Timed batches are notified
+	 * on the shared operator scheduler.
+	 */
+	public static <T> Operator<T, List<T>> window(Listenable<T> source, int maxSize,
+		long windowMs) {
+		return window(source, maxSize, windowMs, Scheduler.INSTANCE);
+	}
+
+	/**
+	 * Batches source events into lists, notified when the batch reaches the maximum size, or when
+	 * the window time has passed since the first event of the batch. Timed batches are notified
+	 * on the given scheduler.
+	 */
+	public static <T> Operator<T, List<T>> window(Listenable<T> source, int maxSize,
+		long windowMs, ScheduledExecutorService scheduler) {
+		return start(new Window<>(source, scheduler, maxSize, windowMs));
+	}
+
+	/**
+	 * Notifies the latest source event once per period, if an event has arrived since the last
+	 * notification. Notifications run on the shared operator scheduler.
+	 */
+	public static <T> Operator<T, T> sample(Listenable<T> source, long periodMs) {
+		return sample(source, periodMs, Scheduler.INSTANCE);
+	}
+
+	/**
+	 * Notifies the latest source event once per period, if an event has arrived since the last
+	 * notification. Notifications run on the given scheduler.
+	 */
+	public static <T> Operator<T, T> sample(Listenable<T> source, long periodMs,
+		ScheduledExecutorService scheduler) {
+		return start(new Sample<>(source, scheduler, periodMs));
+	}
+
+	/**
+	 * Notifies the latest source event once no events have arrived for the quiet time.
+	 * Notifications run on the shared operator scheduler.
+	 */
+	public static <T> Operator<T, T> debounce(Listenable<T> source, long quietMs) {
+		return debounce(source, quietMs, Scheduler.INSTANCE);
+	}
+
+	/**
+	 * Notifies the latest source event once no events have arrived for the quiet time.
+	 * Notifications run on the given scheduler.
+	 */
+	public static <T> Operator<T, T> debounce(Listenable<T> source, long quietMs,
+		ScheduledExecutorService scheduler) {
+		return start(new Debounce<>(source, scheduler, quietMs));
+	}
+
+	/**
+	 * The shared operator scheduler, created on first use. A single daemon thread runs the timed
+	 * notifications of all operators that do not specify a scheduler, so listeners of these
+	 * operators should not block.
+	 */
+	private static class Scheduler {
+		private static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+		private static ScheduledThreadPoolExecutor create() {
+			var scheduler = new ScheduledThreadPoolExecutor(1,
+				Thread.ofPlatform().name("flows-scheduler").daemon().factory());
+			scheduler.setRemoveOnCancelPolicy(true);
+			return scheduler;
+		}
+	}
+
+	private static <O extends Operator<?, ?>> O start(O operator) {
+		Operator<?, ?> started = operator; // private access needs the declared type
+		started.start();
+		return operator;
+	}
+
+	/**
+	 * Publishes listenable source events to subscribers. Each subscriber listens to the source
+	 * while subscribed, with its own bounded buffer. Closing the publisher completes all
+	 * subscriptions after buffered events are delivered.
+	 */
+	public static class Publisher<T> implements Flow.Publisher<T>, Functions.Closeable {
+		private final Set<Subscription<T>> subscriptions = Sets.concurrent();
+		private final Listenable<T> source;
+		private final Config config;
+		private final Executor executor;
+		private final LongAdder delivered = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+		private volatile boolean closed = false;
+
+		/**
+		 * Publisher statistics; dropped counts events lost to overflow.
+		 */
+		public record Stats(int subscribers, long delivered, long dropped) {
+			@Override
+			public String toString() {
+				return ToString.forClass(this, subscribers, delivered, dropped);
+			}
+		}
+
+		private Publisher(Listenable<T> source, Config config, Executor executor) {
+			this.source = Objects.requireNonNull(source);
+			this.config = Objects.requireNonNull(config);
+			this.executor = Objects.requireNonNull(executor);
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super T> subscriber) {
+			Objects.requireNonNull(subscriber);
+			var subscription = new Subscription<T>(this, subscriber);
+			subscriber.onSubscribe(subscription);
+			if (subscription.done) return; // cancelled on subscribe
+			subscriptions.add(subscription);
+			source.listen(subscription);
+			if (subscription.done) source.unlisten(subscription); // cancelled while adding
+			else if (closed) subscription.complete();
+		}
+
+		public Stats stats() {
+			return new Stats(subscriptions.size(), delivered.sum(), dropped.sum());
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			for (var subscription : subscriptions)
+				subscription.complete();
+		}
+
+		private void remove(Subscription<T> subscription) {
+			if (subscriptions.remove(subscription)) source.unlisten(subscription);
+		}
+	}
+
+	/**
+	 * A subscription with a bounded event buffer and requested demand. Source events are buffered,
+	 * and delivered while there is demand. Only one delivery task runs at a time; a task drains
+	 * the buffer until there is no demand, or no buffered events. If delivery throws, the
+	 * subscription is cancelled, and a new task is started for any schedule calls that arrived
+	 * while the failed task was running.
+	 */
+	private static class Subscription<T> implements Flow.Subscription, Functions.Consumer<T> {
+		private final Locker locker = Locker.of();
+		private final AtomicInteger pending = new AtomicInteger();
+		private final Publisher<T> publisher;
+		private final Flow.Subscriber<? super T> subscriber;
+		private final Deque<T> buffer = new ArrayDeque<>();
+		private long demand = 0;
+		private boolean completing = false;
+		private Throwable error = null;
+		private volatile boolean done = false;
+
+		private Subscription(Publisher<T> publisher, Flow.Subscriber<? super T> subscriber) {
+			this.publisher = publisher;
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void accept(T t) {
+			if (t == null || done) return;
+			locker.run(() -> offer(t));
+			schedule();
+		}
+
+		@Override
+		public void request(long n) {
+			if (done) return;
+			locker.run(() -> {
+				if (n <= 0) error = Exceptions.illegalArg("Request must be positive: %d", n);
+				else demand = demand + n < 0 ? Long.MAX_VALUE : demand + n; // cap on overflow
+			});
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			done = true;
+			publisher.remove(this);
+			locker.run(buffer::clear);
+		}
+
+		public void complete() {
+			locker.run(() -> completing = true);
+			schedule();
+		}
+
+		private void offer(T t) {
+			if (completing || error != null) return;
+			if (buffer.size() < publisher.config.capacity()) {
+				buffer.add(t);
+				return;
+			}
+			switch (publisher.config.overflow()) {
+				case dropNewest -> publisher.dropped.increment();
+				case dropOldest -> {
+					buffer.poll();
+					buffer.add(t);
+					publisher.dropped.increment();
+				}
+				case conflate -> {
+					publisher.dropped.add(buffer.size());
+					buffer.clear();
+					buffer.add(t);
+				}
+				case error -> {
+					publisher.dropped.add(buffer.size() + 1);
+					buffer.clear();
+					error = Exceptions.illegalState("Buffer overflow: %d",
+						publisher.config.capacity());
+				}
+			}
+		}
+
+		private void schedule() {
+			if (pending.getAndIncrement() == 0) publisher.executor.execute(this::drain);
+		}
+
+		private void drain() {
+			int missed = 1;
+			try {
+				for (; missed != 0; missed = pending.addAndGet(-missed)) {
+					while (!done) {
+						var next = locker.get(this::next);
+						if (next == null) break;
+						try {
+							subscriber.onNext(next);
+						} catch (Throwable t) {
+							cancel(); // subscriber violated the protocol
+							throw t;
+						}
+						publisher.delivered.increment();
+					}
+					if (!done) terminate();
+				}
+			} finally {
+				// delivery failed; hand over any schedule calls that arrived meanwhile
+				if (missed != 0 && pending.addAndGet(-missed) != 0)
+					publisher.executor.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Takes the next buffered event if there is demand, or returns null.
+		 */
+		private T next() {
+			if (error != null || demand == 0) return null;
+			var t = buffer.poll();
+			if (t != null) demand--;
+			return t;
+		}
+
+		/**
+		 * Fails or completes the subscription if required.
+		 */
+		private void terminate() {
+			var error = locker.get(() -> this.error);
+			boolean complete = locker.get(() -> completing && buffer.isEmpty());
+			if (error == null && !complete) return;
+			cancel();
+			if (error != null) subscriber.onError(error);
+			else subscriber.onComplete();
+		}
+	}
+
+	/**
+	 * Subscribes to a publisher, and notifies listeners of received items. Requests the batch size
+	 * on subscribe, and requests more as items are received, so at most the batch size is
+	 * outstanding. Listener exceptions are notified to error listeners, along with subscription
+	 * errors. Closing the relay cancels the subscription.
+	 */
+	public static class Relay<T>
+		implements Flow.Subscriber<T>, Listenable.Indirect<T>, Functions.Closeable {
+		private final Listeners<T> listeners = Listeners.of();
+		private final Listeners<Throwable> errors = Listeners.of();
+		private final int batch;
+		private final int replenish;
+		private volatile Flow.Subscription subscription = null;
+		private volatile boolean done = false;
+		private int received = 0;
+
+		private Relay(int batch) {
+			this.batch = Validate.min(batch, 1);
+			replenish = Math.max(1, batch / 2);
+		}
+
+		@Override
+		public Listenable<T> listeners() {
+			return listeners;
+		}
+
+		/**
+		 * Provides access to listen for listener and subscription errors.
+		 */
+		public Listenable<Throwable> errors() {
+			return errors;
+		}
+
+		/**
+		 * Returns true if the subscription has completed, failed or been cancelled.
+		 */
+		public boolean done() {
+			return done;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			if (this.subscription != null || done) {
+				subscription.cancel();
+				return;
+			}
+			this.subscription = subscription;
+			subscription.request(batch);
+		}
+
+		@Override
+		public void onNext(T item) {
+			try {
+				listeners.accept(item);
+			} catch (RuntimeException e) {
+				errors.accept(e);
+			}
+			if (++received < replenish) return;
+			received = 0;
+			subscription.request(replenish);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			done = true;
+			errors.accept(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			done = true;
+		}
+
+		@Override
+		public void close() {
+			done = true;
+			var subscription = this.subscription;
+			if (subscription != null) subscription.cancel();
+		}
+	}
+
+	/**
+	 * Base for operators that listen to a source, and notify listeners of adapted events. Timed
+	 * notifications run on a scheduler that is not owned by the operator. Closing the operator
+	 * stops listening to the source, and cancels its scheduled tasks.
+	 */
+	public static abstract class Operator<T, R> implements Listenable<R>, Functions.Closeable {
+		private final Listeners<R> listeners = Listeners.of();
+		private final Listenable<T> source;
+		private final ScheduledExecutorService scheduler;
+		private final Functions.Consumer<T> listener = this::event;
+		protected final Locker locker = Locker.of();
+		private boolean closed = false;
+
+		protected Operator(Listenable<T> source, ScheduledExecutorService scheduler) {
+			this.source = Objects.requireNonNull(source);
+			this.scheduler = Objects.requireNonNull(scheduler);
+		}
+
+		@Override
+		public boolean listen(Functions.Consumer<? super R> listener) {
+			return listeners.listen(listener);
+		}
+
+		@Override
+		public boolean unlisten(Functions.Consumer<? super R> listener) {
+			return listeners.unlisten(listener);
+		}
+
+		@Override
+		public void close() {
+			source.unlisten(listener);
+			locker.run(() -> {
+				closed = true;
+				cancel();
+			});
+		}
+
+		/**
+		 * Starts listening to the source, once subclass fields are initialized.
+		 */
+		private void start() {
+			source.listen(listener);
+		}
+
+		/**
+		 * Handles a source event.
+		 */
+		protected abstract void event(T t);
+
+		/**
+		 * Cancels scheduled tasks on close; called while locked.
+		 */
+		protected abstract void cancel();
+
+		/**
+		 * Notifies listeners; must not be called while locked.
+		 */
+		protected void notify(R r) {
+			if (r != null) listeners.accept(r);
+		}
+
+		/**
+		 * Schedules a task, or returns null if closed; must be called while locked.
+		 */
+		protected ScheduledFuture<?> schedule(Runnable runnable, long delayMs) {
+			if (closed) return null;
+			return scheduler.schedule(runnable, delayMs, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Schedules a periodic task, or returns null if closed; must be called while locked.
+		 */
+		protected ScheduledFuture<?> scheduleAtFixedRate(Runnable runnable, long periodMs) {
+			if (closed) return null;
+			return scheduler.scheduleAtFixedRate(runnable, periodMs, periodMs,
+				TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Batches events by count and time. Each batch has an id, so a timer for a batch already
+	 * notified by count does not cut the next batch short.
+	 */
+	private static class Window<T> extends Operator<T, List<T>> {
+		private final int maxSize;
+		private final long windowMs;
+		private List<T> batch = Lists.of();
+		private long id = 0;
+		private ScheduledFuture<?> timer = null;
+
+		private Window(Listenable<T> source, ScheduledExecutorService scheduler, int maxSize,
+			long windowMs) {
+			super(source, scheduler);
+			this.maxSize = Validate.min(maxSize, 1);
+			this.windowMs = Validate.min(windowMs, 1L);
+		}
+
+		@Override
+		protected void event(T t) {
+			notify(locker.get(() -> {
+				if (batch.isEmpty()) {
+					long id = this.id;
+					timer = schedule(() -> timeout(id), windowMs);
+				}
+				batch.add(t);
+				if (batch.size() < maxSize) return null;
+				if (timer != null) timer.cancel(false);
+				return take();
+			}));
+		}
+
+		@Override
+		protected void cancel() {
+			if (timer != null) timer.cancel(false);
+		}
+
+		private void timeout(long id) {
+			notify(locker.get(() -> id == this.id ? take() : null));
+		}
+
+		private List<T> take() {
+			var batch = this.batch;
+			this.batch = Lists.of();
+			id++;
+			timer = null;
+			return batch.isEmpty() ? null : Immutable.wrap(batch);
+		}
+	}
+
+	/**
+	 * Notifies the latest event at a fixed rate.
+	 */
+	private static class Sample<T> extends Operator<T, T> {
+		private final ScheduledFuture<?> timer;
+		private T latest = null;
+
+		private Sample(Listenable<T> source, ScheduledExecutorService scheduler, long periodMs) {
+			super(source, scheduler);
+			Validate.min(periodMs, 1L);
+			timer = locker.get(() -> scheduleAtFixedRate(this::tick, periodMs));
+		}
+
+		@Override
+		protected void event(T t) {
+			locker.run(() -> latest = t);
+		}
+
+		@Override
+		protected void cancel() {
+			timer.cancel(false);
+		}
+
+		private void tick() {
+			notify(locker.get(() -> {
+				var t = latest;
+				latest = null;
+				return t;
+			}));
+		}
+	}
+
+	/**
+	 * Notifies the latest event after a quiet time. Each event replaces the pending timer; an id
+	 * guards against a timer that fires as it is replaced.
+	 */
+	private static class Debounce<T> extends Operator<T, T> {
+		private final long quietMs;
+		private T latest = null;
+		private long id = 0;
+		private ScheduledFuture<?> timer = null;
+
+		private Debounce(Listenable<T> source, ScheduledExecutorService scheduler, long quietMs) {
+			super(source, scheduler);
+			this.quietMs = Validate.min(quietMs, 1L);
+		}
+
+		@Override
+		protected void event(T t) {
+			locker.run(() -> {
+				latest = t;
+				long id = ++this.id;
+				if (timer != null) timer.cancel(false);
+				timer = schedule(() -> timeout(id), quietMs);
+			});
+		}
+
+		@Override
+		protected void cancel() {
+			if (timer != null) timer.cancel(false);
+		}
+
+		private void timeout(long id) {
+			notify(locker.get(() -> {
+				if (id != this.id) return null;
+				var t = latest;
+				latest = null;
+				timer = null;
+				return t;
+			}));
+		}
+	}
+}
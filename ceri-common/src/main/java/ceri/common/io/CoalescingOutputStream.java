@@ -0,0 +1,211 @@
+package ceri.common.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import ceri.common.concurrent.Locker;
+import ceri.common.concurrent.SimpleExecutor;
+import ceri.common.metric.Counter;
+import ceri.common.metric.Histogram;
+import ceri.common.metric.Metrics;
+import ceri.common.util.Validate;
+
+/**
+ * An output stream that gathers writes from multiple threads into one buffer, and writes to the
+ * wrapped stream when the buffer is full, when the oldest buffered byte reaches a deadline, or on
+ * flush. Flush acts as a barrier: bytes written before the call are written and flushed before it
+ * returns. Deadline writes are also flushed. With no deadline, the stream behaves like a
+ * thread-safe BufferedOutputStream.
+ * <p/>
+ * A write that overflows the buffer is combined with the buffered bytes in one call if the wrapped
+ * stream supports {@link Gathering}. As with BufferedOutputStream, the buffer is emptied even if a
+ * write fails. Failed deadline writes are thrown on the next call. The metrics registry counts
+ * writes to the wrapped stream and bytes per write.
+ */
+public class CoalescingOutputStream extends OutputStream {
+	private static final int BUFFER_SIZE_DEF = 8192;
+	private final Locker locker = Locker.of();
+	private final Condition pending = locker.condition();
+	private final OutputStream out;
+	private final Gathering gathering;
+	private final byte[] buffer;
+	private final long maxDelayNs;
+	private final SimpleExecutor<RuntimeException, ?> flusher;
+	private final Metrics metrics = Metrics.of();
+	private final Counter writes = metrics.counter("writes");
+	private final Counter gathered = metrics.counter("gathered");
+	private final Counter bytes = metrics.counter("bytes");
+	private final Histogram writeBytes = metrics.histogram("write.bytes");
+	private int count = 0;
+	private long deadlineNs = 0;
+	private IOException error = null;
+	private boolean closed = false;
+
+	/**
+	 * A stream that can write buffered bytes and an array slice in one call, such as a gathering
+	 * native write.
+	 */
+	public interface Gathering {
+		/**
+		 * Writes the first bytes of the buffer followed by the array slice.
+		 */
+		void write(byte[] buffer, int count, byte[] b, int offset, int length) throws IOException;
+	}
+
+	/**
+	 * Creates a stream with default buffer size, that writes when full or flushed.
+	 */
+	public static CoalescingOutputStream of(OutputStream out) {
+		return of(out, BUFFER_SIZE_DEF, 0);
+	}
+
+	/**
+	 * Creates a stream that writes when full, flushed, or when the oldest buffered byte has waited
+	 * for the given delay. A delay of 0 disables the deadline.
+	 */
+	public static CoalescingOutputStream of(OutputStream out, int size, int maxDelayMicros) {
+		Validate.min(size, 1);
+		Validate.min(maxDelayMicros, 0);
+		return new CoalescingOutputStream(out, size, maxDelayMicros);
+	}
+
+	private CoalescingOutputStream(OutputStream out, int size, int maxDelayMicros) {
+		this.out = Objects.requireNonNull(out);
+		gathering = out instanceof Gathering g ? g : null;
+		buffer = new byte[size];
+		maxDelayNs = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+		flusher = maxDelayNs == 0 ? null : SimpleExecutor.run(this::flushOnDeadline);
+	}
+
+	/**
+	 * Write counts and sizes for the wrapped stream.
+	 */
+	public Metrics metrics() {
+		return metrics;
+	}
+
+	/**
+	 * The number of bytes currently buffered.
+	 */
+	public int buffered() {
+		return locker.getAsInt(() -> count);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		try (var _ = locker.lock()) {
+			verifyOpen();
+			buffer(b);
+			if (count == buffer.length) flushBuffer();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		Validate.slice(b.length, off, len);
+		try (var _ = locker.lock()) {
+			verifyOpen();
+			if (len <= buffer.length - count) buffer(b, off, len);
+			else if (gathering != null) gather(b, off, len);
+			else {
+				flushBuffer();
+				if (len >= buffer.length) write(null, 0, b, off, len);
+				else buffer(b, off, len);
+			}
+			if (count == buffer.length) flushBuffer();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		try (var _ = locker.lock()) {
+			verifyOpen();
+			flushBuffer();
+			out.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (var _ = locker.lock()) {
+			if (closed) return;
+			closed = true;
+			pending.signalAll();
+			try {
+				flushBuffer();
+			} finally {
+				out.close();
+			}
+		} finally {
+			if (flusher != null) flusher.close();
+		}
+	}
+
+	private void buffer(int b) {
+		if (count == 0) startDeadline();
+		buffer[count++] = (byte) b;
+	}
+
+	private void buffer(byte[] b, int off, int len) {
+		if (len == 0) return;
+		if (count == 0) startDeadline();
+		System.arraycopy(b, off, buffer, count, len);
+		count += len;
+	}
+
+	private void startDeadline() {
+		if (flusher == null) return;
+		deadlineNs = System.nanoTime() + maxDelayNs;
+		pending.signal();
+	}
+
+	private void gather(byte[] b, int off, int len) throws IOException {
+		int n = count;
+		count = 0; // buffer always emptied, even if exception on write
+		if (n > 0) gathered.increment();
+		write(buffer, n, b, off, len);
+	}
+
+	private void flushBuffer() throws IOException {
+		int n = count;
+		count = 0; // buffer always emptied, even if exception on write
+		if (n > 0) write(null, 0, buffer, 0, n);
+	}
+
+	private void write(byte[] head, int n, byte[] b, int off, int len) throws IOException {
+		writes.increment();
+		bytes.add(n + len);
+		writeBytes.record(n + len);
+		if (n == 0) out.write(b, off, len);
+		else gathering.write(head, n, b, off, len);
+	}
+
+	private void verifyOpen() throws IOException {
+		if (closed) throw new IOException("Closed");
+		var error = this.error;
+		this.error = null;
+		if (error != null) throw error;
+	}
+
+	private void flushOnDeadline() throws InterruptedException {
+		try (var _ = locker.lock()) {
+			while (!closed) {
+				long remainingNs = deadlineNs - System.nanoTime();
+				if (count == 0) pending.await();
+				else if (remainingNs > 0) pending.awaitNanos(remainingNs);
+				else flushOnDeadlineBuffer();
+			}
+		}
+	}
+
+	private void flushOnDeadlineBuffer() {
+		try {
+			flushBuffer();
+			out.flush(); // so the deadline also applies to a buffering wrapped stream
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+}
@@ -16,6 +16,7 @@ public abstract class Replaceable<T extends Closeable> implements Closeable, Cap
 	protected final Listeners<Exception> errorListeners = Listeners.of();
 	private final String delegateName;
 	private volatile T delegate = null;
+	private volatile Excepts.Runnable<IOException> guard = null;
 
 	/**
 	 * An exception thrown when a delegate has not been set.
@@ -101,6 +102,15 @@ public abstract class Replaceable<T extends Closeable> implements Closeable, Cap
 		this.delegate = delegate;
 	}
 
+	/**
+	 * Sets a check that runs before each call that requires a valid delegate, allowing calls to
+	 * fail fast while the delegate is known to be unavailable. Exceptions from the guard are not
+	 * passed to error listeners. A null guard removes the check.
+	 */
+	public void guard(Excepts.Runnable<IOException> guard) {
+		this.guard = guard;
+	}
+
 	@Override
 	public void close() throws IOException {
 		close(delegate);
@@ -164,6 +174,8 @@ public abstract class Replaceable<T extends Closeable> implements Closeable, Cap
 	 * Access the delegate. Throws exception if not set.
 	 */
 	private T validDelegate() throws IOException {
+		var guard = this.guard;
+		if (guard != null) guard.run();
 		var delegate = this.delegate;
 		if (delegate == null) throw new NotSetException(delegateName);
 		return delegate;
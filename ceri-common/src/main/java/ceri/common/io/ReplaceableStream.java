@@ -5,6 +5,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import ceri.common.event.Listenable;
 import ceri.common.event.Listeners;
+import ceri.common.function.Excepts;
 import ceri.common.function.Functions;
 import ceri.common.util.Basics;
 
@@ -63,6 +64,14 @@ public class ReplaceableStream {
 			this.in.set(in);
 		}
 
+		/**
+		 * Sets a check that runs before each call that requires a valid delegate. A null guard
+		 * removes the check.
+		 */
+		public void guard(Excepts.Runnable<IOException> guard) {
+			in.guard(guard);
+		}
+
 		@Override
 		public int available() throws IOException {
 			return in.applyValid(InputStream::available);
@@ -138,6 +147,14 @@ public class ReplaceableStream {
 			this.out.set(out);
 		}
 
+		/**
+		 * Sets a check that runs before each call that requires a valid delegate. A null guard
+		 * removes the check.
+		 */
+		public void guard(Excepts.Runnable<IOException> guard) {
+			out.guard(guard);
+		}
+
 		@Override
 		public void write(int b) throws IOException {
 			out.acceptValid(o -> o.write(b));
@@ -0,0 +1,50 @@
+package ceri.common.metric;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A striped counter for frequent updates from many threads. Updates are spread across cells to
+ * avoid contention; reading the value sums the cells.
+ */
+public class Counter {
+	private final LongAdder adder = new LongAdder();
+
+	public static Counter of() {
+		return new Counter();
+	}
+
+	private Counter() {}
+
+	/**
+	 * Increments the count.
+	 */
+	public void increment() {
+		adder.increment();
+	}
+
+	/**
+	 * Adds to the count.
+	 */
+	public void add(long n) {
+		adder.add(n);
+	}
+
+	/**
+	 * Returns the current count.
+	 */
+	public long value() {
+		return adder.sum();
+	}
+
+	/**
+	 * Returns the current count, and resets it to zero.
+	 */
+	public long reset() {
+		return adder.sumThenReset();
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(value());
+	}
+}
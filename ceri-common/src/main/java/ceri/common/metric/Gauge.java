@@ -0,0 +1,65 @@
+package ceri.common.metric;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import ceri.common.function.Functions;
+
+/**
+ * A point-in-time value, such as a queue size. The value is either sampled from a supplier when
+ * read, or set explicitly.
+ */
+@FunctionalInterface
+public interface Gauge {
+	/**
+	 * Returns the current value.
+	 */
+	long value();
+
+	/**
+	 * Creates a gauge that samples the supplier when read.
+	 */
+	static Gauge of(Functions.LongSupplier supplier) {
+		Objects.requireNonNull(supplier);
+		return supplier::getAsLong;
+	}
+
+	/**
+	 * Creates a gauge with a value that is set explicitly.
+	 */
+	static Settable settable() {
+		return new Settable();
+	}
+
+	/**
+	 * A gauge with a value that is set explicitly.
+	 */
+	class Settable implements Gauge {
+		private final AtomicLong value = new AtomicLong();
+
+		private Settable() {}
+
+		/**
+		 * Sets the value.
+		 */
+		public void set(long value) {
+			this.value.set(value);
+		}
+
+		/**
+		 * Adds to the value, and returns the new value.
+		 */
+		public long add(long delta) {
+			return value.addAndGet(delta);
+		}
+
+		@Override
+		public long value() {
+			return value.get();
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(value());
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package ceri.common.metric;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Excepts;
+
+/**
+ * A fixed-memory, lock-free histogram of non-negative values, such as latencies in nanoseconds.
+ * Values are counted in log-linear buckets: each power of 2 is divided into 16 linear sub-buckets,
+ * so a recorded value is resolved to within 1/16 (6.25%) of its magnitude. Values 0-15 are exact.
+ * Recording is a single atomic bucket increment plus sum, min and max updates; negative values are
+ * recorded as 0. A snapshot is not atomic across buckets while values are being recorded.
+ */
+public class Histogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	/** Number of buckets to cover all non-negative long values. */
+	public static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_COUNT;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+	private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * A point-in-time copy of histogram values.
+	 */
+	public record Snapshot(long count, long sum, long min, long max, long[] counts) {
+		public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, new long[BUCKETS]);
+
+		/**
+		 * Returns the mean value, or 0 if empty.
+		 */
+		public double mean() {
+			return count == 0 ? 0.0 : (double) sum / count;
+		}
+
+		/**
+		 * Returns an upper bound of the value at the given percentile (0-100), accurate to the
+		 * bucket resolution, and limited to the recorded min and max. Returns 0 if empty.
+		 */
+		public long percentile(double p) {
+			if (p < 0.0 || p > 100.0) throw Exceptions.illegalArg("Invalid percentile: %s", p);
+			if (count == 0) return 0;
+			long rank = Math.max(1, (long) Math.ceil(p * count / 100.0));
+			long total = 0;
+			for (int i = 0; i < counts.length; i++) {
+				total += counts[i];
+				if (total >= rank) return Math.min(Math.max(upper(i), min), max);
+			}
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			if (count == 0) return "count=0";
+			return String.format("count=%d min=%d max=%d mean=%.1f p50=%d p90=%d p99=%d p999=%d",
+				count, min, max, mean(), percentile(50), percentile(90), percentile(99),
+				percentile(99.9));
+		}
+	}
+
+	public static Histogram of() {
+		return new Histogram();
+	}
+
+	private Histogram() {}
+
+	/**
+	 * Records a value.
+	 */
+	public void record(long value) {
+		if (value < 0) value = 0;
+		counts.incrementAndGet(index(value));
+		sum.add(value);
+		long n;
+		while (value < (n = min.get()) && !min.compareAndSet(n, value)) {}
+		while (value > (n = max.get()) && !max.compareAndSet(n, value)) {}
+	}
+
+	/**
+	 * Records the nanoseconds elapsed since the given System.nanoTime().
+	 */
+	public void recordSince(long startNs) {
+		record(System.nanoTime() - startNs);
+	}
+
+	/**
+	 * Runs the action, and records its execution time in nanoseconds.
+	 */
+	public <E extends Exception> void time(Excepts.Runnable<E> runnable) throws E {
+		long t0 = System.nanoTime();
+		try {
+			runnable.run();
+		} finally {
+			recordSince(t0);
+		}
+	}
+
+	/**
+	 * Runs the action, and records its execution time in nanoseconds.
+	 */
+	public <E extends Exception, T> T time(Excepts.Supplier<E, T> supplier) throws E {
+		long t0 = System.nanoTime();
+		try {
+			return supplier.get();
+		} finally {
+			recordSince(t0);
+		}
+	}
+
+	/**
+	 * Returns a copy of the current values.
+	 */
+	public Snapshot snapshot() {
+		var copy = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < copy.length; i++)
+			count += copy[i] = counts.get(i);
+		if (count == 0) return Snapshot.EMPTY;
+		return new Snapshot(count, sum.sum(), min.get(), max.get(), copy);
+	}
+
+	/**
+	 * Clears all values. Values recorded concurrently may be partially cleared.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		sum.reset();
+		min.set(Long.MAX_VALUE);
+		max.set(Long.MIN_VALUE);
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+
+	/**
+	 * The bucket index of a non-negative value.
+	 */
+	static int index(long value) {
+		if (value < SUB_COUNT) return (int) value;
+		int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return ((shift + 1) << SUB_BITS) + (int) (value >>> shift) - SUB_COUNT;
+	}
+
+	/**
+	 * The largest value counted in the bucket.
+	 */
+	static long upper(int index) {
+		if (index < SUB_COUNT) return index;
+		int shift = (index >>> SUB_BITS) - 1;
+		long sub = (index & (SUB_COUNT - 1)) + SUB_COUNT;
+		return ((sub + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,159 @@
+package ceri.common.metric;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import ceri.common.collect.Maps;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Functions;
+
+/**
+ * A registry of named counters, gauges, histograms and child registries. Instruments are created
+ * on first access and reused thereafter. A snapshot flattens child registries into dot-separated
+ * names. Components typically own a registry for their instruments, which is then attached to an
+ * application registry for export.
+ */
+public class Metrics {
+	private static final String SEPARATOR = ".";
+	private final Map<String, Object> entries = Maps.concurrent();
+
+	/**
+	 * A point-in-time copy of registry values, sorted by name.
+	 */
+	public record Snapshot(Map<String, Long> counters, Map<String, Long> gauges,
+		Map<String, Histogram.Snapshot> histograms) {
+
+		/**
+		 * Returns a text dump of values, one per line.
+		 */
+		public String text() {
+			var b = new StringBuilder();
+			counters.forEach((name, value) -> line(b, "counter", name, value));
+			gauges.forEach((name, value) -> line(b, "gauge", name, value));
+			histograms.forEach((name, value) -> line(b, "histogram", name, value));
+			return b.toString();
+		}
+
+		private static void line(StringBuilder b, String type, String name, Object value) {
+			b.append(type).append(' ').append(name).append(' ').append(value).append('\n');
+		}
+	}
+
+	public static Metrics of() {
+		return new Metrics();
+	}
+
+	private Metrics() {}
+
+	/**
+	 * Returns the named counter, creating it if needed.
+	 */
+	public Counter counter(String name) {
+		return get(name, Counter.class, Counter::of);
+	}
+
+	/**
+	 * Returns the named settable gauge, creating it if needed.
+	 */
+	public Gauge.Settable gauge(String name) {
+		return get(name, Gauge.Settable.class, Gauge::settable);
+	}
+
+	/**
+	 * Registers a gauge that samples the supplier when read, replacing any existing gauge.
+	 */
+	public Gauge gauge(String name, Functions.LongSupplier supplier) {
+		return put(name, Gauge.of(supplier));
+	}
+
+	/**
+	 * Returns the named histogram, creating it if needed.
+	 */
+	public Histogram histogram(String name) {
+		return get(name, Histogram.class, Histogram::of);
+	}
+
+	/**
+	 * Returns the named child registry, creating it if needed.
+	 */
+	public Metrics child(String name) {
+		return get(name, Metrics.class, Metrics::of);
+	}
+
+	/**
+	 * Attaches a registry as a named child, replacing any existing child. Fails if this registry
+	 * is the given registry or one of its descendants, as snapshots would not terminate.
+	 */
+	public Metrics child(String name, Metrics metrics) {
+		if (metrics.contains(this))
+			throw Exceptions.illegalArg("Registry would contain itself: %s", name);
+		return put(name, metrics);
+	}
+
+	/**
+	 * Removes the named instrument or child registry. Returns true if removed.
+	 */
+	public boolean remove(String name) {
+		return entries.remove(name) != null;
+	}
+
+	/**
+	 * Returns a copy of the current values, including child registries.
+	 */
+	public Snapshot snapshot() {
+		var snapshot = new Snapshot(Maps.tree(), Maps.tree(), Maps.tree());
+		collect("", snapshot);
+		return new Snapshot(Collections.unmodifiableMap(snapshot.counters()),
+			Collections.unmodifiableMap(snapshot.gauges()),
+			Collections.unmodifiableMap(snapshot.histograms()));
+	}
+
+	/**
+	 * Returns a text dump of current values, one per line.
+	 */
+	public String text() {
+		return snapshot().text();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + entries.keySet();
+	}
+
+	/**
+	 * Returns true if the registry is this registry or one of its descendants.
+	 */
+	private boolean contains(Metrics metrics) {
+		if (metrics == this) return true;
+		for (var entry : entries.values())
+			if (entry instanceof Metrics m && m.contains(metrics)) return true;
+		return false;
+	}
+
+	private void collect(String prefix, Snapshot snapshot) {
+		entries.forEach((name, entry) -> {
+			var key = prefix + name;
+			switch (entry) {
+				case Counter c -> snapshot.counters().put(key, c.value());
+				case Gauge g -> snapshot.gauges().put(key, g.value());
+				case Histogram h -> snapshot.histograms().put(key, h.snapshot());
+				case Metrics m -> m.collect(key + SEPARATOR, snapshot);
+				default -> {}
+			}
+		});
+	}
+
+	private <T> T get(String name, Class<T> cls, Functions.Supplier<T> constructor) {
+		Objects.requireNonNull(name);
+		var entry = entries.computeIfAbsent(name, _ -> constructor.get());
+		if (cls.isInstance(entry)) return cls.cast(entry);
+		throw Exceptions.illegalArg("%s is not a %s: %s", name, cls.getSimpleName(),
+			entry.getClass().getSimpleName());
+	}
+
+	private <T> T put(String name, T entry) {
+		Objects.requireNonNull(name);
+		entries.put(name, Objects.requireNonNull(entry));
+		return entry;
+	}
+}
@@ -0,0 +1,107 @@
+package ceri.common.process;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import ceri.common.collect.Maps;
+import ceri.common.concurrent.Locker;
+import ceri.common.function.Excepts;
+import ceri.common.text.Regex;
+import ceri.common.time.TimeSupplier;
+import ceri.common.util.Validate;
+
+/**
+ * A processor that caches command output for a fixed time. Use for read-only queries such as
+ * 'arp -a' or 'uptime', where repeated calls within the time limit may share a result. Concurrent
+ * calls for the same command wait for a single execution. The number of cached commands is
+ * bounded; the oldest command is removed when the limit is exceeded.
+ */
+public class CachedProcessor extends Processor {
+	private static final int MAX_ENTRIES_DEF = 64;
+	private final Locker locker = Locker.of();
+	private final Processor processor;
+	private final long ttlMs;
+	private final Map<Parameters, Result> cache;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Cached output for a command.
+	 */
+	private class Result {
+		private final Locker locker = Locker.of();
+		private long expiry = 0;
+		private String out = null;
+
+		public String get(Parameters parameters) throws IOException {
+			return locker.get(() -> {
+				long t = TimeSupplier.millis.time();
+				if (out != null && t < expiry) {
+					hits.increment();
+					return out;
+				}
+				misses.increment();
+				out = processor.exec(parameters);
+				expiry = t + ttlMs;
+				return out;
+			});
+		}
+	}
+
+	public static CachedProcessor of(Processor processor, long ttlMs) {
+		return of(processor, ttlMs, MAX_ENTRIES_DEF);
+	}
+
+	public static CachedProcessor of(Processor processor, long ttlMs, int maxEntries) {
+		Validate.min(maxEntries, 1);
+		return new CachedProcessor(processor, ttlMs, maxEntries);
+	}
+
+	private CachedProcessor(Processor processor, long ttlMs, int maxEntries) {
+		super(Processor.builder(processor));
+		this.processor = processor;
+		this.ttlMs = ttlMs;
+		cache = Maps.cache(maxEntries);
+	}
+
+	@Override
+	public String exec(Parameters parameters) throws IOException {
+		if (parameters.list().isEmpty()) return null;
+		var key = Parameters.ofAll(parameters);
+		var result = locker.get(() -> cache.computeIfAbsent(key, _ -> new Result()));
+		return result.get(key);
+	}
+
+	/**
+	 * Passes each line of cached output to the consumer.
+	 */
+	@Override
+	public void lines(Parameters parameters, Excepts.Consumer<IOException, String> stdOut,
+		Excepts.Consumer<IOException, String> stdErr) throws IOException {
+		var out = exec(parameters);
+		if (out == null || stdOut == null) return;
+		for (var line : Regex.Split.LINE.list(out))
+			stdOut.accept(line);
+	}
+
+	/**
+	 * Removes all cached output.
+	 */
+	public void clear() {
+		locker.run(cache::clear);
+	}
+
+	/**
+	 * The number of calls served from the cache.
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * The number of calls that executed the command.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+}
@@ -0,0 +1,98 @@
+package ceri.common.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import ceri.common.function.Excepts;
+
+/**
+ * Splits process output into lines as bytes become available, and passes each complete line to a
+ * consumer without collecting the full output. Line separators are removed. A trailing partial line
+ * is passed on flush.
+ */
+public class Lines {
+	private static final int BUFFER_SIZE_DEF = 256;
+	private final Charset charset;
+	private final Excepts.Consumer<IOException, String> consumer;
+	private byte[] buffer = new byte[BUFFER_SIZE_DEF];
+	private int size = 0;
+	private int count = 0;
+
+	/**
+	 * Creates an instance using the default charset.
+	 */
+	public static Lines of(Excepts.Consumer<IOException, String> consumer) {
+		return of(Charset.defaultCharset(), consumer);
+	}
+
+	public static Lines of(Charset charset, Excepts.Consumer<IOException, String> consumer) {
+		return new Lines(charset, consumer);
+	}
+
+	private Lines(Charset charset, Excepts.Consumer<IOException, String> consumer) {
+		this.charset = charset;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * The number of lines passed to the consumer.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * Reads available bytes without blocking, and passes each completed line to the consumer.
+	 */
+	public Lines transferAvailableFrom(InputStream in) throws IOException {
+		int n = in.available();
+		if (n <= 0) return this;
+		ensure(n);
+		n = in.read(buffer, size, n);
+		if (n > 0) accept(size, n);
+		return this;
+	}
+
+	/**
+	 * Passes the bytes to the consumer as completed lines.
+	 */
+	public Lines accept(byte[] bytes, int offset, int length) throws IOException {
+		ensure(length);
+		System.arraycopy(bytes, offset, buffer, size, length);
+		accept(size, length);
+		return this;
+	}
+
+	/**
+	 * Passes any remaining partial line to the consumer.
+	 */
+	public Lines flush() throws IOException {
+		if (size > 0) emit(0, size);
+		size = 0;
+		return this;
+	}
+
+	private void accept(int offset, int length) throws IOException {
+		int start = 0;
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			if (buffer[i] != '\n') continue;
+			emit(start, i);
+			start = i + 1;
+		}
+		size = end - start;
+		if (start > 0 && size > 0) System.arraycopy(buffer, start, buffer, 0, size);
+	}
+
+	private void ensure(int length) {
+		if (size + length <= buffer.length) return;
+		buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length << 1));
+	}
+
+	private void emit(int start, int end) throws IOException {
+		if (end > start && buffer[end - 1] == '\r') end--;
+		count++;
+		consumer.accept(new String(buffer, start, end - start, charset));
+	}
+}
@@ -0,0 +1,79 @@
+package ceri.common.process;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import ceri.common.collect.Lists;
+import ceri.common.concurrent.Concurrent;
+import ceri.common.except.ExceptionAdapter;
+import ceri.common.function.Closeables;
+import ceri.common.function.Excepts;
+import ceri.common.function.Functions;
+import ceri.common.util.Validate;
+
+/**
+ * Executes commands concurrently, with a bound on the number of running processes.
+ */
+public class ProcessExecutor implements Functions.Closeable {
+	private final Processor processor;
+	private final ExecutorService executor;
+	public final int maxConcurrent;
+
+	/**
+	 * Creates an instance that runs up to the given number of commands at the same time.
+	 */
+	public static ProcessExecutor of(Processor processor, int maxConcurrent) {
+		Validate.min(maxConcurrent, 1);
+		return new ProcessExecutor(processor, maxConcurrent);
+	}
+
+	private ProcessExecutor(Processor processor, int maxConcurrent) {
+		this.processor = processor;
+		this.maxConcurrent = maxConcurrent;
+		executor = Executors.newFixedThreadPool(maxConcurrent);
+	}
+
+	/**
+	 * Submits the command for execution.
+	 */
+	public Future<String> submit(Parameters parameters) {
+		return executor.submit(() -> processor.exec(parameters));
+	}
+
+	/**
+	 * Submits the command for execution, passing stdout lines to the consumer as they are
+	 * received. Lines are passed on the executing thread.
+	 */
+	public Future<?> submitLines(Parameters parameters,
+		Excepts.Consumer<IOException, String> stdOut) {
+		return Concurrent.submit(executor, () -> processor.lines(parameters, stdOut));
+	}
+
+	/**
+	 * Executes the commands concurrently, and waits for all to complete. Results are returned in
+	 * the same order as the commands. The first failure is thrown after all commands complete.
+	 */
+	public List<String> execAll(Collection<Parameters> parameters) throws IOException {
+		var futures = Lists.adapt(this::submit, parameters);
+		List<String> results = Lists.of();
+		IOException ex = null;
+		for (var future : futures) {
+			try {
+				results.add(Concurrent.get(future, ExceptionAdapter.io));
+			} catch (IOException e) {
+				if (ex == null) ex = e;
+				results.add(null);
+			}
+		}
+		if (ex != null) throw ex;
+		return results;
+	}
+
+	@Override
+	public void close() {
+		Closeables.close(executor);
+	}
+}
@@ -122,6 +122,45 @@ public class Processor {
 		}
 	}
 
+	/**
+	 * Executes the command, and passes each stdout line to the consumer as it is received, without
+	 * collecting the full output.
+	 */
+	public void lines(Parameters parameters, Excepts.Consumer<IOException, String> stdOut)
+		throws IOException {
+		lines(parameters, stdOut, null);
+	}
+
+	/**
+	 * Executes the command, and passes each stdout and stderr line to the consumers as they are
+	 * received, without collecting the full output. If stderr is verified, an exception is thrown
+	 * on completion if any stderr output was received.
+	 */
+	@SuppressWarnings("resource")
+	public void lines(Parameters parameters, Excepts.Consumer<IOException, String> stdOut,
+		Excepts.Consumer<IOException, String> stdErr) throws IOException {
+		if (parameters.list().isEmpty()) return;
+		var errs = new StringBuilder();
+		var outLines = Lines.of(line -> {
+			if (stdOut != null) stdOut.accept(line);
+		});
+		var errLines = Lines.of(line -> {
+			if (verifyErr && !Strings.isBlank(line)) errs.append(line).append('\n');
+			if (stdErr != null) stdErr.accept(line);
+		});
+		try (var process = processStarter.apply(parameters).get()) {
+			var err = process.getErrorStream();
+			waitForProcess(process, parameters, in -> {
+				outLines.transferAvailableFrom(in);
+				errLines.transferAvailableFrom(err);
+			});
+			outLines.transferAvailableFrom(process.getInputStream()).flush();
+			errLines.transferAvailableFrom(err).flush();
+			if (!errs.isEmpty()) throw new IOException(errs.toString().trim());
+			verifyExitValue(process);
+		}
+	}
+
 	private String exec(Process process, Parameters parameters) throws IOException {
 		var stdOut = waitFor(process, parameters);
 		verifyErr(process);
@@ -0,0 +1,261 @@
+package ceri.common.property;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import ceri.common.collect.Immutable;
+import ceri.common.collect.Sets;
+import ceri.common.concurrent.Locker;
+import ceri.common.function.Functions;
+import ceri.common.text.Strings;
+import ceri.common.text.ToString;
+
+/**
+ * Wraps a property source with a prefix tree of keys, and a cache of values. Reads take no locks:
+ * key lookups use an immutable tree that is replaced on write, and values are held in concurrent
+ * maps. The last value converted by a parser is cached with the parser instance until the key is
+ * written, so repeated reads with a shared parser, such as a method reference, are not parsed
+ * again. Only one converted value is held per key, so fresh parser instances do not grow the
+ * cache. All caches are rebuilt if the wrapped source reports modification, to include writes that
+ * bypass this instance. Keys are split into normalized parts, so the separator must not be empty.
+ */
+public class IndexedSource implements PropertySource {
+	private final Locker locker = Locker.of();
+	private final PropertySource source;
+	private final Map<String, Value> values = new ConcurrentHashMap<>();
+	private volatile Node root;
+	private volatile long version = 0;
+
+	/**
+	 * A raw value, with the last value converted by a parser.
+	 */
+	private static class Value {
+		public final String value;
+		public volatile Converted converted = null;
+
+		private Value(String value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * A converted value and its parser.
+	 */
+	private record Converted(Object parser, Object value) {}
+
+	/**
+	 * A prefix tree node. The key is set if the node path is a full key. Nodes are immutable once
+	 * published.
+	 */
+	private static class Node {
+		public final String key;
+		public final Map<String, Node> children;
+
+		private Node(String key, Map<String, Node> children) {
+			this.key = key;
+			this.children = children;
+		}
+
+		public boolean isEmpty() {
+			return key == null && children.isEmpty();
+		}
+	}
+
+	/**
+	 * Collects nodes for the initial tree.
+	 */
+	private static class Builder {
+		public final Map<String, Builder> children = new LinkedHashMap<>();
+		public String key = null;
+
+		public Node build() {
+			if (children.isEmpty()) return new Node(key, Map.of());
+			var nodes = new LinkedHashMap<String, Node>();
+			for (var entry : children.entrySet())
+				nodes.put(entry.getKey(), entry.getValue().build());
+			return new Node(key, Collections.unmodifiableMap(nodes));
+		}
+	}
+
+	public static IndexedSource of(PropertySource source) {
+		var separator = source.separator();
+		if (Strings.isEmpty(separator.value()))
+			throw new IllegalArgumentException("Separator cannot be empty: " + source);
+		return new IndexedSource(source);
+	}
+
+	private IndexedSource(PropertySource source) {
+		this.source = source;
+		root = build(source.separator(), source.descendants(""));
+	}
+
+	@Override
+	public Separator separator() {
+		return source.separator();
+	}
+
+	@Override
+	public Set<String> children(String key) {
+		var node = node(key);
+		if (node == null) return Set.of();
+		return node.children.keySet();
+	}
+
+	@Override
+	public Set<String> descendants(String key) {
+		var node = node(key);
+		if (node == null) return Set.of();
+		var descendants = Sets.<String>link();
+		appendDescendants(descendants, separator().value(), node, "");
+		return Immutable.wrap(descendants);
+	}
+
+	@Override
+	public boolean hasKey(String key) {
+		if (Strings.isEmpty(key)) return false;
+		return node(key) != null;
+	}
+
+	@Override
+	public String property(String key) {
+		return entry(key).value;
+	}
+
+	/**
+	 * Returns the converted value. The value is cached with the parser instance until the key is
+	 * written, or the key is read with a different parser.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T value(String key, Functions.Function<String, T> parser) {
+		var value = entry(key);
+		var converted = value.converted;
+		if (converted == null || converted.parser() != parser) {
+			converted = new Converted(parser, parser.apply(PropertySource.trim(value.value)));
+			value.converted = converted;
+		}
+		return (T) converted.value();
+	}
+
+	@Override
+	public void property(String key, String value) {
+		locker.run(() -> {
+			var old = source.property(key);
+			source.property(key, value);
+			version++;
+			values.remove(key);
+			if (old == null && value != null)
+				root = put(root, key, separator().split(key), 0);
+			else if (old != null && value == null) root = remove(root, separator().split(key), 0);
+		});
+	}
+
+	/**
+	 * Returns the wrapped source modified state. If modified, the key tree and value caches are
+	 * rebuilt.
+	 */
+	@Override
+	public boolean modified() {
+		if (!source.modified()) return false;
+		refresh();
+		return true;
+	}
+
+	/**
+	 * Rebuilds the key tree and clears cached values. Call if the wrapped source has been changed
+	 * directly.
+	 */
+	public void refresh() {
+		locker.run(() -> {
+			version++;
+			values.clear();
+			root = build(separator(), source.descendants(""));
+		});
+	}
+
+	@Override
+	public String toString() {
+		return ToString.forClass(this, source);
+	}
+
+	private Value entry(String key) {
+		var value = values.get(key);
+		if (value != null) return value;
+		long version = this.version;
+		value = new Value(source.property(key));
+		var existing = values.putIfAbsent(key, value);
+		if (existing != null) return existing;
+		if (version != this.version) values.remove(key, value); // may be stale
+		return value;
+	}
+
+	private Node node(String key) {
+		var node = root;
+		if (Strings.isEmpty(key)) return node;
+		var separator = separator().value();
+		int start = 0;
+		while (node != null) {
+			int i = key.indexOf(separator, start);
+			int end = i < 0 ? key.length() : i;
+			if (end > start) node = node.children.get(key.substring(start, end));
+			if (i < 0) return node;
+			start = i + separator.length();
+		}
+		return null;
+	}
+
+	private static void appendDescendants(Set<String> receiver, String separator, Node node,
+		String path) {
+		for (var entry : node.children.entrySet()) {
+			var childPath = path.isEmpty() ? entry.getKey() : path + separator + entry.getKey();
+			if (entry.getValue().key != null) receiver.add(childPath);
+			appendDescendants(receiver, separator, entry.getValue(), childPath);
+		}
+	}
+
+	private static Node build(Separator separator, Collection<String> keys) {
+		var root = new Builder();
+		for (var key : keys) {
+			var builder = root;
+			for (var part : separator.split(key))
+				builder = builder.children.computeIfAbsent(part, _ -> new Builder());
+			builder.key = key;
+		}
+		return root.build();
+	}
+
+	/**
+	 * Returns a copy of the node with the key added. Unchanged sub-trees are shared.
+	 */
+	private static Node put(Node node, String key, List<String> parts, int i) {
+		if (i == parts.size()) return new Node(key, node.children);
+		var part = parts.get(i);
+		var child = node.children.get(part);
+		if (child == null) child = new Node(null, Map.of());
+		return with(node, part, put(child, key, parts, i + 1));
+	}
+
+	/**
+	 * Returns a copy of the node with the key removed, and empty sub-trees pruned.
+	 */
+	private static Node remove(Node node, List<String> parts, int i) {
+		if (i == parts.size()) return node.key == null ? node : new Node(null, node.children);
+		var part = parts.get(i);
+		var child = node.children.get(part);
+		if (child == null) return node;
+		var updated = remove(child, parts, i + 1);
+		if (updated == child) return node;
+		return with(node, part, updated.isEmpty() ? null : updated);
+	}
+
+	private static Node with(Node node, String part, Node child) {
+		var children = new LinkedHashMap<>(node.children);
+		if (child == null) children.remove(part);
+		else children.put(part, child);
+		return new Node(node.key, Collections.unmodifiableMap(children));
+	}
+}
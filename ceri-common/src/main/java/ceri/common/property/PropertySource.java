@@ -10,6 +10,7 @@ import ceri.common.collect.Immutable;
 import ceri.common.collect.Sets;
 import ceri.common.concurrent.Lazy;
 import ceri.common.function.Functional;
+import ceri.common.function.Functions;
 import ceri.common.io.IoExceptions;
 import ceri.common.text.Strings;
 import ceri.common.text.ToString;
@@ -48,6 +49,15 @@ public interface PropertySource {
 	 */
 	String property(String key);
 
+	/**
+	 * Returns the property value converted by the parser. The parser receives the trimmed value,
+	 * or null if empty. Implementations may cache the result per parser instance, so the parser
+	 * should be stateless.
+	 */
+	default <T> T value(String key, Functions.Function<String, T> parser) {
+		return parser.apply(trim(property(key)));
+	}
+
 	/**
 	 * Sets a property value. If the value is null, the property is removed (if supported).
 	 */
@@ -340,6 +350,14 @@ public interface PropertySource {
 
 	/* Support for implementations */
 
+	/**
+	 * Trims the value, returning null if empty.
+	 */
+	static String trim(String value) {
+		value = Strings.trim(value);
+		return Strings.isEmpty(value) ? null : value;
+	}
+
 	static boolean hasKey(Separator separator, Iterable<String> paths, String key) {
 		for (var path : paths) {
 			if (!path.startsWith(key)) continue;
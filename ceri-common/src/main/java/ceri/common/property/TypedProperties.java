@@ -4,16 +4,18 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import ceri.common.array.Array;
 import ceri.common.collect.Sets;
 import ceri.common.function.Excepts;
+import ceri.common.function.Functions;
 import ceri.common.stream.Collect;
 import ceri.common.stream.Streams;
 import ceri.common.text.Regex;
-import ceri.common.text.Strings;
 import ceri.common.util.Basics;
 
 /**
@@ -25,8 +27,16 @@ public class TypedProperties {
 	public static final TypedProperties NULL = new TypedProperties(PropertySource.NULL) {};
 	private static final Excepts.Predicate<RuntimeException, String> BY_ID =
 		Regex.Filter.match("\\d+");
+	private static final int KEYS_MAX = 256;
+	private static final Functions.Function<String, Boolean> BOOL =
+		s -> Parser.string(s).toBool();
+	private static final Functions.Function<String, Integer> INT = s -> Parser.string(s).toInt();
+	private static final Functions.Function<String, Long> LONG = s -> Parser.string(s).toLong();
+	private static final Functions.Function<String, Double> DOUBLE =
+		s -> Parser.string(s).toDouble();
 	public final String prefix;
 	private final PropertySource properties;
+	private final Map<String, String> keys = new ConcurrentHashMap<>();
 
 	/**
 	 * Base ref class.
@@ -131,15 +141,25 @@ public class TypedProperties {
 	 * exists for the key.
 	 */
 	public String get(String... keyParts) {
-		String value = Strings.trim(properties.property(key(keyParts)));
-		return Strings.isEmpty(value) ? null : value;
+		return PropertySource.trim(properties.property(key(keyParts)));
+	}
+
+	/**
+	 * Retrieves the property with prefixed, dot-separated key, converted by the parser. The parser
+	 * receives the trimmed value, or null if empty. The source may cache the result per parser
+	 * instance, so a stateless, shared parser should be used, such as a method reference.
+	 */
+	public <T> T value(Functions.Function<String, T> parser, String... keyParts) {
+		return properties.value(key(keyParts), parser);
 	}
 
 	/**
 	 * Retrieves a parser for the property with prefixed, dot-separated key, which may be null.
+	 * Boolean, int, long and double conversions use shared parsers with value(), so sources that
+	 * cache converted values do not re-parse on each call.
 	 */
 	public Parser.String parse(String... keyParts) {
-		return Parser.string(get(keyParts));
+		return new Value(properties, key(keyParts));
 	}
 
 	/**
@@ -193,7 +213,88 @@ public class TypedProperties {
 		return properties.toString() + "[" + prefix + "]";
 	}
 
+	/**
+	 * A parser for a property value. Common conversions are made by the source with shared
+	 * parsers, so that converted values may be cached.
+	 */
+	private record Value(PropertySource properties, String key) implements Parser.String {
+		@Override
+		public String get() {
+			return PropertySource.trim(properties.property(key));
+		}
+
+		@Override
+		public Boolean toBool() {
+			return properties.value(key, BOOL);
+		}
+
+		@Override
+		public boolean toBool(boolean def) {
+			return Basics.def(toBool(), def);
+		}
+
+		@Override
+		public Integer toInt() {
+			return properties.value(key, INT);
+		}
+
+		@Override
+		public int toInt(int def) {
+			return Basics.def(toInt(), def);
+		}
+
+		@Override
+		public Long toLong() {
+			return properties.value(key, LONG);
+		}
+
+		@Override
+		public long toLong(long def) {
+			return Basics.def(toLong(), def);
+		}
+
+		@Override
+		public Double toDouble() {
+			return properties.value(key, DOUBLE);
+		}
+
+		@Override
+		public double toDouble(double def) {
+			return Basics.def(toDouble(), def);
+		}
+
+		@Override
+		public Parser.Type<Boolean> asBool() {
+			return Parser.type(toBool());
+		}
+
+		@Override
+		public Parser.Type<Integer> asInt() {
+			return Parser.type(toInt());
+		}
+
+		@Override
+		public Parser.Type<Long> asLong() {
+			return Parser.type(toLong());
+		}
+
+		@Override
+		public Parser.Type<Double> asDouble() {
+			return Parser.type(toDouble());
+		}
+	}
+
+	/**
+	 * Joins the prefix and key parts. Joined single-part keys are retained, up to a limit, to
+	 * avoid building the same key string on each call.
+	 */
 	private String key(String... keyParts) {
-		return separator().join(prefix, keyParts);
+		if (keyParts == null || keyParts.length != 1 || keyParts[0] == null)
+			return separator().join(prefix, keyParts);
+		var key = keys.get(keyParts[0]);
+		if (key != null) return key;
+		key = separator().join(prefix, keyParts);
+		if (keys.size() < KEYS_MAX) keys.putIfAbsent(keyParts[0], key);
+		return key;
 	}
 }
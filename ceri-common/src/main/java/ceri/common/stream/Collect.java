@@ -10,7 +10,9 @@ import java.util.stream.Collector;
 import ceri.common.array.Array;
 import ceri.common.array.DynamicArray;
 import ceri.common.collect.Immutable;
+import ceri.common.collect.IntSet;
 import ceri.common.collect.Lists;
+import ceri.common.collect.LongSet;
 import ceri.common.collect.Maps;
 import ceri.common.collect.Sets;
 import ceri.common.except.Exceptions;
@@ -44,6 +46,9 @@ public class Collect {
 		/** Collects elements into a sorted primitive array. */
 		public static final IntStream.Collector<?, int[]> sortedArray = new Composed<>(
 			DynamicArray::ints, DynamicArray.OfInt::accept, a -> Array.INT.sort(a.truncate()));
+		/** Collects elements into a primitive hash set. */
+		public static final IntStream.Collector<?, IntSet> set =
+			new Composed<>(IntSet::of, IntSet::add, s -> s);
 		/** Calculates the average value of elements. */
 		public static final IntStream.Collector<?, Double> average =
 			new Composed<>(Sum::new, Sum::add, Sum::average);
@@ -79,6 +84,9 @@ public class Collect {
 		public static final LongStream.Collector<DynamicArray.OfLong, long[]> sortedArray =
 			new Composed<>(DynamicArray::longs, DynamicArray.OfLong::accept,
 				a -> Array.LONG.sort(a.truncate()));
+		/** Collects elements into a primitive hash set. */
+		public static final LongStream.Collector<?, LongSet> set =
+			new Composed<>(LongSet::of, LongSet::add, s -> s);
 		/** Calculates the average value of elements. */
 		public static final LongStream.Collector<?, Double> average =
 			new Composed<>(Sum::new, Sum::add, Sum::average);
@@ -5,8 +5,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.concurrent.TimeUnit;
 import ceri.common.except.ExceptionAdapter;
+import ceri.common.function.Excepts;
 import ceri.common.process.Parameters;
 import ceri.common.process.Processor;
+import ceri.common.text.Regex;
 import ceri.common.time.Timeout;
 
 public class TestProcess extends Process {
@@ -41,6 +43,15 @@ public class TestProcess extends Process {
 		public String exec(Parameters parameters) throws IOException {
 			return exec.apply(parameters, ExceptionAdapter.io);
 		}
+
+		@Override
+		public void lines(Parameters parameters, Excepts.Consumer<IOException, String> stdOut,
+			Excepts.Consumer<IOException, String> stdErr) throws IOException {
+			var out = exec(parameters);
+			if (out == null || stdOut == null) return;
+			for (var line : Regex.Split.LINE.list(out))
+				stdOut.accept(line);
+		}
 	}
 
 	@SuppressWarnings("resource")
@@ -11,6 +11,7 @@ import ceri.common.test.Testing;
 @Suite.SuiteClasses({
 	// array
 	ceri.common.array.ArrayTest.class, //
+	ceri.common.array.ChunkedArrayBehavior.class, //
 	ceri.common.array.DimensionsBehavior.class, //
 	ceri.common.array.DynamicArrayBehavior.class, //
 	ceri.common.array.PrimitiveArrayBehavior.class, //
@@ -18,13 +19,18 @@ import ceri.common.test.Testing;
 	ceri.common.array.TypedArrayBehavior.class, //
 	// collect
 	ceri.common.collect.CollectableTest.class, //
+	ceri.common.collect.CompactBehavior.class, //
 	ceri.common.collect.EnumsTest.class, //
 	ceri.common.collect.IdentityCacheTest.class, //
 	ceri.common.collect.ImmutableTest.class, //
 	ceri.common.collect.IndexRangesBehavior.class, //
+	ceri.common.collect.IntMapBehavior.class, //
+	ceri.common.collect.IntSetBehavior.class, //
 	ceri.common.collect.IterablesTest.class, //
 	ceri.common.collect.IteratorsTest.class, //
 	ceri.common.collect.ListsTest.class, //
+	ceri.common.collect.LongMapBehavior.class, //
+	ceri.common.collect.LongSetBehavior.class, //
 	ceri.common.collect.MapsTest.class, //
 	ceri.common.collect.NodeBehavior.class, //
 	ceri.common.collect.SetsTest.class, //
@@ -55,6 +61,7 @@ import ceri.common.test.Testing;
 	ceri.common.concurrent.FuturesBehavior.class, //
 	ceri.common.concurrent.LazyBehavior.class, //
 	ceri.common.concurrent.LockerBehavior.class, //
+	ceri.common.concurrent.PrecisionDelayBehavior.class, //
 	ceri.common.concurrent.RuntimeInterruptedExceptionBehavior.class, //
 	ceri.common.concurrent.SafeReadWriteBehavior.class, //
 	ceri.common.concurrent.SimpleExecutorBehavior.class, //
@@ -95,6 +102,7 @@ import ceri.common.test.Testing;
 	// event
 	ceri.common.event.EventThreadBehavior.class, //
 	ceri.common.event.EventTrackerBehavior.class, //
+	ceri.common.event.FlowsBehavior.class, //
 	ceri.common.event.IntListenableBehavior.class, //
 	ceri.common.event.IntListenersBehavior.class, //
 	ceri.common.event.ListenableBehavior.class, //
@@ -133,6 +141,7 @@ import ceri.common.test.Testing;
 	// io
 	ceri.common.io.BufferedOutputStreamBehavior.class, //
 	ceri.common.io.BuffersBehavior.class, //
+	ceri.common.io.CoalescingOutputStreamBehavior.class, //
 	ceri.common.io.ConnectorBehavior.class, //
 	ceri.common.io.ConsoleInputBehavior.class, //
 	ceri.common.io.DeviceModeBehavior.class, //
@@ -170,6 +179,11 @@ import ceri.common.test.Testing;
 	ceri.common.math.RadixTest.class, //
 	ceri.common.math.ReverseFunctionBehavior.class, //
 	ceri.common.math.TrigTest.class, //
+	// metric
+	ceri.common.metric.CounterBehavior.class, //
+	ceri.common.metric.GaugeBehavior.class, //
+	ceri.common.metric.HistogramBehavior.class, //
+	ceri.common.metric.MetricsBehavior.class, //
 	// net
 	ceri.common.net.AddressTypeBehavior.class, //
 	ceri.common.net.EmailsTest.class, //
@@ -184,12 +198,16 @@ import ceri.common.test.Testing;
 	ceri.common.net.UdpTest.class, //
 	ceri.common.net.UrlsTest.class, //
 	// process
+	ceri.common.process.CachedProcessorBehavior.class, //
 	ceri.common.process.ColumnsBehavior.class, //
+	ceri.common.process.LinesBehavior.class, //
 	ceri.common.process.OutputBehavior.class, //
 	ceri.common.process.ParametersBehavior.class, //
+	ceri.common.process.ProcessExecutorBehavior.class, //
 	ceri.common.process.ProcessesTest.class, //
 	ceri.common.process.ProcessorBehavior.class, //
 	// property
+	ceri.common.property.IndexedSourceBehavior.class, //
 	ceri.common.property.KeyBehavior.class, //
 	ceri.common.property.ParserBehavior.class, //
 	ceri.common.property.PropertySourceBehavior.class, //
@@ -0,0 +1,115 @@
+package ceri.common.array;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import org.junit.Test;
+import ceri.common.data.ByteProvider;
+import ceri.common.test.Assert;
+
+public class ChunkedArrayBehavior {
+
+	@Test
+	public void shouldValidatePoolChunkSize() {
+		Assert.illegalArg(() -> ChunkedArray.Pool.heap(4, 0));
+		Assert.illegalArg(() -> ChunkedArray.Pool.heap(24, 0));
+		Assert.illegalArg(() -> ChunkedArray.Pool.heap(16, -1));
+	}
+
+	@Test
+	public void shouldAppendBytesAcrossChunks() {
+		try (var chunked = ChunkedArray.bytes(ChunkedArray.Pool.heap(8, 0))) {
+			chunked.accept(1);
+			Assert.equal(chunked.append(2, 3, 4, 5, 6, 7, 8, 9, 10), 10);
+			Assert.equal(chunked.append(new byte[] { 11, 12, 13 }, 1, 2), 12);
+			Assert.equal(chunked.append(ByteProvider.of(14, 15, 16, 17, 18, 19, 20, 21, 22)), 21);
+			Assert.equal(chunked.chunks(), 3);
+			Assert.equal(chunked.get(8), (byte) 9);
+			Assert.thrown(IndexOutOfBoundsException.class, () -> chunked.get(21));
+			Assert.array(chunked.array(), 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 12, 13, 14, 15, 16, 17,
+				18, 19, 20, 21, 22);
+		}
+	}
+
+	@Test
+	public void shouldProvideByteView() throws IOException {
+		try (var chunked = ChunkedArray.bytes(ChunkedArray.Pool.heap(8, 0))) {
+			for (int i = 0; i < 20; i++)
+				chunked.accept(i);
+			var provider = chunked.provider();
+			Assert.equal(provider.length(), 20);
+			Assert.equal(provider.getByte(19), (byte) 19);
+			Assert.equal(provider.getIntMsb(6), 0x06070809);
+			Assert.array(provider.copy(6, 4), 6, 7, 8, 9);
+			Assert.array(provider.slice(14).copy(0), 14, 15, 16, 17, 18, 19);
+			Assert.same(provider.slice(0), provider);
+			Assert.thrown(IndexOutOfBoundsException.class, () -> provider.getByte(20));
+			var out = new ByteArrayOutputStream();
+			Assert.equal(provider.writeTo(5, out, 12), 17);
+			Assert.array(out.toByteArray(), 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16);
+			Assert.equal(provider.toString(), ByteProvider.toHex(provider));
+		}
+	}
+
+	@Test
+	public void shouldAppendIntsAcrossChunks() {
+		try (var chunked = ChunkedArray.ints(ChunkedArray.Pool.heap(16, 0))) {
+			chunked.append(1, 2, 3);
+			chunked.accept(-4);
+			chunked.append(new int[] { 5, 6, 7, 8, 9 }, 0, 5);
+			Assert.equal(chunked.chunkLength(), 4);
+			Assert.equal(chunked.chunks(), 3);
+			Assert.equal(chunked.get(3), -4);
+			Assert.array(chunked.array(), 1, 2, 3, -4, 5, 6, 7, 8, 9);
+			var provider = chunked.provider();
+			Assert.array(provider.copy(2, 5), 3, -4, 5, 6, 7);
+			Assert.equal(provider.slice(5, 3).getInt(2), 8);
+			Assert.equal(provider.slice(9).length(), 0);
+		}
+	}
+
+	@Test
+	public void shouldAppendLongsAcrossChunks() {
+		try (var chunked = ChunkedArray.longs(ChunkedArray.Pool.heap(16, 0))) {
+			chunked.append(Long.MIN_VALUE, -1L, 0L);
+			chunked.accept(Long.MAX_VALUE);
+			chunked.append(new long[] { 5, 6, 7 }, 1, 2);
+			Assert.equal(chunked.chunks(), 3);
+			Assert.array(chunked.array(), Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE, 6L, 7L);
+			Assert.array(chunked.provider().copy(3), Long.MAX_VALUE, 6L, 7L);
+			Assert.equal(chunked.provider().getLong(0), Long.MIN_VALUE);
+		}
+	}
+
+	@Test
+	public void shouldReuseChunksFromPool() {
+		var pool = ChunkedArray.Pool.direct(16, 2);
+		try (var chunked = ChunkedArray.ints(pool)) {
+			chunked.append(new int[12], 0, 12);
+			Assert.equal(pool.allocated(), 3);
+		}
+		Assert.equal(pool.pooled(), 2);
+		try (var chunked = ChunkedArray.bytes(pool)) {
+			chunked.append(new byte[20], 0, 20);
+			Assert.equal(pool.allocated(), 3);
+			Assert.equal(pool.pooled(), 0);
+			chunked.clear();
+			Assert.equal(chunked.index(), 0);
+			Assert.equal(chunked.chunks(), 0);
+		}
+		Assert.equal(pool.pooled(), 2);
+	}
+
+	@Test
+	public void shouldAllocateFromArena() {
+		try (var arena = Arena.ofConfined()) {
+			var pool = ChunkedArray.Pool.direct(arena, 32, 0);
+			try (var chunked = ChunkedArray.longs(pool)) {
+				for (long i = 0; i < 10; i++)
+					chunked.accept(i * i);
+				Assert.equal(chunked.get(9), 81L);
+				Assert.equal(chunked.chunks(), 3);
+			}
+		}
+	}
+}
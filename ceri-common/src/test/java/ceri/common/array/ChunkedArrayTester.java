@@ -0,0 +1,58 @@
+package ceri.common.array;
+
+import java.lang.management.ManagementFactory;
+import ceri.common.function.Functions;
+
+/**
+ * Compares time and heap allocation of building a large byte array with DynamicArray and
+ * ChunkedArray. Data is appended in blocks, as read from a device stream.
+ */
+public class ChunkedArrayTester {
+	private static final int SIZE = 256 * 1024 * 1024;
+	private static final int BLOCK = 4096;
+	private static final int RUNS = 5;
+
+	public static void main(String[] args) {
+		var block = new byte[BLOCK];
+		var pool = ChunkedArray.Pool.direct(ChunkedArray.CHUNK_DEF, SIZE / ChunkedArray.CHUNK_DEF);
+		for (int i = 0; i < RUNS; i++) {
+			run("dynamic", () -> {
+				var array = DynamicArray.bytes();
+				for (int n = 0; n < SIZE; n += BLOCK)
+					array.append(block);
+				return array.truncate().length;
+			});
+			run("chunked heap view", () -> {
+				try (var array = ChunkedArray.bytes()) {
+					for (int n = 0; n < SIZE; n += BLOCK)
+						array.append(block);
+					return array.provider().length();
+				}
+			});
+			run("chunked pool view", () -> {
+				try (var array = ChunkedArray.bytes(pool)) {
+					for (int n = 0; n < SIZE; n += BLOCK)
+						array.append(block);
+					return array.provider().length();
+				}
+			});
+			run("chunked pool array", () -> {
+				try (var array = ChunkedArray.bytes(pool)) {
+					for (int n = 0; n < SIZE; n += BLOCK)
+						array.append(block);
+					return array.array().length;
+				}
+			});
+		}
+	}
+
+	private static void run(String name, Functions.IntSupplier builder) {
+		var bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long b0 = bean.getCurrentThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+		int length = builder.getAsInt();
+		long ms = (System.nanoTime() - t0) / 1000000;
+		long mb = (bean.getCurrentThreadAllocatedBytes() - b0) >> 20;
+		System.out.printf("%-20s %,d bytes: %,5d ms, %,5d MB allocated%n", name, length, ms, mb);
+	}
+}
@@ -0,0 +1,131 @@
+package ceri.common.collect;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.junit.Test;
+import ceri.common.collect.Immutable.Wrap;
+import ceri.common.test.Assert;
+
+public class CompactBehavior {
+
+	@Test
+	public void shouldCreateCompactTypesFromFactories() {
+		Assert.instance(Immutable.listOf(1, null, 3), Compact.FlatList.class);
+		Assert.instance(Immutable.setOf(1, null, 3), Compact.OpenSet.class);
+		Assert.instance(Immutable.mapOf(1, "a", null, "b"), Compact.OpenMap.class);
+		Assert.instance(Immutable.of(Wrap.<Integer, String>sortMap(), 1, "a", 2, "b"),
+			Compact.SortedArrayMap.class);
+		Assert.equal(Immutable.ofAll(Wrap.linkList(), 1, 2) instanceof Compact.FlatList, false);
+		Assert.equal(Immutable.wrap(Lists.ofAll(1, 2)) instanceof Compact.FlatList, false);
+	}
+
+	@Test
+	public void shouldProvideImmutableList() {
+		var list = Assert.immutable(Compact.list(Lists.ofAll(-1, null, 1, null)));
+		Assert.ordered(list, -1, null, 1, null);
+		Assert.equal(list, Lists.ofAll(-1, null, 1, null));
+		Assert.equal(list.hashCode(), Lists.ofAll(-1, null, 1, null).hashCode());
+		Assert.equal(list.indexOf(null), 1);
+		Assert.equal(list.lastIndexOf(null), 3);
+		Assert.equal(list.contains(2), false);
+		Assert.thrown(IndexOutOfBoundsException.class, () -> list.get(4));
+		Assert.unsupportedOp(() -> list.sort(null));
+		Assert.ordered(Compact.list(null));
+	}
+
+	@Test
+	public void shouldProvideImmutableSet() {
+		var set = Assert.immutable(Compact.set(Sets.ofAll("a", null, "b")));
+		Assert.unordered(set, "a", null, "b");
+		Assert.equal(set, Sets.ofAll(null, "b", "a"));
+		Assert.equal(set.hashCode(), Sets.ofAll(null, "b", "a").hashCode());
+		Assert.equal(set.contains(null), true);
+		Assert.equal(set.contains("c"), false);
+		Assert.unsupportedOp(() -> set.remove("c"));
+	}
+
+	@Test
+	public void shouldProvideImmutableMap() {
+		var source = Maps.<String, Integer>link();
+		for (int i = 0; i < 100; i++)
+			source.put(i == 50 ? null : "k" + i, i % 7 == 0 ? null : i);
+		var map = Assert.immutable(Compact.map(source));
+		Assert.equal(map, source);
+		Assert.equal(map.hashCode(), source.hashCode());
+		Assert.ordered(map.keySet(), source.keySet().toArray(String[]::new));
+		for (var entry : source.entrySet()) {
+			Assert.equal(map.containsKey(entry.getKey()), true);
+			Assert.equal(map.get(entry.getKey()), entry.getValue());
+		}
+		Assert.equal(map.get("x"), null);
+		Assert.equal(map.getOrDefault("x", -1), -1);
+		Assert.equal(map.getOrDefault("k0", -1), null);
+		Assert.equal(map.containsValue(99), true);
+		Assert.unsupportedOp(() -> map.putIfAbsent("k1", 1));
+		Assert.unsupportedOp(() -> map.merge("k1", 1, Integer::sum));
+		Assert.map(Compact.map(null));
+	}
+
+	@Test
+	public void shouldUseSingleProbeForSmallKeySets() {
+		var map = (Compact.OpenMap<?, ?>) Compact.map(Maps.of("a", 1, "b", 2, "c", 3, "d", 4));
+		Assert.equal(map.table.maxProbes(), 1);
+	}
+
+	@Test
+	public void shouldProvideImmutableSortedMap() {
+		var source = Maps.<Integer, String>tree();
+		for (int i = 0; i < 20; i++)
+			source.put(i * 10, "v" + i);
+		source.put(null, "null");
+		var map = Assert.immutable(Compact.sortedMap(source));
+		Assert.equal(map, source);
+		Assert.equal(map.toString(), source.toString());
+		Assert.same(map.comparator(), source.comparator());
+		Assert.equal(map.firstKey(), null);
+		Assert.equal(map.lastKey(), 190);
+		Assert.equal(map.get(null), "null");
+		Assert.equal(map.get(50), "v5");
+		Assert.equal(map.get(55), null);
+		Assert.equal(map.headMap(50), source.headMap(50));
+		Assert.equal(map.tailMap(55), source.tailMap(55));
+		Assert.equal(map.subMap(20, 80), source.subMap(20, 80));
+		Assert.equal(map.subMap(20, 80).headMap(50), source.subMap(20, 50));
+		Assert.equal(map.subMap(20, 80).containsKey(80), false);
+		Assert.illegalArg(() -> map.subMap(80, 20));
+		SortedMap<Integer, String> empty = map.subMap(21, 29);
+		Assert.map(empty);
+		Assert.thrown(() -> empty.firstKey());
+		Assert.thrown(() -> empty.lastKey());
+	}
+
+	@Test
+	public void shouldFailForSubMapBoundsOutOfRange() {
+		var source = Maps.<Integer, String>tree();
+		for (int i = 0; i < 20; i++)
+			source.put(i * 10, "v" + i);
+		for (var map : List.<SortedMap<Integer, String>>of(Compact.sortedMap(source), source)) {
+			var sub = map.subMap(20, 80);
+			Assert.illegalArg(() -> sub.subMap(10, 50));
+			Assert.illegalArg(() -> sub.subMap(30, 81));
+			Assert.illegalArg(() -> sub.headMap(81));
+			Assert.illegalArg(() -> sub.tailMap(19));
+			Assert.illegalArg(() -> sub.tailMap(80));
+			Assert.illegalArg(() -> map.headMap(50).headMap(60));
+			Assert.illegalArg(() -> map.tailMap(50).tailMap(40));
+			Assert.illegalArg(() -> map.subMap(21, 29).headMap(30));
+			Assert.equal(sub.subMap(20, 80), source.subMap(20, 80));
+			Assert.equal(sub.headMap(80), source.subMap(20, 80));
+			Assert.equal(sub.tailMap(79), source.subMap(79, 80));
+			Assert.equal(map.subMap(21, 29).subMap(22, 29), Map.of());
+		}
+	}
+
+	@Test
+	public void shouldMatchWrappedMapEquality() {
+		Map<Integer, String> map = Immutable.mapOf(1, "a", 2, "b");
+		Assert.equal(map, Map.of(1, "a", 2, "b"));
+		Assert.equal(Map.of(1, "a", 2, "b"), map);
+	}
+}
@@ -0,0 +1,62 @@
+package ceri.common.collect;
+
+import java.lang.ref.Reference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import ceri.common.function.Functions;
+
+/**
+ * Compares heap footprint and lookup rate of compact immutable collections against wrapped jdk
+ * collections.
+ */
+public class CompactTester {
+	private static final int COPIES = 10000;
+	private static final int SIZE = 16;
+	private static final int LOOKUPS = 20_000_000;
+
+	public static void main(String[] args) {
+		var source = Maps.<String, Integer>tree();
+		for (int i = 0; i < SIZE; i++)
+			source.put("key" + i, i);
+		var keys = source.keySet().toArray(String[]::new);
+		run("wrapped HashMap", () -> Collections.unmodifiableMap(Maps.copy(source)), keys);
+		run("compact map", () -> Compact.map(source), keys);
+		run("wrapped TreeMap", () -> Collections.unmodifiableSortedMap(Maps.tree(source)), keys);
+		run("compact sorted map", () -> Compact.sortedMap(source), keys);
+		List<String> list = Lists.ofAll(keys);
+		footprint("wrapped ArrayList", () -> Collections.unmodifiableList(Lists.of(list)));
+		footprint("compact list", () -> Compact.list(list));
+	}
+
+	private static void run(String name, Functions.Supplier<Map<String, Integer>> supplier,
+		String[] keys) {
+		footprint(name, supplier);
+		var map = supplier.get();
+		long sum = 0;
+		for (int i = 0; i < LOOKUPS / 10; i++) // warm-up
+			sum += map.get(keys[i % keys.length]);
+		long t0 = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++)
+			sum += map.get(keys[i % keys.length]);
+		long ns = System.nanoTime() - t0;
+		System.out.printf("  %,.0f lookups/s (%d)%n", LOOKUPS / (ns / 1e9), sum);
+	}
+
+	private static void footprint(String name, Functions.Supplier<?> supplier) {
+		var copies = new Object[COPIES];
+		long before = heapUsed();
+		for (int i = 0; i < copies.length; i++)
+			copies[i] = supplier.get();
+		long bytes = heapUsed() - before;
+		Reference.reachabilityFence(copies);
+		System.out.printf("%s: %,d bytes/copy%n", name, bytes / COPIES);
+	}
+
+	private static long heapUsed() {
+		var runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
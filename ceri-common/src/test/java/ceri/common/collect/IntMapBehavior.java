@@ -0,0 +1,100 @@
+package ceri.common.collect;
+
+import java.util.Map;
+import org.junit.Test;
+import ceri.common.array.Array;
+import ceri.common.test.Assert;
+
+public class IntMapBehavior {
+
+	@Test
+	public void shouldPutAndGetValues() {
+		var map = IntMap.<String>of();
+		Assert.equal(map.put(0, "0"), null);
+		Assert.equal(map.put(1, "1"), null);
+		Assert.equal(map.put(1, "one"), "1");
+		Assert.equal(map.put(-1, null), null);
+		Assert.equal(map.size(), 3);
+		Assert.equal(map.get(0), "0");
+		Assert.equal(map.get(1), "one");
+		Assert.equal(map.get(-1), null);
+		Assert.equal(map.containsKey(-1), true);
+		Assert.equal(map.get(2), null);
+		Assert.equal(map.getOrDefault(2, "x"), "x");
+		Assert.equal(map.getOrDefault(-1, "x"), null);
+	}
+
+	@Test
+	public void shouldPutIfAbsent() {
+		var map = IntMap.<String>of();
+		Assert.equal(map.putIfAbsent(0, "a"), null);
+		Assert.equal(map.putIfAbsent(0, "b"), "a");
+		Assert.equal(map.putIfAbsent(5, "c"), null);
+		Assert.equal(map.get(5), "c");
+	}
+
+	@Test
+	public void shouldComputeIfAbsent() {
+		var map = IntMap.<String>direct(0);
+		Assert.equal(map.computeIfAbsent(3, String::valueOf), "3");
+		Assert.equal(map.computeIfAbsent(3, _ -> "x"), "3");
+		Assert.equal(map.computeIfAbsent(0, _ -> null), null);
+		Assert.equal(map.containsKey(0), true);
+		Assert.equal(map.direct(), true);
+	}
+
+	@Test
+	public void shouldRemoveValues() {
+		var map = IntMap.<Integer>sized(100);
+		for (int i = 0; i < 100; i++)
+			map.put(i << 8, i);
+		for (int i = 0; i < 100; i += 3)
+			Assert.equal(map.remove(i << 8), i);
+		Assert.equal(map.remove(1), null);
+		for (int i = 0; i < 100; i++)
+			Assert.equal(map.get(i << 8), i % 3 == 0 ? null : i);
+		Assert.equal(map.size(), 66);
+	}
+
+	@Test
+	public void shouldGrow() {
+		var map = IntMap.<Integer>direct(0);
+		for (int i = 0; i < 1000; i++)
+			map.put(i * 7, i);
+		for (int i = 0; i < 1000; i++)
+			Assert.equal(map.get(i * 7), i);
+		Assert.equal(map.size(), 1000);
+	}
+
+	@Test
+	public void shouldIterateEntries() {
+		var map = IntMap.<String>of();
+		map.put(0, "0");
+		map.put(9, "9");
+		map.put(-3, "-3");
+		var entries = Maps.<Integer, String>of();
+		map.forEach(entries::put);
+		Assert.equal(entries, Map.of(0, "0", 9, "9", -3, "-3"));
+		Assert.array(Array.INT.sort(map.keys().toArray()), -3, 0, 9);
+		Assert.unordered(map.values().toList(), "0", "9", "-3");
+	}
+
+	@Test
+	public void shouldClear() {
+		var map = IntMap.<String>of();
+		map.put(0, "0");
+		map.put(1, "1");
+		map.clear();
+		Assert.equal(map.isEmpty(), true);
+		Assert.equal(map.get(0), null);
+		Assert.equal(map.get(1), null);
+	}
+
+	@Test
+	public void shouldProvideStringRepresentation() {
+		var map = IntMap.<String>of();
+		Assert.string(map, "{}");
+		map.put(0, "a");
+		Assert.string(map, "{0=a}");
+	}
+}
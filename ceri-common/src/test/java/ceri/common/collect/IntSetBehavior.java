@@ -0,0 +1,101 @@
+package ceri.common.collect;
+
+import org.junit.Test;
+import ceri.common.array.Array;
+import ceri.common.stream.Collect;
+import ceri.common.stream.IntStream;
+import ceri.common.test.Assert;
+import ceri.common.test.Captor;
+
+public class IntSetBehavior {
+
+	@Test
+	public void shouldAddAndRemoveValues() {
+		var set = IntSet.of();
+		Assert.equal(set.isEmpty(), true);
+		Assert.equal(set.add(0), true);
+		Assert.equal(set.add(-1), true);
+		Assert.equal(set.add(0), false);
+		Assert.equal(set.contains(0), true);
+		Assert.equal(set.contains(1), false);
+		Assert.equal(set.size(), 2);
+		Assert.equal(set.remove(0), true);
+		Assert.equal(set.remove(0), false);
+		Assert.equal(set.contains(0), false);
+		Assert.equal(set.size(), 1);
+	}
+
+	@Test
+	public void shouldGrow() {
+		assertGrowth(IntSet.sized(0));
+		assertGrowth(IntSet.direct(0));
+	}
+
+	@Test
+	public void shouldShiftEntriesOnRemoval() {
+		var set = IntSet.sized(1000);
+		for (int i = 0; i < 1000; i++)
+			set.add(i * 16);
+		for (int i = 0; i < 1000; i += 2)
+			set.remove(i * 16);
+		for (int i = 0; i < 1000; i++)
+			Assert.equal(set.contains(i * 16), (i & 1) == 1);
+		Assert.equal(set.size(), 500);
+	}
+
+	@Test
+	public void shouldIterateValues() {
+		var set = IntSet.of(3, 0, Integer.MIN_VALUE, 7);
+		var captor = Captor.ofInt();
+		set.forEach(captor);
+		Assert.unordered(captor.values, 3, 0, Integer.MIN_VALUE, 7);
+		Assert.array(Array.INT.sort(set.toArray()), Integer.MIN_VALUE, 0, 3, 7);
+		Assert.array(Array.INT.sort(set.stream().toArray()), Integer.MIN_VALUE, 0, 3, 7);
+	}
+
+	@Test
+	public void shouldCollectFromStream() {
+		var set = IntStream.of(1, 2, 2, 3, 1).collect(Collect.Ints.set);
+		Assert.equal(set, IntSet.of(3, 2, 1));
+		Assert.equal(IntSet.from(IntStream.of(1, 3, 2)), set);
+	}
+
+	@Test
+	public void shouldClear() {
+		var set = IntSet.direct(4);
+		set.add(0);
+		set.add(1);
+		set.clear();
+		Assert.equal(set.isEmpty(), true);
+		Assert.equal(set.contains(0), false);
+		Assert.equal(set.contains(1), false);
+		Assert.equal(set.direct(), true);
+	}
+
+	@Test
+	public void shouldProvideStringRepresentation() {
+		Assert.string(IntSet.of(), "[]");
+		Assert.string(IntSet.of(0), "[0]");
+	}
+
+	@Test
+	public void shouldDetermineEquality() {
+		var set = IntSet.of(1, 2, 0);
+		Assert.equal(set, set);
+		Assert.equal(set, IntSet.of(0, 1, 2));
+		Assert.equal(set.hashCode(), IntSet.of(0, 1, 2).hashCode());
+		Assert.notEqual(set, null);
+		Assert.notEqual(set, IntSet.of(0, 1));
+		Assert.notEqual(set, IntSet.of(0, 1, 3));
+	}
+
+	private static void assertGrowth(IntSet set) {
+		for (int i = -500; i < 500; i++)
+			Assert.equal(set.add(i * 31), true);
+		Assert.equal(set.size(), 1000);
+		for (int i = -500; i < 500; i++)
+			Assert.equal(set.contains(i * 31), true);
+		Assert.equal(set.contains(1), false);
+		Assert.yes(set.bytes() >= 1000 * Integer.BYTES);
+	}
+}
@@ -0,0 +1,101 @@
+package ceri.common.collect;
+
+import org.junit.Test;
+import ceri.common.array.Array;
+import ceri.common.stream.Collect;
+import ceri.common.stream.LongStream;
+import ceri.common.test.Assert;
+import ceri.common.test.Captor;
+
+public class LongSetBehavior {
+
+	@Test
+	public void shouldAddAndRemoveValues() {
+		var set = LongSet.of();
+		Assert.equal(set.isEmpty(), true);
+		Assert.equal(set.add(0), true);
+		Assert.equal(set.add(-1), true);
+		Assert.equal(set.add(0), false);
+		Assert.equal(set.contains(0), true);
+		Assert.equal(set.contains(1), false);
+		Assert.equal(set.size(), 2);
+		Assert.equal(set.remove(0), true);
+		Assert.equal(set.remove(0), false);
+		Assert.equal(set.contains(0), false);
+		Assert.equal(set.size(), 1);
+	}
+
+	@Test
+	public void shouldGrow() {
+		assertGrowth(LongSet.sized(0));
+		assertGrowth(LongSet.direct(0));
+	}
+
+	@Test
+	public void shouldShiftEntriesOnRemoval() {
+		var set = LongSet.sized(1000);
+		for (int i = 0; i < 1000; i++)
+			set.add((long) i << 36);
+		for (int i = 0; i < 1000; i += 2)
+			set.remove((long) i << 36);
+		for (int i = 0; i < 1000; i++)
+			Assert.equal(set.contains((long) i << 36), (i & 1) == 1);
+		Assert.equal(set.size(), 500);
+	}
+
+	@Test
+	public void shouldIterateValues() {
+		var set = LongSet.of(3, 0, Long.MIN_VALUE, 7);
+		var captor = Captor.ofLong();
+		set.forEach(captor);
+		Assert.unordered(captor.values, 3L, 0L, Long.MIN_VALUE, 7L);
+		Assert.array(Array.LONG.sort(set.toArray()), Long.MIN_VALUE, 0, 3, 7);
+		Assert.array(Array.LONG.sort(set.stream().toArray()), Long.MIN_VALUE, 0, 3, 7);
+	}
+
+	@Test
+	public void shouldCollectFromStream() {
+		var set = LongStream.of(1, 2, 2, 3, 1).collect(Collect.Longs.set);
+		Assert.equal(set, LongSet.of(3, 2, 1));
+		Assert.equal(LongSet.from(LongStream.of(1, 3, 2)), set);
+	}
+
+	@Test
+	public void shouldClear() {
+		var set = LongSet.direct(4);
+		set.add(0);
+		set.add(1);
+		set.clear();
+		Assert.equal(set.isEmpty(), true);
+		Assert.equal(set.contains(0), false);
+		Assert.equal(set.contains(1), false);
+		Assert.equal(set.direct(), true);
+	}
+
+	@Test
+	public void shouldProvideStringRepresentation() {
+		Assert.string(LongSet.of(), "[]");
+		Assert.string(LongSet.of(0), "[0]");
+	}
+
+	@Test
+	public void shouldDetermineEquality() {
+		var set = LongSet.of(1, 2, 0);
+		Assert.equal(set, set);
+		Assert.equal(set, LongSet.of(0, 1, 2));
+		Assert.equal(set.hashCode(), LongSet.of(0, 1, 2).hashCode());
+		Assert.notEqual(set, null);
+		Assert.notEqual(set, LongSet.of(0, 1));
+		Assert.notEqual(set, LongSet.of(0, 1, 3));
+	}
+
+	private static void assertGrowth(LongSet set) {
+		for (int i = -500; i < 500; i++)
+			Assert.equal(set.add(i * 31), true);
+		Assert.equal(set.size(), 1000);
+		for (int i = -500; i < 500; i++)
+			Assert.equal(set.contains(i * 31), true);
+		Assert.equal(set.contains(1), false);
+		Assert.yes(set.bytes() >= 1000 * Long.BYTES);
+	}
+}
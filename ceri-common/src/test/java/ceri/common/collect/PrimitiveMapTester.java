@@ -0,0 +1,67 @@
+package ceri.common.collect;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import ceri.common.function.Functions;
+
+/**
+ * Compares memory and throughput of primitive long-keyed maps with {@code HashMap<Long, V>}. Heap
+ * usage is measured after garbage collection, so results are approximate. Run with a fixed heap
+ * size, such as -Xms2g -Xmx2g, for more stable numbers.
+ */
+public class PrimitiveMapTester {
+	private static final int SIZE = 2_000_000;
+	private static final int ROUNDS = 5;
+	private static final Object VALUE = new Object();
+
+	public static void main(String[] args) {
+		var keys = new Random(0).longs(SIZE).toArray();
+		for (int round = 0; round < ROUNDS; round++) {
+			System.out.printf("Round %d:%n", round);
+			run("HashMap<Long, V>", keys, () -> new HashMap<Long, Object>(SIZE * 4 / 3 + 1),
+				Map::put, Map::get);
+			run("LongMap", keys, () -> LongMap.sized(SIZE), LongMap::put, LongMap::get);
+			run("LongMap direct", keys, () -> LongMap.direct(SIZE), LongMap::put, LongMap::get);
+		}
+	}
+
+	interface Put<M> {
+		void put(M map, long key, Object value);
+	}
+
+	interface Get<M> {
+		Object get(M map, long key);
+	}
+
+	private static <M> void run(String name, long[] keys, Functions.Supplier<M> supplier,
+		Put<M> put, Get<M> get) {
+		long heap0 = heapUsed();
+		var map = supplier.get();
+		long t0 = System.nanoTime();
+		for (long key : keys)
+			put.put(map, key, VALUE);
+		long t1 = System.nanoTime();
+		int found = 0;
+		for (long key : keys)
+			if (get.get(map, key) != null) found++;
+		long t2 = System.nanoTime();
+		long heap = heapUsed() - heap0;
+		System.out.printf("  %-18s put %6.1fM/s, get %6.1fM/s, heap %5dMB (%d found)%n", name,
+			rate(t1 - t0), rate(t2 - t1), heap >> 20, found);
+		Reference.reachabilityFence(map);
+	}
+
+	private static double rate(long ns) {
+		return SIZE / (double) TimeUnit.NANOSECONDS.toMicros(Math.max(1000, ns));
+	}
+
+	private static long heapUsed() {
+		var runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,46 @@
+package ceri.common.concurrent;
+
+import org.junit.Test;
+import ceri.common.test.Assert;
+
+public class PrecisionDelayBehavior {
+
+	@Test
+	public void shouldValidateSpinTime() {
+		Assert.illegalArg(() -> PrecisionDelay.of(-1));
+		Assert.equal(PrecisionDelay.of(0).spinNs(), 0L);
+		Assert.find(PrecisionDelay.of(100), "\\(100ns\\)");
+	}
+
+	@Test
+	public void shouldCalibrateOnce() {
+		var delay = PrecisionDelay.calibrated();
+		Assert.same(PrecisionDelay.calibrated(), delay);
+		Assert.yes(delay.spinNs() >= 10_000L);
+		Assert.yes(delay.spinNs() <= 2_000_000L);
+	}
+
+	@Test
+	public void shouldWaitUntilDeadline() {
+		long t0 = System.nanoTime();
+		long late = PrecisionDelay.of(50_000).until(t0 + 200_000);
+		Assert.yes(System.nanoTime() - t0 >= 200_000);
+		Assert.yes(late >= 0);
+		Assert.yes(PrecisionDelay.SPIN.until(t0) > 0);
+	}
+
+	@Test
+	public void shouldDelay() {
+		long t0 = System.nanoTime();
+		PrecisionDelay.SPIN.delay(100_000);
+		Assert.yes(System.nanoTime() - t0 >= 100_000);
+	}
+
+	@Test
+	public void shouldStopWhenInterrupted() {
+		Thread.currentThread().interrupt();
+		Assert.thrown(RuntimeInterruptedException.class,
+			() -> PrecisionDelay.SPIN.delay(1_000_000_000L));
+		Assert.no(Thread.interrupted());
+	}
+}
@@ -1,6 +1,9 @@
 package ceri.common.data;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import org.junit.Test;
 import ceri.common.array.Array;
 import ceri.common.collect.Enums;
@@ -56,6 +59,35 @@ public class XcoderTest {
 		}
 	}
 
+	public enum B {
+		none(0L),
+		x(1L),
+		y(0x10L),
+		z(0x80000000_00000000L);
+
+		public static final Xcoder.Type<B> xc = Xcoder.type(B.class);
+		public static final Xcoder.Types<B> xcs = Xcoder.types(B.class);
+		public final long value;
+
+		private B(long value) {
+			this.value = value;
+		}
+	}
+
+	public enum D {
+		a(-2L),
+		b(-1L),
+		c(3L),
+		d(-1L); // duplicate
+
+		public static final Xcoder.Type<D> xc = Xcoder.type(D.class);
+		public final long value;
+
+		private D(long value) {
+			this.value = value;
+		}
+	}
+
 	@Test
 	public void testAll() {
 		Assert.ordered(N.xc.all());
@@ -140,6 +172,32 @@ public class XcoderTest {
 		Assert.equal(L.xcs.decode(0x80000000_00000000L), L.g);
 	}
 
+	@Test
+	public void testDecodeDense() {
+		Assert.equal(D.xc.decode(-3L), null);
+		Assert.equal(D.xc.decode(-2L), D.a);
+		Assert.equal(D.xc.decode(-1L), D.b);
+		Assert.equal(D.xc.decode(0L), null);
+		Assert.equal(D.xc.decode(3L), D.c);
+		Assert.equal(D.xc.decode(4L), null);
+		Assert.equal(D.xc.decode(Long.MIN_VALUE), null);
+		Assert.equal(D.xc.decode(Long.MAX_VALUE), null);
+		Assert.equal(D.xc.encode(D.b), -1L);
+		Assert.equal(D.xc.encode(D.d), 0L);
+		Assert.equal(D.xc.has(-1L, D.d), false);
+	}
+
+	@Test
+	public void testDecodeSparse() {
+		Assert.equal(B.xc.decode(0L), B.none);
+		Assert.equal(B.xc.decode(0x10L), B.y);
+		Assert.equal(B.xc.decode(0x11L), null);
+		Assert.equal(B.xc.decode(Long.MIN_VALUE), B.z);
+		Assert.equal(B.xc.decode(Long.MAX_VALUE), null);
+		Assert.equal(B.xc.isValid(0x10L), true);
+		Assert.equal(B.xc.isValid(0x11L), false);
+	}
+
 	@Test
 	public void testDecodeDef() {
 		Assert.equal(N.xc.decode(0, null), null);
@@ -277,6 +335,32 @@ public class XcoderTest {
 		Assert.ordered(L.xcs.decodeAll(-1L), L.b, L.d, L.e, L.f, L.g);
 	}
 
+	@Test
+	public void testDecodeAllBits() {
+		Assert.ordered(B.xcs.decodeAll(0), B.none);
+		Assert.ordered(B.xcs.decodeAll(2), B.none);
+		Assert.ordered(B.xcs.decodeAll(-1L), B.x, B.y, B.z);
+		Assert.ordered(B.xcs.decodeAll(0x11), B.x, B.y);
+		assertRem(B.xcs.decodeAllRem(0x80000000_00000013L), 2, B.x, B.y, B.z);
+		Assert.equal(B.xcs.isValid(0x80000000_00000011L), true);
+		Assert.equal(B.xcs.isValid(0x80000000_00000013L), false);
+		var xcs = Xcoder.types(List.of(B.z, B.y, B.x), b -> b.value);
+		Assert.ordered(xcs.decodeAll(-1L), B.z, B.y, B.x);
+	}
+
+	@Test
+	public void testDecodeAllBitsWithOverride() {
+		var xcs = new Xcoder.Types<B>(new TreeMap<>(Map.of(0L, B.none, 1L, B.x, 0x10L, B.y))) {
+			@Override
+			protected Xcoder.Rem<B> rem(Set<B> types, long diff) {
+				types.add(B.none);
+				return super.rem(types, diff);
+			}
+		};
+		Assert.ordered(xcs.decodeAll(0x11), B.none, B.x, B.y);
+		Assert.unsupportedOp(() -> xcs.decodeAll(0x11).clear());
+	}
+
 	@Test
 	public void testsDecodeAllValid() {
 		Assert.ordered(N.xcs.decodeAllValid(0));
@@ -0,0 +1,125 @@
+package ceri.common.data;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import ceri.common.collect.Enums;
+import ceri.common.collect.Immutable;
+import ceri.common.collect.Maps;
+import ceri.common.collect.Sets;
+import ceri.common.function.Functions;
+
+/**
+ * Compares time and heap allocation of Xcoder lookups with the boxed map lookups they replace.
+ * Dense values use direct array lookup, sparse values use binary search, and single-bit flags are
+ * decoded into enum sets.
+ */
+public class XcoderTester {
+	private static final int N = 10_000_000;
+	private static final int RUNS = 5;
+
+	public enum Dense {
+		a(0),
+		b(1),
+		c(2),
+		d(3),
+		e(4),
+		f(5),
+		g(6),
+		h(7);
+
+		public static final Xcoder.Type<Dense> xc = Xcoder.type(Dense.class);
+		public final int value;
+
+		private Dense(int value) {
+			this.value = value;
+		}
+	}
+
+	public enum Sparse {
+		a(0x10),
+		b(0x1000),
+		c(0x100000),
+		d(0x10000000),
+		e(0x12345678),
+		f(0x7fffffff);
+
+		public static final Xcoder.Type<Sparse> xc = Xcoder.type(Sparse.class);
+		public final int value;
+
+		private Sparse(int value) {
+			this.value = value;
+		}
+	}
+
+	public enum Flag {
+		in(0x1),
+		pri(0x2),
+		out(0x4),
+		err(0x8),
+		hup(0x10),
+		nval(0x20);
+
+		public static final Xcoder.Types<Flag> xcs = Xcoder.types(Flag.class);
+		public final int value;
+
+		private Flag(int value) {
+			this.value = value;
+		}
+	}
+
+	public static void main(String[] args) {
+		var dense = map(Dense.class);
+		var sparse = map(Sparse.class);
+		var flags = map(Flag.class);
+		var denseValues = values(Dense.class);
+		var sparseValues = values(Sparse.class);
+		for (int r = 0; r < RUNS; r++) {
+			run("dense map", i -> dense.get(denseValues[i & 7]));
+			run("dense type", i -> Dense.xc.decode(denseValues[i & 7]));
+			run("sparse map", i -> sparse.get(sparseValues[i % 6]));
+			run("sparse type", i -> Sparse.xc.decode(sparseValues[i % 6]));
+			run("flags map", i -> decodeAll(flags, i & 0x3f));
+			run("flags types", i -> Flag.xcs.decodeAll(i & 0x3f));
+		}
+	}
+
+	private static <T extends Enum<T>> Map<Long, T> map(Class<T> cls) {
+		var accessor = Enums.valueAccessor(cls);
+		Map<Long, T> map =
+			Maps.convert(Maps.Put.first, Maps::link, accessor, t -> t, Enums.of(cls));
+		return Immutable.wrap(map);
+	}
+
+	private static <T extends Enum<T>> long[] values(Class<T> cls) {
+		var accessor = Enums.valueAccessor(cls);
+		return Enums.of(cls).stream().mapToLong(accessor::apply).toArray();
+	}
+
+	/**
+	 * The previous decodeAll implementation, iterating map entries.
+	 */
+	private static <T> Set<T> decodeAll(Map<Long, T> types, long value) {
+		var set = Sets.<T>link();
+		for (var entry : types.entrySet()) {
+			long v = entry.getKey();
+			if (v == 0L || (v & value) != v) continue;
+			set.add(entry.getValue());
+			value &= ~v;
+			if (value == 0) break;
+		}
+		return Immutable.wrap(set);
+	}
+
+	private static void run(String name, Functions.IntFunction<Object> fn) {
+		var bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long b0 = bean.getCurrentThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+		int hash = 0;
+		for (int i = 0; i < N; i++)
+			hash += fn.apply(i).hashCode();
+		long ns = (System.nanoTime() - t0) / N;
+		long bytes = (bean.getCurrentThreadAllocatedBytes() - b0) / N;
+		System.out.printf("%-12s %3d ns/op, %3d bytes/op (%d)%n", name, ns, bytes, hash);
+	}
+}
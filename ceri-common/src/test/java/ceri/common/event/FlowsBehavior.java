@@ -0,0 +1,291 @@
+package ceri.common.event;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import ceri.common.collect.Lists;
+import ceri.common.concurrent.Concurrent;
+import ceri.common.test.Assert;
+import ceri.common.test.Testing;
+
+public class FlowsBehavior {
+	private final Listeners<Integer> source = Listeners.of();
+	private Flows.Publisher<Integer> publisher;
+	private Flows.Relay<Integer> relay;
+	private Flows.Operator<Integer, ?> operator;
+
+	@After
+	public void after() {
+		relay = Testing.close(relay);
+		publisher = Testing.close(publisher);
+		operator = Testing.close(operator);
+	}
+
+	@Test
+	public void shouldValidateConfig() {
+		Assert.illegalArg(() -> new Flows.Config(0, Flows.Overflow.error));
+		Assert.thrown(() -> new Flows.Config(1, null));
+	}
+
+	@Test
+	public void shouldDeliverOnDemand() {
+		publisher = Flows.publisher(source);
+		var subscriber = new Subscriber();
+		publisher.subscribe(subscriber);
+		Assert.equal(source.size(), 1);
+		source.acceptAll(1, 2, 3);
+		Assert.ordered(subscriber.items);
+		subscriber.subscription.request(2);
+		Assert.ordered(subscriber.items, 1, 2);
+		source.accept(4);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		Assert.ordered(subscriber.items, 1, 2, 3, 4);
+		source.accept(5);
+		Assert.ordered(subscriber.items, 1, 2, 3, 4, 5);
+		Assert.equal(publisher.stats(), new Flows.Publisher.Stats(1, 5, 0));
+	}
+
+	@Test
+	public void shouldDropNewestOnOverflow() {
+		Assert.ordered(overflow(Flows.Overflow.dropNewest).items, 1, 2, 3);
+		Assert.equal(publisher.stats().dropped(), 2L);
+	}
+
+	@Test
+	public void shouldDropOldestOnOverflow() {
+		Assert.ordered(overflow(Flows.Overflow.dropOldest).items, 3, 4, 5);
+		Assert.equal(publisher.stats().dropped(), 2L);
+	}
+
+	@Test
+	public void shouldConflateOnOverflow() {
+		Assert.ordered(overflow(Flows.Overflow.conflate).items, 4, 5);
+		Assert.equal(publisher.stats().dropped(), 3L);
+	}
+
+	@Test
+	public void shouldFailOnOverflow() {
+		var subscriber = overflow(Flows.Overflow.error);
+		Assert.ordered(subscriber.items);
+		Assert.instance(subscriber.error, IllegalStateException.class);
+		Assert.equal(source.isEmpty(), true);
+	}
+
+	@Test
+	public void shouldFailOnInvalidRequest() {
+		publisher = Flows.publisher(source);
+		var subscriber = new Subscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(0);
+		Assert.instance(subscriber.error, IllegalArgumentException.class);
+		Assert.equal(publisher.stats().subscribers(), 0);
+	}
+
+	@Test
+	public void shouldCompleteAfterBufferedEvents() {
+		publisher = Flows.publisher(source);
+		var subscriber = new Subscriber();
+		publisher.subscribe(subscriber);
+		source.acceptAll(1, 2);
+		publisher.close();
+		Assert.equal(subscriber.complete, false);
+		subscriber.subscription.request(2);
+		Assert.ordered(subscriber.items, 1, 2);
+		Assert.equal(subscriber.complete, true);
+		Assert.equal(source.isEmpty(), true);
+		var late = new Subscriber();
+		publisher.subscribe(late);
+		Assert.equal(late.complete, true);
+	}
+
+	@Test
+	public void shouldCancelSubscription() {
+		publisher = Flows.publisher(source);
+		var subscriber = new Subscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(1);
+		subscriber.subscription.cancel();
+		source.accept(1);
+		Assert.ordered(subscriber.items);
+		Assert.equal(source.isEmpty(), true);
+	}
+
+	@Test
+	public void shouldCancelOnSubscriberError() {
+		publisher = Flows.publisher(source);
+		var subscriber = new Subscriber() {
+			@Override
+			public void onNext(Integer item) {
+				super.onNext(item);
+				throw new Error("test");
+			}
+		};
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(3);
+		Assert.thrown(Error.class, () -> source.accept(1));
+		Assert.equal(source.isEmpty(), true);
+		subscriber.subscription.request(1);
+		Assert.ordered(subscriber.items, 1);
+		Assert.equal(publisher.stats().subscribers(), 0);
+	}
+
+	@Test
+	public void shouldRelayWithBoundedDemand() {
+		publisher = Flows.publisher(source, new Flows.Config(8, Flows.Overflow.error), Runnable::run);
+		relay = Flows.relay(publisher, 4);
+		List<Integer> received = Lists.of();
+		relay.listeners().listen(received::add);
+		for (int i = 0; i < 20; i++)
+			source.accept(i);
+		Assert.equal(received.size(), 20);
+		Assert.equal(relay.done(), false);
+		relay.close();
+		Assert.equal(relay.done(), true);
+		Assert.equal(source.isEmpty(), true);
+	}
+
+	@Test
+	public void shouldRelayListenerErrors() {
+		publisher = Flows.publisher(source);
+		relay = Flows.relay(publisher, 1);
+		List<Throwable> errors = Lists.of();
+		relay.errors().listen(errors::add);
+		relay.listeners().listen(_ -> Assert.throwRuntime());
+		source.accept(1);
+		source.accept(2);
+		Assert.equal(errors.size(), 2);
+	}
+
+	@Test
+	public void shouldDeliverWithExecutor() throws InterruptedException {
+		publisher = Flows.publisher(source, Flows.Config.DEFAULT, Thread::startVirtualThread);
+		BlockingQueue<Integer> received = new LinkedBlockingQueue<>();
+		relay = Flows.relay(publisher, 2);
+		relay.listeners().listen(received::add);
+		for (int i = 0; i < 10; i++)
+			source.accept(i);
+		for (int i = 0; i < 10; i++)
+			Assert.equal(received.poll(5, TimeUnit.SECONDS), i);
+	}
+
+	@Test
+	public void shouldBatchByCount() throws InterruptedException {
+		var window = Flows.window(source, 3, 10000);
+		operator = window;
+		BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+		window.listen(batches::add);
+		source.acceptAll(1, 2, 3, 4);
+		Assert.ordered(batches.take(), 1, 2, 3);
+		Assert.equal(batches.poll(), null);
+	}
+
+	@Test
+	public void shouldBatchByTime() throws InterruptedException {
+		var window = Flows.window(source, 100, 20);
+		operator = window;
+		BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+		window.listen(batches::add);
+		source.acceptAll(1, 2);
+		Assert.ordered(batches.take(), 1, 2);
+		source.accept(3);
+		Assert.ordered(batches.take(), 3);
+	}
+
+	@Test
+	public void shouldSampleLatest() throws InterruptedException {
+		var sample = Flows.sample(source, 20);
+		operator = sample;
+		BlockingQueue<Integer> samples = new LinkedBlockingQueue<>();
+		BlockingQueue<Boolean> daemon = new LinkedBlockingQueue<>();
+		sample.listen(samples::add);
+		sample.listen(_ -> daemon.add(Thread.currentThread().isDaemon()));
+		source.acceptAll(1, 2, 3);
+		Assert.equal(samples.take(), 3);
+		Assert.equal(daemon.take(), true);
+		Concurrent.delay(50);
+		Assert.equal(samples.poll(), null);
+	}
+
+	@Test
+	public void shouldDebounce() throws InterruptedException {
+		var debounce = Flows.debounce(source, 30);
+		operator = debounce;
+		BlockingQueue<Integer> values = new LinkedBlockingQueue<>();
+		debounce.listen(values::add);
+		for (int i = 0; i < 5; i++) {
+			source.accept(i);
+			Concurrent.delay(5);
+		}
+		Assert.equal(values.take(), 4);
+		Assert.equal(values.poll(), null);
+	}
+
+	@Test
+	public void shouldCancelScheduledTasksOnClose() {
+		var scheduler = new ScheduledThreadPoolExecutor(1);
+		scheduler.setRemoveOnCancelPolicy(true);
+		try (scheduler) {
+			try (var _ = Flows.sample(source, 10000, scheduler)) {
+				Assert.equal(scheduler.getQueue().size(), 1);
+			}
+			try (var debounce = Flows.debounce(source, 10000, scheduler)) {
+				source.accept(1);
+				Assert.equal(scheduler.getQueue().size(), 1);
+				debounce.close();
+				source.accept(2);
+			}
+			Assert.equal(scheduler.getQueue().size(), 0);
+			Assert.equal(scheduler.isShutdown(), false);
+		}
+	}
+
+	@Test
+	public void shouldStopListeningOnClose() {
+		operator = Flows.debounce(source, 30);
+		Assert.equal(source.size(), 1);
+		operator.close();
+		Assert.equal(source.isEmpty(), true);
+	}
+
+	private Subscriber overflow(Flows.Overflow overflow) {
+		publisher = Flows.publisher(source, new Flows.Config(3, overflow), Runnable::run);
+		var subscriber = new Subscriber();
+		publisher.subscribe(subscriber);
+		source.acceptAll(1, 2, 3, 4, 5);
+		subscriber.subscription.request(5);
+		return subscriber;
+	}
+
+	private static class Subscriber implements Flow.Subscriber<Integer> {
+		public final List<Integer> items = Lists.of();
+		public Flow.Subscription subscription;
+		public Throwable error;
+		public boolean complete = false;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(Integer item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			complete = true;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package ceri.common.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Test;
+import ceri.common.array.Array;
+import ceri.common.test.Assert;
+import ceri.common.test.ErrorGen;
+import ceri.common.test.TestOutputStream;
+import ceri.common.test.Testing;
+
+public class CoalescingOutputStreamBehavior {
+	private final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+	private CoalescingOutputStream out = null;
+
+	private static class GatheringStream extends ByteArrayOutputStream
+		implements CoalescingOutputStream.Gathering {
+		private int gathers = 0;
+
+		@Override
+		public synchronized void write(byte[] buffer, int count, byte[] b, int offset,
+			int length) {
+			gathers++;
+			write(buffer, 0, count);
+			write(b, offset, length);
+		}
+	}
+
+	@After
+	public void after() throws IOException {
+		if (out != null) out.close();
+		out = null;
+	}
+
+	@Test
+	public void shouldValidateArguments() {
+		Assert.thrown(() -> CoalescingOutputStream.of(bout, 0, 0));
+		Assert.thrown(() -> CoalescingOutputStream.of(bout, 1, -1));
+		Assert.thrown(() -> CoalescingOutputStream.of(null));
+	}
+
+	@Test
+	public void shouldWriteOnFlush() throws IOException {
+		out = CoalescingOutputStream.of(bout);
+		out.write(Array.BYTE.of(1, 2, 3));
+		out.write(4);
+		assertBytes();
+		Assert.equal(out.buffered(), 4);
+		out.flush();
+		assertBytes(1, 2, 3, 4);
+		assertMetrics(1, 4);
+	}
+
+	@Test
+	public void shouldWriteWhenBufferIsFull() throws IOException {
+		out = CoalescingOutputStream.of(bout, 4, 0);
+		out.write(Array.BYTE.of(1, 2, 3));
+		out.write(4);
+		assertBytes(1, 2, 3, 4);
+		out.write(Array.BYTE.of(5, 6, 7, 8));
+		assertBytes(1, 2, 3, 4, 5, 6, 7, 8);
+		assertMetrics(2, 8);
+	}
+
+	@Test
+	public void shouldFlushBufferIfBufferExceeded() throws IOException {
+		out = CoalescingOutputStream.of(bout, 5, 0);
+		out.write(Array.BYTE.of(1, 2, 3));
+		out.write(Array.BYTE.of(4, 5, 6));
+		assertBytes(1, 2, 3);
+		out.write(Array.BYTE.of(7, 8, 9, 10, 11, 12));
+		assertBytes(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+		assertMetrics(3, 12);
+	}
+
+	@Test
+	public void shouldGatherBufferAndLargeWrite() throws IOException {
+		var gout = new GatheringStream();
+		out = CoalescingOutputStream.of(gout, 5, 0);
+		out.write(Array.BYTE.of(1, 2, 3));
+		out.write(Array.BYTE.of(4, 5, 6, 7, 8, 9));
+		Assert.array(gout.toByteArray(), 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		Assert.equal(gout.gathers, 1);
+		Assert.equal(out.metrics().snapshot().counters().get("gathered"), 1L);
+		Assert.equal(out.metrics().snapshot().counters().get("writes"), 1L);
+	}
+
+	@Test
+	public void shouldWriteOnDeadline() throws IOException {
+		var tout = TestOutputStream.of();
+		out = CoalescingOutputStream.of(tout, 1024, 1000);
+		out.write(Array.BYTE.of(1, 2, 3));
+		out.write(4);
+		Assert.array(tout.from.readBytes(4), 1, 2, 3, 4);
+		Assert.equal(out.buffered(), 0);
+	}
+
+	@Test
+	public void shouldFlushWrappedStreamOnDeadline() throws Exception {
+		out = CoalescingOutputStream.of(new BufferedOutputStream(bout, 1024), 1024, 100);
+		out.write(Array.BYTE.of(1, 2, 3));
+		while (out.buffered() > 0)
+			Thread.sleep(1);
+		assertBytes(1, 2, 3);
+	}
+
+	@Test
+	public void shouldCoalesceWritesFromMultipleThreads() throws Exception {
+		int threads = 4;
+		int frames = 100;
+		out = CoalescingOutputStream.of(bout, 64, 0);
+		var start = new CountDownLatch(1);
+		try (var exec = Testing.threadRun(() -> {
+			start.await();
+			for (int i = 0; i < frames; i++)
+				out.write(Array.BYTE.of(1, 2, 3, 4));
+		}); var exec2 = Testing.threadRun(() -> {
+			start.await();
+			for (int i = 0; i < frames; i++)
+				out.write(Array.BYTE.of(5, 6, 7, 8));
+		})) {
+			start.countDown();
+			for (int i = 0; i < (threads - 2) * frames; i++)
+				out.write(Array.BYTE.of(9, 10, 11, 12));
+			exec.get();
+			exec2.get();
+		}
+		out.flush();
+		var bytes = bout.toByteArray();
+		Assert.equal(bytes.length, threads * frames * 4);
+		for (int i = 0; i < bytes.length; i += 4) // frames are not interleaved
+			Assert.equal(bytes[i + 3] - bytes[i], 3);
+		assertMetrics(threads * frames * 4 / 64, threads * frames * 4);
+	}
+
+	@Test
+	public void shouldEmptyBufferOnWriteError() throws IOException {
+		var tout = TestOutputStream.of();
+		out = CoalescingOutputStream.of(tout, 4, 0);
+		out.write(Array.BYTE.of(1, 2));
+		tout.write.error.setFrom(ErrorGen.IOX);
+		Assert.thrown(() -> out.write(Array.BYTE.of(3, 4)));
+		Assert.equal(out.buffered(), 0);
+		tout.write.error.clear();
+	}
+
+	@Test
+	public void shouldThrowDeadlineErrorOnNextCall() throws Exception {
+		var tout = TestOutputStream.of();
+		tout.write.error.setFrom(ErrorGen.IOX);
+		out = CoalescingOutputStream.of(tout, 1024, 100);
+		out.write(1);
+		while (out.buffered() > 0)
+			Thread.sleep(1);
+		Assert.thrown(() -> out.flush());
+		tout.write.error.clear();
+		out.flush();
+	}
+
+	@Test
+	public void shouldFailAfterClose() throws IOException {
+		out = CoalescingOutputStream.of(bout);
+		out.write(1);
+		out.close();
+		assertBytes(1);
+		Assert.thrown(() -> out.write(2));
+		Assert.thrown(() -> out.flush());
+		out.close();
+	}
+
+	private void assertMetrics(long writes, long bytes) {
+		var snapshot = out.metrics().snapshot();
+		Assert.equal(snapshot.counters().get("writes"), writes);
+		Assert.equal(snapshot.counters().get("bytes"), bytes);
+		Assert.equal(snapshot.histograms().get("write.bytes").count(), writes);
+	}
+
+	private void assertBytes(int... bytes) {
+		Assert.array(bout.toByteArray(), bytes);
+	}
+}
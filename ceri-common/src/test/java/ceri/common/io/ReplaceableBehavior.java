@@ -1,5 +1,6 @@
 package ceri.common.io;
 
+import java.io.Closeable;
 import java.io.IOException;
 import org.junit.Test;
 import ceri.common.test.Assert;
@@ -12,4 +13,19 @@ public class ReplaceableBehavior {
 			Assert.thrown(() -> field.acceptValid(_ -> {}));
 		}
 	}
+
+	@Test
+	public void shouldFailFastWithGuard() throws IOException {
+		try (var field = Replaceable.<Closeable>field()) {
+			int[] errors = { 0 };
+			field.errors().listen(_ -> errors[0]++);
+			field.set(() -> {});
+			field.guard(() -> Assert.throwIo());
+			Assert.io(() -> field.acceptValid(_ -> Assert.throwRuntime()));
+			Assert.equal(field.applyIfSet(_ -> 1, 0), 1);
+			field.guard(null);
+			Assert.equal(field.applyValid(_ -> 1), 1);
+			Assert.equal(errors[0], 0);
+		}
+	}
 }
@@ -59,6 +59,22 @@ public class ReplaceableStreamBehavior {
 		tin.close.assertCalls(1);
 	}
 
+	@Test
+	public void shouldGuardStreams() throws IOException {
+		rin = ReplaceableStream.in();
+		rout = ReplaceableStream.out();
+		rin.set(new ByteArrayInputStream(new byte[] { 1 }));
+		rout.set(new ByteArrayOutputStream());
+		rin.guard(() -> Assert.throwIo());
+		rout.guard(() -> Assert.throwIo());
+		Assert.io(rin::read);
+		Assert.io(() -> rout.write(1));
+		rin.guard(null);
+		rout.guard(null);
+		Assert.equal(rin.read(), 1);
+		rout.write(1);
+	}
+
 	@Test
 	public void shouldNotifyInListenerOfMarkException() throws InterruptedException {
 		initIn();
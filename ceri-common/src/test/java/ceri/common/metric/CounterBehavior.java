@@ -0,0 +1,24 @@
+package ceri.common.metric;
+
+import org.junit.Test;
+import ceri.common.test.Assert;
+
+public class CounterBehavior {
+
+	@Test
+	public void shouldCount() {
+		var counter = Counter.of();
+		counter.increment();
+		counter.add(4);
+		Assert.equal(counter.value(), 5L);
+		Assert.equal(counter.toString(), "5");
+	}
+
+	@Test
+	public void shouldReset() {
+		var counter = Counter.of();
+		counter.add(3);
+		Assert.equal(counter.reset(), 3L);
+		Assert.equal(counter.value(), 0L);
+	}
+}
@@ -0,0 +1,26 @@
+package ceri.common.metric;
+
+import org.junit.Test;
+import ceri.common.test.Assert;
+
+public class GaugeBehavior {
+
+	@Test
+	public void shouldSampleSupplier() {
+		long[] value = { 3 };
+		var gauge = Gauge.of(() -> value[0]);
+		Assert.equal(gauge.value(), 3L);
+		value[0] = 7;
+		Assert.equal(gauge.value(), 7L);
+		Assert.thrown(() -> Gauge.of(null));
+	}
+
+	@Test
+	public void shouldSetValue() {
+		var gauge = Gauge.settable();
+		gauge.set(5);
+		Assert.equal(gauge.add(-2), 3L);
+		Assert.equal(gauge.value(), 3L);
+		Assert.equal(gauge.toString(), "3");
+	}
+}
@@ -0,0 +1,96 @@
+package ceri.common.metric;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+import ceri.common.test.Assert;
+
+public class HistogramBehavior {
+
+	@Test
+	public void shouldMapValuesToBuckets() {
+		Assert.equal(Histogram.index(0), 0);
+		Assert.equal(Histogram.index(15), 15);
+		Assert.equal(Histogram.index(16), 16);
+		Assert.equal(Histogram.index(17), 17);
+		Assert.equal(Histogram.index(32), 32);
+		Assert.equal(Histogram.index(33), 32);
+		Assert.equal(Histogram.index(Long.MAX_VALUE), Histogram.BUCKETS - 1);
+		Assert.equal(Histogram.upper(15), 15L);
+		Assert.equal(Histogram.upper(32), 33L);
+		Assert.equal(Histogram.upper(Histogram.BUCKETS - 1), Long.MAX_VALUE);
+	}
+
+	@Test
+	public void shouldBoundValuesByBucket() {
+		for (long v = 1; v > 0 && v < Long.MAX_VALUE / 3; v = v * 3 + 1) {
+			long upper = Histogram.upper(Histogram.index(v));
+			Assert.yes(upper >= v);
+			Assert.yes(upper - v <= v / 16);
+		}
+	}
+
+	@Test
+	public void shouldProvideEmptySnapshot() {
+		var snapshot = Histogram.of().snapshot();
+		Assert.same(snapshot, Histogram.Snapshot.EMPTY);
+		Assert.equal(snapshot.mean(), 0.0);
+		Assert.equal(snapshot.percentile(50), 0L);
+		Assert.equal(snapshot.toString(), "count=0");
+	}
+
+	@Test
+	public void shouldRecordValues() {
+		var histogram = Histogram.of();
+		for (int i = 1; i <= 100; i++)
+			histogram.record(i);
+		histogram.record(-1);
+		var snapshot = histogram.snapshot();
+		Assert.equal(snapshot.count(), 101L);
+		Assert.equal(snapshot.sum(), 5050L);
+		Assert.equal(snapshot.min(), 0L);
+		Assert.equal(snapshot.max(), 100L);
+		Assert.equal(snapshot.percentile(0), 0L);
+		Assert.equal(snapshot.percentile(10), 10L);
+		Assert.equal(snapshot.percentile(50), 51L);
+		Assert.equal(snapshot.percentile(100), 100L);
+		Assert.illegalArg(() -> snapshot.percentile(101));
+		Assert.find(snapshot, "count=101 min=0 max=100 mean=50.0 p50=51");
+	}
+
+	@Test
+	public void shouldTimeActions() throws Exception {
+		var histogram = Histogram.of();
+		histogram.time(() -> {});
+		Assert.equal(histogram.time(() -> "x"), "x");
+		Assert.thrown(() -> histogram.time(() -> Assert.throwRuntime()));
+		Assert.equal(histogram.snapshot().count(), 3L);
+	}
+
+	@Test
+	public void shouldReset() {
+		var histogram = Histogram.of();
+		histogram.record(7);
+		histogram.reset();
+		Assert.same(histogram.snapshot(), Histogram.Snapshot.EMPTY);
+		histogram.record(3);
+		Assert.find(histogram, "count=1 min=3 max=3");
+	}
+
+	@Test
+	public void shouldRecordConcurrently() throws InterruptedException {
+		var histogram = Histogram.of();
+		int threads = 4;
+		var latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++)
+			Thread.startVirtualThread(() -> {
+				for (int i = 0; i < 1000; i++)
+					histogram.record(i);
+				latch.countDown();
+			});
+		latch.await();
+		var snapshot = histogram.snapshot();
+		Assert.equal(snapshot.count(), 4000L);
+		Assert.equal(snapshot.sum(), 4L * 999 * 1000 / 2);
+		Assert.equal(snapshot.max(), 999L);
+	}
+}
@@ -0,0 +1,75 @@
+package ceri.common.metric;
+
+import org.junit.Test;
+import ceri.common.test.Assert;
+
+public class MetricsBehavior {
+
+	@Test
+	public void shouldReuseInstruments() {
+		var metrics = Metrics.of();
+		Assert.same(metrics.counter("c"), metrics.counter("c"));
+		Assert.same(metrics.gauge("g"), metrics.gauge("g"));
+		Assert.same(metrics.histogram("h"), metrics.histogram("h"));
+		Assert.same(metrics.child("m"), metrics.child("m"));
+		Assert.illegalArg(() -> metrics.histogram("c"));
+		Assert.thrown(() -> metrics.counter(null));
+	}
+
+	@Test
+	public void shouldSnapshotValues() {
+		var metrics = Metrics.of();
+		metrics.counter("c").add(3);
+		metrics.gauge("g", () -> 5);
+		metrics.histogram("h").record(7);
+		metrics.child("x").counter("y").increment();
+		var snapshot = metrics.snapshot();
+		Assert.equal(snapshot.counters().get("c"), 3L);
+		Assert.equal(snapshot.counters().get("x.y"), 1L);
+		Assert.equal(snapshot.gauges().get("g"), 5L);
+		Assert.equal(snapshot.histograms().get("h").max(), 7L);
+		Assert.unsupportedOp(() -> snapshot.counters().put("z", 0L));
+	}
+
+	@Test
+	public void shouldAttachChildRegistries() {
+		var metrics = Metrics.of();
+		var child = Metrics.of();
+		child.gauge("g").set(1);
+		Assert.same(metrics.child("a", child), child);
+		Assert.same(metrics.child("a"), child);
+		Assert.illegalArg(() -> metrics.child("b", metrics));
+		Assert.equal(metrics.snapshot().gauges().get("a.g"), 1L);
+		Assert.yes(metrics.remove("a"));
+		Assert.no(metrics.remove("a"));
+		Assert.equal(metrics.snapshot().gauges().isEmpty(), true);
+	}
+
+	@Test
+	public void shouldRejectCyclicChildRegistries() {
+		var a = Metrics.of();
+		var b = Metrics.of();
+		a.child("b", b);
+		b.child("c").child("x");
+		Assert.illegalArg(() -> b.child("a", a));
+		Assert.illegalArg(() -> b.child("c").child("a", a));
+		Assert.illegalArg(() -> b.child("c").child("b", b));
+		b.child("d", Metrics.of());
+		a.child("e", b.child("c"));
+		Assert.equal(a.snapshot().counters().isEmpty(), true);
+	}
+
+	@Test
+	public void shouldDumpText() {
+		var metrics = Metrics.of();
+		metrics.histogram("h").record(1);
+		metrics.gauge("g").set(2);
+		metrics.child("x").counter("c").add(3);
+		Assert.equal(metrics.text(), """
+			counter x.c 3
+			gauge g 2
+			histogram h count=1 min=1 max=1 mean=1.0 p50=1 p90=1 p99=1 p999=1
+			""");
+		Assert.find(metrics, "Metrics\\[");
+	}
+}
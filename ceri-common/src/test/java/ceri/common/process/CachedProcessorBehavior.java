@@ -0,0 +1,76 @@
+package ceri.common.process;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+import ceri.common.collect.Lists;
+import ceri.common.test.Assert;
+import ceri.common.test.ErrorGen;
+import ceri.common.test.TestProcess;
+
+public class CachedProcessorBehavior {
+
+	@Test
+	public void shouldCacheOutput() throws IOException {
+		var test = TestProcess.processor("out0", "out1");
+		var p = CachedProcessor.of(test, 100000);
+		Assert.equal(p.exec("arp", "-a"), "out0");
+		Assert.equal(p.exec("arp", "-a"), "out0");
+		Assert.equal(p.exec("uptime"), "out1");
+		Assert.equal(p.hits(), 1L);
+		Assert.equal(p.misses(), 2L);
+		p.clear();
+		Assert.equal(p.exec("arp", "-a"), "out1");
+		Assert.equal(p.misses(), 3L);
+	}
+
+	@Test
+	public void shouldExpireOutput() throws IOException {
+		var test = TestProcess.processor("out0", "out1");
+		var p = CachedProcessor.of(test, 0);
+		Assert.equal(p.exec("uptime"), "out0");
+		Assert.equal(p.exec("uptime"), "out1");
+		Assert.equal(p.hits(), 0L);
+	}
+
+	@Test
+	public void shouldBoundCachedCommands() throws IOException {
+		var test = TestProcess.processor("out0", "out1", "out2", "out3");
+		var p = CachedProcessor.of(test, 100000, 2);
+		Assert.equal(p.exec("a"), "out0");
+		Assert.equal(p.exec("b"), "out1");
+		Assert.equal(p.exec("b"), "out1");
+		Assert.equal(p.exec("c"), "out2");
+		Assert.equal(p.exec("c"), "out2");
+		Assert.equal(p.exec("a"), "out3");
+		Assert.equal(p.misses(), 4L);
+		Assert.thrown(() -> CachedProcessor.of(test, 0, 0));
+	}
+
+	@Test
+	public void shouldIgnoreEmptyCommand() throws IOException {
+		var p = CachedProcessor.of(TestProcess.processor("out"), 100000);
+		Assert.isNull(p.exec());
+		Assert.equal(p.misses(), 0L);
+	}
+
+	@Test
+	public void shouldNotCacheFailures() throws IOException {
+		var test = TestProcess.processor("out");
+		var p = CachedProcessor.of(test, 100000);
+		test.exec.error.setFrom(ErrorGen.IOX);
+		Assert.io(() -> p.exec("uptime"));
+		test.exec.error.clear();
+		Assert.equal(p.exec("uptime"), "out");
+	}
+
+	@Test
+	public void shouldStreamCachedLines() throws IOException {
+		var p = CachedProcessor.of(TestProcess.processor("a\nb\n"), 100000);
+		List<String> lines = Lists.of();
+		p.lines(Parameters.of("test"), lines::add);
+		p.lines(Parameters.of("test"), null);
+		Assert.ordered(lines, "a", "b");
+		Assert.equal(p.hits(), 1L);
+	}
+}
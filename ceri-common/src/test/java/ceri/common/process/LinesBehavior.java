@@ -0,0 +1,46 @@
+package ceri.common.process;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+import ceri.common.collect.Lists;
+import ceri.common.test.Assert;
+
+public class LinesBehavior {
+	private final List<String> lines = Lists.of();
+	private final Lines splitter = Lines.of(StandardCharsets.UTF_8, lines::add);
+
+	@Test
+	public void shouldSplitLinesAcrossReads() throws IOException {
+		accept("abc\nde");
+		Assert.ordered(lines, "abc");
+		accept("f\r\n\ngh");
+		Assert.ordered(lines, "abc", "def", "");
+		splitter.flush();
+		Assert.ordered(lines, "abc", "def", "", "gh");
+		Assert.equal(splitter.count(), 4);
+	}
+
+	@Test
+	public void shouldNotFlushEmptyRemainder() throws IOException {
+		accept("abc\n");
+		splitter.flush().flush();
+		Assert.ordered(lines, "abc");
+	}
+
+	@Test
+	public void shouldTransferAvailableBytes() throws IOException {
+		var s = "x".repeat(300) + "\né\n";
+		splitter.transferAvailableFrom(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)));
+		Assert.ordered(lines, "x".repeat(300), "é");
+		splitter.transferAvailableFrom(new ByteArrayInputStream(new byte[0]));
+		Assert.equal(splitter.count(), 2);
+	}
+
+	private void accept(String s) throws IOException {
+		var bytes = s.getBytes(StandardCharsets.UTF_8);
+		splitter.accept(bytes, 0, bytes.length);
+	}
+}
@@ -0,0 +1,46 @@
+package ceri.common.process;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.Test;
+import ceri.common.test.Assert;
+import ceri.common.test.ErrorGen;
+import ceri.common.test.TestProcess;
+
+public class ProcessExecutorBehavior {
+
+	@Test
+	public void shouldExecuteAllInOrder() throws IOException {
+		var test = TestProcess.processor("out");
+		try (var exec = ProcessExecutor.of(test, 2)) {
+			var results = exec.execAll(List.of(Parameters.of("a"), Parameters.of("b")));
+			Assert.ordered(results, "out", "out");
+		}
+	}
+
+	@Test
+	public void shouldFailAfterAllComplete() {
+		var test = TestProcess.processor("out");
+		test.exec.error.setFrom(ErrorGen.IOX);
+		try (var exec = ProcessExecutor.of(test, 2)) {
+			Assert.io(() -> exec.execAll(List.of(Parameters.of("a"), Parameters.of("b"))));
+		}
+	}
+
+	@Test
+	public void shouldSubmitLines() throws Exception {
+		var test = TestProcess.processor("a\nb");
+		var lines = new ConcurrentLinkedQueue<String>();
+		try (var exec = ProcessExecutor.of(test, 1)) {
+			exec.submitLines(Parameters.of("test"), lines::add).get();
+			Assert.equal(exec.submit(Parameters.of("test")).get(), "a\nb");
+		}
+		Assert.ordered(lines, "a", "b");
+	}
+
+	@Test
+	public void shouldRequirePositiveBound() {
+		Assert.thrown(() -> ProcessExecutor.of(TestProcess.processor(), 0));
+	}
+}
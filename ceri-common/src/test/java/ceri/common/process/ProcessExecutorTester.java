@@ -0,0 +1,57 @@
+package ceri.common.process;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import ceri.common.collect.Lists;
+import ceri.common.concurrent.Concurrent;
+import ceri.common.function.Excepts;
+import ceri.common.test.TestProcess;
+
+/**
+ * Compares sequential, concurrent and cached execution of commands, using test processes that
+ * take a fixed time to run.
+ */
+public class ProcessExecutorTester {
+	private static final int PROCESS_MS = 20;
+	private static final int COMMANDS = 40;
+	private static final int CONCURRENT = 8;
+	private static final String OUTPUT = "? (10.0.0.1) at 6a:ee:96:a9:67:6a on en0\n".repeat(100);
+
+	public static void main(String[] args) throws IOException {
+		var processor = Processor.builder().pollMs(1).processStarter(_ -> () -> {
+			Concurrent.delay(PROCESS_MS);
+			return TestProcess.of(OUTPUT, null, 0);
+		}).build();
+		var commands = Lists.<Parameters>of();
+		for (int i = 0; i < COMMANDS; i++)
+			commands.add(Parameters.of("arp", "-a", i % 4));
+		time("sequential", () -> {
+			for (var command : commands)
+				processor.exec(command);
+		});
+		try (var exec = ProcessExecutor.of(processor, CONCURRENT)) {
+			time("concurrent x" + CONCURRENT, () -> exec.execAll(commands));
+		}
+		var cached = CachedProcessor.of(processor, 60000);
+		time("cached", () -> {
+			for (var command : commands)
+				cached.exec(command);
+		});
+		System.out.printf("cache hits = %d, misses = %d%n", cached.hits(), cached.misses());
+		var lines = new int[1];
+		time("lines", () -> {
+			for (var command : commands)
+				processor.lines(command, _ -> lines[0]++);
+		});
+		System.out.printf("lines = %d%n", lines[0]);
+	}
+
+	private static void time(String name, Excepts.Runnable<IOException> runnable)
+		throws IOException {
+		long t0 = System.nanoTime();
+		runnable.run();
+		long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+		System.out.printf("%s: %d commands in %dms (%.1f/s)%n", name, COMMANDS, ms,
+			COMMANDS * 1000.0 / Math.max(1, ms));
+	}
+}
@@ -1,7 +1,9 @@
 package ceri.common.process;
 
 import java.io.IOException;
+import java.util.List;
 import org.junit.Test;
+import ceri.common.collect.Lists;
 import ceri.common.test.Assert;
 import ceri.common.test.ErrorGen;
 import ceri.common.test.TestProcess;
@@ -91,6 +93,43 @@ public class ProcessorBehavior {
 		}
 	}
 
+	@Test
+	public void shouldStreamLines() throws IOException {
+		try (var process = TestProcess.of("line0\nline1\n", "", 0)) {
+			var p = processor(process).verifyErr(true).verifyExitValue(true).build();
+			List<String> lines = Lists.of();
+			p.lines(Parameters.of("test"), lines::add);
+			Assert.ordered(lines, "line0", "line1");
+		}
+	}
+
+	@Test
+	public void shouldStreamStdErrLines() throws IOException {
+		try (var process = TestProcess.of("out", "err0\nerr1", 0)) {
+			var p = processor(process).build();
+			List<String> lines = Lists.of();
+			p.lines(Parameters.of("test"), lines::add, lines::add);
+			Assert.unordered(lines, "out", "err0", "err1");
+		}
+	}
+
+	@Test
+	public void shouldVerifyStreamedStdErr() throws IOException {
+		try (var process = TestProcess.of("out", "err0\nerr1", 0)) {
+			var p = processor(process).verifyErr(true).build();
+			Assert.io(() -> p.lines(Parameters.of("test"), null));
+		}
+		try (var process = TestProcess.of("out", "", 1)) {
+			var p = processor(process).verifyExitValue(true).build();
+			Assert.io(() -> p.lines(Parameters.of("test"), null));
+		}
+	}
+
+	@Test
+	public void shouldIgnoreEmptyStreamCommand() throws IOException {
+		Processor.DEFAULT.lines(Parameters.of(), null);
+	}
+
 	private static Processor.Builder processor(Process process) {
 		return Processor.builder().pollMs(0).timeoutMs(1).captureStdOut(false).verifyErr(false)
 			.verifyExitValue(false).processStarter(_ -> () -> process);
@@ -0,0 +1,149 @@
+package ceri.common.property;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import ceri.common.function.Functions;
+import ceri.common.test.Assert;
+import ceri.common.test.Testing;
+
+public class IndexedSourceBehavior {
+	private Properties p = null;
+	private IndexedSource source = null;
+
+	@Test
+	public void shouldRequireSeparator() {
+		Assert.thrown(() -> IndexedSource.of(PropertySource.NULL));
+	}
+
+	@Test
+	public void shouldProvideChildren() {
+		init(Map.of("a", "A", "aaa", "AAA", "a.b", "AB", "a.b.c", "ABC", "a.c", "AC"));
+		Assert.unordered(source.children(""), "a", "aaa");
+		Assert.unordered(source.children("a"), "b", "c");
+		Assert.unordered(source.children("a.b"), "c");
+		Assert.unordered(source.children("a.b.c"));
+		Assert.unordered(source.children("b"));
+	}
+
+	@Test
+	public void shouldProvideDescendants() {
+		init(Map.of("a", "A", "aaa", "AAA", "a.b", "AB", "a.b.c", "ABC", "a.c", "AC"));
+		Assert.unordered(source.descendants(""), "a", "aaa", "a.b", "a.b.c", "a.c");
+		Assert.unordered(source.descendants("a"), "b", "b.c", "c");
+		Assert.unordered(source.descendants("a.b"), "c");
+		Assert.unordered(source.descendants("x"));
+	}
+
+	@Test
+	public void shouldDetermineIfKeyExists() {
+		init(Map.of("a.b.c", "A-B-C", "a.cd", "A-CD"));
+		Assert.equal(source.hasKey(""), false);
+		Assert.equal(source.hasKey("a.b.c"), true);
+		Assert.equal(source.hasKey("a.b"), true);
+		Assert.equal(source.hasKey("a"), true);
+		Assert.equal(source.hasKey("a.c"), false);
+	}
+
+	@Test
+	public void shouldUpdateIndexOnWrite() {
+		init(Map.of("a", "A", "a.b", "AB"));
+		source.property("a.c.d", "ACD");
+		Assert.unordered(source.children("a"), "b", "c");
+		Assert.equal(source.property("a.c.d"), "ACD");
+		source.property("a.b", null);
+		Assert.unordered(source.children("a"), "c");
+		source.property("a.c.d", null);
+		Assert.unordered(source.children("a"));
+		Assert.equal(source.hasKey("a.c"), false);
+		Assert.unordered(source.descendants(""), "a");
+		Assert.equal(p.getProperty("a.c.d"), null);
+		Assert.equal(source.modified(), true);
+		Assert.equal(source.modified(), false);
+	}
+
+	@Test
+	public void shouldCacheValues() {
+		init(Map.of("a", "A"));
+		Assert.equal(source.property("a"), "A");
+		p.setProperty("a", "AA");
+		Assert.equal(source.property("a"), "A");
+		source.refresh();
+		Assert.equal(source.property("a"), "AA");
+		Assert.equal(source.property("b"), null);
+	}
+
+	@Test
+	public void shouldCacheConvertedValues() {
+		init(Map.of("a", " 1 ", "b", ""));
+		var count = new AtomicInteger();
+		Functions.Function<String, Integer> parser = s -> {
+			count.incrementAndGet();
+			return s == null ? null : Integer.valueOf(s);
+		};
+		Assert.equal(source.value("a", parser), 1);
+		Assert.equal(source.value("a", parser), 1);
+		Assert.equal(source.value("b", parser), null);
+		Assert.equal(source.value("b", parser), null);
+		Assert.equal(count.get(), 2);
+		source.property("a", "2");
+		Assert.equal(source.value("a", parser), 2);
+		Assert.equal(count.get(), 3);
+	}
+
+	@Test
+	public void shouldNotRetainValuesForFreshParsers() {
+		init(Map.of("a", "1"));
+		var first = new WeakReference<>(source.value("a", s -> new StringBuilder(s)));
+		for (int i = 0; i < 1000; i++) {
+			int n = i;
+			Assert.equal(source.value("a", s -> s + n), "1" + i);
+		}
+		for (int i = 0; i < 10 && first.get() != null; i++)
+			Testing.gc();
+		Assert.isNull(first.get());
+	}
+
+	@Test
+	public void shouldReplaceCachedValueForDifferentParser() {
+		init(Map.of("a", "1"));
+		var count = new AtomicInteger();
+		Functions.Function<String, Integer> parser = s -> {
+			count.incrementAndGet();
+			return Integer.valueOf(s);
+		};
+		Assert.equal(source.value("a", parser), 1);
+		Assert.equal(source.value("a", Boolean::valueOf), false);
+		Assert.equal(source.value("a", parser), 1);
+		Assert.equal(source.value("a", parser), 1);
+		Assert.equal(count.get(), 2);
+	}
+
+	@Test
+	public void shouldRefreshOnExternalModification() {
+		var props = PropertySource.Properties.of(new Properties());
+		source = IndexedSource.of(props);
+		props.property("a.b", "AB");
+		Assert.unordered(source.children(""));
+		Assert.equal(source.modified(), true);
+		Assert.unordered(source.children(""), "a");
+		Assert.equal(source.property("a.b"), "AB");
+	}
+
+	@Test
+	public void shouldProvideTypedProperties() {
+		init(Map.of("x.a", "1", "x.b", "true"));
+		var typed = TypedProperties.of(source, "x");
+		Assert.equal(typed.parse("a").toInt(), 1);
+		Assert.equal(typed.value(Boolean::valueOf, "b"), true);
+		Assert.unordered(typed.children(), "a", "b");
+	}
+
+	private void init(Map<String, String> map) {
+		p = new Properties();
+		p.putAll(map);
+		source = IndexedSource.of(PropertySource.Properties.of(p));
+	}
+}
@@ -52,6 +52,33 @@ public class TypedPropertiesBehavior {
 		Assert.equal(ref.parse("3.1").toInt(), 31);
 	}
 
+	@Test
+	public void shouldConvertValues() {
+		var typed = TypedProperties.from(properties, "a");
+		Assert.equal(typed.value(Integer::valueOf, "b", "c"), 3);
+		Assert.equal(typed.value(s -> s == null ? "null" : s, "x"), "null");
+		Assert.equal(typed.value(s -> s, "abc"), "A,ABC");
+	}
+
+	@Test
+	public void shouldParseWithCachedValues() {
+		var copy = new Properties();
+		copy.putAll(properties);
+		var source = IndexedSource.of(PropertySource.Properties.of(copy));
+		var typed = TypedProperties.of(source, "a");
+		Assert.same(typed.parse("l").toLong(), typed.parse("l").toLong());
+		Assert.same(typed.parse("l").asLong().get(), typed.parse("l").toLong());
+		Assert.equal(typed.parse("b", "c").toInt(0), 3);
+		Assert.equal(typed.parse("x").toInt(7), 7);
+		Assert.equal(typed.parse("x").toDouble(), null);
+		Assert.equal(typed.parse("b", "c", "d").asDouble().get(), 4.0);
+		Assert.equal(typed.parse("y").toBool(false), true);
+		Assert.equal(typed.parse("n").toBool(1, 0), 0);
+		Assert.equal(typed.parse("x").asBool(1, 0).get(), null);
+		typed.set(5, "b", "c");
+		Assert.equal(typed.parse("b", "c").toInt(), 5);
+	}
+
 	@Test
 	public void shouldLoadFromClass() throws IOException {
 		// loads typed-properties.properties
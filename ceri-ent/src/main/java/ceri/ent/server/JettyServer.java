@@ -8,6 +8,7 @@ import java.util.regex.Pattern;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
 import org.eclipse.jetty.webapp.WebAppContext;
 import ceri.common.except.ExceptionAdapter;
 import ceri.common.net.Net;
@@ -47,6 +48,13 @@ public class JettyServer implements AutoCloseable {
 		Logs.close(this::waitForServer);
 	}
 
+	/**
+	 * Returns the request statistics handler, or null if not configured.
+	 */
+	public StatisticsHandler statistics() {
+		return server.getChildHandlerByClass(StatisticsHandler.class);
+	}
+
 	public String url(String path) {
 		if (rootUrl == null) return null;
 		if (path == null) path = "";
@@ -88,6 +96,6 @@ public class JettyServer implements AutoCloseable {
 	}
 
 	private WebAppContext context() {
-		return Reflect.castOrNull(WebAppContext.class, server.getHandler());
+		return server.getChildHandlerByClass(WebAppContext.class); // may be wrapped by handlers
 	}
 }
@@ -3,16 +3,20 @@ package ceri.ent.server;
 import static org.eclipse.jetty.servlet.DefaultServlet.CONTEXT_INIT;
 import static org.eclipse.jetty.webapp.MetaInfConfiguration.CONTAINER_JAR_PATTERN;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 import org.eclipse.jetty.apache.jsp.JettyJasperInitializer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.resource.ResourceCollection;
 import org.eclipse.jetty.webapp.WebAppContext;
+import ceri.common.io.Paths;
 import ceri.log.util.Logs;
 
 public class JettyUtil {
@@ -21,6 +25,10 @@ public class JettyUtil {
 	private static final String TMP_DIR = "tmp";
 	private static final String CONTEXT_PATH_DEF = "/";
 	private static final String DIR_ALLOWED = CONTEXT_INIT + "dirAllowed";
+	private static final String PRECOMPRESSED = CONTEXT_INIT + "precompressed";
+	private static final String GZIP_SUFFIX = ".gz";
+	private static final Set<String> COMPRESSIBLE =
+		Set.of("css", "js", "html", "htm", "svg", "json", "txt", "xml", "ttf", "otf");
 
 	private JettyUtil() {}
 
@@ -77,6 +85,40 @@ public class JettyUtil {
 		context.setInitParameter(DIR_ALLOWED, String.valueOf(false));
 	}
 
+	/**
+	 * Serves precompressed static resources, such as file.css.gz for file.css, when the client
+	 * accepts the encoding. Avoids compressing static content per request.
+	 */
+	public static void precompressed(ContextHandler context) {
+		context.setInitParameter(PRECOMPRESSED, String.valueOf(true));
+	}
+
+	/**
+	 * Writes a gzip variant of each compressible file under the directory, if missing or older
+	 * than the file. Intended for static resource directories before serving with
+	 * precompressed(). Returns the number of files written.
+	 */
+	public static int precompress(Path dir) throws IOException {
+		int count = 0;
+		try (var paths = Files.walk(dir)) {
+			for (var path : (Iterable<Path>) paths::iterator)
+				if (precompressFile(path)) count++;
+		}
+		return count;
+	}
+
+	private static boolean precompressFile(Path path) throws IOException {
+		if (!Files.isRegularFile(path) || !COMPRESSIBLE.contains(Paths.ext(path)))
+			return false;
+		var gz = path.resolveSibling(path.getFileName() + GZIP_SUFFIX);
+		if (Files.exists(gz) && Files.getLastModifiedTime(gz)
+			.compareTo(Files.getLastModifiedTime(path)) >= 0) return false;
+		try (var out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+			Files.copy(path, out);
+		}
+		return true;
+	}
+
 	/**
 	 * Doesn't show the powered-by jetty line in error pages.
 	 */
@@ -0,0 +1,228 @@
+package ceri.ent.server;
+
+import java.util.concurrent.Executors;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.ConnectionLimit;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import ceri.common.collect.Lists;
+import ceri.common.util.Validate;
+
+/**
+ * Builds a tuned jetty server around a handler, typically a web app context. Supports:
+ * <ul>
+ * <li>virtual threads for request handling, or a sized platform thread pool</li>
+ * <li>HTTP/1.1 with HTTP/2 cleartext (h2c) on the same connector</li>
+ * <li>gzip compression of responses above a minimum size</li>
+ * <li>connection count, accept queue and idle limits</li>
+ * <li>request statistics and graceful stop, via a statistics handler</li>
+ * </ul>
+ * The handler chain is: statistics, gzip, handler. Use JettyServer.statistics() to access request
+ * counts and latencies once built. Precompressed static resources are enabled on the context with
+ * JettyUtil.precompressed().
+ */
+public class ServerBuilder {
+	public static final int PORT_DEF = 8080;
+	private final Handler handler;
+	private String host = null;
+	private int port = PORT_DEF;
+	private boolean virtualThreads = false;
+	private int minThreads = 8;
+	private int maxThreads = 200;
+	private int maxConnections = 0;
+	private int acceptQueue = 0;
+	private int idleTimeoutMs = 30000;
+	private int stopTimeoutMs = 5000;
+	private boolean http2c = false;
+	private int maxStreams = 128;
+	private boolean gzip = false;
+	private int gzipMinBytes = GzipHandler.DEFAULT_MIN_GZIP_SIZE;
+	private boolean statistics = true;
+	private boolean sendServerVersion = false;
+
+	public static ServerBuilder of(Handler handler) {
+		return new ServerBuilder(handler);
+	}
+
+	private ServerBuilder(Handler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Sets the host to bind to; all interfaces if null.
+	 */
+	public ServerBuilder host(String host) {
+		this.host = host;
+		return this;
+	}
+
+	public ServerBuilder port(int port) {
+		this.port = port;
+		return this;
+	}
+
+	/**
+	 * Handles requests on virtual threads. Selectors and acceptors still use the platform thread
+	 * pool.
+	 */
+	public ServerBuilder virtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+		return this;
+	}
+
+	/**
+	 * Sets the platform thread pool size.
+	 */
+	public ServerBuilder threads(int minThreads, int maxThreads) {
+		Validate.min(minThreads, 1);
+		Validate.min(maxThreads, minThreads);
+		this.minThreads = minThreads;
+		this.maxThreads = maxThreads;
+		return this;
+	}
+
+	/**
+	 * Limits the number of open connections; accepting pauses at the limit. Unlimited if 0.
+	 */
+	public ServerBuilder maxConnections(int maxConnections) {
+		this.maxConnections = Validate.min(maxConnections, 0);
+		return this;
+	}
+
+	/**
+	 * Sets the socket accept queue size; the system default if 0.
+	 */
+	public ServerBuilder acceptQueue(int acceptQueue) {
+		this.acceptQueue = Validate.min(acceptQueue, 0);
+		return this;
+	}
+
+	/**
+	 * Sets the idle timeout for connections.
+	 */
+	public ServerBuilder idleTimeoutMs(int idleTimeoutMs) {
+		this.idleTimeoutMs = Validate.min(idleTimeoutMs, 0);
+		return this;
+	}
+
+	/**
+	 * Sets the time to wait for active requests to complete on stop.
+	 */
+	public ServerBuilder stopTimeoutMs(int stopTimeoutMs) {
+		this.stopTimeoutMs = Validate.min(stopTimeoutMs, 0);
+		return this;
+	}
+
+	/**
+	 * Enables HTTP/2 cleartext alongside HTTP/1.1, with prior knowledge or upgrade.
+	 */
+	public ServerBuilder http2c(boolean http2c) {
+		this.http2c = http2c;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum concurrent HTTP/2 streams per connection.
+	 */
+	public ServerBuilder maxStreams(int maxStreams) {
+		this.maxStreams = Validate.min(maxStreams, 1);
+		return this;
+	}
+
+	/**
+	 * Enables gzip compression of responses.
+	 */
+	public ServerBuilder gzip(boolean gzip) {
+		this.gzip = gzip;
+		return this;
+	}
+
+	/**
+	 * Sets the minimum response size to compress.
+	 */
+	public ServerBuilder gzipMinBytes(int gzipMinBytes) {
+		this.gzipMinBytes = Validate.min(gzipMinBytes, 0);
+		return this;
+	}
+
+	/**
+	 * Enables request statistics, and graceful stop.
+	 */
+	public ServerBuilder statistics(boolean statistics) {
+		this.statistics = statistics;
+		return this;
+	}
+
+	public ServerBuilder sendServerVersion(boolean sendServerVersion) {
+		this.sendServerVersion = sendServerVersion;
+		return this;
+	}
+
+	public Server build() {
+		var server = new Server(threadPool());
+		server.addConnector(connector(server));
+		if (maxConnections > 0) server.addBean(new ConnectionLimit(maxConnections, server));
+		server.setHandler(handler());
+		if (statistics) server.setStopTimeout(stopTimeoutMs);
+		return server;
+	}
+
+	public JettyServer buildJetty() {
+		return new JettyServer(build());
+	}
+
+	private QueuedThreadPool threadPool() {
+		var pool = new QueuedThreadPool(maxThreads, minThreads);
+		pool.setName("jetty");
+		if (virtualThreads)
+			pool.setVirtualThreadsExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		return pool;
+	}
+
+	@SuppressWarnings("resource")
+	private ServerConnector connector(Server server) {
+		var config = new HttpConfiguration();
+		config.setSendServerVersion(sendServerVersion);
+		config.setSendXPoweredBy(false);
+		var connector = new ServerConnector(server, connectionFactories(config));
+		connector.setHost(host);
+		connector.setPort(port);
+		connector.setIdleTimeout(idleTimeoutMs);
+		if (acceptQueue > 0) connector.setAcceptQueueSize(acceptQueue);
+		return connector;
+	}
+
+	private ConnectionFactory[] connectionFactories(HttpConfiguration config) {
+		var factories = Lists.<ConnectionFactory>of();
+		factories.add(new HttpConnectionFactory(config));
+		if (http2c) {
+			var h2c = new HTTP2CServerConnectionFactory(config);
+			h2c.setMaxConcurrentStreams(maxStreams);
+			factories.add(h2c);
+		}
+		return factories.toArray(ConnectionFactory[]::new);
+	}
+
+	private Handler handler() {
+		var handler = this.handler;
+		if (gzip) {
+			var gzipHandler = new GzipHandler();
+			gzipHandler.setMinGzipSize(gzipMinBytes);
+			gzipHandler.setHandler(handler);
+			handler = gzipHandler;
+		}
+		if (statistics) {
+			var statisticsHandler = new StatisticsHandler();
+			statisticsHandler.setHandler(handler);
+			handler = statisticsHandler;
+		}
+		return handler;
+	}
+}
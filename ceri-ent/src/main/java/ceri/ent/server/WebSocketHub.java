@@ -0,0 +1,341 @@
+package ceri.ent.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import ceri.common.collect.Immutable;
+import ceri.common.collect.Lists;
+import ceri.common.collect.Maps;
+import ceri.common.concurrent.Locker;
+import ceri.common.function.Functions;
+import ceri.common.text.ToString;
+import ceri.common.util.Validate;
+
+/**
+ * Broadcasts messages to connected WebSocket sessions, for services that push state to many
+ * clients. Each message is serialized once and shared by all sessions. Writes are asynchronous,
+ * with a limit on outstanding writes per session; further messages are queued per session. When
+ * multiple messages are queued, frames are batched and flushed with the last frame, coalescing
+ * writes. A session that lags beyond the queue limit has messages dropped, conflated to the latest,
+ * or is closed, depending on the overflow policy. Typical use is to return a listener from
+ * ServiceWebSocketServlet.createWebSocket():
+ *
+ * <pre>
+ * protected WebSocketListener createWebSocket(..., MyService service) {
+ * 	return service.hub().listener();
+ * }
+ * </pre>
+ */
+public class WebSocketHub<T> {
+	private static final Logger logger = LogManager.getLogger();
+	private final Config config;
+	private final Functions.Function<? super T, String> serializer;
+	private final Map<Session, Client> clients = Maps.concurrent();
+	private final LongAdder broadcasts = new LongAdder();
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder batched = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder conflated = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder closed = new LongAdder();
+
+	/**
+	 * Handling of a message when a session queue is full.
+	 */
+	public enum Overflow {
+		/** Drops the new message. */
+		dropNewest,
+		/** Drops the oldest queued message. */
+		dropOldest,
+		/** Replaces all queued messages with the new message; for state updates. */
+		conflate,
+		/** Closes the lagging session. */
+		close;
+	}
+
+	/**
+	 * Hub configuration; outstanding writes and queued messages are per session.
+	 */
+	public record Config(int maxOutstanding, int maxQueued, Overflow overflow) {
+		public static final Config DEFAULT = new Config(4, 64, Overflow.conflate);
+
+		public Config {
+			Validate.min(maxOutstanding, 1);
+			Validate.min(maxQueued, 1);
+		}
+	}
+
+	/**
+	 * Broadcast statistics. Batched counts frames written with a following frame.
+	 */
+	public record Stats(int sessions, long broadcasts, long sent, long batched, long dropped,
+		long conflated, long failed, long closed) {
+		@Override
+		public String toString() {
+			return ToString.forClass(this, sessions, broadcasts, sent, batched, dropped, conflated,
+				failed, closed);
+		}
+	}
+
+	/**
+	 * A listener that adds its session to the hub on connect, and removes it on close or error.
+	 * Override to handle incoming messages.
+	 */
+	public class Listener extends WebSocketAdapter {
+		@Override
+		public void onWebSocketConnect(Session session) {
+			super.onWebSocketConnect(session);
+			add(session);
+		}
+
+		@Override
+		public void onWebSocketClose(int statusCode, String reason) {
+			remove(getSession());
+			super.onWebSocketClose(statusCode, reason);
+		}
+
+		@Override
+		public void onWebSocketError(Throwable cause) {
+			if (!WebSocketUtil.isTrivialError(cause)) logger.warn(cause.toString());
+			remove(getSession());
+			super.onWebSocketError(cause);
+		}
+	}
+
+	/**
+	 * Creates a hub that serializes values with toString().
+	 */
+	public static <T> WebSocketHub<T> of() {
+		return of(Config.DEFAULT, String::valueOf);
+	}
+
+	public static <T> WebSocketHub<T> of(Config config,
+		Functions.Function<? super T, String> serializer) {
+		return new WebSocketHub<>(config, serializer);
+	}
+
+	private WebSocketHub(Config config, Functions.Function<? super T, String> serializer) {
+		this.config = config;
+		this.serializer = serializer;
+	}
+
+	/**
+	 * Creates a listener for a new WebSocket connection.
+	 */
+	public Listener listener() {
+		return new Listener();
+	}
+
+	/**
+	 * Adds a session to receive broadcasts.
+	 */
+	public void add(Session session) {
+		if (session == null || !session.isOpen()) return;
+		clients.computeIfAbsent(session, Client::new);
+	}
+
+	/**
+	 * Removes a session; queued messages are discarded.
+	 */
+	public void remove(Session session) {
+		if (session == null) return;
+		var client = clients.remove(session);
+		if (client != null) client.clear();
+	}
+
+	public Collection<Session> sessions() {
+		return Immutable.wrap(clients.keySet());
+	}
+
+	/**
+	 * Serializes the value once, and broadcasts as text to all sessions.
+	 */
+	public void broadcast(T value) {
+		broadcastText(serializer.apply(value));
+	}
+
+	/**
+	 * Broadcasts text to all sessions.
+	 */
+	public void broadcastText(String text) {
+		broadcast(new Message(text, null));
+	}
+
+	/**
+	 * Broadcasts bytes to all sessions. The buffer content is shared, and must not be modified.
+	 */
+	public void broadcastBytes(ByteBuffer bytes) {
+		broadcast(new Message(null, bytes.asReadOnlyBuffer()));
+	}
+
+	public Stats stats() {
+		return new Stats(clients.size(), broadcasts.sum(), sent.sum(), batched.sum(),
+			dropped.sum(), conflated.sum(), failed.sum(), closed.sum());
+	}
+
+	private void broadcast(Message message) {
+		broadcasts.increment();
+		for (var client : clients.values())
+			client.offer(message);
+	}
+
+	/**
+	 * A serialized message, shared across sessions.
+	 */
+	private record Message(String text, ByteBuffer bytes) {
+		public void send(RemoteEndpoint remote, WriteCallback callback) {
+			if (text != null) remote.sendString(text, callback);
+			else remote.sendBytes(bytes.duplicate(), callback);
+		}
+	}
+
+	/**
+	 * Session state. Messages are queued, and taken off the queue under the outstanding write
+	 * limit; frames are sent, and the session closed, outside the lock. Only one thread sends at a
+	 * time; a write callback that arrives while another thread is sending leaves the queue to that
+	 * thread, so synchronous write completions do not recurse.
+	 */
+	private class Client implements WriteCallback {
+		private final Locker locker = Locker.of();
+		private final Session session;
+		private final Deque<Message> queue = new ArrayDeque<>();
+		private int outstanding = 0;
+		private boolean sending = false;
+		private boolean done = false;
+
+		public Client(Session session) {
+			this.session = session;
+		}
+
+		public void offer(Message message) {
+			if (locker.get(() -> enqueue(message))) send();
+			else if (config.overflow() == Overflow.close)
+				close(StatusCode.TRY_AGAIN_LATER, "Client too slow");
+		}
+
+		public void clear() {
+			locker.run(() -> {
+				done = true;
+				queue.clear();
+			});
+		}
+
+		@Override
+		public void writeSuccess() {
+			sent.increment();
+			locker.run(() -> outstanding--);
+			send();
+		}
+
+		@Override
+		public void writeFailed(Throwable t) {
+			failed.increment();
+			logger.debug("Write failed: {}", t.toString());
+			locker.run(() -> outstanding--);
+			close(StatusCode.SERVER_ERROR, "Write failed");
+		}
+
+		/**
+		 * Queues the message, applying the overflow policy if the session is lagging. Returns
+		 * false if the message was not queued.
+		 */
+		private boolean enqueue(Message message) {
+			if (done) return false;
+			if (queue.size() >= config.maxQueued() && outstanding >= config.maxOutstanding()
+				&& !overflow()) return false;
+			queue.add(message);
+			return true;
+		}
+
+		/**
+		 * Applies the overflow policy, and returns true if the message should be queued.
+		 */
+		private boolean overflow() {
+			switch (config.overflow()) {
+				case dropNewest -> {
+					dropped.increment();
+					return false;
+				}
+				case dropOldest -> {
+					if (queue.poll() != null) dropped.increment();
+				}
+				case conflate -> {
+					conflated.add(queue.size());
+					queue.clear();
+				}
+				case close -> {
+					dropped.add(queue.size() + 1);
+					queue.clear();
+					done = true;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Sends queued messages up to the outstanding write limit, unless another thread is
+		 * sending. All but the last frame of each pass are batched, so queued frames are flushed
+		 * together.
+		 */
+		private void send() {
+			var messages = locker.get(() -> take(false));
+			try {
+				while (!messages.isEmpty()) {
+					write(messages);
+					messages = locker.get(() -> take(true));
+				}
+			} catch (RuntimeException e) {
+				writeFailed(e);
+			}
+		}
+
+		/**
+		 * Takes messages off the queue, and reserves outstanding writes for them. The sending
+		 * thread keeps sending until nothing is taken.
+		 */
+		private List<Message> take(boolean sending) {
+			if (this.sending && !sending) return List.of();
+			if (done || queue.isEmpty() || outstanding >= config.maxOutstanding()) {
+				this.sending = false;
+				return List.of();
+			}
+			this.sending = true;
+			int n = Math.min(queue.size(), config.maxOutstanding() - outstanding);
+			List<Message> messages = Lists.of();
+			for (int i = 0; i < n; i++)
+				messages.add(queue.poll());
+			outstanding += n;
+			return messages;
+		}
+
+		private void write(List<Message> messages) {
+			var remote = session.getRemote();
+			for (int i = 0; i < messages.size(); i++) {
+				boolean batch = i < messages.size() - 1;
+				remote.setBatchMode(batch ? BatchMode.ON : BatchMode.OFF);
+				if (batch) batched.increment();
+				messages.get(i).send(remote, this);
+			}
+		}
+
+		private void close(int statusCode, String reason) {
+			if (!clients.remove(session, this)) return;
+			closed.increment();
+			clear();
+			session.close(statusCode, reason);
+		}
+	}
+}
@@ -2,26 +2,98 @@ package ceri.ent.service;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import ceri.common.collect.Lists;
 import ceri.common.collect.Maps;
 import ceri.common.collect.Sets;
 import ceri.common.concurrent.SafeReadWrite;
+import ceri.common.except.Exceptions;
 import ceri.common.function.Excepts;
 import ceri.common.function.Filters;
 import ceri.common.function.Functions;
+import ceri.common.reflect.Reflect;
 
 /**
- * An in-memory data service with persistence.
+ * An in-memory data service with persistence. Subclasses may declare secondary indexes, defined
+ * by key-extractor functions, to look up values by equality or range without scanning all values.
+ * Indexes are maintained as values are added, removed, loaded and cleared. Index keys are captured
+ * when a value is added; a value must be added again if its index keys change.
  */
 public class PersistentService<K extends Comparable<K>, V> implements Persistable {
 	private static final int UNLIMITED_COUNT = -1;
 	private final PersistentStore<Set<V>> store;
 	private final SafeReadWrite safe = SafeReadWrite.of();
 	private final Map<K, V> map = Maps.tree();
+	private final List<Index<?>> indexes = Lists.of();
 	private final Functions.Function<V, K> idFn;
 	private boolean modified = false;
 
+	/**
+	 * An index of values by extracted key, for equality lookups. Values with the same key are
+	 * grouped and ordered by id.
+	 */
+	public class Index<X> {
+		private final Functions.Function<V, X> keyFn;
+		private final Map<K, X> keys = Maps.of();
+		final Map<X, NavigableMap<K, V>> buckets;
+
+		private Index(Functions.Function<V, X> keyFn, Map<X, NavigableMap<K, V>> buckets) {
+			this.keyFn = keyFn;
+			this.buckets = buckets;
+		}
+
+		/**
+		 * Returns the number of distinct keys.
+		 */
+		public int keys() {
+			return safe.read(buckets::size);
+		}
+
+		private void add(K id, V value) {
+			var key = keyFn.apply(value);
+			keys.put(id, key);
+			buckets.computeIfAbsent(key, _ -> Maps.tree()).put(id, value);
+		}
+
+		private void remove(K id) {
+			if (!keys.containsKey(id)) return;
+			var key = keys.remove(id);
+			var bucket = buckets.get(key);
+			if (bucket == null) return;
+			bucket.remove(id);
+			if (bucket.isEmpty()) buckets.remove(key);
+		}
+
+		private void clear() {
+			keys.clear();
+			buckets.clear();
+		}
+	}
+
+	/**
+	 * A sorted index of values by extracted key, for equality and range lookups. Null keys are
+	 * ordered first.
+	 */
+	public class SortedIndex<X extends Comparable<? super X>> extends Index<X> {
+		private SortedIndex(Functions.Function<V, X> keyFn) {
+			super(keyFn, Maps.tree());
+		}
+
+		private NavigableMap<X, NavigableMap<K, V>> range(X from, boolean fromInclusive, X to,
+			boolean toInclusive) {
+			NavigableMap<X, NavigableMap<K, V>> buckets = Reflect.unchecked(this.buckets);
+			if (from != null && to != null && from.compareTo(to) > 0)
+				return Collections.emptyNavigableMap();
+			if (from != null) buckets = buckets.tailMap(from, fromInclusive);
+			if (to != null) buckets = buckets.headMap(to, toInclusive);
+			return buckets;
+		}
+	}
+
 	public PersistentService(PersistentStore<Set<V>> store, Functions.Function<V, K> idFn) {
 		this.store = store;
 		this.idFn = idFn;
@@ -32,26 +104,76 @@ public class PersistentService<K extends Comparable<K>, V> implements Persistabl
 	}
 
 	protected Set<V> findAll() {
-		return find(Filters.yes());
+		return find(Filters.<RuntimeException, V>yes());
 	}
 
 	public <E extends Exception> V findFirst(Excepts.Predicate<E, V> filter) throws E {
-		var find = find(filter, 1);
-		return find.isEmpty() ? null : find.iterator().next();
+		return first(find(filter, 1));
 	}
 
 	public <E extends Exception> Set<V> find(Excepts.Predicate<E, V> filter) throws E {
 		return find(filter, UNLIMITED_COUNT);
 	}
 
+	/**
+	 * Scans all values, and returns those that match the filter.
+	 */
 	public <E extends Exception> Set<V> find(Excepts.Predicate<E, V> filter, int maxCount) throws E {
 		return safe.read(() -> {
 			var values = Sets.<V>of();
-			for (V value : this.map.values()) {
-				if (!filter.test(value)) continue;
-				values.add(value);
-				if (maxCount > 0 && values.size() >= maxCount) break;
-			}
+			collect(map.values(), filter, maxCount, values);
+			return values;
+		});
+	}
+
+	/**
+	 * Returns the first value, by id, with the index key.
+	 */
+	public <X> V findFirst(Index<X> index, X key) {
+		return first(find(index, key, Filters.<RuntimeException, V>yes(), 1));
+	}
+
+	/**
+	 * Returns values with the index key.
+	 */
+	public <X> Set<V> find(Index<X> index, X key) {
+		return find(index, key, Filters.<RuntimeException, V>yes(), UNLIMITED_COUNT);
+	}
+
+	/**
+	 * Returns values with the index key that match the filter. Only values with the key are
+	 * tested.
+	 */
+	public <E extends Exception, X> Set<V> find(Index<X> index, X key,
+		Excepts.Predicate<E, V> filter, int maxCount) throws E {
+		return safe.read(() -> {
+			var values = Sets.<V>of();
+			var bucket = verify(index).buckets.get(key);
+			if (bucket != null) collect(bucket.values(), filter, maxCount, values);
+			return values;
+		});
+	}
+
+	/**
+	 * Returns values with index keys in the inclusive range. A null bound is open.
+	 */
+	public <X extends Comparable<? super X>> Set<V> findRange(SortedIndex<X> index, X from,
+		X to) {
+		return findRange(index, from, true, to, true, Filters.<RuntimeException, V>yes(),
+			UNLIMITED_COUNT);
+	}
+
+	/**
+	 * Returns values with index keys in the range that match the filter, ordered by index key. A
+	 * null bound is open. Only values in the range are tested.
+	 */
+	public <E extends Exception, X extends Comparable<? super X>> Set<V> findRange(
+		SortedIndex<X> index, X from, boolean fromInclusive, X to, boolean toInclusive,
+		Excepts.Predicate<E, V> filter, int maxCount) throws E {
+		return safe.read(() -> {
+			var values = Sets.<V>link();
+			for (var bucket : verify(index).range(from, fromInclusive, to, toInclusive).values())
+				if (collect(bucket.values(), filter, maxCount, values)) break;
 			return values;
 		});
 	}
@@ -64,13 +186,34 @@ public class PersistentService<K extends Comparable<K>, V> implements Persistabl
 	public int removeKeys(Iterable<K> keys) {
 		return safe.writeWithReturn(() -> {
 			int removed = 0;
-			for (K key : keys)
-				if (map.remove(key) != null) removed++;
+			for (K key : keys) {
+				if (map.remove(key) == null) continue;
+				for (var index : indexes)
+					index.remove(key);
+				removed++;
+			}
 			if (removed > 0) modified = true;
 			return removed;
 		});
 	}
 
+	/**
+	 * Creates a hash index from the key-extractor, and indexes current values. Typically called
+	 * when initializing subclass fields.
+	 */
+	protected <X> Index<X> hashIndex(Functions.Function<V, X> keyFn) {
+		return register(new Index<>(keyFn, Maps.of()));
+	}
+
+	/**
+	 * Creates a sorted index from the key-extractor, and indexes current values. Typically called
+	 * when initializing subclass fields.
+	 */
+	protected <X extends Comparable<? super X>> SortedIndex<X>
+		sortedIndex(Functions.Function<V, X> keyFn) {
+		return register(new SortedIndex<>(keyFn));
+	}
+
 	@SuppressWarnings("unchecked")
 	protected void add(V... values) {
 		add(Arrays.asList(values));
@@ -112,17 +255,64 @@ public class PersistentService<K extends Comparable<K>, V> implements Persistabl
 		safe.write(() -> {
 			if (!map.isEmpty()) modified = true;
 			map.clear();
+			for (var index : indexes)
+				index.clear();
 		});
 	}
 
+	/**
+	 * Adds values under the write lock, replacing and re-indexing values with the same id.
+	 */
 	protected void safeAdd(Map<K, V> map) {
-		this.map.putAll(map);
+		for (var entry : map.entrySet()) {
+			var id = entry.getKey();
+			var value = entry.getValue();
+			if (this.map.put(id, value) != null) for (var index : indexes)
+				index.remove(id);
+			for (var index : indexes)
+				index.add(id, value);
+		}
 	}
 
 	protected int size() {
 		return safe.read(map::size);
 	}
 
+	private <I extends Index<?>> I register(I index) {
+		Index<?> added = index;
+		safe.write(() -> {
+			for (var entry : map.entrySet())
+				added.add(entry.getKey(), entry.getValue());
+			indexes.add(added);
+		});
+		return index;
+	}
+
+	/**
+	 * Checks the index belongs to this service; must be called under the lock.
+	 */
+	private <I extends Index<?>> I verify(I index) {
+		if (indexes.contains(index)) return index;
+		throw Exceptions.illegalArg("Index not registered with this service");
+	}
+
+	/**
+	 * Adds matching values to the set, and returns true if max count is reached.
+	 */
+	private static <E extends Exception, V> boolean collect(Iterable<V> values,
+		Excepts.Predicate<E, V> filter, int maxCount, Set<V> set) throws E {
+		for (V value : values) {
+			if (!filter.test(value)) continue;
+			set.add(value);
+			if (maxCount > 0 && set.size() >= maxCount) return true;
+		}
+		return false;
+	}
+
+	private static <V> V first(Set<V> values) {
+		return values.isEmpty() ? null : values.iterator().next();
+	}
+
 	private Map<K, V> toMap(Iterable<V> values) {
 		if (values == null) return Maps.of();
 		return Maps.convert(idFn, values);
@@ -0,0 +1,367 @@
+package ceri.ent.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import ceri.common.collect.Lists;
+import ceri.common.collect.Maps;
+import ceri.common.concurrent.Concurrent;
+import ceri.common.concurrent.Locker;
+import ceri.common.except.ExceptionAdapter;
+import ceri.common.function.Closeables;
+import ceri.common.function.Functions;
+import ceri.common.text.ToString;
+import ceri.common.util.Validate;
+import ceri.log.util.Logs;
+
+/**
+ * Fetches urls concurrently with a shared pooled http client. Connections per host are bounded by
+ * the pool. Failed requests and server errors are retried with exponential backoff and jitter.
+ * Response bodies are streamed to files in a cache directory, with ETag and Last-Modified headers
+ * saved alongside. Cached entries are revalidated with conditional requests, and a 304 response
+ * returns the cached file. Concurrent fetches of the same url share a single in-flight request;
+ * fetches of different urls only synchronize while moving files into the cache. Use for scrapers
+ * that fetch many urls; for simple requests use UrlRequester.
+ */
+public class UrlFetcher implements Functions.Closeable {
+	private static final Logger logger = LogManager.getLogger();
+	private static final int LOCKS = 64;
+	private static final String BODY_SUFFIX = ".body";
+	private static final String META_SUFFIX = ".meta";
+	private static final String TMP_SUFFIX = ".tmp";
+	private static final String URL_KEY = "url";
+	private static final String ETAG_KEY = "etag";
+	private static final String LAST_MODIFIED_KEY = "lastModified";
+	private final Config config;
+	private final PoolingHttpClientConnectionManager pool;
+	private final CloseableHttpClient client;
+	private final ExecutorService executor;
+	private final Locker[] locks = new Locker[LOCKS];
+	private final Map<String, CompletableFuture<Path>> inFlight = Maps.concurrent();
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder shared = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+
+	/**
+	 * Fetcher configuration.
+	 */
+	public record Config(Path cacheDir, int maxConcurrent, int maxPerHost, int retries,
+		int backoffMs, int backoffMaxMs, int timeoutMs) {
+
+		public static Config of(Path cacheDir) {
+			return new Config(cacheDir, 16, 4, 3, 100, 10000, 30000);
+		}
+
+		public Config {
+			Validate.min(maxConcurrent, 1);
+			Validate.min(maxPerHost, 1);
+			Validate.min(retries, 0);
+			Validate.min(backoffMs, 0);
+			Validate.min(backoffMaxMs, backoffMs);
+		}
+	}
+
+	/**
+	 * Fetch statistics. Hits are cached entries confirmed by a 304 response. Shared fetches joined
+	 * an in-flight fetch of the same url.
+	 */
+	public record Stats(long requests, long hits, long misses, long shared, long retries,
+		long bytes) {
+		public double hitRate() {
+			long n = hits + misses;
+			return n == 0 ? 0 : (double) hits / n;
+		}
+
+		@Override
+		public String toString() {
+			return ToString.forClass(this, requests, hits, misses, shared, retries, bytes);
+		}
+	}
+
+	/**
+	 * An unexpected http response status.
+	 */
+	@SuppressWarnings("serial")
+	public static class StatusException extends IOException {
+		public final int status;
+
+		private StatusException(String url, int status) {
+			super("Unexpected http response: " + status + ", " + url);
+			this.status = status;
+		}
+
+		/**
+		 * Server errors and throttling responses may succeed on retry.
+		 */
+		public boolean retryable() {
+			return status >= HttpStatus.SC_INTERNAL_SERVER_ERROR || status == 429;
+		}
+	}
+
+	public static UrlFetcher of(Path cacheDir) throws IOException {
+		return of(Config.of(cacheDir));
+	}
+
+	public static UrlFetcher of(Config config) throws IOException {
+		Files.createDirectories(config.cacheDir());
+		return new UrlFetcher(config);
+	}
+
+	private UrlFetcher(Config config) {
+		this.config = config;
+		for (int i = 0; i < locks.length; i++)
+			locks[i] = Locker.of();
+		pool = new PoolingHttpClientConnectionManager();
+		pool.setMaxTotal(config.maxConcurrent());
+		pool.setDefaultMaxPerRoute(config.maxPerHost());
+		var requestConfig = RequestConfig.custom().setConnectTimeout(config.timeoutMs())
+			.setSocketTimeout(config.timeoutMs()).setConnectionRequestTimeout(config.timeoutMs())
+			.build();
+		client = HttpClients.custom().setConnectionManager(pool)
+			.setDefaultRequestConfig(requestConfig).build();
+		executor = Executors.newFixedThreadPool(config.maxConcurrent());
+	}
+
+	/**
+	 * Fetches the url, and returns the path of the cached body. If the url is already being
+	 * fetched, waits for and returns the result of that fetch.
+	 */
+	public Path fetch(String url) throws IOException {
+		var name = name(url);
+		var future = new CompletableFuture<Path>();
+		var existing = inFlight.putIfAbsent(name, future);
+		if (existing != null) {
+			shared.increment();
+			return Concurrent.get(existing, ExceptionAdapter.io);
+		}
+		try {
+			var path = fetch(url, name);
+			future.complete(path);
+			return path;
+		} catch (IOException | RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(name, future);
+		}
+	}
+
+	/**
+	 * Fetches the url, and returns the body as a string.
+	 */
+	public String getString(String url) throws IOException {
+		return Files.readString(fetch(url), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Submits the url for fetching.
+	 */
+	public Future<Path> submit(String url) {
+		return executor.submit(() -> fetch(url));
+	}
+
+	/**
+	 * Fetches the urls concurrently, and waits for all to complete. Paths are returned in the same
+	 * order as the urls. The first failure is thrown after all fetches complete.
+	 */
+	public List<Path> fetchAll(Collection<String> urls) throws IOException {
+		var futures = Lists.adapt(this::submit, urls);
+		List<Path> paths = Lists.of();
+		IOException ex = null;
+		for (var future : futures) {
+			try {
+				paths.add(Concurrent.get(future, ExceptionAdapter.io));
+			} catch (IOException e) {
+				if (ex == null) ex = e;
+				paths.add(null);
+			}
+		}
+		if (ex != null) throw ex;
+		return paths;
+	}
+
+	public Stats stats() {
+		return new Stats(requests.sum(), hits.sum(), misses.sum(), shared.sum(), retries.sum(),
+			bytes.sum());
+	}
+
+	@Override
+	public void close() {
+		Closeables.close(executor);
+		Logs.close(client, pool);
+	}
+
+	private Path fetch(String url, String name) throws IOException {
+		var body = config.cacheDir().resolve(name + BODY_SUFFIX);
+		var meta = config.cacheDir().resolve(name + META_SUFFIX);
+		IOException ex = null;
+		for (int i = 0; i <= config.retries(); i++) {
+			if (i > 0) {
+				retries.increment();
+				Concurrent.delay(backoffMs(i));
+			}
+			try {
+				return request(url, name, body, meta);
+			} catch (StatusException e) {
+				if (!e.retryable()) throw e;
+				ex = e;
+			} catch (IOException e) {
+				ex = e;
+			}
+			logger.warn("Attempt {} failed: {}", i + 1, ex.toString());
+		}
+		throw new IOException("Failed calling " + url + " after " + (config.retries() + 1)
+			+ " attempts", ex);
+	}
+
+	private Path request(String url, String name, Path body, Path meta) throws IOException {
+		var cached = lock(name).get(() -> cached(url, body, meta));
+		var get = new HttpGet(url);
+		if (cached != null) {
+			var etag = cached.getProperty(ETAG_KEY);
+			var lastModified = cached.getProperty(LAST_MODIFIED_KEY);
+			if (etag != null) get.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+			if (lastModified != null) get.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+		}
+		requests.increment();
+		try (var response = client.execute(get)) {
+			int status = response.getStatusLine().getStatusCode();
+			if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+				EntityUtils.consume(response.getEntity());
+				hits.increment();
+				return body;
+			}
+			if (status != HttpStatus.SC_OK) {
+				EntityUtils.consume(response.getEntity());
+				throw new StatusException(url, status);
+			}
+			misses.increment();
+			save(url, name, response, body, meta);
+			return body;
+		}
+	}
+
+	/**
+	 * Streams the response body to a temporary file, then moves it into place with the saved
+	 * validation headers. Only the file moves are locked.
+	 */
+	private void save(String url, String name, HttpResponse response, Path body, Path meta)
+		throws IOException {
+		var bodyTmp = tmp(body);
+		var metaTmp = tmp(meta);
+		try {
+			var entity = response.getEntity();
+			if (entity == null) write(bodyTmp, _ -> {});
+			else try (var in = entity.getContent()) {
+				write(bodyTmp, out -> bytes.add(in.transferTo(out)));
+			}
+			var properties = new Properties();
+			properties.setProperty(URL_KEY, url);
+			header(response, HttpHeaders.ETAG, properties, ETAG_KEY);
+			header(response, HttpHeaders.LAST_MODIFIED, properties, LAST_MODIFIED_KEY);
+			boolean validated = properties.size() > 1;
+			if (validated) write(metaTmp, out -> properties.store(out, null));
+			lock(name).run(() -> {
+				Files.deleteIfExists(meta); // invalidate until the body is replaced
+				move(bodyTmp, body);
+				if (validated) move(metaTmp, meta);
+			});
+		} finally {
+			Files.deleteIfExists(bodyTmp);
+			Files.deleteIfExists(metaTmp);
+		}
+	}
+
+	private static Properties cached(String url, Path body, Path meta) throws IOException {
+		if (!Files.isRegularFile(meta) || !Files.isRegularFile(body)) return null;
+		var properties = new Properties();
+		try (InputStream in = Files.newInputStream(meta)) {
+			properties.load(in);
+		}
+		if (!url.equals(properties.getProperty(URL_KEY))) return null;
+		return properties;
+	}
+
+	private static void header(HttpResponse response, String name, Properties properties,
+		String key) {
+		var header = response.getFirstHeader(name);
+		if (header != null) properties.setProperty(key, header.getValue());
+	}
+
+	private static Path tmp(Path path) {
+		return path.resolveSibling(path.getFileName() + TMP_SUFFIX);
+	}
+
+	private static void write(Path path, WriteFn writeFn) throws IOException {
+		try (OutputStream out = Files.newOutputStream(path)) {
+			writeFn.write(out);
+		}
+	}
+
+	private static void move(Path tmp, Path path) throws IOException {
+		try {
+			Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private interface WriteFn {
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Exponential backoff with full jitter: a random delay up to the capped exponential delay.
+	 */
+	private long backoffMs(int attempt) {
+		long max = Math.min(config.backoffMaxMs(),
+			(long) config.backoffMs() << Math.min(attempt - 1, 30));
+		return max <= 0 ? 0 : ThreadLocalRandom.current().nextLong(max + 1);
+	}
+
+	private Locker lock(String name) {
+		return locks[Math.floorMod(name.hashCode(), locks.length)];
+	}
+
+	private static String name(String url) {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
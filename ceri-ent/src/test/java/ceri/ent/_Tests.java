@@ -4,9 +4,13 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import ceri.common.test.Testing;
 import ceri.ent.json.JsonUtilTest;
+import ceri.ent.server.WebSocketHubBehavior;
+import ceri.ent.service.PersistentServiceBehavior;
+import ceri.ent.web.UrlFetcherBehavior;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ JsonUtilTest.class, })
+@Suite.SuiteClasses({ JsonUtilTest.class, WebSocketHubBehavior.class,
+	PersistentServiceBehavior.class, UrlFetcherBehavior.class, })
 public class _Tests {
 	public static void main(String... args) {
 		Testing.exec(_Tests.class);
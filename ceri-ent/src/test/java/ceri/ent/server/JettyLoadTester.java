@@ -0,0 +1,229 @@
+package ceri.ent.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.websocket.api.WebSocketAdapter;
+import org.eclipse.jetty.websocket.api.WebSocketListener;
+import org.eclipse.jetty.websocket.server.JettyServerUpgradeRequest;
+import org.eclipse.jetty.websocket.server.JettyServerUpgradeResponse;
+import org.eclipse.jetty.websocket.server.config.JettyWebSocketServletContainerInitializer;
+import ceri.common.collect.Lists;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Local load test for servlet and WebSocket endpoints on a server from ServerBuilder. Runs
+ * concurrent clients against each endpoint, and prints throughput, p50 and p99 latency, and
+ * server-side statistics. Compares platform and virtual thread configurations.
+ */
+public class JettyLoadTester {
+	private static final int PORT = 8091;
+	private static final int CLIENTS = 64;
+	private static final int REQUESTS = 500;
+	private static final int WARMUP = 50;
+	private static final int PAYLOAD_SIZE = 4 * 1024;
+	private static final String SERVLET_PATH = "/load";
+	private static final String WS_PATH = "/load-ws";
+
+	/**
+	 * Provides the response payload.
+	 */
+	public static class LoadService {
+		public final String payload = "x".repeat(PAYLOAD_SIZE);
+	}
+
+	@SuppressWarnings("serial")
+	public static class LoadServlet extends ServiceServlet<LoadService> {
+		public LoadServlet() {
+			super(LoadService.class);
+		}
+
+		@Override
+		protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+			response.setContentType("text/plain");
+			response.getWriter().write(service().payload);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	public static class LoadWebSocketServlet extends ServiceWebSocketServlet<LoadService> {
+		public LoadWebSocketServlet() {
+			super(LoadService.class);
+		}
+
+		@Override
+		protected WebSocketListener createWebSocket(JettyServerUpgradeRequest req,
+			JettyServerUpgradeResponse resp, LoadService service) {
+			return new WebSocketAdapter() {
+				@Override
+				public void onWebSocketText(String message) {
+					try {
+						getRemote().sendString(message);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		run("platform threads", false);
+		run("virtual threads", true);
+	}
+
+	private static void run(String name, boolean virtualThreads) throws Exception {
+		var webapp = JettyUtil.createWebApp();
+		ServiceServlet.setService(webapp, new LoadService());
+		webapp.addServlet(LoadServlet.class, SERVLET_PATH);
+		webapp.addServlet(LoadWebSocketServlet.class, WS_PATH);
+		JettyWebSocketServletContainerInitializer.configure(webapp, null);
+		var builder = ServerBuilder.of(webapp).port(PORT).virtualThreads(virtualThreads)
+			.http2c(true).gzip(true).maxConnections(CLIENTS * 2);
+		try (var server = builder.buildJetty()) {
+			server.start();
+			System.out.printf("%s:%n", name);
+			servlet(server, HttpClient.Version.HTTP_1_1);
+			servlet(server, HttpClient.Version.HTTP_2);
+			webSocket(server);
+			var stats = server.statistics();
+			System.out.printf("  server: %d requests, mean %.0f us, max %d us%n",
+				stats.getRequests(), stats.getRequestTimeMean() / 1000,
+				stats.getRequestTimeMax() / 1000);
+		}
+	}
+
+	private static void servlet(JettyServer server, HttpClient.Version version) throws Exception {
+		var uri = URI.create(server.url(SERVLET_PATH));
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+			var client = HttpClient.newBuilder().version(version).build()) {
+			var request = HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build();
+			report("servlet " + version, load(executor, () -> {
+				var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+				if (response.statusCode() != HttpServletResponse.SC_OK)
+					throw new IOException("Status " + response.statusCode());
+			}));
+		}
+	}
+
+	private static void webSocket(JettyServer server) throws Exception {
+		var uri = URI.create(server.url(WS_PATH).replaceFirst("^http", "ws"));
+		var message = "y".repeat(PAYLOAD_SIZE);
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+			var client = HttpClient.newHttpClient()) {
+			var sockets = new Echo[CLIENTS];
+			for (int i = 0; i < sockets.length; i++)
+				sockets[i] = Echo.open(client, uri);
+			report("websocket", load(executor, sockets, echo -> echo.send(message)));
+			for (var echo : sockets)
+				echo.close();
+		}
+	}
+
+	/**
+	 * A client WebSocket that waits for each message to be echoed.
+	 */
+	private static class Echo implements WebSocket.Listener {
+		private final StringBuilder text = new StringBuilder();
+		private WebSocket webSocket;
+		private volatile CompletableFuture<String> reply;
+
+		public static Echo open(HttpClient client, URI uri) {
+			var echo = new Echo();
+			echo.webSocket = client.newWebSocketBuilder().buildAsync(uri, echo).join();
+			return echo;
+		}
+
+		public void send(String message) throws Exception {
+			reply = new CompletableFuture<>();
+			webSocket.sendText(message, true).join();
+			if (!message.equals(reply.get(10, TimeUnit.SECONDS)))
+				throw new IOException("Unexpected reply");
+		}
+
+		public void close() {
+			webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+		}
+
+		@Override
+		public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+			text.append(data);
+			if (last) {
+				reply.complete(text.toString());
+				text.setLength(0);
+			}
+			webSocket.request(1);
+			return null;
+		}
+	}
+
+	private interface Call {
+		void call() throws Exception;
+	}
+
+	private interface ClientCall<T> {
+		void call(T client) throws Exception;
+	}
+
+	private record Result(long[] latencyNs, long elapsedNs) {}
+
+	private static Result load(ExecutorService executor, Call call) throws Exception {
+		var clients = new Call[CLIENTS];
+		Arrays.fill(clients, call);
+		return load(executor, clients, Call::call);
+	}
+
+	/**
+	 * Runs requests from each client concurrently, after warm-up, and collects latencies.
+	 */
+	private static <T> Result load(ExecutorService executor, T[] clients, ClientCall<T> call)
+		throws Exception {
+		var latencies = new long[clients.length * REQUESTS];
+		List<Future<?>> futures = Lists.of();
+		long t0 = System.nanoTime();
+		for (int i = 0; i < clients.length; i++) {
+			var client = clients[i];
+			int offset = i * REQUESTS;
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < WARMUP; j++)
+					call.call(client);
+				for (int j = 0; j < REQUESTS; j++) {
+					long t = System.nanoTime();
+					call.call(client);
+					latencies[offset + j] = System.nanoTime() - t;
+				}
+				return null;
+			}));
+		}
+		for (var future : futures)
+			future.get();
+		return new Result(latencies, System.nanoTime() - t0);
+	}
+
+	private static void report(String name, Result result) {
+		var latencies = result.latencyNs();
+		Arrays.sort(latencies);
+		double seconds = result.elapsedNs() / 1e9;
+		long total = (long) CLIENTS * (REQUESTS + WARMUP);
+		System.out.printf("  %-18s %,10.0f req/s  p50 %,8d us  p99 %,8d us%n", name,
+			total / seconds, percentile(latencies, 0.5) / 1000,
+			percentile(latencies, 0.99) / 1000);
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+	}
+}
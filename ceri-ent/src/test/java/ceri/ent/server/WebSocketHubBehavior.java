@@ -0,0 +1,213 @@
+package ceri.ent.server;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.Test;
+import ceri.common.collect.Lists;
+import ceri.common.function.Functions;
+import ceri.common.reflect.Reflect;
+import ceri.common.test.Assert;
+
+public class WebSocketHubBehavior {
+	private final TestSession client = new TestSession();
+
+	@Test
+	public void shouldLimitOutstandingWrites() {
+		var hub = hub(2, 8, WebSocketHub.Overflow.dropNewest);
+		broadcast(hub, 0, 5);
+		Assert.ordered(client.texts(), "0", "1");
+		client.complete(1);
+		Assert.ordered(client.texts(), "0", "1", "2");
+		client.completeAll();
+		Assert.ordered(client.texts(), "0", "1", "2", "3", "4");
+		Assert.equal(hub.stats().sent(), 5L);
+	}
+
+	@Test
+	public void shouldDropNewestOnOverflow() {
+		var hub = hub(1, 2, WebSocketHub.Overflow.dropNewest);
+		broadcast(hub, 0, 6);
+		client.completeAll();
+		Assert.ordered(client.texts(), "0", "1", "2");
+		Assert.equal(hub.stats().dropped(), 3L);
+	}
+
+	@Test
+	public void shouldDropOldestOnOverflow() {
+		var hub = hub(1, 2, WebSocketHub.Overflow.dropOldest);
+		broadcast(hub, 0, 6);
+		client.completeAll();
+		Assert.ordered(client.texts(), "0", "4", "5");
+		Assert.equal(hub.stats().dropped(), 3L);
+	}
+
+	@Test
+	public void shouldConflateOnOverflow() {
+		var hub = hub(1, 2, WebSocketHub.Overflow.conflate);
+		broadcast(hub, 0, 6);
+		client.completeAll();
+		Assert.ordered(client.texts(), "0", "5");
+		Assert.equal(hub.stats().conflated(), 4L);
+	}
+
+	@Test
+	public void shouldCloseOnOverflow() {
+		var hub = hub(1, 2, WebSocketHub.Overflow.close);
+		broadcast(hub, 0, 6);
+		Assert.equal(client.closeStatus, StatusCode.TRY_AGAIN_LATER);
+		client.completeAll();
+		Assert.ordered(client.texts(), "0");
+		var stats = hub.stats();
+		Assert.equal(stats.sessions(), 0);
+		Assert.equal(stats.dropped(), 3L);
+		Assert.equal(stats.closed(), 1L);
+	}
+
+	@Test
+	public void shouldCloseOnWriteFailure() {
+		var hub = hub(1, 2, WebSocketHub.Overflow.dropNewest);
+		broadcast(hub, 0, 2);
+		client.callbacks.poll().writeFailed(new IOException("test"));
+		Assert.equal(client.closeStatus, StatusCode.SERVER_ERROR);
+		Assert.ordered(client.texts(), "0");
+		Assert.equal(hub.stats().failed(), 1L);
+		Assert.equal(hub.stats().sessions(), 0);
+	}
+
+	@Test
+	public void shouldBatchQueuedFrames() {
+		var hub = hub(4, 10, WebSocketHub.Overflow.dropNewest);
+		broadcast(hub, 0, 10);
+		client.completeOnSend = true;
+		client.complete(1);
+		Assert.ordered(client.texts(), "0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+		Assert.ordered(client.modes(), BatchMode.OFF, BatchMode.OFF, BatchMode.OFF,
+			BatchMode.OFF, BatchMode.OFF, BatchMode.ON, BatchMode.ON, BatchMode.OFF, BatchMode.ON,
+			BatchMode.OFF);
+		Assert.equal(hub.stats().batched(), 3L);
+	}
+
+	@Test
+	public void shouldNotRecurseOnSynchronousWrites() {
+		var hub = hub(1, 200, WebSocketHub.Overflow.dropNewest);
+		broadcast(hub, 0, 101);
+		client.sync = true;
+		client.complete(1);
+		Assert.equal(client.frames.size(), 101);
+		Assert.equal(hub.stats().sent(), 101L);
+		var depths = Lists.adapt(Frame::depth, client.frames.subList(1, 101));
+		Assert.equal(depths.stream().distinct().count(), 1L);
+	}
+
+	@Test
+	public void shouldDiscardQueueOnRemove() {
+		var hub = hub(1, 8, WebSocketHub.Overflow.dropNewest);
+		broadcast(hub, 0, 3);
+		hub.remove(client.session);
+		broadcast(hub, 3, 4);
+		client.completeAll();
+		Assert.ordered(client.texts(), "0");
+		Assert.equal(hub.stats().sessions(), 0);
+	}
+
+	private WebSocketHub<Integer> hub(int maxOutstanding, int maxQueued,
+		WebSocketHub.Overflow overflow) {
+		var hub = WebSocketHub.<Integer>of(
+			new WebSocketHub.Config(maxOutstanding, maxQueued, overflow), String::valueOf);
+		hub.add(client.session);
+		return hub;
+	}
+
+	private static void broadcast(WebSocketHub<Integer> hub, int from, int to) {
+		for (int i = from; i < to; i++)
+			hub.broadcast(i);
+	}
+
+	private record Frame(String text, BatchMode mode, int depth) {}
+
+	/**
+	 * A session stub that records sent frames. Writes complete when called, on send, or
+	 * synchronously.
+	 */
+	private static class TestSession {
+		public final List<Frame> frames = Lists.of();
+		public final Deque<WriteCallback> callbacks = new ArrayDeque<>();
+		public final Session session = proxy(Session.class, this::session);
+		private final RemoteEndpoint remote = proxy(RemoteEndpoint.class, this::remote);
+		public boolean completeOnSend = false;
+		public boolean sync = false;
+		public Integer closeStatus = null;
+		private BatchMode mode = BatchMode.AUTO;
+
+		public List<String> texts() {
+			return Lists.adapt(Frame::text, frames);
+		}
+
+		public List<BatchMode> modes() {
+			return Lists.adapt(Frame::mode, frames);
+		}
+
+		public void complete(int n) {
+			for (int i = 0; i < n; i++)
+				callbacks.poll().writeSuccess();
+		}
+
+		public void completeAll() {
+			while (!callbacks.isEmpty())
+				complete(1);
+		}
+
+		private Object session(Method method, Object[] args) {
+			return switch (method.getName()) {
+				case "getRemote" -> remote;
+				case "isOpen" -> closeStatus == null;
+				case "close" -> {
+					closeStatus = (Integer) args[0];
+					yield null;
+				}
+				default -> null;
+			};
+		}
+
+		private Object remote(Method method, Object[] args) {
+			switch (method.getName()) {
+				case "setBatchMode" -> mode = (BatchMode) args[0];
+				case "getBatchMode" -> {
+					return mode;
+				}
+				case "sendString" -> send((String) args[0], (WriteCallback) args[1]);
+			}
+			return null;
+		}
+
+		private void send(String text, WriteCallback callback) {
+			frames.add(new Frame(text, mode, Thread.currentThread().getStackTrace().length));
+			if (sync) callback.writeSuccess();
+			else if (!completeOnSend) callbacks.add(callback);
+			else {
+				completeAll();
+				callbacks.add(callback);
+			}
+		}
+
+		private static <T> T proxy(Class<T> cls,
+			Functions.BiFunction<Method, Object[], Object> handler) {
+			return Reflect.unchecked(Proxy.newProxyInstance(cls.getClassLoader(),
+				new Class<?>[] { cls }, (proxy, method, args) -> switch (method.getName()) {
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					case "toString" -> cls.getSimpleName();
+					default -> handler.apply(method, args);
+				}));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package ceri.ent.server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.jetty.websocket.api.WebSocketListener;
+import org.eclipse.jetty.websocket.server.JettyServerUpgradeRequest;
+import org.eclipse.jetty.websocket.server.JettyServerUpgradeResponse;
+import org.eclipse.jetty.websocket.server.config.JettyWebSocketServletContainerInitializer;
+import ceri.common.collect.Lists;
+import ceri.common.concurrent.Concurrent;
+
+/**
+ * Broadcasts state updates from a hub to many local WebSocket clients, some of which are slow.
+ * Prints broadcast throughput, messages received by fast and slow clients, and hub statistics for
+ * each overflow policy.
+ */
+public class WebSocketHubTester {
+	private static final int PORT = 8092;
+	private static final String PATH = "/hub";
+	private static final int CLIENTS = 200;
+	private static final int SLOW_CLIENTS = 20;
+	private static final int SLOW_DELAY_MS = 5;
+	private static final int MESSAGES = 5000;
+	private static final int MESSAGE_SIZE = 512;
+
+	/**
+	 * Holds the hub for the servlet.
+	 */
+	public static class HubService {
+		public final WebSocketHub<String> hub;
+
+		public HubService(WebSocketHub<String> hub) {
+			this.hub = hub;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	public static class HubServlet extends ServiceWebSocketServlet<HubService> {
+		public HubServlet() {
+			super(HubService.class);
+		}
+
+		@Override
+		protected WebSocketListener createWebSocket(JettyServerUpgradeRequest req,
+			JettyServerUpgradeResponse resp, HubService service) {
+			return service.hub.listener();
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (var overflow : WebSocketHub.Overflow.values())
+			run(new WebSocketHub.Config(4, 64, overflow));
+	}
+
+	private static void run(WebSocketHub.Config config) throws Exception {
+		var hub = WebSocketHub.<String>of(config, s -> s);
+		var webapp = JettyUtil.createWebApp();
+		ServiceServlet.setService(webapp, new HubService(hub));
+		webapp.addServlet(HubServlet.class, PATH);
+		JettyWebSocketServletContainerInitializer.configure(webapp, null);
+		try (var server = ServerBuilder.of(webapp).port(PORT).virtualThreads(true).buildJetty();
+			var client = HttpClient.newHttpClient()) {
+			server.start();
+			var uri = URI.create(server.url(PATH).replaceFirst("^http", "ws"));
+			List<Receiver> receivers = Lists.of();
+			for (int i = 0; i < CLIENTS; i++)
+				receivers.add(Receiver.open(client, uri, i < SLOW_CLIENTS ? SLOW_DELAY_MS : 0));
+			while (hub.stats().sessions() < CLIENTS)
+				Concurrent.delay(10);
+			var payload = "z".repeat(MESSAGE_SIZE);
+			long t0 = System.nanoTime();
+			for (int i = 0; i < MESSAGES; i++)
+				hub.broadcast(i + ":" + payload);
+			long ns = System.nanoTime() - t0;
+			Concurrent.delay(1000); // allow delivery
+			System.out.printf("%s: %,.0f broadcasts/s%n", config.overflow(),
+				MESSAGES / (ns / 1e9));
+			System.out.printf("  fast clients: %,d msgs, slow clients: %,d msgs%n",
+				received(receivers.subList(SLOW_CLIENTS, CLIENTS)),
+				received(receivers.subList(0, SLOW_CLIENTS)));
+			System.out.printf("  %s%n", hub.stats());
+			for (var receiver : receivers)
+				receiver.close();
+		}
+	}
+
+	private static long received(List<Receiver> receivers) {
+		long n = 0;
+		for (var receiver : receivers)
+			n += receiver.count.get();
+		return n / receivers.size();
+	}
+
+	/**
+	 * A client WebSocket that counts received messages, with an optional delay per message.
+	 */
+	private static class Receiver implements WebSocket.Listener {
+		private final AtomicLong count = new AtomicLong();
+		private final int delayMs;
+		private WebSocket webSocket;
+
+		public static Receiver open(HttpClient client, URI uri, int delayMs) {
+			var receiver = new Receiver(delayMs);
+			receiver.webSocket = client.newWebSocketBuilder().buildAsync(uri, receiver).join();
+			return receiver;
+		}
+
+		private Receiver(int delayMs) {
+			this.delayMs = delayMs;
+		}
+
+		public void close() {
+			webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").orTimeout(1, TimeUnit.SECONDS);
+		}
+
+		@Override
+		public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+			if (last) count.incrementAndGet();
+			if (delayMs > 0) Concurrent.delay(delayMs);
+			webSocket.request(1);
+			return null;
+		}
+	}
+}
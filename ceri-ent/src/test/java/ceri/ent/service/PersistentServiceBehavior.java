@@ -0,0 +1,137 @@
+package ceri.ent.service;
+
+import java.io.IOException;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Test;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import ceri.common.function.Closeables;
+import ceri.common.test.Assert;
+import ceri.common.test.FileTestHelper;
+import ceri.ent.json.JsonCoder;
+
+public class PersistentServiceBehavior {
+	private static final Item A = new Item(1, "a", 10);
+	private static final Item B = new Item(2, "b", 20);
+	private static final Item C = new Item(3, "a", 30);
+	private static final Item D = new Item(4, "d", 40);
+	private FileTestHelper files;
+
+	public record Item(long id, String name, int score) {}
+
+	static class ItemService extends PersistentService<Long, Item> {
+		public final Index<String> byName = hashIndex(Item::name);
+		public final SortedIndex<Integer> byScore = sortedIndex(Item::score);
+
+		public ItemService() {
+			this(null);
+		}
+
+		public ItemService(PersistentStore<Set<Item>> store) {
+			super(store, Item::id);
+		}
+	}
+
+	@After
+	public void after() {
+		Closeables.close(files);
+		files = null;
+	}
+
+	@Test
+	public void shouldFindByIndexKey() {
+		var service = service(A, B, C, D);
+		Assert.unordered(service.find(service.byName, "a"), A, C);
+		Assert.unordered(service.find(service.byName, "x"));
+		Assert.equal(service.findFirst(service.byName, "a"), A);
+		Assert.isNull(service.findFirst(service.byName, "x"));
+		Assert.unordered(service.find(service.byName, "a", i -> i.score() > 10, 0), C);
+		Assert.equal(service.byName.keys(), 3);
+		Assert.equal(service.byScore.keys(), 4);
+	}
+
+	@Test
+	public void shouldIndexExistingValues() {
+		var service = service(A, B, C);
+		var byScore = service.sortedIndex(i -> i.score() / 20);
+		Assert.ordered(service.findRange(byScore, 1, null), B, C);
+		Assert.thrown(() -> service.find(new ItemService().byName, "a"));
+	}
+
+	@Test
+	public void shouldReindexReplacedValues() {
+		var service = service(A, B);
+		service.add(new Item(1, "x", 50));
+		Assert.unordered(service.find(service.byName, "a"));
+		Assert.unordered(service.find(service.byName, "x"), new Item(1, "x", 50));
+		Assert.unordered(service.findRange(service.byScore, 0, 15));
+		Assert.ordered(service.findRange(service.byScore, 0, null), B, new Item(1, "x", 50));
+		Assert.equal(service.byName.keys(), 2);
+		Assert.equal(service.byScore.keys(), 2);
+	}
+
+	@Test
+	public void shouldRemoveValuesFromIndexes() {
+		var service = service(A, B, C);
+		Assert.equal(service.removeKeys(1L, 5L), 1);
+		Assert.equal(service.removeKeys(1L), 0);
+		Assert.unordered(service.find(service.byName, "a"), C);
+		Assert.ordered(service.findRange(service.byScore, null, null), B, C);
+		Assert.equal(service.removeKeys(3L), 1);
+		Assert.unordered(service.find(service.byName, "a"));
+		Assert.equal(service.byName.keys(), 1);
+		Assert.equal(service.byScore.keys(), 1);
+	}
+
+	@Test
+	public void shouldClearIndexes() {
+		var service = service(A, B);
+		service.clear();
+		Assert.equal(service.size(), 0);
+		Assert.equal(service.byName.keys(), 0);
+		Assert.unordered(service.findRange(service.byScore, null, null));
+		service.add(C);
+		Assert.unordered(service.find(service.byName, "a"), C);
+	}
+
+	@Test
+	public void shouldIndexLoadedValues() throws IOException {
+		files = FileTestHelper.builder().build();
+		var coder = JsonCoder.create(new Gson(), new TypeToken<Set<Item>>() {});
+		var store = JsonFileStore.create(coder, files.path("items.json"));
+		var service = new ItemService(store);
+		service.add(A, B, C);
+		service.save();
+		var loaded = new ItemService(store);
+		loaded.load();
+		Assert.equal(loaded.findById(2L), B);
+		Assert.unordered(loaded.find(loaded.byName, "a"), A, C);
+		Assert.ordered(loaded.findRange(loaded.byScore, 20, 30), B, C);
+		loaded.add(new Item(3, "c", 5));
+		loaded.load();
+		Assert.unordered(loaded.find(loaded.byName, "a"), A, C);
+		Assert.unordered(loaded.find(loaded.byName, "c"));
+	}
+
+	@Test
+	public void shouldFindRangeWithBounds() {
+		var service = service(D, C, B, A);
+		Assert.ordered(service.findRange(service.byScore, 15, 35), B, C);
+		Assert.ordered(service.findRange(service.byScore, 20, 30), B, C);
+		Assert.ordered(service.findRange(service.byScore, null, 20), A, B);
+		Assert.ordered(service.findRange(service.byScore, 30, null), C, D);
+		Assert.unordered(service.findRange(service.byScore, 31, 39));
+		Assert.unordered(service.findRange(service.byScore, 30, 20));
+		Assert.ordered(
+			service.findRange(service.byScore, 20, false, 40, false, _ -> true, 0), C);
+		Assert.ordered(
+			service.findRange(service.byScore, 10, true, 40, true, i -> i.id() != 2, 2), A, C);
+	}
+
+	private static ItemService service(Item... items) {
+		var service = new ItemService();
+		service.add(items);
+		return service;
+	}
+}
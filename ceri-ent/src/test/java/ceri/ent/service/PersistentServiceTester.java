@@ -0,0 +1,63 @@
+package ceri.ent.service;
+
+import java.util.Random;
+
+/**
+ * Compares indexed and scanned lookups on a service with many values. Prints the average time per
+ * lookup for equality and range queries.
+ */
+public class PersistentServiceTester {
+	private static final int VALUES = 200_000;
+	private static final int NAMES = 50_000;
+	private static final int LOOKUPS = 2_000;
+	private static final int RANGE = 100;
+	private static final int PASSES = 3;
+
+	public record Item(long id, String name, int score) {}
+
+	public static class ItemService extends PersistentService<Long, Item> {
+		public final Index<String> byName = hashIndex(Item::name);
+		public final SortedIndex<Integer> byScore = sortedIndex(Item::score);
+
+		public ItemService() {
+			super(null, Item::id);
+		}
+
+		public void add(Item item) {
+			super.add(item);
+		}
+	}
+
+	public static void main(String[] args) {
+		var service = new ItemService();
+		var random = new Random(0);
+		for (long i = 0; i < VALUES; i++)
+			service.add(new Item(i, name(random.nextInt(NAMES)), random.nextInt(VALUES)));
+		for (int pass = 0; pass < PASSES; pass++) {
+			System.out.printf("Pass %d:%n", pass + 1);
+			run("name scan", i -> service.find(item -> item.name().equals(name(i))).size());
+			run("name index", i -> service.find(service.byName, name(i)).size());
+			run("score range scan", i -> service
+				.find(item -> item.score() >= i * RANGE && item.score() <= (i + 1) * RANGE).size());
+			run("score range index",
+				i -> service.findRange(service.byScore, i * RANGE, (i + 1) * RANGE).size());
+		}
+	}
+
+	private interface Lookup {
+		int find(int i);
+	}
+
+	private static void run(String name, Lookup lookup) {
+		long found = 0;
+		long t0 = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++)
+			found += lookup.find(i);
+		long ns = System.nanoTime() - t0;
+		System.out.printf("  %-18s %,12d ns/lookup (%d found)%n", name, ns / LOOKUPS, found);
+	}
+
+	private static String name(int i) {
+		return "name" + (i % NAMES);
+	}
+}
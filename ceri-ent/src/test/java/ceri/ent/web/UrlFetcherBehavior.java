@@ -0,0 +1,155 @@
+package ceri.ent.web;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ceri.common.concurrent.Concurrent;
+import ceri.common.function.Closeables;
+import ceri.common.test.Assert;
+import ceri.common.test.FileTestHelper;
+
+public class UrlFetcherBehavior {
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger failures = new AtomicInteger();
+	private final CompletableFuture<Void> release = new CompletableFuture<>();
+	private volatile String etag = "\"e1\"";
+	private volatile String ifNoneMatch = null;
+	private FileTestHelper files;
+	private HttpServer server;
+	private UrlFetcher fetcher;
+
+	@Before
+	public void before() throws IOException {
+		files = FileTestHelper.builder().build();
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/", this::handle);
+		server.start();
+		fetcher = UrlFetcher.of(new UrlFetcher.Config(files.root, 4, 4, 2, 1, 5, 5000));
+	}
+
+	@After
+	public void after() {
+		release.complete(null);
+		Closeables.close(fetcher, files);
+		if (server != null) server.stop(0);
+		fetcher = null;
+		server = null;
+		files = null;
+	}
+
+	@Test
+	public void shouldCacheResponseBody() throws IOException {
+		var path = fetcher.fetch(url("page"));
+		Assert.equal(Files.readString(path), "page:\"e1\"");
+		Assert.equal(fetcher.getString(url("other")), "other:\"e1\"");
+		var stats = fetcher.stats();
+		Assert.equal(stats.requests(), 2L);
+		Assert.equal(stats.misses(), 2L);
+		Assert.equal(stats.bytes(), 19L);
+	}
+
+	@Test
+	public void shouldRevalidateCachedEntries() throws IOException {
+		var path = fetcher.fetch(url("page"));
+		Assert.equal(fetcher.fetch(url("page")), path);
+		Assert.equal(ifNoneMatch, "\"e1\"");
+		Assert.equal(fetcher.stats().hits(), 1L);
+		etag = "\"e2\"";
+		Assert.equal(fetcher.getString(url("page")), "page:\"e2\"");
+		Assert.equal(ifNoneMatch, "\"e1\"");
+		var stats = fetcher.stats();
+		Assert.equal(stats.hits(), 1L);
+		Assert.equal(stats.misses(), 2L);
+		Assert.equal(stats.hitRate(), 1.0 / 3);
+	}
+
+	@Test
+	public void shouldRetryServerErrors() throws IOException {
+		failures.set(2);
+		Assert.equal(fetcher.getString(url("page")), "page:\"e1\"");
+		var stats = fetcher.stats();
+		Assert.equal(stats.requests(), 3L);
+		Assert.equal(stats.retries(), 2L);
+	}
+
+	@Test
+	public void shouldFailAfterRetries() {
+		failures.set(3);
+		Assert.thrown(IOException.class, () -> fetcher.fetch(url("page")));
+		Assert.equal(fetcher.stats().requests(), 3L);
+	}
+
+	@Test
+	public void shouldNotRetryClientErrors() {
+		Assert.thrown(UrlFetcher.StatusException.class, e -> {
+			Assert.equal(e.status, 404);
+			Assert.no(e.retryable());
+		}, () -> fetcher.fetch(url("missing")));
+		Assert.equal(fetcher.stats().requests(), 1L);
+	}
+
+	@Test
+	public void shouldShareConcurrentFetchesOfSameUrl() throws Exception {
+		var futures = List.of(fetcher.submit(url("slow")), fetcher.submit(url("slow")),
+			fetcher.submit(url("slow")));
+		while (fetcher.stats().shared() < 2)
+			Concurrent.delay(1);
+		release.complete(null);
+		var path = futures.get(0).get();
+		for (var future : futures)
+			Assert.equal(future.get(), path);
+		Assert.equal(requests.get(), 1);
+		Assert.equal(fetcher.stats().shared(), 2L);
+	}
+
+	@Test
+	public void shouldFetchAllUrls() throws IOException {
+		var paths = fetcher.fetchAll(List.of(url("a"), url("b"), url("a")));
+		Assert.equal(Files.readString(paths.get(0)), "a:\"e1\"");
+		Assert.equal(Files.readString(paths.get(1)), "b:\"e1\"");
+		Assert.equal(paths.get(2), paths.get(0));
+		Assert.thrown(IOException.class,
+			() -> fetcher.fetchAll(List.of(url("a"), url("missing"))));
+	}
+
+	private String url(String page) {
+		return "http://localhost:" + server.getAddress().getPort() + "/" + page;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			requests.incrementAndGet();
+			var page = exchange.getRequestURI().getPath().substring(1);
+			if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			if (page.equals("missing")) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			if (page.equals("slow")) release.join();
+			var etag = this.etag;
+			ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+			exchange.getResponseHeaders().set("ETag", etag);
+			if (etag.equals(ifNoneMatch)) {
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			var body = (page + ":" + etag).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package ceri.ent.web;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import ceri.common.collect.Lists;
+import ceri.ent.server.JettyServer;
+import ceri.ent.server.JettyUtil;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Fetches pages from a local jetty server, with a cold then warm cache. Prints throughput and
+ * cache hit rate for each pass. Pages support ETag validation.
+ */
+public class UrlFetcherTester {
+	private static final int PORT = 8089;
+	private static final int PAGES = 2000;
+	private static final int PAGE_SIZE = 16 * 1024;
+	private static final int PASSES = 3;
+
+	/**
+	 * Serves generated pages, with an ETag per page.
+	 */
+	@SuppressWarnings("serial")
+	public static class PageServlet extends HttpServlet {
+		@Override
+		protected void doGet(HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+			var page = request.getPathInfo();
+			var etag = "\"" + page.hashCode() + "\"";
+			response.setHeader("ETag", etag);
+			if (etag.equals(request.getHeader("If-None-Match"))) {
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return;
+			}
+			response.setContentType("text/plain");
+			var line = ("page " + page + "\n").getBytes();
+			var out = response.getOutputStream();
+			for (int n = 0; n < PAGE_SIZE; n += line.length)
+				out.write(line);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		var cacheDir = Files.createTempDirectory("url-fetcher");
+		try (var server = server(); var fetcher = UrlFetcher.of(cacheDir)) {
+			server.start();
+			List<String> urls = Lists.of();
+			for (int i = 0; i < PAGES; i++)
+				urls.add(server.url("/page/" + i));
+			for (int pass = 0; pass < PASSES; pass++) {
+				var stats0 = fetcher.stats();
+				long t0 = System.nanoTime();
+				fetcher.fetchAll(urls);
+				long ns = System.nanoTime() - t0;
+				var stats = fetcher.stats();
+				long hits = stats.hits() - stats0.hits();
+				long bytes = stats.bytes() - stats0.bytes();
+				System.out.printf("pass %d: %.0f urls/s, %.1f MB/s, hit rate %.0f%%%n", pass,
+					PAGES * 1e9 / ns, bytes * 1e3 / ns, hits * 100.0 / PAGES);
+			}
+			System.out.println(fetcher.stats());
+		} finally {
+			delete(cacheDir);
+		}
+	}
+
+	private static JettyServer server() {
+		var webapp = JettyUtil.createWebApp();
+		JettyUtil.setResourceBase(webapp, UrlFetcherTester.class);
+		webapp.addServlet(PageServlet.class, "/page/*");
+		return new JettyServer(JettyUtil.createServer(webapp, PORT));
+	}
+
+	private static void delete(Path dir) throws IOException {
+		try (var files = Files.list(dir)) {
+			for (var file : files.toList())
+				Files.delete(file);
+		}
+		Files.delete(dir);
+	}
+}
@@ -0,0 +1,188 @@
+package ceri.ffm.clib.ffm;
+
+import java.lang.foreign.MemorySegment;
+import java.util.regex.Pattern;
+import ceri.common.time.TimeSpec;
+import ceri.common.util.Os;
+import ceri.ffm.core.CallArena;
+import ceri.ffm.core.Native;
+import ceri.ffm.reflect.CAnnotations.CInclude;
+import ceri.ffm.reflect.CAnnotations.CType;
+import ceri.ffm.type.Primitive;
+import ceri.ffm.util.FfmOs;
+
+/**
+ * Types and functions from {@code <sys/epoll.h>}, {@code <sys/eventfd.h>} and
+ * {@code <sys/timerfd.h>}. Linux only.
+ */
+@CType(os = FfmOs.linux)
+@CInclude(os = FfmOs.linux, value = { "sys/epoll.h", "sys/eventfd.h", "sys/timerfd.h" })
+public class CEpoll {
+	private static final Pattern X86_ARCH_REGEX = Pattern.compile("^(?:x86|amd64|i[3-6]86)");
+	private static final boolean PACKED = X86_ARCH_REGEX.matcher(Os.info().arch).find();
+	private static final Primitive.OfLong DATA = PACKED ? Primitive.LONG.align(1) : Primitive.LONG;
+	/** The byte size of struct epoll_event; packed on x86. */
+	public static final int EVENT_SIZE = PACKED ? 12 : 16;
+	/** The byte offset of epoll_event.data. */
+	public static final int EVENT_DATA_OFFSET = PACKED ? 4 : 8;
+
+	/* <sys/epoll.h> */
+
+	/** The associated file is available for read operations. */
+	public static final int EPOLLIN = 0x001;
+	/** There is an exceptional condition on the file descriptor. */
+	public static final int EPOLLPRI = 0x002;
+	/** The associated file is available for write operations. */
+	public static final int EPOLLOUT = 0x004;
+	/** Error condition; always reported. */
+	public static final int EPOLLERR = 0x008;
+	/** Hang up; always reported. */
+	public static final int EPOLLHUP = 0x010;
+	/** Peer closed connection, or shut down writing half of connection. */
+	public static final int EPOLLRDHUP = 0x2000;
+	/** Disables the fd after one event, until re-armed with EPOLL_CTL_MOD. */
+	public static final int EPOLLONESHOT = 1 << 30;
+	/** Edge-triggered notification; the default is level-triggered. */
+	public static final int EPOLLET = 1 << 31;
+	/** Sets close-on-exec on the new epoll fd. */
+	public static final int EPOLL_CLOEXEC = 0x80000;
+	/** Adds an fd to the interest list. */
+	public static final int EPOLL_CTL_ADD = 1;
+	/** Removes an fd from the interest list. */
+	public static final int EPOLL_CTL_DEL = 2;
+	/** Changes the events and data of an fd in the interest list. */
+	public static final int EPOLL_CTL_MOD = 3;
+
+	/* <sys/eventfd.h> */
+
+	/** Reads decrement the counter by 1, rather than resetting it to 0. */
+	public static final int EFD_SEMAPHORE = 0x1;
+	/** Sets close-on-exec on the new eventfd. */
+	public static final int EFD_CLOEXEC = 0x80000;
+	/** Sets non-blocking mode on the new eventfd. */
+	public static final int EFD_NONBLOCK = 0x800;
+
+	/* <sys/timerfd.h> */
+
+	/** The clock id for the monotonic clock. */
+	public static final int CLOCK_MONOTONIC = 1;
+	/** The timer value is an absolute time on the timer clock. */
+	public static final int TFD_TIMER_ABSTIME = 0x1;
+	/** Sets close-on-exec on the new timerfd. */
+	public static final int TFD_CLOEXEC = 0x80000;
+	/** Sets non-blocking mode on the new timerfd. */
+	public static final int TFD_NONBLOCK = 0x800;
+
+	private CEpoll() {}
+
+	/* <sys/epoll.h> */
+
+	/**
+	 * Creates an epoll instance, and returns its fd. Flags may be 0 or EPOLL_CLOEXEC.
+	 */
+	public static int epoll_create1(int flags) throws CException {
+		return CLib.caller.verifyInt(lib -> lib.epoll_create1(flags), -1, "epoll_create1", flags);
+	}
+
+	/**
+	 * Adds, modifies or removes an fd in the interest list of the epoll fd. The data value is
+	 * returned with each ready event for the fd. Events and data are ignored for EPOLL_CTL_DEL.
+	 */
+	public static void epoll_ctl(int epfd, int op, int fd, int events, long data)
+		throws CException {
+		try (var arena = CallArena.open()) {
+			var event = arena.allocate(EVENT_SIZE, Long.BYTES);
+			events(event, 0, events);
+			data(event, 0, data);
+			CLib.caller.verifyInt(lib -> lib.epoll_ctl(epfd, op, fd, event), -1, "epoll_ctl", epfd,
+				op, fd, events, data);
+		}
+	}
+
+	/**
+	 * Waits for events on the epoll fd, filling a contiguous epoll_event array. Timeout is in
+	 * milliseconds; a timeout of -1 blocks until an event occurs. Returns the number of ready fds,
+	 * or 0 if interrupted by a signal. Use events() and data() to access each event.
+	 */
+	public static int epoll_wait(int epfd, MemorySegment events, int maxEvents, int timeoutMs)
+		throws CException {
+		int n = CLib.caller.callInt(
+			c -> c.verifyInt(c.lib().epoll_wait(epfd, events, maxEvents, timeoutMs), -1,
+				CErrNo.EINTR),
+			"epoll_wait", epfd, events, maxEvents, timeoutMs);
+		return Math.max(n, 0);
+	}
+
+	/**
+	 * Returns the event mask of the epoll_event at the array index.
+	 */
+	public static int events(MemorySegment events, int i) {
+		return Primitive.INT.getInt(events, (long) i * EVENT_SIZE);
+	}
+
+	/**
+	 * Sets the event mask of the epoll_event at the array index.
+	 */
+	public static void events(MemorySegment events, int i, int value) {
+		Primitive.INT.setInt(events, (long) i * EVENT_SIZE, value);
+	}
+
+	/**
+	 * Returns the user data of the epoll_event at the array index.
+	 */
+	public static long data(MemorySegment events, int i) {
+		return DATA.getLong(events, (long) i * EVENT_SIZE + EVENT_DATA_OFFSET);
+	}
+
+	/**
+	 * Sets the user data of the epoll_event at the array index.
+	 */
+	public static void data(MemorySegment events, int i, long value) {
+		DATA.setLong(events, (long) i * EVENT_SIZE + EVENT_DATA_OFFSET, value);
+	}
+
+	/* <sys/eventfd.h> */
+
+	/**
+	 * Creates an eventfd object with initial counter value, and returns its fd. Reading the fd
+	 * provides the 8-byte counter value, and writing an 8-byte value adds to the counter.
+	 */
+	public static int eventfd(int initval, int flags) throws CException {
+		return CLib.caller.verifyInt(lib -> lib.eventfd(initval, flags), -1, "eventfd", initval,
+			flags);
+	}
+
+	/* <sys/timerfd.h> */
+
+	/**
+	 * Creates a timer on the clock, and returns its fd. Reading the fd provides the 8-byte count
+	 * of expirations since the last read.
+	 */
+	public static int timerfd_create(int clockid, int flags) throws CException {
+		return CLib.caller.verifyInt(lib -> lib.timerfd_create(clockid, flags), -1,
+			"timerfd_create", clockid, flags);
+	}
+
+	/**
+	 * Arms or disarms the timer. A zero initial expiration disarms the timer; a zero interval
+	 * expires only once.
+	 */
+	public static void timerfd_settime(int fd, int flags, TimeSpec value, TimeSpec interval)
+		throws CException {
+		int size = Native.Size.lookup(Native.Canonical.LONG);
+		try (var arena = CallArena.open()) {
+			var spec = arena.allocate(size * 4L, size); // struct itimerspec
+			setCLong(spec, 0, size, interval.seconds());
+			setCLong(spec, size, size, interval.nanos());
+			setCLong(spec, size * 2, size, value.seconds());
+			setCLong(spec, size * 3, size, value.nanos());
+			CLib.caller.verifyInt(lib -> lib.timerfd_settime(fd, flags, spec, MemorySegment.NULL),
+				-1, "timerfd_settime", fd, flags, value, interval);
+		}
+	}
+
+	private static void setCLong(MemorySegment memory, long offset, int size, long value) {
+		if (size == Long.BYTES) Primitive.LONG.setLong(memory, offset, value);
+		else Primitive.INT.setInt(memory, offset, Math.toIntExact(value));
+	}
+}
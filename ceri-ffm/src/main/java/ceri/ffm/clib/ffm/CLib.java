@@ -7,6 +7,8 @@ import ceri.ffm.clib.ffm.CUnistd.size_t;
 import ceri.ffm.clib.ffm.CUnistd.ssize_t;
 import ceri.ffm.core.Caller;
 import ceri.ffm.core.Library;
+import ceri.ffm.reflect.Refine.Cached;
+import ceri.ffm.reflect.Refine.Critical;
 import ceri.ffm.reflect.Refine.ErrNo;
 import ceri.ffm.reflect.Refine.Out;
 import ceri.ffm.type.IntType.CLong;
@@ -35,9 +37,11 @@ public class CLib {
 		int close(int fd);
 
 		// int isatty(int fd)
+		@Critical
 		int isatty(int fd); // errno is set on 0
 
 		// int pipe(int pipefd[2]);
+		@Critical
 		int pipe(@Out int[] pipefd);
 
 		// ssize_t read(int fd, void *buf, size_t count)
@@ -47,9 +51,11 @@ public class CLib {
 		ssize_t write(int fd, MemorySegment buffer, size_t len);
 
 		// off_t lseek(int fd, off_t offset, int whence)
+		@Critical
 		CLong lseek(int fd, CLong offset, int whence);
 
 		// int getpagesize(void)
+		@Critical
 		@ErrNo(false) // errno not set
 		int getpagesize();
 
@@ -82,10 +88,35 @@ public class CLib {
 		// const sigset_t * sigmask);
 		// int ppoll(Pointer fds, int nfds, Pointer tmo_p, Pointer sigmask);
 
+		// <sys/epoll.h>
+
+		// int epoll_create1(int flags)
+		int epoll_create1(int flags);
+
+		// int epoll_ctl(int epfd, int op, int fd, struct epoll_event *event)
+		int epoll_ctl(int epfd, int op, int fd, MemorySegment event);
+
+		// int epoll_wait(int epfd, struct epoll_event *events, int maxevents, int timeout)
+		int epoll_wait(int epfd, MemorySegment events, int maxevents, int timeout);
+
+		// <sys/eventfd.h>
+
+		// int eventfd(unsigned int initval, int flags)
+		int eventfd(int initval, int flags);
+
+		// <sys/timerfd.h>
+
+		// int timerfd_create(int clockid, int flags)
+		int timerfd_create(int clockid, int flags);
+
+		// int timerfd_settime(int fd, int flags, const struct itimerspec *new_value,
+		// struct itimerspec *old_value)
+		int timerfd_settime(int fd, int flags, MemorySegment newValue, MemorySegment oldValue);
+
 		// <fcntl.h>
 
 		// int open(const char *pathname, int flags, ...)
-		int open(String path, int flags, Object... args);
+		int open(@Cached String path, int flags, Object... args);
 
 		// int fcntl(int fd, int cmd, ...);
 		int fcntl(int fd, int cmd, Object... args);
@@ -150,6 +181,7 @@ public class CLib {
 
 		// <string.h>
 
+		@Critical
 		@ErrNo(false) // don't capture errno
 		String strerror(int errnum);
 	}
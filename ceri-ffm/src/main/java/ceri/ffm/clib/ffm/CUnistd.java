@@ -1,12 +1,12 @@
 package ceri.ffm.clib.ffm;
 
-import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import ceri.common.array.Array;
 import ceri.common.data.Xcoder;
 import ceri.common.function.Excepts;
 import ceri.common.math.Maths;
 import ceri.common.util.Validate;
+import ceri.ffm.core.CallArena;
 import ceri.ffm.reflect.CAnnotations.CInclude;
 import ceri.ffm.reflect.Refine.Size;
 import ceri.ffm.reflect.Refine.Unsigned;
@@ -160,7 +160,7 @@ public class CUnistd {
 	 */
 	public static int read(int fd, byte[] bytes, int offset, int length) throws CException {
 		return applySlice(bytes, offset, length, (o, l) -> {
-			try (var arena = Arena.ofConfined()) {
+			try (var arena = CallArena.open()) {
 				var buffer = arena.allocate(l);
 				int n = read(fd, buffer);
 				if (n > 0) Primitive.BYTE.readArray(buffer, 0, n, bytes, o, n, false);
@@ -175,7 +175,7 @@ public class CUnistd {
 	 */
 	public static byte[] readBytes(int fd, int length) throws CException {
 		if (length <= 0) return Array.BYTE.empty;
-		try (var arena = Arena.ofConfined()) {
+		try (var arena = CallArena.open()) {
 			var buffer = arena.allocate(length);
 			int n = read(fd, buffer);
 			if (n <= 0) return Array.BYTE.empty;
@@ -229,7 +229,7 @@ public class CUnistd {
 	 */
 	public static int readAll(int fd, byte[] bytes, int offset, int length) throws CException {
 		return applySlice(bytes, offset, length, (o, l) -> {
-			try (var arena = Arena.ofConfined()) {
+			try (var arena = CallArena.open()) {
 				var buffer = arena.allocate(l);
 				int n = readAll(fd, buffer);
 				if (n > 0) Primitive.BYTE.readArray(buffer, 0, n, bytes, o, n, false);
@@ -244,7 +244,7 @@ public class CUnistd {
 	 */
 	public static byte[] readAllBytes(int fd, int length) throws CException {
 		if (length <= 0) return Array.BYTE.empty;
-		try (var arena = Arena.ofConfined()) {
+		try (var arena = CallArena.open()) {
 			var buffer = arena.allocate(length);
 			int n = readAll(fd, buffer);
 			if (n <= 0) return Array.BYTE.empty;
@@ -301,7 +301,7 @@ public class CUnistd {
 	 * EAGAIN/EWOULDBLOCK (with O_NONBLOCK) and EINTR errors.
 	 */
 	public static int write(int fd, byte[] bytes, int offset, int length) throws CException {
-		try (var arena = Arena.ofConfined()) {
+		try (var arena = CallArena.open()) {
 			var buffer = Primitive.BYTE.allocArray(arena, bytes, offset, length, false);
 			return write(fd, buffer);
 		}
@@ -361,7 +361,7 @@ public class CUnistd {
 	 * bytes are written. May block without O_NONBLOCK. Returns the total number of bytes written.
 	 */
 	public static int writeAll(int fd, byte[] bytes, int offset, int length) throws CException {
-		try (var arena = Arena.ofConfined()) {
+		try (var arena = CallArena.open()) {
 			var buffer = Primitive.BYTE.allocArray(arena, bytes, offset, length, false);
 			return writeAll(fd, buffer);
 		}
@@ -241,6 +241,43 @@ public class TestCLibNative implements CLib.Native {
 
 	// int ppoll(Pointer fds, int nfds, Pointer tmo_p, Pointer sigmask);
 
+	// <sys/epoll.h>
+
+	@Override
+	public int epoll_create1(int flags) {
+		return add(Fd.of(nextFd.getAndIncrement(), "epoll", flags, 0));
+	}
+
+	@Override
+	public int epoll_ctl(int epfd, int op, int fd, MemorySegment event) {
+		return applyFd(epfd, -1, _ -> 0);
+	}
+
+	@Override
+	public int epoll_wait(int epfd, MemorySegment events, int maxevents, int timeout) {
+		return applyFd(epfd, -1, _ -> 0);
+	}
+
+	// <sys/eventfd.h>
+
+	@Override
+	public int eventfd(int initval, int flags) {
+		return add(Fd.of(nextFd.getAndIncrement(), "eventfd", flags, initval));
+	}
+
+	// <sys/timerfd.h>
+
+	@Override
+	public int timerfd_create(int clockid, int flags) {
+		return add(Fd.of(nextFd.getAndIncrement(), "timerfd", flags, clockid));
+	}
+
+	@Override
+	public int timerfd_settime(int fd, int flags, MemorySegment newValue,
+		MemorySegment oldValue) {
+		return applyFd(fd, -1, _ -> 0);
+	}
+
 	// <fcntl.h>
 
 	@Override
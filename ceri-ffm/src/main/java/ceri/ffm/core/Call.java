@@ -26,6 +26,7 @@ import ceri.common.collect.Maps;
 import ceri.common.except.Exceptions;
 import ceri.common.function.Closeables;
 import ceri.common.function.Functions;
+import ceri.common.io.Direction;
 import ceri.common.reflect.Handles;
 import ceri.common.reflect.Reflect;
 import ceri.common.text.Joiner;
@@ -35,6 +36,7 @@ import ceri.ffm.reflect.TypeNode;
 import ceri.ffm.type.Callback;
 import ceri.ffm.type.IntType;
 import ceri.ffm.type.PointerType;
+import ceri.ffm.type.StringType;
 import ceri.ffm.type.Support;
 import ceri.ffm.type.Supports;
 
@@ -63,6 +65,7 @@ public class Call {
 		private final List<Native.Adapter<?, ?>> args = Lists.of();
 		private int varArg = -1;
 		private boolean errNo = false;
+		private boolean critical = false;
 
 		private Builder(Method method) {
 			this.method = method;
@@ -88,6 +91,11 @@ public class Call {
 			return this;
 		}
 
+		private Builder critical() {
+			critical = true;
+			return this;
+		}
+
 		private Config build() {
 			return new Config(this);
 		}
@@ -103,6 +111,7 @@ public class Call {
 		private final boolean groupReturn;
 		private final int varArg; // -1 for non-vararg and root vararg config
 		private final boolean errNo;
+		private final boolean critical;
 		private final MethodType localMethodType;
 		private final MethodHandle localHandle;
 		private final FunctionDescriptor nativeFuncDesc;
@@ -117,11 +126,13 @@ public class Call {
 			args = Immutable.wrap(builder.args);
 			varArg = builder.varArg;
 			errNo = builder.errNo;
+			critical = builder.critical;
 			localMethodType = localMethodType(); // local types
 			localHandle = Handles.method(method); // class + local types
 			nativeFuncDesc = nativeFuncDesc(); // -> up+down
 			nativeMethodType = nativeMethodType(); // -> up
-			nativeHandle = Native.LINKER.downcallHandle(nativeFuncDesc, options(varArg, errNo));
+			nativeHandle =
+				Native.LINKER.downcallHandle(nativeFuncDesc, options(varArg, errNo, critical));
 			varArgConfigs = (args.size() < method.getParameterCount()) ? Maps.concurrent() : null;
 		}
 
@@ -173,6 +184,7 @@ public class Call {
 					Reflect.simple(method.getParameters()[i].getType().getComponentType()) + "...",
 				args.size() + (varArgConfigs != null ? 1 : 0));
 			if (errNo) b.append('!');
+			if (critical) b.append('*');
 			return b.toString();
 		}
 
@@ -195,7 +207,7 @@ public class Call {
 			var upHandle = NATIVE_CALLBACK.bindTo(upcall).asVarargsCollector(Object[].class)
 				.asType(nativeMethodType);
 			return Native.LINKER.upcallStub(upHandle, nativeFuncDesc, upcall.arena,
-				options(varArg, false));
+				options(varArg, false, false));
 		}
 
 		private Object invokeLocal(Callback callback, SegmentAllocator allocator,
@@ -305,9 +317,10 @@ public class Call {
 			b.args.addAll(args);
 			b.varArg();
 			b.errNo = errNo;
+			b.critical = critical;
 			var parameter = Array.last(method.getParameters());
 			for (int i = 0; i < varArgTypes.size(); i++)
-				b.arg(varArg(parameter, varArgTypes, i));
+				b.arg(varArg(parameter, varArgTypes, i, critical));
 			return b.build();
 		}
 	}
@@ -339,10 +352,11 @@ public class Call {
 		}
 
 		/**
-		 * Invokes the native call with given allocator and local arguments.
+		 * Invokes the native call with local arguments. Memory for the call is allocated from the
+		 * thread's call arena.
 		 */
 		public Object invoke(Object... localArgs) throws Throwable {
-			try (var allocator = Arena.ofConfined()) {
+			try (var allocator = CallArena.open()) {
 				return config.invokeNative(allocator, pointer, localArgs);
 			}
 		}
@@ -424,8 +438,9 @@ public class Call {
 	 */
 	public static Config config(Method method) {
 		var b = new Builder(method).rtn(rtn(method));
-		addArgs(b, method);
 		if (Refine.errNo(method, true)) b.errNo();
+		if (Refine.critical(method, false)) b.critical();
+		addArgs(b, method);
 		return b.build();
 	}
 
@@ -461,20 +476,21 @@ public class Call {
 		int paramCount = params.length;
 		if (method.isVarArgs()) paramCount--;
 		for (int i = 0; i < paramCount; i++)
-			b.arg(arg(params[i]));
+			b.arg(arg(params[i], b.critical));
 	}
 
-	private static Native.Adapter<?, ?> arg(Parameter parameter) {
+	private static Native.Adapter<?, ?> arg(Parameter parameter, boolean critical) {
 		var node = TypeNode.of(parameter);
-		var adapter = adapter(node);
+		var adapter = adapter(node, critical, Refine.cached(parameter));
 		if (adapter != null) return adapter;
 		throw Exceptions.illegalArg("Unsupported arg type: %s (%s)", Reflect.localName(parameter),
 			node.typed());
 	}
 
-	private static Native.Adapter<?, ?> varArg(Parameter parameter, List<Class<?>> varArgs, int i) {
+	private static Native.Adapter<?, ?> varArg(Parameter parameter, List<Class<?>> varArgs, int i,
+		boolean critical) {
 		var node = TypeNode.of(parameter).sub(Lists.at(varArgs, i));
-		var adapter = adapter(node);
+		var adapter = adapter(node, critical, false);
 		if (adapter != null) return adapter;
 		throw Exceptions.illegalArg("Unsupported vararg type: %s[%d] (%s)",
 			Reflect.localName(parameter), i, node.typed());
@@ -483,25 +499,26 @@ public class Call {
 	private static Native.Adapter<?, ?> rtn(Method method) {
 		if (Reflect.isVoid(method)) return Native.Adapter.VOID;
 		var node = TypeNode.ofReturn(method);
-		var adapter = adapter(node);
+		var adapter = adapter(node, false, false);
 		if (adapter != null) return adapter;
 		throw Exceptions.illegalArg("Unsupported return type: %s (%s)", method.getName(),
 			node.typed());
 	}
 
-	private static Native.Adapter<?, ?> adapter(TypeNode node) {
+	private static Native.Adapter<?, ?> adapter(TypeNode node, boolean critical, boolean cached) {
 		var support = Supports.of().from(node);
-		return adapter(node, support);
+		return adapter(node, support, critical, cached);
 	}
 
-	private static Native.Adapter<?, ?> adapter(TypeNode node, Support<?, ?, ?, ?> support) {
-		if (support.isArray()) return byRef(node, support);
+	private static Native.Adapter<?, ?> adapter(TypeNode node, Support<?, ?, ?, ?> support,
+		boolean critical, boolean cached) {
+		if (support.isArray()) return byRef(node, support, critical, false);
 		return switch (support.kind()) {
 			case PRIMITIVE, BOXED, MEMORY -> direct(node, support);
 			case INT_TYPE -> intType(node, Reflect.unchecked(support));
 			case POINTER, PRIMITIVE_POINTER -> pointer(node, Reflect.unchecked(support));
 			case CALLBACK -> callback(node, Reflect.unchecked(support));
-			case STRING, BUFFER -> byRef(node, support);
+			case STRING, BUFFER -> byRef(node, support, critical, cached);
 			case null -> null;
 			default -> byVal(node, support);
 		};
@@ -539,19 +556,38 @@ public class Call {
 	}
 
 	private static <T> Native.Adapter<T, MemorySegment> byRef(TypeNode node,
-		Support<T, ?, ?, ?> support) {
+		Support<T, ?, ?, ?> support, boolean critical, boolean cached) {
 		var direction = node.context().direction();
 		return new Native.Adapter<>(node.typed(), MemorySegment.class, MemorySegment.NULL,
-			Layouts.POINTER, (a, t) -> support.encode(direction, a, t),
+			Layouts.POINTER, encoder(support, direction, critical, cached),
 			m -> support.decode(Segments.reslice(m, support.layout())));
 	}
 
-	private static Linker.Option[] options(int varArg, boolean errNo) {
-		int count = (varArg >= 0 ? 1 : 0) + (errNo ? 1 : 0);
+	/**
+	 * Encodes by reference to allocated memory. Cached strings are encoded once and shared across
+	 * calls. Critical calls pass heap arrays and buffers directly where possible.
+	 */
+	private static <T> Functions.BiFunction<SegmentAllocator, T, Native.Adapted<MemorySegment>>
+		encoder(Support<T, ?, ?, ?> support, Direction direction, boolean critical,
+			boolean cached) {
+		if (cached && support instanceof StringType.Supporter strings) return (a, t) -> {
+			var memory = strings.cached((String) t);
+			return memory != null ? Native.Adapted.of(memory) : support.encode(direction, a, t);
+		};
+		if (critical) return (a, t) -> {
+			var memory = t == null ? null : support.heap(t);
+			return memory != null ? Native.Adapted.of(memory) : support.encode(direction, a, t);
+		};
+		return (a, t) -> support.encode(direction, a, t);
+	}
+
+	private static Linker.Option[] options(int varArg, boolean errNo, boolean critical) {
+		int count = (varArg >= 0 ? 1 : 0) + (errNo ? 1 : 0) + (critical ? 1 : 0);
 		if (count == 0) return NO_OPTIONS;
 		var options = new Linker.Option[count];
 		if (varArg >= 0) options[--count] = Linker.Option.firstVariadicArg(varArg);
 		if (errNo) options[--count] = ErrNo.OPTION;
+		if (critical) options[--count] = Linker.Option.critical(true);
 		return options;
 	}
 
@@ -0,0 +1,119 @@
+package ceri.ffm.core;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.util.Arrays;
+import ceri.common.function.Functions;
+import ceri.common.util.Validate;
+
+/**
+ * A per-thread stack allocator for memory used only for the duration of a call. Each thread owns
+ * a block of native memory; a frame is opened for each call, allocations bump an offset within the
+ * block, and closing the frame resets the offset. Frames may be nested, such as a downcall made
+ * from within a callback on the same thread. Allocations that do not fit in the block are made from
+ * a confined arena that is closed with the frame. Memory is zeroed on allocation.
+ * <p/>
+ * Segments must not be used after their frame is closed; unlike a closed arena, access is not
+ * prevented, and the memory will be reused by the next call.
+ */
+public class CallArena implements SegmentAllocator, Functions.Closeable {
+	public static final long SIZE_DEF = 16 * 1024;
+	private static final int DEPTH_DEF = 4;
+	private static final ThreadLocal<CallArena> LOCAL =
+		ThreadLocal.withInitial(() -> new CallArena(SIZE_DEF));
+	private final Thread thread = Thread.currentThread();
+	private final MemorySegment block;
+	private long offset = 0;
+	private int depth = 0;
+	private long[] marks = new long[DEPTH_DEF];
+	private Arena[] overflows = new Arena[DEPTH_DEF];
+
+	/**
+	 * Opens a frame on the current thread's allocator. Closing the allocator closes the frame.
+	 */
+	public static CallArena open() {
+		return LOCAL.get().push();
+	}
+
+	/**
+	 * Creates an allocator with given block size, for use by the current thread only.
+	 */
+	public static CallArena of(long size) {
+		Validate.min(size, 0L);
+		return new CallArena(size);
+	}
+
+	private CallArena(long size) {
+		// Auto arena frees the block when the thread and its allocator are gone
+		block = Arena.ofAuto().allocate(size, Long.BYTES);
+	}
+
+	/**
+	 * Opens a frame. Closing the allocator closes the frame.
+	 */
+	public CallArena push() {
+		verifyThread();
+		if (depth == marks.length) {
+			marks = Arrays.copyOf(marks, depth * 2);
+			overflows = Arrays.copyOf(overflows, depth * 2);
+		}
+		marks[depth++] = offset;
+		return this;
+	}
+
+	/**
+	 * Returns the number of open frames.
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the number of bytes in use within the block.
+	 */
+	public long used() {
+		return offset;
+	}
+
+	/**
+	 * Allocates memory within the current frame.
+	 */
+	@SuppressWarnings("resource")
+	@Override
+	public MemorySegment allocate(long byteSize, long byteAlignment) {
+		verifyThread();
+		if (depth == 0) throw new IllegalStateException("No open frame");
+		long start = offset + Layouts.padding(block.address() + offset, byteAlignment);
+		if (start + byteSize > block.byteSize()) return overflow().allocate(byteSize, byteAlignment);
+		var memory = block.asSlice(start, byteSize).fill((byte) 0);
+		offset = start + byteSize;
+		return memory;
+	}
+
+	/**
+	 * Closes the current frame, releasing its memory.
+	 */
+	@Override
+	public void close() {
+		verifyThread();
+		if (depth == 0) return;
+		offset = marks[--depth];
+		var overflow = overflows[depth];
+		overflows[depth] = null;
+		if (overflow != null) overflow.close();
+	}
+
+	// support
+
+	private Arena overflow() {
+		var overflow = overflows[depth - 1];
+		if (overflow == null) overflows[depth - 1] = overflow = Arena.ofConfined();
+		return overflow;
+	}
+
+	private void verifyThread() {
+		if (Thread.currentThread() != thread)
+			throw new IllegalStateException("Allocator is confined to " + thread);
+	}
+}
@@ -39,6 +39,24 @@ public class Refine {
 		boolean value() default true;
 	}
 
+	/**
+	 * Method marker for short, non-blocking calls that do not call back into Java. Calls are linked
+	 * as critical, and heap arrays and buffers are passed directly without copying.
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.TYPE, ElementType.METHOD })
+	public @interface Critical {
+		boolean value() default true;
+	}
+
+	/**
+	 * Parameter marker to cache encoded strings across calls, for repeated constant values such as
+	 * device paths. Native code must not modify the string.
+	 */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.PARAMETER })
+	public @interface Cached {}
+
 	/**
 	 * Byte alignment configuration.
 	 */
@@ -642,6 +660,20 @@ public class Refine {
 		return Annotations.resolve(element, ErrNo.class, ErrNo::value, def);
 	}
 
+	/**
+	 * Extract critical call directive from annotated type.
+	 */
+	public static Boolean critical(AnnotatedElement element, Boolean def) {
+		return Annotations.resolve(element, Critical.class, Critical::value, def);
+	}
+
+	/**
+	 * Returns true if the element is marked for string caching.
+	 */
+	public static boolean cached(AnnotatedElement element) {
+		return Annotations.has(element, Cached.class);
+	}
+
 	// support
 
 	private static Long align(AnnotatedElement element, Long def) {
@@ -164,6 +164,12 @@ public class BufferType<B extends Buffer, T, A, L extends ValueLayout>
 			return Native.Adapted.of(ofBuffer(value, count()));
 		}
 
+		@Override
+		public MemorySegment heap(B value) {
+			if (nul() || value == null || !value.hasArray()) return null;
+			return ofBuffer(value, count());
+		}
+
 		@Override
 		public int hashCode() {
 			return Objects.hash(super.hashCode(), nul);
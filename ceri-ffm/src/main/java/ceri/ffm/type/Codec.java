@@ -0,0 +1,212 @@
+package ceri.ffm.type;
+
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA_AT;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_long;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.TypeKind;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import ceri.common.collect.Lists;
+import ceri.common.reflect.Handles;
+import ceri.common.reflect.Reflect;
+
+/**
+ * Copies all members of a group between memory and a group instance. A codec is generated per
+ * group class as a hidden class, with straight-line code for each member. Primitive members are
+ * copied directly between fields and memory, without boxing or accessor dispatch; other members
+ * delegate to their member actions. Falls back to member-by-member copying if the group class or
+ * its fields are not accessible.
+ */
+interface Codec<T> {
+	/**
+	 * Updates group members from memory at the offset, without bounds checks.
+	 */
+	void read(T group, MemorySegment memory, long offset);
+
+	/**
+	 * Writes group members to memory at the offset, without bounds checks.
+	 */
+	void write(T group, MemorySegment memory, long offset);
+
+	/**
+	 * Returns a generated codec for the group configuration, or a member-by-member codec if the
+	 * group class cannot be accessed by generated code.
+	 */
+	static <T extends Group<T, ?>> Codec<T> of(Group.Config<T, ?> config) {
+		if (!Generator.accessible(config.type())) return members(config);
+		return new Generator<>(config).generate();
+	}
+
+	/**
+	 * Returns a codec that copies each member in turn, using its accessor and member actions.
+	 */
+	static <T extends Group<T, ?>> Codec<T> members(Group.Config<T, ?> config) {
+		var members = config.members();
+		return new Codec<>() {
+			@Override
+			public void read(T group, MemorySegment memory, long offset) {
+				for (var member : members)
+					member.read(group, memory, offset);
+			}
+
+			@Override
+			public void write(T group, MemorySegment memory, long offset) {
+				for (var member : members)
+					member.write(group, memory, offset);
+			}
+		};
+	}
+
+	/**
+	 * Generates codec class bytes, and defines a hidden class in this package. Layouts and
+	 * delegated members are passed as class data, and loaded as dynamic constants.
+	 */
+	class Generator<T extends Group<T, ?>> {
+		private static final Map<Class<?>, Class<?>> LAYOUTS =
+			Map.of(boolean.class, ValueLayout.OfBoolean.class, char.class, ValueLayout.OfChar.class,
+				byte.class, ValueLayout.OfByte.class, short.class, ValueLayout.OfShort.class,
+				int.class, ValueLayout.OfInt.class, long.class, ValueLayout.OfLong.class,
+				float.class, ValueLayout.OfFloat.class, double.class, ValueLayout.OfDouble.class);
+		private static final ClassDesc CD_CODEC = desc(Codec.class);
+		private static final ClassDesc CD_GROUP = desc(Group.class);
+		private static final ClassDesc CD_MEMBER = desc(Group.Member.class);
+		private static final ClassDesc CD_SEGMENT = desc(MemorySegment.class);
+		private static final MethodTypeDesc MTD_CODEC =
+			MethodTypeDesc.of(CD_void, CD_Object, CD_SEGMENT, CD_long);
+		private static final MethodTypeDesc MTD_MEMBER =
+			MethodTypeDesc.of(CD_void, CD_GROUP, CD_SEGMENT, CD_long);
+		private static final int GROUP_SLOT = 1;
+		private static final int MEMORY_SLOT = 2;
+		private static final int OFFSET_SLOT = 3;
+		private final Group.Config<T, ?> config;
+		private final ClassDesc type;
+		private final List<Object> data = Lists.of();
+
+		private Generator(Group.Config<T, ?> config) {
+			this.config = config;
+			type = desc(config.type());
+		}
+
+		private Codec<T> generate() {
+			var name = Codec.class.getName() + "$" + config.type().getSimpleName();
+			var bytes = ClassFile.of().build(ClassDesc.of(name), b -> b
+				.withFlags(ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+				.withInterfaceSymbols(CD_CODEC)
+				.withMethodBody(INIT_NAME, MTD_void, ClassFile.ACC_PUBLIC,
+					c -> c.aload(0).invokespecial(CD_Object, INIT_NAME, MTD_void).return_())
+				.withMethodBody("read", MTD_CODEC, ClassFile.ACC_PUBLIC, c -> body(c, true))
+				.withMethodBody("write", MTD_CODEC, ClassFile.ACC_PUBLIC, c -> body(c, false)));
+			try {
+				var lookup = MethodHandles.lookup().defineHiddenClassWithClassData(bytes,
+					List.copyOf(data), true);
+				return Reflect.unchecked(
+					Handles.asSupplier(Handles.constructor(lookup, lookup.lookupClass())).get());
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Unable to define codec for " + config.type(), e);
+			}
+		}
+
+		private void body(CodeBuilder c, boolean read) {
+			int slot = c.allocateLocal(TypeKind.REFERENCE);
+			c.aload(GROUP_SLOT).checkcast(type).astore(slot);
+			for (var member : config.members()) {
+				var field = primitiveField(member);
+				if (field == null) delegate(c, member, read, slot);
+				else if (read) read(c, member, field, slot);
+				else write(c, member, field, slot);
+			}
+			c.return_();
+		}
+
+		/**
+		 * Emits: group.field = memory.get(layout, offset + memberOffset)
+		 */
+		private void read(CodeBuilder c, Group.Member<?> member, Field field, int slot) {
+			var fieldType = desc(field.getType());
+			var layoutType = desc(LAYOUTS.get(field.getType()));
+			c.aload(slot).aload(MEMORY_SLOT);
+			constant(c, member.layout(), layoutType);
+			offset(c, member);
+			c.invokeinterface(CD_SEGMENT, "get", MethodTypeDesc.of(fieldType, layoutType, CD_long));
+			c.putfield(type, field.getName(), fieldType);
+		}
+
+		/**
+		 * Emits: memory.set(layout, offset + memberOffset, group.field)
+		 */
+		private void write(CodeBuilder c, Group.Member<?> member, Field field, int slot) {
+			var fieldType = desc(field.getType());
+			var layoutType = desc(LAYOUTS.get(field.getType()));
+			c.aload(MEMORY_SLOT);
+			constant(c, member.layout(), layoutType);
+			offset(c, member);
+			c.aload(slot).getfield(type, field.getName(), fieldType);
+			c.invokeinterface(CD_SEGMENT, "set",
+				MethodTypeDesc.of(CD_void, layoutType, CD_long, fieldType));
+		}
+
+		/**
+		 * Emits: member.read(group, memory, offset), or member.write(group, memory, offset)
+		 */
+		private void delegate(CodeBuilder c, Group.Member<?> member, boolean read, int slot) {
+			constant(c, member, CD_MEMBER);
+			c.aload(slot).aload(MEMORY_SLOT).lload(OFFSET_SLOT);
+			c.invokevirtual(CD_MEMBER, read ? "read" : "write", MTD_MEMBER);
+		}
+
+		private static void offset(CodeBuilder c, Group.Member<?> member) {
+			c.lload(OFFSET_SLOT);
+			if (member.offset() == 0L) return;
+			c.loadConstant(member.offset()).ladd();
+		}
+
+		/**
+		 * Adds the value to class data, and loads it as a dynamic constant.
+		 */
+		private void constant(CodeBuilder c, Object value, ClassDesc desc) {
+			int index = data.indexOf(value);
+			if (index < 0) {
+				index = data.size();
+				data.add(value);
+			}
+			c.loadConstant(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, desc,
+				index));
+		}
+
+		/**
+		 * Returns the field if the member is a primitive that can be copied directly.
+		 */
+		private Field primitiveField(Group.Member<?> member) {
+			if (member.flex() || !(member.support() instanceof Primitive<?, ?, ?, ?>)) return null;
+			if (!(member.layout() instanceof ValueLayout layout)) return null;
+			var field = Reflect.publicField(config.type(), member.name());
+			if (field == null || field.getType() != layout.carrier()) return null;
+			if (!accessible(field.getDeclaringClass())) return null;
+			return field;
+		}
+
+		private static boolean accessible(Class<?> cls) {
+			for (; cls != null; cls = cls.getEnclosingClass())
+				if (!Modifier.isPublic(cls.getModifiers())) return false;
+			return true;
+		}
+
+		private static ClassDesc desc(Class<?> cls) {
+			return ClassDesc.ofDescriptor(cls.descriptorString());
+		}
+	}
+}
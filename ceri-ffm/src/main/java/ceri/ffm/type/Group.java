@@ -172,6 +172,14 @@ public abstract class Group<T extends Group<T, L>, L extends GroupLayout> {
 			return support.typeDesc() + (flex ? "[]" : "") + ' ' + name();
 		}
 
+		MemoryLayout layout() {
+			return layout;
+		}
+
+		Support<?, ?, ?, ?> support() {
+			return support;
+		}
+
 		T get(Group<?, ?> group) {
 			return Handles.get(accessor, group);
 		}
@@ -260,6 +260,11 @@ public abstract class Primitive<T, A, P extends Pointer.Raw, L extends ValueLayo
 			}
 		}
 
+		@Override
+		public MemorySegment heapArray(boolean[] array, int length) {
+			return null; // wrapping copies the array
+		}
+
 		@Override
 		MemorySegment rawWrapArray(boolean[] array) {
 			// Converts to bytes, then wraps
@@ -1607,6 +1612,15 @@ public abstract class Primitive<T, A, P extends Pointer.Raw, L extends ValueLayo
 		return Segments.slice(rawWrapArray(array), size(index), size(length));
 	}
 
+	/**
+	 * Wraps the bounded array as a heap segment for direct access by a critical call. Returns null
+	 * if the array elements do not match the native layout.
+	 */
+	public MemorySegment heapArray(A array, int length) {
+		if (layout().order() != ByteOrder.nativeOrder()) return null;
+		return wrapArray(array, 0, length);
+	}
+
 	// overrides
 
 	@Override
@@ -13,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
 import ceri.common.collect.Immutable;
+import ceri.common.collect.Maps;
 import ceri.common.io.Buffers;
 import ceri.common.math.Maths;
 import ceri.common.text.Chars;
@@ -37,7 +38,9 @@ public class StringType implements Layouts.Provider<ValueLayout> {
 	public static final StringType UTF16 = init(Chars.UTF16);
 	public static final StringType UTF32 = init(Chars.UTF32);
 	private static final Map<Charset, StringType> MAP = map();
+	private static final int CACHE_SIZE = 64;
 	private final Config config;
+	private final Map<String, MemorySegment> cache = Maps.cache(CACHE_SIZE);
 
 	/**
 	 * Charset and layout configuration.
@@ -147,6 +150,15 @@ public class StringType implements Layouts.Provider<ValueLayout> {
 
 		// shared
 
+		/**
+		 * Returns cached memory with the encoded string, or null if the string cannot be cached
+		 * within bounds. Memory is shared between callers, and must not be modified.
+		 */
+		public MemorySegment cached(String value) {
+			if (!nul() || value == null || value.length() > count()) return null;
+			return string.cached(value);
+		}
+
 		@Override
 		String rawGet(MemorySegment memory, long offset, long length) {
 			return string.get(memory, offset, length, nul);
@@ -377,6 +389,20 @@ public class StringType implements Layouts.Provider<ValueLayout> {
 		return memory;
 	}
 
+	/**
+	 * Returns memory with the encoded chars and nul-termination from a bounded cache, allocating
+	 * on a cache miss. Used for repeated constant strings such as device paths. Memory is shared
+	 * between callers, and must not be modified.
+	 */
+	public MemorySegment cached(String s) {
+		if (s == null) return null;
+		synchronized (cache) {
+			var memory = cache.get(s);
+			if (memory == null) cache.put(s, memory = alloc(s, true));
+			return memory;
+		}
+	}
+
 	/**
 	 * Decodes a string from the bound memory segment with optional nul-termination. Fails if the
 	 * length is larger than int.
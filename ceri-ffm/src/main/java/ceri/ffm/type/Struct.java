@@ -22,9 +22,12 @@ public class Struct<T extends Struct<T>> extends Group<T, StructLayout> {
 	 * Operational support for struct types.
 	 */
 	public static class Supporter<T extends Struct<T>> extends Group.Supporter<T, StructLayout> {
+		private final Codec<T> codec;
 
-		private Supporter(Group.Config<T, StructLayout> config, StructLayout layout) {
+		private Supporter(Group.Config<T, StructLayout> config, Codec<T> codec,
+			StructLayout layout) {
 			super(config, layout);
+			this.codec = codec;
 		}
 
 		@Override
@@ -35,7 +38,7 @@ public class Struct<T extends Struct<T>> extends Group<T, StructLayout> {
 		@Override
 		public Supporter<T> align(long align) {
 			var layout = Layouts.align(layout(), align);
-			return layout == layout() ? this : new Supporter<>(config, layout);
+			return layout == layout() ? this : new Supporter<>(config, codec, layout);
 		}
 
 		@Override
@@ -206,14 +209,26 @@ public class Struct<T extends Struct<T>> extends Group<T, StructLayout> {
 
 		@Override
 		void rawRead(MemorySegment memory, long offset, long length, T struct) {
-			for (var member : config.members())
-				member.read(struct, memory, offset);
+			codec.read(struct, memory, offset);
 		}
 
 		@Override
 		void rawWrite(MemorySegment memory, long offset, long length, T struct) {
-			for (var member : config.members())
-				member.write(struct, memory, offset);
+			codec.write(struct, memory, offset);
+		}
+
+		@Override
+		void rawReadArray(MemorySegment memory, long offset, T[] array, int index, int count) {
+			for (int i = index; i < index + count; i++, offset += layoutSize()) {
+				if (array[i] == null) array[i] = val();
+				codec.read(array[i], memory, offset);
+			}
+		}
+
+		@Override
+		void rawWriteArray(MemorySegment memory, long offset, T[] array, int index, int count) {
+			for (int i = index; i < index + count; i++, offset += layoutSize())
+				if (array[i] != null) codec.write(array[i], memory, offset);
 		}
 
 		private long flexSize(int flexSize) {
@@ -272,7 +287,7 @@ public class Struct<T extends Struct<T>> extends Group<T, StructLayout> {
 	 */
 	static <T extends Struct<T>> Supporter<T> supportFor(Class<T> cls) {
 		var config = config(cls);
-		return new Supporter<>(config, config.layout());
+		return new Supporter<>(config, Codec.of(config), config.layout());
 	}
 
 	/**
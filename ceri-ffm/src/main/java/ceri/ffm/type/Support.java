@@ -152,6 +152,12 @@ public abstract class Support<T, A, P extends PointerType.Raw, L extends MemoryL
 			return elementSupport().allocArray(allocator, value, 0, count(), nul());
 		}
 
+		@Override
+		public MemorySegment heap(T value) {
+			if (nul() || !(elementSupport() instanceof Primitive<?, T, ?, ?> primitive)) return null;
+			return primitive.heapArray(value, count());
+		}
+
 		@Override
 		public String typeDesc() {
 			return config.toString();
@@ -985,6 +991,14 @@ public abstract class Support<T, A, P extends PointerType.Raw, L extends MemoryL
 		return encoder.alloc(allocator);
 	}
 
+	/**
+	 * Returns a heap segment over the value for direct access by a critical call, or null if the
+	 * value must be encoded to native memory.
+	 */
+	public MemorySegment heap(T value) {
+		return null;
+	}
+
 	/**
 	 * Decodes the value from memory without padding.
 	 */
@@ -0,0 +1,186 @@
+package ceri.ffm.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import ceri.common.data.ByteAccessor;
+import ceri.common.data.ByteProvider;
+import ceri.common.data.ByteReceiver;
+import ceri.common.util.Validate;
+
+/**
+ * Byte accessor wrapper for a memory segment, such as a mapped file region. Slices share the
+ * segment without copying. Wrapped length must be within int range.
+ */
+public class FfmMemory implements ByteAccessor {
+	public static final FfmMemory EMPTY = new FfmMemory(MemorySegment.NULL);
+	private static final ValueLayout.OfShort SHORT_MSB =
+		ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfShort SHORT_LSB =
+		ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+	private static final ValueLayout.OfInt INT_MSB =
+		ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfInt INT_LSB =
+		ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+	private static final ValueLayout.OfLong LONG_MSB =
+		ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfLong LONG_LSB =
+		ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+	private final MemorySegment segment;
+	private final int length;
+
+	public static FfmMemory of(MemorySegment segment) {
+		return of(segment, 0, Math.toIntExact(segment.byteSize()));
+	}
+
+	public static FfmMemory of(MemorySegment segment, long offset, int length) {
+		Validate.range(offset, 0, segment.byteSize());
+		Validate.range(length, 0, segment.byteSize() - offset);
+		if (length == 0) return EMPTY;
+		return new FfmMemory(segment.asSlice(offset, length));
+	}
+
+	private FfmMemory(MemorySegment segment) {
+		this.segment = segment;
+		this.length = (int) segment.byteSize();
+	}
+
+	/**
+	 * The wrapped segment.
+	 */
+	public MemorySegment segment() {
+		return segment;
+	}
+
+	/* ByteProvider overrides */
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public byte getByte(int index) {
+		Validate.index(length(), index);
+		return segment.get(ValueLayout.JAVA_BYTE, index);
+	}
+
+	@Override
+	public long getEndian(int index, int size, boolean msb) {
+		Validate.slice(length(), index, size);
+		return switch (size) {
+			case Short.BYTES -> segment.get(msb ? SHORT_MSB : SHORT_LSB, index);
+			case Integer.BYTES -> segment.get(msb ? INT_MSB : INT_LSB, index);
+			case Long.BYTES -> segment.get(msb ? LONG_MSB : LONG_LSB, index);
+			default -> ByteAccessor.super.getEndian(index, size, msb);
+		};
+	}
+
+	@Override
+	public int copyTo(int index, byte[] array, int offset, int length) {
+		Validate.slice(length(), index, length);
+		Validate.slice(array.length, offset, length);
+		MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, array, offset, length);
+		return index + length;
+	}
+
+	@Override
+	public int copyTo(int index, ByteReceiver receiver, int offset, int length) {
+		Validate.slice(length(), index, length);
+		if (receiver instanceof FfmMemory m) m.copyFrom(offset, this, index, length);
+		else receiver.copyFrom(offset, copy(index, length));
+		return index + length;
+	}
+
+	@Override
+	public int writeTo(int index, OutputStream out, int length) throws IOException {
+		return ByteProvider.writeBufferTo(this, index, out, length);
+	}
+
+	/* ByteReceiver overrides */
+
+	@Override
+	public int setByte(int index, int b) {
+		Validate.index(length(), index);
+		segment.set(ValueLayout.JAVA_BYTE, index, (byte) b);
+		return index + 1;
+	}
+
+	@Override
+	public int setEndian(int index, int size, long value, boolean msb) {
+		Validate.slice(length(), index, size);
+		switch (size) {
+			case Short.BYTES -> segment.set(msb ? SHORT_MSB : SHORT_LSB, index, (short) value);
+			case Integer.BYTES -> segment.set(msb ? INT_MSB : INT_LSB, index, (int) value);
+			case Long.BYTES -> segment.set(msb ? LONG_MSB : LONG_LSB, index, value);
+			default -> ByteAccessor.super.setEndian(index, size, value, msb);
+		}
+		return index + size;
+	}
+
+	@Override
+	public int fill(int index, int length, int value) {
+		Validate.slice(length(), index, length);
+		segment.asSlice(index, length).fill((byte) value);
+		return index + length;
+	}
+
+	@Override
+	public int copyFrom(int index, byte[] array, int offset, int length) {
+		Validate.slice(length(), index, length);
+		Validate.slice(array.length, offset, length);
+		MemorySegment.copy(array, offset, segment, ValueLayout.JAVA_BYTE, index, length);
+		return index + length;
+	}
+
+	@Override
+	public int copyFrom(int index, ByteProvider provider, int offset, int length) {
+		Validate.slice(length(), index, length);
+		if (provider instanceof FfmMemory m) {
+			Validate.slice(m.length(), offset, length);
+			MemorySegment.copy(m.segment, offset, segment, index, length);
+		} else copyFrom(index, provider.copy(offset, length));
+		return index + length;
+	}
+
+	@Override
+	public int readFrom(int index, InputStream in, int length) throws IOException {
+		return ByteReceiver.readBufferFrom(this, index, in, length);
+	}
+
+	/* Other methods */
+
+	@Override
+	public FfmMemory slice(int index) {
+		return slice(index, length() - index);
+	}
+
+	@Override
+	public FfmMemory slice(int index, int length) {
+		Validate.slice(length(), index, length);
+		if (index == 0 && length == length()) return this;
+		return of(segment, index, length);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(segment.address(), length);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		return (obj instanceof FfmMemory other) && segment.address() == other.segment.address()
+			&& length == other.length;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s@%x%s", getClass().getSimpleName(), segment.address(),
+			ByteProvider.toHex(this));
+	}
+}
@@ -0,0 +1,130 @@
+package ceri.ffm.util;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import ceri.common.function.Excepts;
+import ceri.common.reflect.Reflect;
+import ceri.common.util.Validate;
+
+/**
+ * A file mapped into memory with its own arena. Windows of the mapped region are accessed as
+ * FfmMemory byte accessors without copying, with long offsets for files beyond int range. Closing
+ * unmaps the file; windows must not be used after close.
+ */
+public class MappedFile implements Excepts.Closeable<IOException> {
+	private final Arena arena;
+	private final MemorySegment segment;
+	private final boolean writable;
+
+	/**
+	 * Maps the file for reading.
+	 */
+	public static MappedFile read(Path path) throws IOException {
+		try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return map(channel, FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Maps the file for reading and writing, creating or extending it to the given length.
+	 */
+	public static MappedFile write(Path path, long length) throws IOException {
+		Validate.min(length, 0L);
+		try (var channel = FileChannel.open(path, StandardOpenOption.CREATE,
+			StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return map(channel, FileChannel.MapMode.READ_WRITE, 0, length);
+		}
+	}
+
+	/**
+	 * Maps a region of the open channel. The mapping remains valid after the channel is closed.
+	 */
+	public static MappedFile map(FileChannel channel, FileChannel.MapMode mode, long offset,
+		long length) throws IOException {
+		var arena = Arena.ofShared();
+		try {
+			var segment = channel.map(mode, offset, length, arena);
+			return new MappedFile(arena, segment, mode != FileChannel.MapMode.READ_ONLY);
+		} catch (IOException | RuntimeException e) {
+			arena.close();
+			throw e;
+		}
+	}
+
+	private MappedFile(Arena arena, MemorySegment segment, boolean writable) {
+		this.arena = arena;
+		this.segment = segment;
+		this.writable = writable;
+	}
+
+	/**
+	 * The mapped length in bytes.
+	 */
+	public long length() {
+		return segment.byteSize();
+	}
+
+	/**
+	 * The mapped segment.
+	 */
+	public MemorySegment segment() {
+		return segment;
+	}
+
+	/**
+	 * Provides byte access to the mapped region, which must be within int range.
+	 */
+	public FfmMemory memory() {
+		return memory(0, Math.toIntExact(length()));
+	}
+
+	/**
+	 * Provides byte access to a window of the mapped region, without copying.
+	 */
+	public FfmMemory memory(long offset, int length) {
+		return FfmMemory.of(segment, offset, length);
+	}
+
+	/**
+	 * Requests the pages of a window to be loaded into physical memory, as a hint for upcoming
+	 * access. Equivalent to madvise with WILLNEED.
+	 */
+	public void load(long offset, long length) {
+		window(offset, length).load();
+	}
+
+	/**
+	 * Indicates the pages of a window are not expected to be accessed soon, allowing them to be
+	 * released. Equivalent to madvise with DONTNEED.
+	 */
+	public void unload(long offset, long length) {
+		window(offset, length).unload();
+	}
+
+	/**
+	 * Writes changes to the storage device. Does nothing for read-only mappings.
+	 */
+	public void force() {
+		if (writable) segment.force();
+	}
+
+	@Override
+	public void close() {
+		if (arena.scope().isAlive()) arena.close();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s@%x+%x", Reflect.name(getClass()), segment.address(), length());
+	}
+
+	private MemorySegment window(long offset, long length) {
+		Validate.range(offset, 0, length());
+		Validate.range(length, 0, length() - offset);
+		return segment.asSlice(offset, length);
+	}
+}
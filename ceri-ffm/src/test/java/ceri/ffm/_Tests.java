@@ -12,10 +12,14 @@ import ceri.common.test.Testing;
 	// clib.ffm
 	ceri.ffm.clib.ffm.CUnistdTest.class, //
 	// core
+	ceri.ffm.core.CallArenaBehavior.class, //
 	ceri.ffm.core.DecoderBehavior.class, //
 	// type
+	ceri.ffm.type.CodecBehavior.class, //
 	ceri.ffm.type.IntTypeBehavior.class, //
 	ceri.ffm.type.TerminatorBehavior.class, //
+	// util
+	ceri.ffm.util.MappedFileBehavior.class, //
 })
 public class _Tests {
 	public static void main(String... args) {
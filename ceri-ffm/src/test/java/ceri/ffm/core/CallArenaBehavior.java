@@ -0,0 +1,72 @@
+package ceri.ffm.core;
+
+import java.lang.foreign.ValueLayout;
+import org.junit.Test;
+import ceri.common.test.Assert;
+import ceri.common.test.Testing;
+
+public class CallArenaBehavior {
+
+	@Test
+	public void shouldResetOffsetOnClose() {
+		var arena = CallArena.of(64);
+		try (var _ = arena.push()) {
+			arena.allocate(3);
+			var m = arena.allocate(ValueLayout.JAVA_LONG);
+			Assert.equal(m.address() % Long.BYTES, 0L);
+			Assert.equal(arena.used(), 16L);
+			try (var _ = arena.push()) {
+				arena.allocate(8).fill((byte) 0xff);
+				Assert.equal(arena.depth(), 2);
+				Assert.equal(arena.used(), 24L);
+			}
+			Assert.equal(arena.used(), 16L);
+			Assert.equal(arena.allocate(8).get(ValueLayout.JAVA_LONG, 0), 0L);
+		}
+		Assert.equal(arena.depth(), 0);
+		Assert.equal(arena.used(), 0L);
+	}
+
+	@Test
+	public void shouldOverflowToFrameArena() {
+		var arena = CallArena.of(16);
+		try (var _ = arena.push()) {
+			var m = arena.allocate(8);
+			var overflow = arena.allocate(32);
+			Assert.equal(overflow.byteSize(), 32L);
+			Assert.equal(arena.used(), 8L);
+			arena.close();
+			Assert.equal(m.scope().isAlive(), true);
+			Assert.equal(overflow.scope().isAlive(), false);
+		}
+	}
+
+	@Test
+	public void shouldReuseThreadArena() {
+		long used;
+		try (var arena = CallArena.open()) {
+			used = arena.used();
+			try (var inner = CallArena.open()) {
+				Assert.same(inner, arena);
+				inner.allocate(100);
+			}
+			Assert.equal(arena.used(), used);
+		}
+	}
+
+	@Test
+	public void shouldFailWithoutFrame() {
+		var arena = CallArena.of(16);
+		Assert.thrown(() -> arena.allocate(1));
+		arena.close();
+		Assert.thrown(() -> CallArena.of(-1));
+	}
+
+	@Test
+	public void shouldBeConfinedToThread() throws Exception {
+		var arena = CallArena.of(16);
+		try (var exec = Testing.threadRun(() -> Assert.thrown(arena::push))) {
+			exec.get();
+		}
+	}
+}
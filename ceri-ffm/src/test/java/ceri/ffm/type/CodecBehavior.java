@@ -0,0 +1,85 @@
+package ceri.ffm.type;
+
+import java.lang.foreign.Arena;
+import org.junit.Test;
+import ceri.common.test.Assert;
+import ceri.ffm.type.Group.Fields;
+
+public class CodecBehavior {
+
+	@Fields({ "b", "s", "i", "l", "f", "d", "z", "c", "ii", "inner" })
+	public static class S0 extends Struct<S0> {
+		public static final Supporter<S0> $ = support(S0.class);
+		public byte b;
+		public short s;
+		public int i;
+		public long l;
+		public float f;
+		public double d;
+		public boolean z;
+		public char c;
+		public int[] ii = new int[3];
+		public S1 inner;
+
+		public S0 gen(int n) {
+			b = (byte) n;
+			s = (short) (n + 1);
+			i = n + 2;
+			l = n + 3L;
+			f = n + 0.5f;
+			d = n + 0.25;
+			z = (n & 1) == 1;
+			c = (char) ('a' + n);
+			ii[0] = n;
+			ii[2] = -n;
+			inner.x = n * 10;
+			inner.y = (short) -n;
+			return this;
+		}
+	}
+
+	@Fields({ "x", "y" })
+	public static class S1 extends Struct<S1> {
+		public static final Supporter<S1> $ = support(S1.class);
+		public long x;
+		public short y;
+	}
+
+	@Test
+	public void shouldGenerateHiddenCodec() {
+		Assert.yes(Codec.of(Struct.config(S0.class)).getClass().isHidden());
+	}
+
+	@Test
+	public void shouldWriteSameMemoryAsMembers() {
+		var s0 = S0.$.init().gen(3);
+		var m0 = S0.$.alloc(s0);
+		var m1 = Arena.ofAuto().allocate(S0.$.layout());
+		Codec.members(Struct.config(S0.class)).write(s0, m1, 0L);
+		Assert.equal(m0.mismatch(m1), -1L);
+	}
+
+	@Test
+	public void shouldReadIntoExistingMembers() {
+		var m = S0.$.alloc(S0.$.init().gen(5));
+		var s0 = S0.$.init();
+		var ii = s0.ii;
+		var inner = s0.inner;
+		Assert.yes(S0.$.read(m, s0));
+		Assert.same(s0.ii, ii);
+		Assert.same(s0.inner, inner);
+		Assert.equal(s0, S0.$.init().gen(5));
+	}
+
+	@Test
+	public void shouldReadAndWriteArrays() {
+		var array = S0.$.initArray(3);
+		for (int i = 0; i < array.length; i++)
+			array[i].gen(i);
+		var m = S0.$.allocAll(false, array);
+		var read = new S0[3];
+		read[1] = S0.$.init();
+		Assert.equal(S0.$.readArray(m, read, false), 3);
+		Assert.array(read, array);
+	}
+}
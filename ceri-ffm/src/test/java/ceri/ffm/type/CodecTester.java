@@ -0,0 +1,65 @@
+package ceri.ffm.type;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.TimeUnit;
+import ceri.ffm.type.Group.Fields;
+
+/**
+ * Compares struct read and write throughput of the generated codec with the member-by-member
+ * path. Results are approximate; run with a warmed-up JVM for stable numbers.
+ */
+public class CodecTester {
+	private static final int COUNT = 1024;
+	private static final int LOOPS = 2000;
+	private static final int ROUNDS = 5;
+
+	@Fields({ "b", "s", "i", "l", "f", "d", "z", "c" })
+	public static class P extends Struct<P> {
+		public static final Supporter<P> $ = support(P.class);
+		public byte b;
+		public short s;
+		public int i;
+		public long l;
+		public float f;
+		public double d;
+		public boolean z;
+		public char c;
+	}
+
+	public static void main(String[] args) {
+		var members = Codec.members(Struct.config(P.class));
+		var generated = Codec.of(Struct.config(P.class));
+		var array = P.$.initArray(COUNT);
+		for (int i = 0; i < COUNT; i++) {
+			array[i].i = i;
+			array[i].l = -i;
+			array[i].d = i / 2.0;
+		}
+		var memory = Arena.ofAuto().allocate(P.$.layout(), COUNT);
+		for (int round = 0; round < ROUNDS; round++) {
+			System.out.printf("Round %d:%n", round);
+			run("members", members, array, memory);
+			run("generated", generated, array, memory);
+		}
+	}
+
+	private static void run(String name, Codec<P> codec, P[] array, MemorySegment memory) {
+		long size = P.$.layoutSize();
+		long t0 = System.nanoTime();
+		for (int n = 0; n < LOOPS; n++)
+			for (int i = 0; i < array.length; i++)
+				codec.write(array[i], memory, i * size);
+		long t1 = System.nanoTime();
+		for (int n = 0; n < LOOPS; n++)
+			for (int i = 0; i < array.length; i++)
+				codec.read(array[i], memory, i * size);
+		long t2 = System.nanoTime();
+		System.out.printf("  %-10s write %7.1fM/s, read %7.1fM/s%n", name, rate(t1 - t0),
+			rate(t2 - t1));
+	}
+
+	private static double rate(long ns) {
+		return (double) COUNT * LOOPS / TimeUnit.NANOSECONDS.toMicros(Math.max(1000, ns));
+	}
+}
@@ -0,0 +1,74 @@
+package ceri.ffm.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Test;
+import ceri.common.array.Array;
+import ceri.common.test.Assert;
+import ceri.common.test.FileTestHelper;
+import ceri.common.test.Testing;
+
+public class MappedFileBehavior {
+	private FileTestHelper helper;
+	private MappedFile file;
+
+	@After
+	public void after() {
+		file = Testing.close(file);
+		helper = Testing.close(helper);
+	}
+
+	@Test
+	public void shouldReadFileBytes() throws IOException {
+		helper = FileTestHelper.builder().file("a", Array.BYTE.of(1, 2, 3, 4, 5, 6, 7, 8)).build();
+		file = MappedFile.read(helper.path("a"));
+		Assert.equal(file.length(), 8L);
+		Assert.array(file.memory().copy(0), 1, 2, 3, 4, 5, 6, 7, 8);
+		Assert.equal(file.memory().getIntMsb(2), 0x03040506);
+		Assert.equal(file.memory().getShortLsb(6), (short) 0x0807);
+		Assert.equal(file.memory().getEndian(1, 3, true), 0x020304L);
+		var out = new ByteArrayOutputStream();
+		file.memory(4, 3).writeTo(0, out);
+		Assert.array(out.toByteArray(), 5, 6, 7);
+	}
+
+	@Test
+	public void shouldProvideZeroCopyWindows() throws IOException {
+		helper = FileTestHelper.builder().build();
+		file = MappedFile.write(helper.path("a"), 16);
+		var window = file.memory(8, 8);
+		var slice = window.slice(2, 4);
+		Assert.thrown(() -> slice.setLongLsb(0, 0x0102030405060708L));
+		slice.setIntMsb(0, 0x01020304);
+		Assert.array(file.memory().copy(10, 4), 1, 2, 3, 4);
+		Assert.equal(slice.segment().address(), file.segment().address() + 10);
+		Assert.thrown(() -> file.memory(12, 5));
+		Assert.thrown(() -> file.memory(-1, 1));
+		Assert.equal(file.memory(16, 0), FfmMemory.EMPTY);
+	}
+
+	@Test
+	public void shouldCopyBetweenSegments() throws IOException {
+		helper = FileTestHelper.builder().build();
+		file = MappedFile.write(helper.path("a"), 8);
+		var m = file.memory();
+		m.copyFrom(0, Array.BYTE.of(1, 2, 3, 4));
+		m.copyTo(0, m, 4, 4);
+		m.fill(0, 2, 0xff);
+		Assert.array(m.copy(0), 0xff, 0xff, 3, 4, 1, 2, 3, 4);
+		file.force();
+		file.close();
+		Assert.array(helper.read("a"), 0xff, 0xff, 3, 4, 1, 2, 3, 4);
+	}
+
+	@Test
+	public void shouldProvideLoadHints() throws IOException {
+		helper = FileTestHelper.builder().file("a", new byte[4096]).build();
+		file = MappedFile.read(helper.path("a"));
+		file.load(100, 1000);
+		file.unload(0, 4096);
+		file.force();
+		Assert.thrown(() -> file.load(4000, 100));
+	}
+}
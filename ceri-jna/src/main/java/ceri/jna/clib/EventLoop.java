@@ -0,0 +1,353 @@
+package ceri.jna.clib;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import com.sun.jna.Memory;
+import ceri.common.collect.Maps;
+import ceri.common.concurrent.RuntimeInterruptedException;
+import ceri.common.function.Excepts;
+import ceri.common.function.Functions;
+import ceri.common.time.TimeSpec;
+import ceri.common.util.Os;
+import ceri.common.util.Validate;
+import ceri.jna.clib.jna.CEpoll;
+import ceri.jna.clib.jna.CException;
+import ceri.jna.clib.jna.CTime;
+import ceri.jna.clib.jna.CUnistd;
+import ceri.jna.util.GcMemory;
+import ceri.log.concurrent.LoopingExecutor;
+
+/**
+ * An epoll-based event loop that dispatches ready events for many file descriptors from a single
+ * thread. Each wake-up only returns the ready fds, so the cost does not grow with the number of
+ * registered fds. Fds may be registered and removed from any thread. Callbacks run on the loop
+ * thread, and should not block; devices such as CInputStream and COutputStream users can share
+ * one loop by reading or writing when their fd is ready. Tasks may be executed on the loop thread,
+ * and timers are provided by timerfd. Linux only.
+ */
+public class EventLoop extends LoopingExecutor {
+	private static final Logger logger = LogManager.getLogger();
+	private static final int MAX_EVENTS_DEF = 64;
+	private static final long WAKE_ID = 0L;
+	private final AtomicLong nextId = new AtomicLong(WAKE_ID + 1);
+	private final Map<Long, Registration> registrations = Maps.concurrent();
+	private final Queue<Excepts.Runnable<IOException>> tasks = new ConcurrentLinkedQueue<>();
+	private final int epfd;
+	private final int wakeFd;
+	private final Memory one = new Memory(Long.BYTES); // eventfd increment
+	private final Memory counter = new Memory(Long.BYTES); // loop thread only
+	private final GcMemory memory;
+	private final CEpoll.epoll_event.View events;
+	private final int maxEvents;
+	private volatile boolean closing = false;
+
+	/**
+	 * How readiness is reported for a registered fd.
+	 */
+	public enum Trigger {
+		/** Callbacks are repeated while the fd is ready. */
+		LEVEL(0),
+		/**
+		 * A callback is made when the fd becomes ready. The callback should drain the fd, which
+		 * is typically set to non-blocking.
+		 */
+		EDGE(CEpoll.EPOLLET),
+		/** A single callback is made, then the fd is disabled until events are set again. */
+		ONESHOT(CEpoll.EPOLLONESHOT);
+
+		public final int value;
+
+		private Trigger(int value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Receives ready events on the loop thread. The event mask may include Poll.Event and
+	 * Poll.Error values, which share bit values with epoll events.
+	 */
+	@FunctionalInterface
+	public interface Callback {
+		void ready(int events) throws IOException;
+	}
+
+	/**
+	 * A registered fd. Closing the registration removes the fd from the loop, but does not close
+	 * the fd.
+	 */
+	public class Registration implements Functions.Closeable {
+		private final long id;
+		private final int fd;
+		private final Trigger trigger;
+		private final Callback callback;
+
+		private Registration(int fd, Trigger trigger, Callback callback) {
+			this.id = nextId.getAndIncrement();
+			this.fd = fd;
+			this.trigger = trigger;
+			this.callback = callback;
+		}
+
+		/**
+		 * The registered fd.
+		 */
+		public int fd() {
+			return fd;
+		}
+
+		/**
+		 * Sets the requested events. Re-enables a one-shot registration.
+		 */
+		public void events(Poll.Event... events) throws IOException {
+			CEpoll.epoll_ctl(epfd, CEpoll.EPOLL_CTL_MOD, fd, mask(trigger, events), id);
+		}
+
+		@Override
+		public void close() {
+			if (!registrations.remove(id, this)) return;
+			if (closing) return;
+			try {
+				CEpoll.epoll_ctl(epfd, CEpoll.EPOLL_CTL_DEL, fd, 0, id);
+			} catch (CException e) {
+				logger.debug("Unable to remove fd {}: {}", fd, e.getMessage());
+			}
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + "[" + fd + "," + trigger + "]";
+		}
+	}
+
+	/**
+	 * A timer fd registration. The callback receives the number of expirations since the last
+	 * callback. Closing the timer also closes its fd.
+	 */
+	public class Timer extends Registration {
+		private Timer(int fd, Excepts.LongConsumer<IOException> callback) {
+			super(fd, Trigger.LEVEL, _ -> {
+				long n = readCounter(fd);
+				if (n > 0) callback.accept(n);
+			});
+		}
+
+		/**
+		 * Sets the initial delay and repeat period. A zero delay disarms the timer, and a zero
+		 * period expires only once.
+		 */
+		public Timer set(Duration delay, Duration period) throws IOException {
+			CEpoll.timerfd_settime(fd(), 0,
+				CTime.itimerspec.of(TimeSpec.from(delay), TimeSpec.from(period)));
+			return this;
+		}
+
+		/**
+		 * Disarms the timer.
+		 */
+		public Timer cancel() throws IOException {
+			return set(Duration.ZERO, Duration.ZERO);
+		}
+
+		@Override
+		public void close() {
+			super.close();
+			CUnistd.closeSilently(fd());
+		}
+	}
+
+	/**
+	 * Creates and starts an event loop.
+	 */
+	public static EventLoop of() throws IOException {
+		return of(MAX_EVENTS_DEF);
+	}
+
+	/**
+	 * Creates and starts an event loop, returning up to the given number of ready fds per
+	 * wake-up.
+	 */
+	public static EventLoop of(int maxEvents) throws IOException {
+		Validate.min(maxEvents, 1);
+		var os = Os.info();
+		if (!os.linux) throw new UnsupportedOperationException("Linux only: " + os);
+		int epfd = CEpoll.epoll_create1(CEpoll.EPOLL_CLOEXEC);
+		int wakeFd = -1;
+		try {
+			wakeFd = CEpoll.eventfd(0, CEpoll.EFD_NONBLOCK | CEpoll.EFD_CLOEXEC);
+			CEpoll.epoll_ctl(epfd, CEpoll.EPOLL_CTL_ADD, wakeFd, CEpoll.EPOLLIN, WAKE_ID);
+			return new EventLoop(epfd, wakeFd, maxEvents);
+		} catch (IOException | RuntimeException e) {
+			CUnistd.closeSilently(wakeFd, epfd);
+			throw e;
+		}
+	}
+
+	private EventLoop(int epfd, int wakeFd, int maxEvents) {
+		this.epfd = epfd;
+		this.wakeFd = wakeFd;
+		this.maxEvents = maxEvents;
+		memory = GcMemory.malloc(Math.toIntExact(CEpoll.epoll_event.View.LAYOUT.size(maxEvents)));
+		events = new CEpoll.epoll_event.View(memory.clear().m);
+		one.setLong(0, 1L);
+		start();
+	}
+
+	/**
+	 * Registers the fd for level-triggered events.
+	 */
+	public Registration register(FileDescriptor fd, Callback callback, Poll.Event... events)
+		throws IOException {
+		return register(fd, Trigger.LEVEL, callback, events);
+	}
+
+	/**
+	 * Registers the fd for events with the given trigger.
+	 */
+	public Registration register(FileDescriptor fd, Trigger trigger, Callback callback,
+		Poll.Event... events) throws IOException {
+		return fd.apply(f -> register(f, trigger, callback, events));
+	}
+
+	/**
+	 * Registers the fd for events with the given trigger. Error and hang-up events are always
+	 * reported.
+	 */
+	public Registration register(int fd, Trigger trigger, Callback callback, Poll.Event... events)
+		throws IOException {
+		Validate.nonNull(trigger, "trigger");
+		Validate.nonNull(callback, "callback");
+		return add(new Registration(fd, trigger, callback), mask(trigger, events));
+	}
+
+	/**
+	 * Creates a timer on the monotonic clock with initial delay and repeat period. A zero period
+	 * expires only once. The callback receives the number of expirations since the last callback.
+	 */
+	public Timer timer(Duration delay, Duration period, Excepts.LongConsumer<IOException> callback)
+		throws IOException {
+		Validate.nonNull(callback, "callback");
+		int fd = CEpoll.timerfd_create(CTime.CLOCK_MONOTONIC,
+			CEpoll.TFD_NONBLOCK | CEpoll.TFD_CLOEXEC);
+		var timer = new Timer(fd, callback);
+		try {
+			add(timer, CEpoll.EPOLLIN);
+			return timer.set(delay, period);
+		} catch (IOException | RuntimeException e) {
+			timer.close(); // removes the registration, and closes the fd
+			throw e;
+		}
+	}
+
+	/**
+	 * Runs the task on the loop thread.
+	 */
+	public void execute(Excepts.Runnable<IOException> task) throws IOException {
+		Validate.nonNull(task, "task");
+		tasks.add(task);
+		wake();
+	}
+
+	/**
+	 * Wakes the loop thread.
+	 */
+	public void wake() throws IOException {
+		CUnistd.write(wakeFd, one, Long.BYTES);
+	}
+
+	/**
+	 * Returns the number of registered fds.
+	 */
+	public int registrations() {
+		return registrations.size();
+	}
+
+	@Override
+	public void close() {
+		closing = true;
+		try {
+			wake();
+		} catch (IOException e) {
+			logger.catching(e);
+		}
+		super.close();
+		for (var registration : registrations.values())
+			registration.close();
+		CUnistd.closeSilently(wakeFd, epfd);
+	}
+
+	@Override
+	protected void loop() throws IOException {
+		int n = idleGet(() -> CEpoll.epoll_wait(epfd, events, maxEvents, -1));
+		for (int i = 0; i < n; i++) {
+			events.index(i);
+			dispatch(events.data(), events.events());
+		}
+		if (closing) throw new RuntimeInterruptedException("Closed");
+	}
+
+	private Registration add(Registration registration, int events) throws IOException {
+		registrations.put(registration.id, registration);
+		try {
+			CEpoll.epoll_ctl(epfd, CEpoll.EPOLL_CTL_ADD, registration.fd, events,
+				registration.id);
+			return registration;
+		} catch (IOException | RuntimeException e) {
+			registrations.remove(registration.id);
+			throw e;
+		}
+	}
+
+	private void dispatch(long id, int events) {
+		if (id == WAKE_ID) {
+			readCounter(wakeFd);
+			runTasks();
+			return;
+		}
+		var registration = registrations.get(id);
+		if (registration == null) return; // removed after the event was returned
+		try {
+			registration.callback.ready(events);
+		} catch (RuntimeInterruptedException e) {
+			throw e;
+		} catch (IOException | RuntimeException e) {
+			caught();
+			logger.catching(e);
+		}
+	}
+
+	private void runTasks() {
+		for (var task = tasks.poll(); task != null; task = tasks.poll()) {
+			try {
+				task.run();
+			} catch (RuntimeInterruptedException e) {
+				throw e;
+			} catch (IOException | RuntimeException e) {
+				caught();
+				logger.catching(e);
+			}
+		}
+	}
+
+	private long readCounter(int fd) {
+		try {
+			int n = CUnistd.read(fd, counter, Long.BYTES);
+			return n == Long.BYTES ? counter.getLong(0) : 0L;
+		} catch (IOException e) {
+			logger.catching(e);
+			return 0L;
+		}
+	}
+
+	private static int mask(Trigger trigger, Poll.Event... events) {
+		int mask = trigger.value;
+		for (var event : events)
+			mask |= event.value;
+		return mask;
+	}
+}
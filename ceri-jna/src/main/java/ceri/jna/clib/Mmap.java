@@ -13,7 +13,12 @@ import ceri.common.reflect.Reflect;
 import ceri.common.util.Validate;
 import ceri.jna.clib.jna.CMman;
 import ceri.jna.clib.jna.CUnistd;
+import ceri.jna.util.JnaMemory;
 
+/**
+ * A memory mapping of a file or anonymous region. Windows of the mapped region are accessed as
+ * JnaMemory byte accessors without copying, with long offsets for mappings beyond int range.
+ */
 public class Mmap implements Excepts.Closeable<IOException> {
 	private final Pointer address;
 	public final long length;
@@ -56,6 +61,23 @@ public class Mmap implements Excepts.Closeable<IOException> {
 		}
 	}
 
+	/**
+	 * Hints for the expected use of mapped pages.
+	 */
+	public enum Advice {
+		NORMAL(CMman.MADV_NORMAL),
+		RANDOM(CMman.MADV_RANDOM),
+		SEQUENTIAL(CMman.MADV_SEQUENTIAL),
+		WILL_NEED(CMman.MADV_WILLNEED),
+		DONT_NEED(CMman.MADV_DONTNEED);
+
+		public final int value;
+
+		private Advice(int value) {
+			this.value = value;
+		}
+	}
+
 	public static class Builder {
 		final Visibility visibility;
 		final FileDescriptor fd;
@@ -133,11 +155,49 @@ public class Mmap implements Excepts.Closeable<IOException> {
 		return address.share(offset);
 	}
 
+	/**
+	 * Provides byte access to the mapped region, which must be within int range.
+	 */
+	public JnaMemory memory() {
+		return memory(0, Math.toIntExact(length));
+	}
+
+	/**
+	 * Provides byte access to a window of the mapped region, without copying.
+	 */
+	public JnaMemory memory(long offset, int length) {
+		validateWindow(offset, length);
+		return JnaMemory.of(address, offset, length);
+	}
+
+	/**
+	 * Advises the kernel on the expected use of the mapped region.
+	 */
+	public void advise(Advice advice) throws IOException {
+		CMman.madvise(address, length, advice.value);
+	}
+
+	/**
+	 * Advises the kernel on the expected use of a window of the mapped region. The window is
+	 * extended to page boundaries.
+	 */
+	public void advise(Advice advice, long offset, long length) throws IOException {
+		validateWindow(offset, length);
+		long pageSize = CUnistd.getpagesize();
+		long start = offset - (offset % pageSize);
+		CMman.madvise(address.share(start), offset + length - start, advice.value);
+	}
+
 	@Override
 	public void close() throws IOException {
 		CMman.munmap(address, length);
 	}
 
+	private void validateWindow(long offset, long length) {
+		Validate.range(offset, 0, this.length);
+		Validate.range(length, 0, this.length - offset);
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s@%x+%x", Reflect.name(getClass()), Pointer.nativeValue(address),
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import com.sun.jna.Pointer;
 import ceri.common.data.Xcoder;
 import ceri.common.math.Maths;
 import ceri.common.stream.Streams;
@@ -11,12 +12,13 @@ import ceri.common.time.TimeSpec;
 import ceri.common.util.Os;
 import ceri.jna.clib.jna.CPoll;
 import ceri.jna.clib.jna.CTime;
+import ceri.jna.util.GcMemory;
 
 /**
  * Encapsulates poll fds and events for polling calls.
  */
 public class Poll implements Iterable<Poll.Fd> {
-	private final CPoll.pollfd[] pollfds;
+	private final CPoll.pollfd.View view; // over a contiguous pollfd array
 	private final List<Fd> fds;
 
 	/**
@@ -74,7 +76,7 @@ public class Poll implements Iterable<Poll.Fd> {
 		 * Sets the file descriptor.
 		 */
 		public Fd fd(int fd) {
-			pollfd().fd = fd;
+			pollfd().fd(fd);
 			return this;
 		}
 
@@ -82,8 +84,9 @@ public class Poll implements Iterable<Poll.Fd> {
 		 * Sets request events.
 		 */
 		public Fd request(Event... events) {
+			var pollfd = pollfd();
 			for (var event : events)
-				pollfd().events |= event.value;
+				pollfd.events(pollfd.events() | event.value);
 			return this;
 		}
 
@@ -135,11 +138,11 @@ public class Poll implements Iterable<Poll.Fd> {
 		 * Returns the raw response value, including events and errors.
 		 */
 		public int revents() {
-			return Maths.ushort(pollfd().revents);
+			return Maths.ushort(pollfd().revents());
 		}
 
-		private CPoll.pollfd pollfd() {
-			return pollfds[index];
+		private CPoll.pollfd.View pollfd() {
+			return view.index(index);
 		}
 	}
 
@@ -147,7 +150,8 @@ public class Poll implements Iterable<Poll.Fd> {
 	 * Creates an array of poll fds.
 	 */
 	public static Poll of(int count) {
-		return new Poll(CPoll.pollfd.array(count));
+		var memory = GcMemory.malloc(Math.toIntExact(CPoll.pollfd.View.LAYOUT.size(count)));
+		return new Poll(memory.clear().m, count);
 	}
 
 	/**
@@ -159,9 +163,9 @@ public class Poll implements Iterable<Poll.Fd> {
 		return poll;
 	}
 
-	private Poll(CPoll.pollfd[] pollfds) {
-		this.pollfds = pollfds;
-		fds = Streams.slice(0, pollfds.length).mapToObj(Fd::new).toList();
+	private Poll(Pointer memory, int count) {
+		view = new CPoll.pollfd.View(memory);
+		fds = Streams.slice(0, count).mapToObj(Fd::new).toList();
 	}
 
 	/**
@@ -175,7 +179,7 @@ public class Poll implements Iterable<Poll.Fd> {
 	 * Poll with timeout.
 	 */
 	public int poll(Integer timeoutMs) throws IOException {
-		return CPoll.poll(pollfds, timeoutMs == null ? -1 : timeoutMs);
+		return CPoll.poll(view, size(), timeoutMs == null ? -1 : timeoutMs);
 	}
 
 	/**
@@ -191,7 +195,8 @@ public class Poll implements Iterable<Poll.Fd> {
 	public int poll(TimeSpec timeout, SigSet sigset) throws IOException {
 		var os = Os.info();
 		if (!os.linux) throw new UnsupportedOperationException("Linux only: " + os);
-		return CPoll.Linux.ppoll(pollfds, CTime.timespec.of(timeout), SigSet.struct(sigset));
+		return CPoll.Linux.ppoll(view, size(), CTime.timespec.of(timeout),
+			SigSet.struct(sigset));
 	}
 
 	/**
@@ -0,0 +1,193 @@
+package ceri.jna.clib.jna;
+
+import static ceri.jna.clib.jna.CLib.caller;
+import static ceri.jna.clib.jna.CLib.lib;
+import java.util.regex.Pattern;
+import com.sun.jna.Pointer;
+import ceri.common.util.Os;
+import ceri.jna.clib.jna.CTime.itimerspec;
+import ceri.jna.reflect.CAnnotations.CInclude;
+import ceri.jna.reflect.CAnnotations.CType;
+import ceri.jna.type.Struct;
+import ceri.jna.type.Struct.Fields;
+import ceri.jna.type.StructView;
+import ceri.jna.util.JnaOs;
+
+/**
+ * Types and functions from {@code <sys/epoll.h>}, {@code <sys/eventfd.h>} and
+ * {@code <sys/timerfd.h>}. Linux only.
+ */
+@CType(os = JnaOs.linux)
+@CInclude(os = JnaOs.linux, value = { "sys/epoll.h", "sys/eventfd.h", "sys/timerfd.h" })
+public class CEpoll {
+	private static final Pattern X86_ARCH_REGEX = Pattern.compile("^(?:x86|amd64|i[3-6]86)");
+
+	/* <sys/epoll.h> */
+
+	/** The associated file is available for read operations. */
+	public static final int EPOLLIN = 0x001;
+	/** There is an exceptional condition on the file descriptor. */
+	public static final int EPOLLPRI = 0x002;
+	/** The associated file is available for write operations. */
+	public static final int EPOLLOUT = 0x004;
+	/** Error condition; always reported. */
+	public static final int EPOLLERR = 0x008;
+	/** Hang up; always reported. */
+	public static final int EPOLLHUP = 0x010;
+	/** Peer closed connection, or shut down writing half of connection. */
+	public static final int EPOLLRDHUP = 0x2000;
+	/** Disables the fd after one event, until re-armed with EPOLL_CTL_MOD. */
+	public static final int EPOLLONESHOT = 1 << 30;
+	/** Edge-triggered notification; the default is level-triggered. */
+	public static final int EPOLLET = 1 << 31;
+	/** Sets close-on-exec on the new epoll fd. */
+	public static final int EPOLL_CLOEXEC = 0x80000;
+	/** Adds an fd to the interest list. */
+	public static final int EPOLL_CTL_ADD = 1;
+	/** Removes an fd from the interest list. */
+	public static final int EPOLL_CTL_DEL = 2;
+	/** Changes the events and data of an fd in the interest list. */
+	public static final int EPOLL_CTL_MOD = 3;
+
+	/* <sys/eventfd.h> */
+
+	/** Reads decrement the counter by 1, rather than resetting it to 0. */
+	public static final int EFD_SEMAPHORE = 0x1;
+	/** Sets close-on-exec on the new eventfd. */
+	public static final int EFD_CLOEXEC = 0x80000;
+	/** Sets non-blocking mode on the new eventfd. */
+	public static final int EFD_NONBLOCK = 0x800;
+
+	/* <sys/timerfd.h> */
+
+	/** The timer value is an absolute time on the timer clock. */
+	public static final int TFD_TIMER_ABSTIME = 0x1;
+	/** Sets close-on-exec on the new timerfd. */
+	public static final int TFD_CLOEXEC = 0x80000;
+	/** Sets non-blocking mode on the new timerfd. */
+	public static final int TFD_NONBLOCK = 0x800;
+
+	private CEpoll() {}
+
+	/**
+	 * Event mask and user data for an fd. The user data is a union of pointer, fd, 32-bit and
+	 * 64-bit values; the 64-bit value is used here. The struct is packed on x86, and naturally
+	 * aligned on other architectures.
+	 */
+	@Fields({ "events", "data" })
+	public static class epoll_event extends Struct {
+		private static final Align ALIGN =
+			X86_ARCH_REGEX.matcher(Os.info().arch).find() ? Align.none : Align.platform;
+		public int events; // uint32_t
+		public long data; // epoll_data_t
+
+		public epoll_event() {
+			this(null);
+		}
+
+		public epoll_event(Pointer p) {
+			super(p, ALIGN);
+		}
+
+		/**
+		 * Flyweight view of epoll_event memory, for receiving events without struct marshalling.
+		 */
+		public static class View extends StructView<View> {
+			public static final StructView.Layout LAYOUT = StructView.Layout.of(epoll_event::new);
+			private static final int EVENTS = LAYOUT.offset("events");
+			private static final int DATA = LAYOUT.offset("data");
+
+			public View(Pointer p) {
+				super(LAYOUT, p);
+			}
+
+			public int events() {
+				return getInt(EVENTS);
+			}
+
+			public View events(int events) {
+				return setInt(EVENTS, events);
+			}
+
+			public long data() {
+				return getLong(DATA);
+			}
+
+			public View data(long data) {
+				return setLong(DATA, data);
+			}
+		}
+	}
+
+	/* <sys/epoll.h> */
+
+	/**
+	 * Creates an epoll instance, and returns its fd. Flags may be 0 or EPOLL_CLOEXEC.
+	 */
+	public static int epoll_create1(int flags) throws CException {
+		return caller.verifyInt(() -> lib().epoll_create1(flags), "epoll_create1", flags);
+	}
+
+	/**
+	 * Adds, modifies or removes an fd in the interest list of the epoll fd. The data value is
+	 * returned with each ready event for the fd. Events and data are ignored for EPOLL_CTL_DEL.
+	 */
+	public static void epoll_ctl(int epfd, int op, int fd, int events, long data)
+		throws CException {
+		var event = new epoll_event();
+		event.events = events;
+		event.data = data;
+		var p = Struct.pointer(Struct.write(event));
+		caller.verify(() -> lib().epoll_ctl(epfd, op, fd, p), "epoll_ctl", epfd, op, fd, events,
+			data);
+	}
+
+	/**
+	 * Waits for events on the epoll fd, filling a contiguous epoll_event array in memory, without
+	 * struct marshalling. The view is left at the first element. Timeout is in milliseconds; a
+	 * timeout of -1 blocks until an event occurs. Returns the number of ready fds, or 0 if
+	 * interrupted by a signal.
+	 */
+	public static int epoll_wait(int epfd, epoll_event.View events, int maxEvents, int timeoutMs)
+		throws CException {
+		var p = events.index(0).pointer();
+		try {
+			return caller.verifyInt(() -> lib().epoll_wait(epfd, p, maxEvents, timeoutMs),
+				"epoll_wait", epfd, p, maxEvents, timeoutMs);
+		} catch (CException e) {
+			if (e.code == CErrNo.EINTR) return 0;
+			throw e;
+		}
+	}
+
+	/* <sys/eventfd.h> */
+
+	/**
+	 * Creates an eventfd object with initial counter value, and returns its fd. Reading the fd
+	 * provides the 8-byte counter value, and writing an 8-byte value adds to the counter.
+	 */
+	public static int eventfd(int initval, int flags) throws CException {
+		return caller.verifyInt(() -> lib().eventfd(initval, flags), "eventfd", initval, flags);
+	}
+
+	/* <sys/timerfd.h> */
+
+	/**
+	 * Creates a timer on the clock, and returns its fd. Reading the fd provides the 8-byte count
+	 * of expirations since the last read.
+	 */
+	public static int timerfd_create(int clockid, int flags) throws CException {
+		return caller.verifyInt(() -> lib().timerfd_create(clockid, flags), "timerfd_create",
+			clockid, flags);
+	}
+
+	/**
+	 * Arms or disarms the timer. A zero initial expiration disarms the timer; a zero interval
+	 * expires only once.
+	 */
+	public static void timerfd_settime(int fd, int flags, itimerspec value) throws CException {
+		var p = Struct.pointer(Struct.write(value));
+		caller.verify(() -> lib().timerfd_settime(fd, flags, p, null), "timerfd_settime", fd,
+			flags, value);
+	}
+}
@@ -85,6 +85,33 @@ public class CLib {
 		// const sigset_t * sigmask);
 		int ppoll(Pointer fds, int nfds, Pointer tmo_p, Pointer sigmask);
 
+		/* <sys/epoll.h> */
+
+		// int epoll_create1(int flags)
+		int epoll_create1(int flags) throws LastErrorException;
+
+		// int epoll_ctl(int epfd, int op, int fd, struct epoll_event *event)
+		int epoll_ctl(int epfd, int op, int fd, Pointer event) throws LastErrorException;
+
+		// int epoll_wait(int epfd, struct epoll_event *events, int maxevents, int timeout)
+		int epoll_wait(int epfd, Pointer events, int maxevents, int timeout)
+			throws LastErrorException;
+
+		/* <sys/eventfd.h> */
+
+		// int eventfd(unsigned int initval, int flags)
+		int eventfd(int initval, int flags) throws LastErrorException;
+
+		/* <sys/timerfd.h> */
+
+		// int timerfd_create(int clockid, int flags)
+		int timerfd_create(int clockid, int flags) throws LastErrorException;
+
+		// int timerfd_settime(int fd, int flags, const struct itimerspec *new_value,
+		// struct itimerspec *old_value)
+		int timerfd_settime(int fd, int flags, Pointer new_value, Pointer old_value)
+			throws LastErrorException;
+
 		/* <fcntl.h> */
 
 		// int open(const char *pathname, int flags, ...)
@@ -142,6 +169,9 @@ public class CLib {
 		// int munmap (void *addr, size_t len)
 		int munmap(Pointer addr, size_t len) throws LastErrorException;
 
+		// int madvise(void *addr, size_t len, int advice)
+		int madvise(Pointer addr, size_t len, int advice) throws LastErrorException;
+
 		/* <stdlib.h> */
 
 		// int setenv(const char *name, const char *value, int overwrite)
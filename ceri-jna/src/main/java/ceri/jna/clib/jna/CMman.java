@@ -31,6 +31,16 @@ public class CMman {
 	public static final int MAP_ANONYMOUS;
 	/** Do not reserve swap space for this mapping. */
 	public static final int MAP_NORESERVE;
+	/** No special treatment of the address range. */
+	public static final int MADV_NORMAL = 0;
+	/** Expect page references in random order; read-ahead is reduced. */
+	public static final int MADV_RANDOM = 1;
+	/** Expect page references in sequential order; read-ahead is increased. */
+	public static final int MADV_SEQUENTIAL = 2;
+	/** Expect access in the near future; pages may be read ahead. */
+	public static final int MADV_WILLNEED = 3;
+	/** Do not expect access in the near future; pages may be freed. */
+	public static final int MADV_DONTNEED = 4;
 
 	private CMman() {}
 
@@ -51,6 +61,15 @@ public class CMman {
 		caller.verify(() -> lib().munmap(addr, new size_t(len)), "munmap", addr, len);
 	}
 
+	/**
+	 * Advises the kernel about the expected use of the address range, so that it can choose
+	 * appropriate read-ahead and caching. The address must be page-aligned.
+	 */
+	public static void madvise(Pointer addr, long len, int advice) throws CException {
+		caller.verify(() -> lib().madvise(addr, new size_t(len), advice), "madvise", addr, len,
+			advice);
+	}
+
 	/* os-specific initialization */
 
 	static {
@@ -8,6 +8,7 @@ import ceri.jna.clib.jna.CTime.timespec;
 import ceri.jna.reflect.CAnnotations.CInclude;
 import ceri.jna.type.Struct;
 import ceri.jna.type.Struct.Fields;
+import ceri.jna.type.StructView;
 
 /**
  * Types and functions from {@code <poll.h>}
@@ -47,6 +48,44 @@ public class CPoll {
 		public pollfd(Pointer p) {
 			super(p);
 		}
+
+		/**
+		 * Flyweight view of pollfd memory, for polling without struct marshalling.
+		 */
+		public static class View extends StructView<View> {
+			public static final StructView.Layout LAYOUT = StructView.Layout.of(pollfd::new);
+			private static final int FD = LAYOUT.offset("fd");
+			private static final int EVENTS = LAYOUT.offset("events");
+			private static final int REVENTS = LAYOUT.offset("revents");
+
+			public View(Pointer p) {
+				super(LAYOUT, p);
+			}
+
+			public int fd() {
+				return getInt(FD);
+			}
+
+			public View fd(int fd) {
+				return setInt(FD, fd);
+			}
+
+			public short events() {
+				return getShort(EVENTS);
+			}
+
+			public View events(int events) {
+				return setShort(EVENTS, events);
+			}
+
+			public short revents() {
+				return getShort(REVENTS);
+			}
+
+			public View revents(int revents) {
+				return setShort(REVENTS, revents);
+			}
+		}
 	}
 
 	/**
@@ -62,6 +101,17 @@ public class CPoll {
 		return n;
 	}
 
+	/**
+	 * Examines a contiguous pollfd array in memory, without struct marshalling. The view is used
+	 * to clear revents before the call, and is left at the first element. Timeout is in
+	 * milliseconds; a timeout of -1 blocks until an event occurs. Returns the number of descriptors
+	 * with returned events.
+	 */
+	public static int poll(pollfd.View fds, int nfds, int timeoutMs) throws CException {
+		var p = initFds(fds, nfds);
+		return caller.verifyInt(() -> lib().poll(p, nfds, timeoutMs), "poll", p, nfds, timeoutMs);
+	}
+
 	/**
 	 * Types and calls specific to Linux.
 	 */
@@ -84,6 +134,20 @@ public class CPoll {
 			if (n > 0) Struct.read(fds, "revents");
 			return n;
 		}
+
+		/**
+		 * Examines a contiguous pollfd array in memory, without struct marshalling. The view is
+		 * used to clear revents before the call, and is left at the first element. A null timeout
+		 * blocks until an event occurs. Returns the number of descriptors with returned events.
+		 */
+		public static int ppoll(pollfd.View fds, int nfds, timespec tmo, sigset_t sigmask)
+			throws CException {
+			var p = initFds(fds, nfds);
+			Struct.write(tmo);
+			return caller.verifyInt(
+				() -> lib().ppoll(p, nfds, Struct.pointer(tmo), Struct.pointer(sigmask)), "poll", p,
+				nfds, tmo, sigmask);
+		}
 	}
 
 	private static Pointer initFds(pollfd[] fds) throws CException {
@@ -92,4 +156,10 @@ public class CPoll {
 			fd.revents = 0;
 		return Struct.pointer(Struct.write(fds));
 	}
+
+	private static Pointer initFds(pollfd.View fds, int nfds) {
+		for (int i = 0; i < nfds; i++)
+			fds.index(i).revents(0);
+		return fds.index(0).pointer();
+	}
 }
@@ -2,6 +2,7 @@ package ceri.jna.clib.jna;
 
 import com.sun.jna.Pointer;
 import ceri.common.time.TimeSpec;
+import ceri.common.util.Os;
 import ceri.jna.reflect.CAnnotations.CInclude;
 import ceri.jna.type.CLong;
 import ceri.jna.type.Struct;
@@ -12,6 +13,10 @@ import ceri.jna.type.Struct.Fields;
  */
 @CInclude({ "sys/time.h", "time.h" })
 public class CTime {
+	/** System-wide clock of wall-clock time; may jump if the system time is changed. */
+	public static final int CLOCK_REALTIME = 0;
+	/** Clock that cannot be set, and represents time since an unspecified starting point. */
+	public static final int CLOCK_MONOTONIC;
 
 	private CTime() {}
 
@@ -89,4 +94,36 @@ public class CTime {
 		}
 	}
 
+	/**
+	 * A timer setting of initial expiration and repeat interval. A zero value disarms the timer,
+	 * and a zero interval expires only once.
+	 */
+	@Fields({ "it_interval", "it_value" })
+	public static class itimerspec extends Struct {
+		public timespec it_interval = new timespec(); // interval for periodic timer
+		public timespec it_value = new timespec(); // initial expiration
+
+		public static itimerspec of(TimeSpec value, TimeSpec interval) {
+			var t = new itimerspec();
+			t.it_value.time(value);
+			t.it_interval.time(interval);
+			return t;
+		}
+
+		public itimerspec() {}
+
+		public itimerspec(Pointer p) {
+			super(p);
+		}
+	}
+
+	/* os-specific initialization */
+
+	static {
+		if (Os.info().mac) {
+			CLOCK_MONOTONIC = 6;
+		} else {
+			CLOCK_MONOTONIC = 1;
+		}
+	}
 }
@@ -20,6 +20,8 @@ import ceri.common.test.Assert;
 import ceri.common.test.CallSync;
 import ceri.common.test.Testing;
 import ceri.common.text.Strings;
+import ceri.common.time.TimeSpec;
+import ceri.jna.clib.jna.CEpoll;
 import ceri.jna.clib.jna.CErrNo;
 import ceri.jna.clib.jna.CFcntl;
 import ceri.jna.clib.jna.CLib;
@@ -56,11 +58,16 @@ public class TestCLibNative implements CLib.Native {
 	public final CallSync.Function<Integer, Integer> sigset = CallSync.function(null, 0);
 	public final CallSync.Function<Integer, Integer> raise = CallSync.function(null, 0);
 	public final CallSync.Function<PollArgs, Integer> poll = CallSync.function(null, 0);
+	public final CallSync.Function<EpollCtlArgs, Integer> epollCtl = CallSync.function(null, 0);
+	public final CallSync.Function<EpollWaitArgs, Integer> epollWait =
+		CallSync.function(null, 0);
+	public final CallSync.Function<TimerArgs, Integer> timer = CallSync.function(null, 0);
 	public final CallSync.Function<CtlArgs, Integer> ioctl = CallSync.function(null, 0);
 	public final CallSync.Function<CtlArgs, Integer> fcntl = CallSync.function(null, 0);
 	public final CallSync.Function<TcArgs, Integer> tc = CallSync.function(null, 0);
 	public final CallSync.Function<CfArgs, Integer> cf = CallSync.function(null, 0);
 	public final CallSync.Function<MmapArgs, Presult> mmap = CallSync.function(null, Presult.OK);
+	public final CallSync.Function<MadviseArgs, Integer> madvise = CallSync.function(null, 0);
 	private volatile int lastFd = -1;
 
 	/**
@@ -156,6 +163,36 @@ public class TestCLibNative implements CLib.Native {
 		}
 	}
 
+	/**
+	 * Arguments for epoll_ctl calls.
+	 */
+	public record EpollCtlArgs(int epfd, int op, int fd, int events, long data) {}
+
+	/**
+	 * Arguments for epoll_wait calls. The view is positioned over the events array.
+	 */
+	public record EpollWaitArgs(int epfd, CEpoll.epoll_event.View events, int maxEvents,
+		int timeoutMs) {
+		/**
+		 * Writes an event to the events array at index.
+		 */
+		public EpollWaitArgs event(int i, int events, long data) {
+			events().index(i).events(events).data(data);
+			return this;
+		}
+
+		@Override
+		public final String toString() {
+			return String.format("%d,%s,%d,%d", epfd(), events().pointer(), maxEvents(),
+				timeoutMs());
+		}
+	}
+
+	/**
+	 * Arguments for timerfd_settime calls.
+	 */
+	public record TimerArgs(int fd, int flags, TimeSpec value, TimeSpec interval) {}
+
 	/**
 	 * Arguments for ioctl and fcntl calls.
 	 */
@@ -223,6 +260,11 @@ public class TestCLibNative implements CLib.Native {
 	 */
 	public record MmapArgs(Pointer addr, long len, int prot, int flags, int fd, int offset) {}
 
+	/**
+	 * Parameters for madvise.
+	 */
+	public record MadviseArgs(Pointer addr, long len, int advice) {}
+
 	/**
 	 * A wrapper for repeatedly overriding the library in tests.
 	 */
@@ -283,8 +325,8 @@ public class TestCLibNative implements CLib.Native {
 		fds.clear();
 		fdContext.clear();
 		env.clear();
-		CallSync.resetAll(cf, close, fcntl, ioctl, isatty, lseek, pagesize, mmap, open, pipe, poll,
-			raise, read, signal, sigset, tc, write);
+		CallSync.resetAll(cf, close, epollCtl, epollWait, fcntl, ioctl, isatty, lseek, pagesize,
+			mmap, madvise, open, pipe, poll, raise, read, signal, sigset, tc, timer, write);
 		fds.add(CUnistd.STDIN_FILENO);
 		fds.add(CUnistd.STDOUT_FILENO);
 		fds.add(CUnistd.STDERR_FILENO);
@@ -405,6 +447,40 @@ public class TestCLibNative implements CLib.Native {
 		return Bytes.bits(sigmask.getInt(0));
 	}
 
+	@Override
+	public int epoll_create1(int flags) {
+		return createFd(new OpenArgs("epoll", flags, 0));
+	}
+
+	@Override
+	public int epoll_ctl(int epfd, int op, int fd, Pointer event) {
+		var e = Struct.read(new CEpoll.epoll_event(event));
+		return epollCtl.apply(new EpollCtlArgs(fd(epfd), op, fd(fd), e.events, e.data));
+	}
+
+	@Override
+	public int epoll_wait(int epfd, Pointer events, int maxevents, int timeout) {
+		var view = new CEpoll.epoll_event.View(events);
+		return epollWait.apply(new EpollWaitArgs(fd(epfd), view, maxevents, timeout));
+	}
+
+	@Override
+	public int eventfd(int initval, int flags) {
+		return createFd(new OpenArgs("eventfd", flags, initval));
+	}
+
+	@Override
+	public int timerfd_create(int clockid, int flags) {
+		return createFd(new OpenArgs("timerfd", flags, clockid));
+	}
+
+	@Override
+	public int timerfd_settime(int fd, int flags, Pointer new_value, Pointer old_value) {
+		var t = Struct.read(new CTime.itimerspec(new_value));
+		return timer.apply(
+			new TimerArgs(fd(fd), flags, t.it_value.time(), t.it_interval.time()));
+	}
+
 	@Override
 	public int ioctl(int fd, CUlong request, Object... objs) {
 		return ioctl.apply(CtlArgs.of(fd(fd), request.intValue(), objs));
@@ -483,6 +559,11 @@ public class TestCLibNative implements CLib.Native {
 		return mmap.apply(new MmapArgs(addr, len.longValue(), 0, 0, 0, 0)).result();
 	}
 
+	@Override
+	public int madvise(Pointer addr, CUnistd.size_t len, int advice) {
+		return madvise.apply(new MadviseArgs(addr, len.longValue(), advice));
+	}
+
 	@Override
 	public int setenv(String name, String value, int overwrite) {
 		if (overwrite != 0) env.put(name, value);
@@ -3,15 +3,18 @@ package ceri.jna.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import com.sun.jna.Memory;
+import ceri.common.io.CoalescingOutputStream;
 import ceri.common.io.IoExceptions;
 import ceri.common.util.Validate;
 import ceri.jna.util.Jna;
 import ceri.jna.util.ThreadBuffers;
 
 /**
- * Base OutputStream using thread buffers.
+ * Base OutputStream using thread buffers. Supports gathering writes for CoalescingOutputStream, by
+ * copying buffered bytes and the next array slice into one native buffer.
  */
-public abstract class JnaOutputStream extends OutputStream {
+public abstract class JnaOutputStream extends OutputStream
+	implements CoalescingOutputStream.Gathering {
 	private final ThreadBuffers buffers = ThreadBuffers.of();
 	private volatile boolean closed = false;
 
@@ -40,6 +43,27 @@ public abstract class JnaOutputStream extends OutputStream {
 		verifyWrite(writeAll(buffers.get(), b, off, len), len);
 	}
 
+	/**
+	 * Writes the buffered bytes and array slice in a single native write if they fit in the thread
+	 * buffer, otherwise in consecutive writes.
+	 */
+	@SuppressWarnings("resource")
+	@Override
+	public void write(byte[] buffer, int count, byte[] b, int off, int len) throws IOException {
+		Validate.slice(buffer.length, 0, count);
+		Validate.slice(b.length, off, len);
+		ensureOpen();
+		var m = buffers.get();
+		if (count + len > Jna.intSize(m)) {
+			verifyWrite(writeAll(m, buffer, 0, count), count);
+			verifyWrite(writeAll(m, b, off, len), len);
+		} else {
+			Jna.write(m, buffer, 0, count);
+			Jna.write(m, count, b, off, len);
+			verifyWrite(writeBlock(m, count + len), count + len);
+		}
+	}
+
 	@Override
 	public void flush() throws IOException {
 		ensureOpen();
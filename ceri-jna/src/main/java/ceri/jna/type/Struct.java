@@ -373,6 +373,16 @@ public abstract class Struct extends Structure {
 		return b.append("}").toString();
 	}
 
+	/**
+	 * Returns the field offsets of the struct, by field name.
+	 */
+	static Map<String, Integer> offsets(Struct struct) {
+		var offsets = Maps.<String, Integer>link();
+		for (var name : struct.getFieldOrder())
+			offsets.put(name, struct.fieldOffset(name));
+		return Immutable.wrap(offsets);
+	}
+
 	/**
 	 * Constructor for a new struct without initialization.
 	 */
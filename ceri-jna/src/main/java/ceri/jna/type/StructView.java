@@ -0,0 +1,258 @@
+package ceri.jna.type;
+
+import java.util.Map;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Functions;
+import ceri.common.reflect.Reflect;
+import ceri.common.text.ToString;
+
+/**
+ * A flyweight view of struct memory, as an alternative to Structure marshalling in hot paths.
+ * Views hold a pointer and element index, and access fields at fixed offsets without reflection
+ * or per-field copies. A view can be re-pointed to other memory, or moved across the elements of a
+ * contiguous struct array, without allocation. Offsets and size are taken once from the struct
+ * class layout, so views stay consistent with the struct's {@code @Fields} and alignment. Not
+ * thread-safe.
+ *
+ * <pre>
+ * public static class View extends StructView&lt;View&gt; {
+ * 	private static final Layout LAYOUT = Layout.of(MyStruct::new);
+ * 	private static final int COUNT = LAYOUT.offset("count");
+ *
+ * 	public View(Pointer p) {
+ * 		super(LAYOUT, p);
+ * 	}
+ *
+ * 	public int count() {
+ * 		return getInt(COUNT);
+ * 	}
+ *
+ * 	public View count(int count) {
+ * 		return setInt(COUNT, count);
+ * 	}
+ * }
+ * </pre>
+ */
+public abstract class StructView<V extends StructView<V>> {
+	private final Layout layout;
+	private Pointer pointer;
+	private long offset = 0L;
+	private int index = 0;
+
+	/**
+	 * Field offsets and size of a struct type.
+	 */
+	public static class Layout {
+		private final int size;
+		private final Map<String, Integer> offsets;
+
+		/**
+		 * Determines the layout from a struct created with a null pointer.
+		 */
+		public static Layout of(Functions.Function<Pointer, ? extends Struct> constructor) {
+			var struct = constructor.apply(null);
+			return new Layout(struct.size(), Struct.offsets(struct));
+		}
+
+		private Layout(int size, Map<String, Integer> offsets) {
+			this.size = size;
+			this.offsets = offsets;
+		}
+
+		/**
+		 * Returns the struct size in bytes.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Returns the offset of the named field.
+		 */
+		public int offset(String name) {
+			var offset = offsets.get(name);
+			if (offset != null) return offset;
+			throw Exceptions.illegalArg("Field not found: %s", name);
+		}
+
+		/**
+		 * Returns the size in bytes of a contiguous array.
+		 */
+		public long size(int count) {
+			return (long) size * count;
+		}
+
+		@Override
+		public String toString() {
+			return ToString.forClass(this, size, offsets);
+		}
+	}
+
+	protected StructView(Layout layout, Pointer pointer) {
+		this.layout = layout;
+		this.pointer = pointer;
+	}
+
+	/**
+	 * Returns the struct layout.
+	 */
+	public Layout layout() {
+		return layout;
+	}
+
+	/**
+	 * Re-points the view to the first element at the pointer.
+	 */
+	public V at(Pointer pointer) {
+		return at(pointer, 0);
+	}
+
+	/**
+	 * Re-points the view to the array element at the pointer.
+	 */
+	public V at(Pointer pointer, int index) {
+		this.pointer = pointer;
+		return index(index);
+	}
+
+	/**
+	 * Moves the view to the array element index.
+	 */
+	public V index(int index) {
+		this.index = index;
+		offset = layout.size(index);
+		return typedThis();
+	}
+
+	/**
+	 * Moves the view to the next array element.
+	 */
+	public V next() {
+		return index(index + 1);
+	}
+
+	/**
+	 * Returns the array element index.
+	 */
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * Returns the base pointer.
+	 */
+	public Pointer pointer() {
+		return pointer;
+	}
+
+	/**
+	 * Returns the byte offset of the current element from the base pointer.
+	 */
+	public long offset() {
+		return offset;
+	}
+
+	/**
+	 * Creates a struct for the current element, and reads its fields. Use when full struct
+	 * marshalling is needed outside the hot path.
+	 */
+	public <T extends Struct> T struct(Functions.Function<Pointer, T> constructor) {
+		return Struct.read(constructor.apply(pointer.share(offset, layout.size())));
+	}
+
+	/**
+	 * Zeroes the current element.
+	 */
+	public V clear() {
+		pointer.setMemory(offset, layout.size(), (byte) 0);
+		return typedThis();
+	}
+
+	@Override
+	public String toString() {
+		return ToString.forClass(this, Pointer.nativeValue(pointer), index, layout.size());
+	}
+
+	protected byte getByte(int field) {
+		return pointer.getByte(offset + field);
+	}
+
+	protected V setByte(int field, int value) {
+		pointer.setByte(offset + field, (byte) value);
+		return typedThis();
+	}
+
+	protected short getShort(int field) {
+		return pointer.getShort(offset + field);
+	}
+
+	protected V setShort(int field, int value) {
+		pointer.setShort(offset + field, (short) value);
+		return typedThis();
+	}
+
+	protected int getInt(int field) {
+		return pointer.getInt(offset + field);
+	}
+
+	protected V setInt(int field, int value) {
+		pointer.setInt(offset + field, value);
+		return typedThis();
+	}
+
+	protected long getLong(int field) {
+		return pointer.getLong(offset + field);
+	}
+
+	protected V setLong(int field, long value) {
+		pointer.setLong(offset + field, value);
+		return typedThis();
+	}
+
+	/**
+	 * Reads a C long field, without allocating a NativeLong.
+	 */
+	protected long getCLong(int field) {
+		if (CLong.SIZE == Long.BYTES) return getLong(field);
+		return getInt(field);
+	}
+
+	/**
+	 * Writes a C long field, without allocating a NativeLong.
+	 */
+	protected V setCLong(int field, long value) {
+		if (CLong.SIZE == Long.BYTES) return setLong(field, value);
+		return setInt(field, (int) value);
+	}
+
+	/**
+	 * Reads a pointer field as a peer address, without allocating a Pointer.
+	 */
+	protected long getPeer(int field) {
+		if (Native.POINTER_SIZE == Long.BYTES) return getLong(field);
+		return Integer.toUnsignedLong(getInt(field));
+	}
+
+	/**
+	 * Writes a pointer field from a peer address.
+	 */
+	protected V setPeer(int field, long peer) {
+		if (Native.POINTER_SIZE == Long.BYTES) return setLong(field, peer);
+		return setInt(field, (int) peer);
+	}
+
+	protected Pointer getPointer(int field) {
+		return pointer.getPointer(offset + field);
+	}
+
+	protected V setPointer(int field, Pointer value) {
+		pointer.setPointer(offset + field, value);
+		return typedThis();
+	}
+
+	private V typedThis() {
+		return Reflect.unchecked(this);
+	}
+}
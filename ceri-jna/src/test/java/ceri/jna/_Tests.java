@@ -14,6 +14,7 @@ import ceri.common.test.Testing;
 	ceri.jna.clib.CInputStreamBehavior.class, //
 	ceri.jna.clib.COutputStreamBehavior.class, //
 	ceri.jna.clib.ErrNoBehavior.class, //
+	ceri.jna.clib.EventLoopBehavior.class, //
 	ceri.jna.clib.FileDescriptorBehavior.class, //
 	ceri.jna.clib.MmapBehavior.class, //
 	ceri.jna.clib.ModeBehavior.class, //
@@ -24,6 +25,7 @@ import ceri.common.test.Testing;
 	ceri.jna.clib.SignalBehavior.class, //
 	ceri.jna.clib.TermiosBehavior.class, //
 	// clib.jna
+	ceri.jna.clib.jna.CEpollTest.class, //
 	ceri.jna.clib.jna.CErrNoBehavior.class, //
 	ceri.jna.clib.jna.CExceptionBehavior.class, //
 	ceri.jna.clib.jna.CFcntlTest.class, //
@@ -62,6 +64,7 @@ import ceri.common.test.Testing;
 	ceri.jna.type.JnaEnumTest.class, //
 	ceri.jna.type.StructBehavior.class, //
 	ceri.jna.type.StructFieldTest.class, //
+	ceri.jna.type.StructViewBehavior.class, //
 	ceri.jna.type.UnionBehavior.class, //
 	ceri.jna.type.UnionFieldBehavior.class, //
 	ceri.jna.type.VarStructBehavior.class, //
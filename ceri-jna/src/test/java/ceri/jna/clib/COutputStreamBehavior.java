@@ -45,6 +45,23 @@ public class COutputStreamBehavior {
 			WriteArgs.of(fd, 5)); // 1 byte written
 	}
 
+	@Test
+	public void shouldGatherBufferedBytesInOneWrite() throws IOException {
+		var lib = initOut();
+		lib.write.autoResponses(3);
+		out.write(Array.BYTE.of(1, 2), 1, Array.BYTE.of(0, 2, 3), 1, 2);
+		lib.write.assertAuto(WriteArgs.of(fd, 1, 2, 3));
+		Assert.equal(lib.write.calls(), 1);
+	}
+
+	@Test
+	public void shouldWriteSeparatelyIfGatheredBytesExceedBuffer() throws IOException {
+		var lib = initOut();
+		lib.write.autoResponses(2, 2);
+		out.write(Array.BYTE.of(1, 2), 2, Array.BYTE.of(3, 4), 0, 2);
+		lib.write.assertValues(WriteArgs.of(fd, 1, 2), WriteArgs.of(fd, 3, 4));
+	}
+
 	@Test
 	public void shouldFailForIncompleteWrite() {
 		var lib = initOut();
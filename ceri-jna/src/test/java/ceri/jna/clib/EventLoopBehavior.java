@@ -0,0 +1,173 @@
+package ceri.jna.clib;
+
+import static ceri.jna.clib.Poll.Event.POLLIN;
+import static ceri.jna.clib.Poll.Event.POLLOUT;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import ceri.common.array.Array;
+import ceri.common.test.Assert;
+import ceri.common.test.CallSync;
+import ceri.common.util.Os;
+import ceri.jna.util.JnaOs;
+import ceri.log.util.Logs;
+
+public class EventLoopBehavior {
+	private final CallSync.Consumer<Integer> sync = CallSync.consumer(null, false);
+	private EventLoop loop;
+	private Pipe pipe;
+	private Pipe pipe2;
+
+	@After
+	public void after() {
+		Logs.close(loop, pipe, pipe2);
+		loop = null;
+		pipe = null;
+		pipe2 = null;
+	}
+
+	@Test
+	public void shouldOnlySupportLinux() {
+		JnaOs.mac.accept(_ -> Assert.unsupportedOp(EventLoop::of));
+		Assert.thrown(() -> EventLoop.of(0));
+	}
+
+	@Test
+	public void shouldDispatchLevelTriggeredEvents() throws IOException {
+		init();
+		var reg = loop.register(pipe.read, _ -> sync.accept(pipe.in().read()), POLLIN);
+		Assert.equal(reg.fd(), pipe.read.apply(fd -> fd));
+		Assert.equal(loop.registrations(), 1);
+		write(pipe, 1, 2, 3);
+		sync.assertCall(1);
+		sync.assertCall(2);
+		sync.assertCall(3);
+	}
+
+	@Test
+	public void shouldDispatchEdgeTriggeredEvents() throws IOException {
+		init();
+		pipe.blocking(false);
+		loop.register(pipe.read, EventLoop.Trigger.EDGE, _ -> sync.accept(drain(pipe)), POLLIN);
+		write(pipe, 1, 2, 3);
+		sync.assertCall(3);
+		write(pipe, 4);
+		sync.assertCall(1);
+	}
+
+	@Test
+	public void shouldRearmOneShotRegistration() throws IOException {
+		init();
+		var reg = loop.register(pipe.read, EventLoop.Trigger.ONESHOT,
+			_ -> sync.accept(pipe.in().read()), POLLIN);
+		write(pipe, 1, 2);
+		sync.assertCall(1);
+		reg.events(POLLIN);
+		sync.assertCall(2);
+	}
+
+	@Test
+	public void shouldProvideEventMask() throws IOException {
+		init();
+		loop.register(pipe.write, EventLoop.Trigger.ONESHOT, sync::accept, POLLOUT);
+		sync.assertCall(POLLOUT.value);
+		loop.register(pipe.read, EventLoop.Trigger.ONESHOT, sync::accept, POLLIN);
+		pipe.write.close();
+		Assert.equal(sync.await() & Poll.Error.POLLHUP.value, Poll.Error.POLLHUP.value);
+	}
+
+	@Test
+	public void shouldRemoveRegistration() throws IOException {
+		init();
+		var reg = loop.register(pipe.read, _ -> sync.accept(-1), POLLIN);
+		reg.close();
+		reg.close();
+		Assert.equal(loop.registrations(), 0);
+		loop.register(pipe.read, _ -> sync.accept(pipe.in().read()), POLLIN);
+		write(pipe, 1);
+		sync.assertCall(1);
+	}
+
+	@Test
+	public void shouldShareLoopBetweenStreams() throws IOException {
+		init();
+		pipe2 = Pipe.of();
+		loop.register(pipe.read, _ -> sync.accept(pipe.in().read()), POLLIN);
+		loop.register(pipe2.read, _ -> sync.accept(pipe2.in().read() + 10), POLLIN);
+		write(pipe2, 1);
+		sync.assertCall(11);
+		write(pipe, 2);
+		sync.assertCall(2);
+	}
+
+	@Test
+	public void shouldExecuteTasksOnLoopThread() throws IOException {
+		init();
+		var thread = CallSync.<Thread>consumer(null, false);
+		loop.execute(() -> thread.accept(Thread.currentThread()));
+		Assert.notSame(thread.await(), Thread.currentThread());
+		loop.execute(() -> {
+			throw new IOException("generated");
+		});
+		loop.execute(() -> sync.accept(1));
+		sync.assertCall(1);
+		Assert.equal(loop.loopStats().exceptions(), 1L);
+	}
+
+	@Test
+	public void shouldContinueAfterCallbackErrors() throws IOException {
+		init();
+		var calls = new AtomicInteger();
+		loop.register(pipe.read, _ -> {
+			if (calls.getAndIncrement() == 0) throw new IOException("generated");
+			sync.accept(pipe.in().read());
+		}, POLLIN);
+		write(pipe, 1);
+		sync.assertCall(1);
+		Assert.equal(loop.loopStats().exceptions(), 1L);
+	}
+
+	@Test
+	public void shouldExpireTimers() throws IOException {
+		init();
+		var expirations = CallSync.<Long>consumer(null, false);
+		var timer = loop.timer(Duration.ofMillis(1), Duration.ZERO, expirations::accept);
+		expirations.assertCall(1L);
+		timer.set(Duration.ofMillis(1), Duration.ofMillis(1));
+		Assert.yes(expirations.await() >= 1L);
+		timer.cancel();
+		Assert.equal(loop.registrations(), 1);
+		timer.close();
+		Assert.equal(loop.registrations(), 0);
+	}
+
+	@Test
+	public void shouldRemoveTimerIfNotSet() throws IOException {
+		init();
+		int registrations = loop.registrations();
+		Assert.thrown(() -> loop.timer(Duration.ofSeconds(-1), Duration.ZERO, _ -> {}));
+		Assert.equal(loop.registrations(), registrations);
+	}
+
+	private void init() throws IOException {
+		Assume.assumeTrue("epoll requires Linux", Os.info().linux);
+		loop = EventLoop.of(4);
+		pipe = Pipe.of();
+	}
+
+	@SuppressWarnings("resource")
+	private static void write(Pipe pipe, int... bytes) throws IOException {
+		pipe.out().write(Array.BYTE.of(bytes));
+	}
+
+	@SuppressWarnings("resource")
+	private static int drain(Pipe pipe) throws IOException {
+		int n = 0;
+		while (pipe.in().read() >= 0)
+			n++;
+		return n;
+	}
+}
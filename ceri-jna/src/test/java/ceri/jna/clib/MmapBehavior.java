@@ -9,7 +9,9 @@ import ceri.common.test.Assert;
 import ceri.jna.clib.Mmap.Option;
 import ceri.jna.clib.Mmap.Protection;
 import ceri.jna.clib.Mmap.Visibility;
+import ceri.jna.clib.jna.CMman;
 import ceri.jna.clib.test.TestCLibNative;
+import ceri.jna.clib.test.TestCLibNative.MadviseArgs;
 import ceri.jna.clib.test.TestCLibNative.MmapArgs;
 import ceri.jna.clib.test.TestCLibNative.Presult;
 import ceri.jna.util.JnaLibrary;
@@ -64,6 +66,35 @@ public class MmapBehavior {
 		mmap.address(0);
 	}
 
+	@Test
+	public void shouldProvideByteAccessToWindows() throws IOException {
+		var lib = ref.init();
+		mem = new Memory(16);
+		lib.mmap.autoResponses(new Presult(mem, 0));
+		mmap = Mmap.anonymous(Visibility.SHARED, 16).map();
+		mmap.memory().fill(0, 16, 0);
+		mmap.memory(4, 8).setIntMsb(0, 0x01020304);
+		Assert.equal(mmap.memory().getIntMsb(4), 0x01020304);
+		Assert.equal(mmap.memory(4, 8).slice(2, 2).getShortMsb(0), (short) 0x0304);
+		Assert.equal(mmap.memory(16, 0).length(), 0);
+		Assert.thrown(() -> mmap.memory(8, 9));
+		Assert.thrown(() -> mmap.memory(-1, 1));
+	}
+
+	@Test
+	public void shouldAdviseKernel() throws IOException {
+		var lib = ref.init();
+		lib.pagesize.autoResponses(0x1000);
+		mem = new Memory(0x3000);
+		lib.mmap.autoResponses(new Presult(mem, 0));
+		mmap = Mmap.anonymous(Visibility.SHARED, 0x3000).map();
+		mmap.advise(Mmap.Advice.SEQUENTIAL);
+		lib.madvise.assertAuto(new MadviseArgs(mem, 0x3000L, CMman.MADV_SEQUENTIAL));
+		mmap.advise(Mmap.Advice.WILL_NEED, 0x1100, 0x100);
+		lib.madvise.assertAuto(new MadviseArgs(mem.share(0x1000), 0x200L, CMman.MADV_WILLNEED));
+		Assert.thrown(() -> mmap.advise(Mmap.Advice.RANDOM, 0x2000, 0x1001));
+	}
+
 	@Test
 	public void shouldProvideMemoryMap() throws IOException {
 		var lib = ref.init();
@@ -0,0 +1,125 @@
+package ceri.jna.clib.jna;
+
+import static ceri.jna.clib.jna.CEpoll.EPOLLET;
+import static ceri.jna.clib.jna.CEpoll.EPOLLIN;
+import static ceri.jna.clib.jna.CEpoll.EPOLLOUT;
+import static ceri.jna.clib.jna.CEpoll.EPOLL_CTL_ADD;
+import static ceri.jna.clib.jna.CEpoll.EPOLL_CTL_DEL;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import com.sun.jna.Memory;
+import ceri.common.function.Closeables;
+import ceri.common.test.Assert;
+import ceri.common.time.TimeSpec;
+import ceri.common.util.Os;
+import ceri.jna.clib.jna.CEpoll.epoll_event;
+import ceri.jna.clib.test.TestCLibNative;
+import ceri.jna.clib.test.TestCLibNative.EpollCtlArgs;
+import ceri.jna.clib.test.TestCLibNative.TimerArgs;
+import ceri.jna.test.JnaTesting;
+import ceri.jna.util.JnaLibrary;
+
+public class CEpollTest {
+	private final JnaLibrary.Ref<? extends TestCLibNative> ref = TestCLibNative.ref();
+
+	@After
+	public void after() {
+		Closeables.close(ref);
+	}
+
+	@Test
+	public void testConstructorIsPrivate() {
+		Assert.privateConstructor(CEpoll.class);
+	}
+
+	@Test
+	public void testFields() throws Exception {
+		JnaTesting.testForEachOs(CEpoll.class);
+	}
+
+	@Test
+	public void testEpollCtl() throws CException {
+		var lib = ref.init();
+		int epfd = CEpoll.epoll_create1(CEpoll.EPOLL_CLOEXEC);
+		CEpoll.epoll_ctl(epfd, EPOLL_CTL_ADD, 1, EPOLLIN | EPOLLET, 0x123456789L);
+		lib.epollCtl.assertAuto(new EpollCtlArgs(epfd, EPOLL_CTL_ADD, 1, EPOLLIN | EPOLLET,
+			0x123456789L));
+		lib.epollCtl.autoResponses(-1);
+		Assert.thrown(() -> CEpoll.epoll_ctl(epfd, EPOLL_CTL_DEL, 1, 0, 0));
+	}
+
+	@Test
+	public void testEpollWait() throws CException {
+		var lib = ref.init();
+		int epfd = CEpoll.epoll_create1(0);
+		var events = new epoll_event.View(new Memory(epoll_event.View.LAYOUT.size(2)));
+		lib.epollWait.autoResponse(args -> {
+			args.event(0, EPOLLIN, 3).event(1, EPOLLOUT, 4);
+			return 2;
+		});
+		Assert.equal(CEpoll.epoll_wait(epfd, events, 2, -1), 2);
+		Assert.equal(events.index(0).events(), EPOLLIN);
+		Assert.equal(events.data(), 3L);
+		Assert.equal(events.index(1).events(), EPOLLOUT);
+		Assert.equal(events.data(), 4L);
+		lib.epollWait.autoResponse(_ -> {
+			throw JnaTesting.lastError(CErrNo.EINTR);
+		});
+		Assert.equal(CEpoll.epoll_wait(epfd, events, 2, 0), 0);
+		lib.epollWait.autoResponse(_ -> {
+			throw JnaTesting.lastError(CErrNo.EBADF);
+		});
+		Assert.thrown(() -> CEpoll.epoll_wait(epfd, events, 2, 0));
+	}
+
+	@Test
+	public void testTimerfd() throws CException {
+		var lib = ref.init();
+		int fd = CEpoll.timerfd_create(CTime.CLOCK_MONOTONIC, CEpoll.TFD_NONBLOCK);
+		CEpoll.timerfd_settime(fd, 0,
+			CTime.itimerspec.of(TimeSpec.ofMillis(1, 500), TimeSpec.ofMillis(0, 20)));
+		lib.timer.assertAuto(
+			new TimerArgs(fd, 0, TimeSpec.ofMillis(1, 500), TimeSpec.ofMillis(0, 20)));
+	}
+
+	@Test
+	public void testEpollWithPipe() throws CException {
+		Assume.assumeTrue("epoll requires Linux", Os.info().linux);
+		int[] fds = CUnistd.pipe();
+		int epfd = CEpoll.epoll_create1(CEpoll.EPOLL_CLOEXEC);
+		try {
+			var events = new epoll_event.View(new Memory(epoll_event.View.LAYOUT.size(2)));
+			CEpoll.epoll_ctl(epfd, EPOLL_CTL_ADD, fds[0], EPOLLIN, 0x1234567890abL);
+			Assert.equal(CEpoll.epoll_wait(epfd, events, 2, 0), 0);
+			CUnistd.write(fds[1], 1, 2, 3);
+			Assert.equal(CEpoll.epoll_wait(epfd, events, 2, 10000), 1);
+			Assert.equal(events.events(), EPOLLIN);
+			Assert.equal(events.data(), 0x1234567890abL);
+		} finally {
+			CUnistd.closeSilently(epfd, fds[0], fds[1]);
+		}
+	}
+
+	@Test
+	public void testEventfdWithEpoll() throws CException {
+		Assume.assumeTrue("epoll requires Linux", Os.info().linux);
+		int fd = CEpoll.eventfd(0, CEpoll.EFD_NONBLOCK);
+		int epfd = CEpoll.epoll_create1(0);
+		try {
+			var events = new epoll_event.View(new Memory(epoll_event.View.LAYOUT.size(1)));
+			var counter = new Memory(Long.BYTES);
+			CEpoll.epoll_ctl(epfd, EPOLL_CTL_ADD, fd, EPOLLIN, 7);
+			Assert.equal(CUnistd.read(fd, counter, Long.BYTES), 0);
+			counter.setLong(0, 5);
+			CUnistd.write(fd, counter, Long.BYTES);
+			CUnistd.write(fd, counter, Long.BYTES);
+			Assert.equal(CEpoll.epoll_wait(epfd, events, 1, 10000), 1);
+			Assert.equal(events.data(), 7L);
+			Assert.equal(CUnistd.read(fd, counter, Long.BYTES), Long.BYTES);
+			Assert.equal(counter.getLong(0), 10L);
+		} finally {
+			CUnistd.closeSilently(epfd, fd);
+		}
+	}
+}
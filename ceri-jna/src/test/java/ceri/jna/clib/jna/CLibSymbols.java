@@ -6,8 +6,8 @@ import ceri.jna.reflect.CSymbolGen;
 /**
  * Generates c code symbols for clib.
  */
-@CGen(target = { CErrNo.class, CFcntl.class, CIoctl.class, CPoll.class, CSignal.class,
-	CTermios.class, CUnistd.class })
+@CGen(target = { CEpoll.class, CErrNo.class, CFcntl.class, CIoctl.class, CPoll.class,
+	CSignal.class, CTermios.class, CUnistd.class })
 public class CLibSymbols {
 
 	public static void main(String[] args) {
@@ -48,6 +48,14 @@ public class CTimeTest {
 		Assert.equal(t.time(), new TimeSpec(1234, 56789));
 	}
 
+	@Test
+	public void shouldCreateItimerspecFromPointer() {
+		var t0 = CTime.itimerspec.of(new TimeSpec(1, 2), new TimeSpec(3, 4));
+		var t = Struct.read(new CTime.itimerspec(Struct.write(t0).getPointer()));
+		assertTimespec(t.it_value, 1, 2);
+		assertTimespec(t.it_interval, 3, 4);
+	}
+
 	private void assertTimeval(timeval t, long sec, long usec) {
 		Assert.equal(t.tv_sec.longValue(), sec);
 		Assert.equal(t.tv_usec.longValue(), usec);
@@ -71,7 +71,8 @@ public class SelfHealingFdBehavior {
 	@Test
 	public void shouldProvideStringRepresentation() {
 		var config = SelfHealingFd.Config.of(() -> TestFileDescriptor.of(33));
-		Assert.find(config, "\\(2000,1000,%s\\)", Lambdas.name(config.selfHealing.brokenPredicate));
+		Assert.find(config, "\\(2000,0,1000,false,NULL,%s\\)",
+			Lambdas.name(config.selfHealing.brokenPredicate));
 	}
 
 	@Test
@@ -0,0 +1,106 @@
+package ceri.jna.type;
+
+import org.junit.Test;
+import com.sun.jna.Pointer;
+import ceri.common.test.Assert;
+import ceri.jna.type.Struct.Fields;
+import ceri.jna.util.GcMemory;
+
+public class StructViewBehavior {
+
+	@Fields({ "b", "s", "i", "l", "cl", "p" })
+	public static class Fixed extends Struct {
+		public byte b;
+		public short s;
+		public int i;
+		public long l;
+		public CLong cl;
+		public Pointer p;
+
+		public static Fixed[] array(int count) {
+			return Struct.arrayByVal(Fixed::new, Fixed[]::new, count);
+		}
+
+		public Fixed() {}
+
+		public Fixed(Pointer p) {
+			super(p);
+		}
+	}
+
+	public static class View extends StructView<View> {
+		private static final Layout LAYOUT = Layout.of(Fixed::new);
+		private static final int B = LAYOUT.offset("b");
+		private static final int S = LAYOUT.offset("s");
+		private static final int I = LAYOUT.offset("i");
+		private static final int L = LAYOUT.offset("l");
+		private static final int CL = LAYOUT.offset("cl");
+		private static final int P = LAYOUT.offset("p");
+
+		public View(Pointer p) {
+			super(LAYOUT, p);
+		}
+
+		public View set(int n) {
+			return setByte(B, n).setShort(S, n + 1).setInt(I, n + 2).setLong(L, n + 3)
+				.setCLong(CL, n + 4).setPeer(P, n + 5);
+		}
+	}
+
+	@Test
+	public void shouldDetermineLayout() {
+		var layout = View.LAYOUT;
+		var fixed = new Fixed();
+		Assert.equal(layout.size(), fixed.size());
+		Assert.equal(layout.size(3), 3L * fixed.size());
+		Assert.equal(layout.offset("b"), 0);
+		Assert.equal(layout.offset("s"), 2);
+		Assert.equal(layout.offset("i"), 4);
+		Assert.equal(layout.offset("l"), 8);
+		Assert.equal(layout.offset("cl"), 16);
+		Assert.thrown(() -> layout.offset("x"));
+	}
+
+	@Test
+	public void shouldWriteStructArrayFields() {
+		var array = Fixed.array(3);
+		var view = new View(array[0].getPointer());
+		for (int i = 0; i < array.length; i++)
+			view.index(i).set(i * 10);
+		Struct.read(array);
+		Assert.equal(array[2].b, (byte) 20);
+		Assert.equal(array[2].s, (short) 21);
+		Assert.equal(array[2].i, 22);
+		Assert.equal(array[2].l, 23L);
+		Assert.equal(array[2].cl.longValue(), 24L);
+		Assert.equal(Pointer.nativeValue(array[2].p), 25L);
+		Assert.equal(array[1].i, 12);
+	}
+
+	@Test
+	public void shouldReadStructArrayFields() {
+		var array = Fixed.array(2);
+		array[1].i = 77;
+		array[1].p = new Pointer(0x1234);
+		Struct.write(array);
+		var view = new View(array[0].getPointer()).next();
+		Assert.equal(view.index(), 1);
+		Assert.equal(view.offset(), (long) array[0].size());
+		Assert.equal(view.getInt(View.I), 77);
+		Assert.equal(view.getPeer(View.P), 0x1234L);
+		Assert.equal(view.getPointer(View.P), new Pointer(0x1234));
+		Assert.equal(view.struct(Fixed::new).i, 77);
+	}
+
+	@Test
+	public void shouldRepointView() {
+		var m0 = GcMemory.malloc(View.LAYOUT.size()).clear();
+		var m1 = GcMemory.malloc(View.LAYOUT.size() * 2).clear();
+		var view = new View(m0.m).set(1);
+		view.at(m1.m, 1).set(2);
+		Assert.equal(view.at(m0.m).getInt(View.I), 3);
+		Assert.equal(view.at(m1.m).getInt(View.I), 0);
+		Assert.equal(view.next().getInt(View.I), 4);
+		Assert.equal(view.clear().getInt(View.I), 0);
+	}
+}
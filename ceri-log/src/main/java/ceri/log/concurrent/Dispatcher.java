@@ -12,6 +12,7 @@ import ceri.common.concurrent.RuntimeInterruptedException;
 import ceri.common.except.ExceptionTracker;
 import ceri.common.function.Enclosure;
 import ceri.common.function.Functions;
+import ceri.common.metric.Histogram;
 
 /**
  * A dispatcher thread for notifying listeners of events. Useful to prevent a misbehaving listener
@@ -25,6 +26,7 @@ public class Dispatcher<L, T> extends LoopingExecutor {
 	private final BlockingQueue<T> queue = new LinkedBlockingQueue<>();
 	private final Collection<L> listeners = new ConcurrentLinkedQueue<>();
 	private final ExceptionTracker exceptions = ExceptionTracker.of();
+	private final Histogram dispatchNs = metrics().histogram("dispatch");
 
 	public static class Direct<T> extends Dispatcher<Functions.Consumer<T>, T> {
 		private Direct(long pollTimeoutMs) {
@@ -44,6 +46,7 @@ public class Dispatcher<L, T> extends LoopingExecutor {
 	private Dispatcher(long pollTimeoutMs, Functions.Function<T, Functions.Consumer<L>> adapter) {
 		this.adapter = adapter;
 		this.pollTimeoutMs = pollTimeoutMs;
+		metrics().gauge("queue", queue::size);
 		start();
 	}
 
@@ -59,16 +62,17 @@ public class Dispatcher<L, T> extends LoopingExecutor {
 	@Override
 	protected void loop() throws InterruptedException {
 		try {
-			T t = queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS);
+			T t = idleGet(() -> queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS));
 			// if (t == null || listeners.isEmpty()) return;
 			if (t == null) return;
 			if (listeners.isEmpty()) return;
 			logger.debug("Dispatching: {}", t);
 			var consumer = adapter.apply(t);
-			listeners.forEach(l -> consumer.accept(l));
+			dispatchNs.time(() -> listeners.forEach(l -> consumer.accept(l)));
 		} catch (InterruptedException | RuntimeInterruptedException e) {
 			throw e;
 		} catch (RuntimeException e) {
+			caught();
 			if (exceptions.add(e)) logger.catching(Level.WARN, e);
 		}
 	}
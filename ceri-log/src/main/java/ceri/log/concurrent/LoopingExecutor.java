@@ -1,5 +1,6 @@
 package ceri.log.concurrent;
 
+import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.apache.logging.log4j.LogManager;
@@ -7,21 +8,78 @@ import org.apache.logging.log4j.Logger;
 import ceri.common.concurrent.BoolCondition;
 import ceri.common.concurrent.Concurrent;
 import ceri.common.concurrent.RuntimeInterruptedException;
+import ceri.common.function.Excepts;
 import ceri.common.function.Functions;
+import ceri.common.metric.Counter;
+import ceri.common.metric.Histogram;
+import ceri.common.metric.Metrics;
 import ceri.log.util.Logs;
 
 /**
- * Executes a runnable method in a repeating loop until an exception is thrown.
+ * Executes a runnable method in a repeating loop until an exception is thrown. The loop runs on a
+ * single thread provided by the execution strategy; a platform thread by default.
  */
 public abstract class LoopingExecutor implements Functions.Closeable {
 	private static final Logger logger = LogManager.getLogger();
 	private static final int EXIT_TIMEOUT_MS_DEF = 10000;
+	private static volatile Execution defaultExecution = Execution.PLATFORM;
 	private final int exitTimeoutMs;
 	private final String logName;
 	private final ExecutorService executor;
 	private final BoolCondition stopped = BoolCondition.of();
+	private final Metrics metrics = Metrics.of();
+	private final Counter iterations = metrics.counter("iterations");
+	private final Counter busyNs = metrics.counter("busy.ns");
+	private final Counter idleNs = metrics.counter("idle.ns");
+	private final Counter exceptions = metrics.counter("exceptions");
+	private final Histogram busy = metrics.histogram("busy");
+	private long iterationIdleNs = 0; // only accessed by the loop thread
 	private volatile boolean closed = false;
 
+	/**
+	 * Provides the executor service that runs a loop. The executor is shut down when the loop is
+	 * closed.
+	 */
+	public interface Execution {
+		/** A dedicated platform thread per loop. */
+		Execution PLATFORM = _ -> Executors.newSingleThreadExecutor();
+		/**
+		 * A dedicated virtual thread per loop. Virtual threads run on the shared, bounded carrier
+		 * pool of the JVM, and unmount while blocked, so idle loops do not hold an OS thread. The
+		 * pool size is configured with jdk.virtualThreadScheduler.parallelism and
+		 * jdk.virtualThreadScheduler.maxPoolSize system properties.
+		 */
+		Execution VIRTUAL =
+			name -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name).factory());
+
+		/**
+		 * Creates a single-task executor service for the named loop.
+		 */
+		ExecutorService executor(String name);
+	}
+
+	/**
+	 * Loop statistics. Idle time is the time spent waiting inside idle calls; busy time is the
+	 * remaining time spent in the loop. Exceptions counts caught and fatal exceptions. The same
+	 * values are available from the metrics registry, along with a histogram of busy time per
+	 * iteration.
+	 */
+	public record Stats(long iterations, long busyNs, long idleNs, long exceptions) {}
+
+	/**
+	 * Sets the execution strategy for loops that do not specify one.
+	 */
+	public static void defaultExecution(Execution execution) {
+		defaultExecution = Objects.requireNonNull(execution);
+	}
+
+	/**
+	 * Returns the execution strategy for loops that do not specify one.
+	 */
+	public static Execution defaultExecution() {
+		return defaultExecution;
+	}
+
 	protected LoopingExecutor() {
 		this(null);
 	}
@@ -31,9 +89,14 @@ public abstract class LoopingExecutor implements Functions.Closeable {
 	}
 
 	protected LoopingExecutor(String logName, int exitTimeoutMs) {
+		this(logName, exitTimeoutMs, null);
+	}
+
+	protected LoopingExecutor(String logName, int exitTimeoutMs, Execution execution) {
 		this.logName = logName == null ? getClass().getSimpleName() : logName;
 		this.exitTimeoutMs = exitTimeoutMs;
-		executor = Executors.newSingleThreadExecutor();
+		if (execution == null) execution = defaultExecution;
+		executor = execution.executor(this.logName);
 	}
 
 	/**
@@ -48,6 +111,52 @@ public abstract class LoopingExecutor implements Functions.Closeable {
 	 */
 	protected abstract void loop() throws Exception;
 
+	/**
+	 * Runs a blocking wait from the loop, counting the time as idle.
+	 */
+	protected <E extends Exception> void idleRun(Excepts.Runnable<E> waiter) throws E {
+		long t0 = System.nanoTime();
+		try {
+			waiter.run();
+		} finally {
+			idle(t0);
+		}
+	}
+
+	/**
+	 * Runs a blocking wait from the loop, counting the time as idle, and returns the result.
+	 */
+	protected <E extends Exception, T> T idleGet(Excepts.Supplier<E, T> waiter) throws E {
+		long t0 = System.nanoTime();
+		try {
+			return waiter.get();
+		} finally {
+			idle(t0);
+		}
+	}
+
+	/**
+	 * Counts an exception caught and handled by the loop.
+	 */
+	protected void caught() {
+		exceptions.increment();
+	}
+
+	/**
+	 * Returns the current loop statistics.
+	 */
+	public Stats loopStats() {
+		return new Stats(iterations.value(), busyNs.value(), idleNs.value(), exceptions.value());
+	}
+
+	/**
+	 * Returns the metrics registry for the loop. Subclasses may add their own instruments. The
+	 * registry may be attached to an application registry for export.
+	 */
+	public Metrics metrics() {
+		return metrics;
+	}
+
 	/**
 	 * Wait for the loop to stop.
 	 */
@@ -82,19 +191,35 @@ public abstract class LoopingExecutor implements Functions.Closeable {
 		Logs.close(executor, exitTimeoutMs);
 	}
 
+	private void idle(long t0) {
+		long ns = System.nanoTime() - t0;
+		idleNs.add(ns);
+		iterationIdleNs += ns;
+	}
+
 	private void loops() {
 		logger.info("{} started", logName);
 		try {
 			while (true) {
 				Concurrent.checkInterrupted();
-				loop();
+				long t0 = System.nanoTime();
+				iterationIdleNs = 0;
+				try {
+					loop();
+				} finally {
+					long ns = System.nanoTime() - t0 - iterationIdleNs;
+					busyNs.add(ns);
+					busy.record(ns);
+					iterations.increment();
+				}
 			}
 		} catch (InterruptedException | RuntimeInterruptedException e) {
 			logger.debug("{} interrupted", logName);
 		} catch (Exception e) {
+			exceptions.increment();
 			logger.catching(e);
 		}
-		logger.info("{} stopped", logName);
+		logger.info("{} stopped: {}", logName, loopStats());
 		stopped.signal();
 	}
 }
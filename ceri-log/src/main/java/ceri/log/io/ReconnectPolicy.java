@@ -0,0 +1,222 @@
+package ceri.log.io;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import ceri.common.collect.Maps;
+import ceri.common.concurrent.Concurrent;
+import ceri.common.concurrent.Locker;
+import ceri.common.except.Exceptions;
+import ceri.common.function.Functions;
+import ceri.common.metric.Counter;
+import ceri.common.metric.Histogram;
+import ceri.common.metric.Metrics;
+import ceri.common.text.ToString;
+
+/**
+ * Controls reconnect attempts for a self-healing device. Retry delays grow from the fix retry
+ * delay up to the maximum, using exponential backoff with decorrelated jitter, so devices that
+ * break together do not reconnect in lockstep. The policy is also a circuit breaker: it opens when
+ * the device breaks, is half-open during each fix attempt, and closes when fixed. If configured to
+ * fail fast, callers get a CircuitOpenException while the circuit is not closed, instead of
+ * waiting on the broken device. Attempts may be limited by a budget shared across instances.
+ */
+public class ReconnectPolicy {
+	private final int baseDelayMs;
+	private final int maxDelayMs;
+	private final boolean failFast;
+	private final Budget budget;
+	private final Counter attempts;
+	private final Counter failures;
+	private final Histogram outageNs;
+	private final Locker locker = Locker.of();
+	private volatile State state = State.closed;
+	private long outageStartNs = 0;
+	private long delayMs;
+
+	/**
+	 * Circuit breaker states.
+	 */
+	public enum State {
+		/** The device is available. */
+		closed,
+		/** The device is broken, and waiting to retry. */
+		open,
+		/** An attempt to fix the device is in progress. */
+		halfOpen;
+	}
+
+	/**
+	 * Thrown to callers while the circuit is not closed, if configured to fail fast.
+	 */
+	@SuppressWarnings("serial")
+	public static class CircuitOpenException extends IOException {
+		public CircuitOpenException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * A token-bucket limit on reconnect attempts. A budget may be shared by name across instances,
+	 * so that a fleet of devices that break together reconnects at a bounded rate.
+	 */
+	public static class Budget {
+		private static final Map<String, Budget> shared = Maps.concurrent();
+		/** An unlimited budget. */
+		public static final Budget NULL = new Budget(0, 0);
+		private final Locker locker = Locker.of();
+		private final double permitsPerSec;
+		private final int burst;
+		private double permits;
+		private long lastNs = System.nanoTime();
+
+		/**
+		 * Returns the named budget, creating it if needed. Limits only apply on creation.
+		 */
+		public static Budget shared(String name, double permitsPerSec, int burst) {
+			return shared.computeIfAbsent(name, _ -> of(permitsPerSec, burst));
+		}
+
+		/**
+		 * Creates a budget that allows a burst of attempts, refilled at the given rate.
+		 */
+		public static Budget of(double permitsPerSec, int burst) {
+			if (permitsPerSec <= 0) throw Exceptions.illegalArg("Rate must be > 0: %s",
+				permitsPerSec);
+			if (burst < 1) throw Exceptions.illegalArg("Burst must be >= 1: %d", burst);
+			return new Budget(permitsPerSec, burst);
+		}
+
+		private Budget(double permitsPerSec, int burst) {
+			this.permitsPerSec = permitsPerSec;
+			this.burst = burst;
+			permits = burst;
+		}
+
+		/**
+		 * Waits for a permit. Throws RuntimeInterruptedException if interrupted.
+		 */
+		public void acquire() {
+			if (this == NULL) return;
+			while (true) {
+				long waitNs = locker.getAsLong(this::tryAcquire);
+				if (waitNs == 0) return;
+				Concurrent.delayNanos(waitNs);
+			}
+		}
+
+		/**
+		 * The number of permits currently available.
+		 */
+		public double permits() {
+			if (this == NULL) return Double.POSITIVE_INFINITY;
+			return locker.get(() -> {
+				refill();
+				return permits;
+			});
+		}
+
+		private long tryAcquire() {
+			refill();
+			if (permits >= 1.0) {
+				permits -= 1.0;
+				return 0;
+			}
+			return Math.max(1, (long) ((1.0 - permits) * TimeUnit.SECONDS.toNanos(1)
+				/ permitsPerSec));
+		}
+
+		private void refill() {
+			long t = System.nanoTime();
+			permits = Math.min(burst, permits + (t - lastNs) * permitsPerSec / 1e9);
+			lastNs = t;
+		}
+
+		@Override
+		public String toString() {
+			if (this == NULL) return "NULL";
+			return ToString.forClass(this, permitsPerSec, burst);
+		}
+	}
+
+	ReconnectPolicy(SelfHealing.Config config, Metrics metrics) {
+		baseDelayMs = config.fixRetryDelayMs;
+		maxDelayMs = Math.max(config.fixRetryDelayMs, config.maxRetryDelayMs);
+		failFast = config.failFast;
+		budget = config.budget;
+		attempts = metrics.counter("attempts");
+		failures = metrics.counter("failures");
+		outageNs = metrics.histogram("outage");
+		delayMs = baseDelayMs;
+	}
+
+	/**
+	 * The current circuit state.
+	 */
+	public State state() {
+		return state;
+	}
+
+	/**
+	 * Throws CircuitOpenException if configured to fail fast and the circuit is not closed.
+	 */
+	public void check() throws CircuitOpenException {
+		if (!failFast) return;
+		var state = this.state;
+		if (state != State.closed) throw new CircuitOpenException("Device is unavailable: " + state);
+	}
+
+	/**
+	 * Opens the circuit and starts timing the outage, if the broken signal is newly set. The signal
+	 * is called under lock, so a fix attempt triggered by the signal cannot complete first.
+	 */
+	boolean broken(Functions.BoolSupplier signal) {
+		return locker.get(() -> {
+			if (!signal.getAsBool()) return false;
+			outageStartNs = System.nanoTime();
+			state = State.open;
+			return true;
+		});
+	}
+
+	/**
+	 * Waits for the budget, then starts a fix attempt.
+	 */
+	void attempt() {
+		budget.acquire();
+		attempts.increment();
+		locker.run(() -> state = State.halfOpen);
+	}
+
+	/**
+	 * Re-opens the circuit after a failed attempt, and returns the delay before the next attempt.
+	 */
+	int failed() {
+		failures.increment();
+		return locker.getAsInt(() -> {
+			state = State.open;
+			long upper = Math.max(baseDelayMs, delayMs * 3L);
+			delayMs = Math.min(maxDelayMs,
+				ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1));
+			return (int) delayMs;
+		});
+	}
+
+	/**
+	 * Closes the circuit after a successful attempt, and records the outage duration.
+	 */
+	void fixed() {
+		locker.run(() -> {
+			if (outageStartNs != 0) outageNs.recordSince(outageStartNs);
+			outageStartNs = 0;
+			delayMs = baseDelayMs;
+			state = State.closed;
+		});
+	}
+
+	@Override
+	public String toString() {
+		return ToString.forClass(this, state, baseDelayMs, maxDelayMs, failFast, budget);
+	}
+}
@@ -2,6 +2,7 @@ package ceri.log.io;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,6 +18,7 @@ import ceri.common.function.Lambdas;
 import ceri.common.io.Fixable;
 import ceri.common.io.Replaceable;
 import ceri.common.io.StateChange;
+import ceri.common.metric.Counter;
 import ceri.common.property.TypedProperties;
 import ceri.common.text.ToString;
 import ceri.common.util.Capability;
@@ -25,7 +27,8 @@ import ceri.log.util.Logs;
 
 /**
  * The base logic for self-healing devices. It will automatically reconnect if the device is fatally
- * broken, as determined by the config broken predicate.
+ * broken, as determined by the config broken predicate. Reconnect attempts are controlled by a
+ * ReconnectPolicy, configured for backoff, fail-fast and a shared attempt budget.
  */
 public abstract class SelfHealing<T extends Capability.Name & Closeable> extends LoopingExecutor
 	implements Fixable {
@@ -34,6 +37,8 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 	private final Listeners<StateChange> listeners = Listeners.of();
 	private final BoolCondition sync = BoolCondition.of();
 	private final AtomicBoolean open = new AtomicBoolean(false);
+	private final Counter brokenCount = metrics().counter("broken");
+	private final ReconnectPolicy policy;
 	protected final Replaceable.Field<T> device = Replaceable.field("device");
 
 	public static class Config {
@@ -41,7 +46,10 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 		public static final Config DEFAULT = new Builder().build();
 		public static final Config NULL = of(0, 0, NULL_PREDICATE);
 		public final int fixRetryDelayMs;
+		public final int maxRetryDelayMs;
 		public final int recoveryDelayMs;
+		public final boolean failFast;
+		public final ReconnectPolicy.Budget budget;
 		public final Functions.Predicate<? super Exception> brokenPredicate;
 
 		public static Config of(int fixRetryDelayMs, int recoveryDelayMs,
@@ -52,7 +60,10 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 
 		public static class Builder {
 			int fixRetryDelayMs = 2000;
+			int maxRetryDelayMs = 0;
 			int recoveryDelayMs = fixRetryDelayMs / 2;
+			boolean failFast = false;
+			ReconnectPolicy.Budget budget = ReconnectPolicy.Budget.NULL;
 			Functions.Predicate<? super Exception> brokenPredicate = NULL_PREDICATE;
 
 			Builder() {}
@@ -60,7 +71,8 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 			public Builder apply(Config config) {
 				if (config.hasBrokenPredicate()) brokenPredicate(config.brokenPredicate);
 				return fixRetryDelayMs(config.fixRetryDelayMs)
-					.recoveryDelayMs(config.recoveryDelayMs);
+					.maxRetryDelayMs(config.maxRetryDelayMs).recoveryDelayMs(config.recoveryDelayMs)
+					.failFast(config.failFast).budget(config.budget);
 			}
 
 			public Builder fixRetryDelayMs(int fixRetryDelayMs) {
@@ -68,11 +80,37 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 				return this;
 			}
 
+			/**
+			 * Sets the upper limit for retry delays, which back off with jitter from the fix retry
+			 * delay. The default of 0 retries at the fix retry delay without backoff.
+			 */
+			public Builder maxRetryDelayMs(int maxRetryDelayMs) {
+				this.maxRetryDelayMs = maxRetryDelayMs;
+				return this;
+			}
+
 			public Builder recoveryDelayMs(int recoveryDelayMs) {
 				this.recoveryDelayMs = recoveryDelayMs;
 				return this;
 			}
 
+			/**
+			 * If true, device calls fail with CircuitOpenException while the device is broken,
+			 * instead of waiting on the broken device.
+			 */
+			public Builder failFast(boolean failFast) {
+				this.failFast = failFast;
+				return this;
+			}
+
+			/**
+			 * Limits the rate of fix attempts; the budget may be shared with other devices.
+			 */
+			public Builder budget(ReconnectPolicy.Budget budget) {
+				this.budget = Objects.requireNonNull(budget);
+				return this;
+			}
+
 			public Builder brokenPredicate(Functions.Predicate<? super Exception> brokenPredicate) {
 				this.brokenPredicate = brokenPredicate;
 				return this;
@@ -89,7 +127,10 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 
 		Config(Builder builder) {
 			fixRetryDelayMs = builder.fixRetryDelayMs;
+			maxRetryDelayMs = builder.maxRetryDelayMs;
 			recoveryDelayMs = builder.recoveryDelayMs;
+			failFast = builder.failFast;
+			budget = builder.budget;
 			brokenPredicate = builder.brokenPredicate;
 		}
 
@@ -103,14 +144,19 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 
 		@Override
 		public String toString() {
-			return ToString.forClass(this, fixRetryDelayMs, recoveryDelayMs,
-				Lambdas.name(brokenPredicate));
+			return ToString.forClass(this, fixRetryDelayMs, maxRetryDelayMs, recoveryDelayMs,
+				failFast, budget, Lambdas.name(brokenPredicate));
 		}
 	}
 
 	public static class Properties extends TypedProperties.Ref {
 		private static final String FIX_RETRY_DELAY_MS_KEY = "fix.retry.delay.ms";
+		private static final String MAX_RETRY_DELAY_MS_KEY = "max.retry.delay.ms";
 		private static final String RECOVERY_DELAY_MS_KEY = "recovery.delay.ms";
+		private static final String FAIL_FAST_KEY = "fail.fast";
+		private static final String BUDGET_NAME_KEY = "budget.name";
+		private static final String BUDGET_PERMITS_PER_SEC_KEY = "budget.permits.per.sec";
+		private static final String BUDGET_BURST_KEY = "budget.burst";
 
 		public Properties(TypedProperties properties, String... groups) {
 			super(properties, groups);
@@ -119,13 +165,28 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 		public Config config() {
 			var b = Config.builder();
 			parse(FIX_RETRY_DELAY_MS_KEY).asInt().accept(b::fixRetryDelayMs);
+			parse(MAX_RETRY_DELAY_MS_KEY).asInt().accept(b::maxRetryDelayMs);
 			parse(RECOVERY_DELAY_MS_KEY).asInt().accept(b::recoveryDelayMs);
+			parse(FAIL_FAST_KEY).asBool().accept(b::failFast);
+			var budget = budget();
+			if (budget != null) b.budget(budget);
 			return b.build();
 		}
+
+		private ReconnectPolicy.Budget budget() {
+			var permitsPerSec = parse(BUDGET_PERMITS_PER_SEC_KEY).toDouble();
+			if (permitsPerSec == null) return null;
+			int burst = parse(BUDGET_BURST_KEY).toInt(1);
+			var name = parse(BUDGET_NAME_KEY).get();
+			if (name == null) return ReconnectPolicy.Budget.of(permitsPerSec, burst);
+			return ReconnectPolicy.Budget.shared(name, permitsPerSec, burst);
+		}
 	}
 
 	protected SelfHealing(Config config) {
 		this.config = config;
+		policy = new ReconnectPolicy(config, metrics());
+		device.guard(policy::check);
 		device.errors().listen(this::checkIfBroken);
 		start();
 	}
@@ -149,6 +210,13 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 		}
 	}
 
+	/**
+	 * The reconnect policy, for circuit state.
+	 */
+	public ReconnectPolicy policy() {
+		return policy;
+	}
+
 	@Override
 	public Listenable<StateChange> listeners() {
 		return listeners;
@@ -170,7 +238,7 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 
 	@Override
 	protected void loop() throws InterruptedException {
-		sync.awaitPeek();
+		idleRun(sync::awaitPeek);
 		open.set(true); // no need to call open() now
 		logger.info("Connector is broken, attempting to fix");
 		fixDevice();
@@ -185,11 +253,15 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 		ExceptionTracker exceptions = ExceptionTracker.of();
 		while (true) {
 			try {
+				idleRun(policy::attempt);
 				initDevice();
+				policy.fixed();
 				break;
 			} catch (IOException e) {
+				caught();
+				int delayMs = policy.failed();
 				if (exceptions.add(e)) logger.error("Failed to fix, retrying: %s", e);
-				Concurrent.delay(config.fixRetryDelayMs);
+				Concurrent.delay(delayMs);
 			}
 		}
 	}
@@ -205,7 +277,9 @@ public abstract class SelfHealing<T extends Capability.Name & Closeable> extends
 	}
 
 	private void setBroken() {
-		if (sync.signal()) notifyListeners(StateChange.broken);
+		if (!policy.broken(sync::signal)) return;
+		brokenCount.increment();
+		notifyListeners(StateChange.broken);
 	}
 
 	@SuppressWarnings("resource")
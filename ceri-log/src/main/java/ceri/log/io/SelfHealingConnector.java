@@ -17,6 +17,8 @@ public abstract class SelfHealingConnector<T extends Connector> extends SelfHeal
 
 	protected SelfHealingConnector(SelfHealing.Config config) {
 		super(config);
+		in.guard(policy()::check);
+		out.guard(policy()::check);
 		in.errors().listen(this::checkIfBroken);
 		out.errors().listen(this::checkIfBroken);
 	}
@@ -1,10 +1,13 @@
 package ceri.log.registry;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -22,10 +25,14 @@ import ceri.log.concurrent.LoopingExecutor;
 import ceri.log.util.Logs;
 
 /**
- * A registry persistence service, allowing direct access and queued updates.
+ * A registry persistence service, allowing direct access and queued updates. Updates are applied
+ * and copied to a snapshot under the lock; the snapshot is saved outside the lock, so registry
+ * access is not blocked while writing. Persist requests made during a save are merged, and
+ * snapshots matching the last save are not written.
  */
 public class RegistryService extends LoopingExecutor {
 	private static final Logger logger = LogManager.getFormatterLogger();
+	private static final String TEMP_SUFFIX = ".tmp";
 	private final Locker locker = Locker.of();
 	private final BoolCondition sync = BoolCondition.of(locker.lock);
 	private final Excepts.Consumer<IOException, java.util.Properties> loadFn;
@@ -37,6 +44,26 @@ public class RegistryService extends LoopingExecutor {
 	private final java.util.Properties properties = new java.util.Properties();
 	private final PropertySource source = PropertySource.Properties.of(properties);
 	public final Registry registry = registry(TypedProperties.of(source));
+	private java.util.Properties saved;
+	private java.util.Properties pending = null;
+	private volatile Stats stats = Stats.ZERO;
+
+	/**
+	 * Save counts and durations.
+	 */
+	public record Stats(long saves, long skipped, long lastSaveMs, long maxSaveMs,
+		long totalSaveMs) {
+
+		public static final Stats ZERO = new Stats(0, 0, 0, 0, 0);
+
+		private Stats addSave(long ms) {
+			return new Stats(saves + 1, skipped, ms, Math.max(maxSaveMs, ms), totalSaveMs + ms);
+		}
+
+		private Stats addSkip() {
+			return new Stats(saves, skipped + 1, lastSaveMs, maxSaveMs, totalSaveMs);
+		}
+	}
 
 	public record Config(String name, Path path, int delayMs, int errorDelayMs) {
 
@@ -92,9 +119,17 @@ public class RegistryService extends LoopingExecutor {
 		this.delayMs = delayMs;
 		this.errorDelayMs = errorDelayMs;
 		load();
+		saved = snapshot(properties);
 		if (saveFn != null) start();
 	}
 
+	/**
+	 * Returns save counts and durations.
+	 */
+	public Stats stats() {
+		return stats;
+	}
+
 	public void persist(boolean urgent) {
 		if (urgent) sync.signal();
 		else sync.set();
@@ -103,34 +138,63 @@ public class RegistryService extends LoopingExecutor {
 	@Override
 	public void close() {
 		super.close();
-		if (processUpdates()) Logs.close(this::save);
+		Logs.close(this::persistSnapshot);
 	}
 
 	@Override
 	protected void loop() throws InterruptedException {
 		try {
-			if (exceptions.isEmpty()) sync.await(delayMs);
-			if (processUpdates() || !exceptions.isEmpty()) save();
+			if (exceptions.isEmpty()) idleRun(() -> sync.await(delayMs));
+			persistSnapshot();
 			exceptions.clear();
 		} catch (InterruptedException | RuntimeInterruptedException e) {
 			throw e;
 		} catch (Exception e) {
+			caught();
 			if (exceptions.add(e)) logger.catching(e);
 			TimeSupplier.millis.delay(errorDelayMs);
 		}
 	}
 
-	private boolean processUpdates() {
+	/**
+	 * Saves the latest snapshot if modified, or the last failed snapshot. The write is skipped if
+	 * the snapshot matches the last save.
+	 */
+	private void persistSnapshot() throws IOException {
+		var snapshot = processUpdates();
+		if (snapshot != null) pending = snapshot;
+		if (pending == null) return;
+		if (pending.equals(saved)) stats = stats.addSkip();
+		else {
+			long t0 = System.nanoTime();
+			save(pending);
+			stats = stats.addSave(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+			saved = pending;
+		}
+		pending = null;
+	}
+
+	/**
+	 * Applies queued updates, and returns a snapshot if properties have been modified.
+	 */
+	private java.util.Properties processUpdates() {
 		try (var _ = locker.lock()) {
 			while (true) {
 				var entry = updates.pollFirstEntry();
 				if (entry == null) break;
 				entry.getValue().run();
 			}
-			return source.modified();
+			if (!source.modified()) return null;
+			return snapshot(properties);
 		}
 	}
 
+	private static java.util.Properties snapshot(java.util.Properties properties) {
+		var snapshot = new java.util.Properties();
+		snapshot.putAll(properties);
+		return snapshot;
+	}
+
 	private Registry registry(TypedProperties properties) {
 		return new Registry() {
 			@Override
@@ -159,8 +223,8 @@ public class RegistryService extends LoopingExecutor {
 		if (loadFn != null) loadFn.accept(properties);
 	}
 
-	private void save() throws IOException {
-		if (saveFn != null) saveFn.accept(properties);
+	private void save(java.util.Properties snapshot) throws IOException {
+		if (saveFn != null) saveFn.accept(snapshot);
 	}
 
 	private static void loadPath(java.util.Properties properties, Path path) throws IOException {
@@ -175,9 +239,24 @@ public class RegistryService extends LoopingExecutor {
 		if (path == null || properties.isEmpty()) return;
 		var comment = String.format("# Written by %s %s", name, Dates.nowSec());
 		Files.createDirectories(path.getParent());
-		try (var out =
-			Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
-			properties.store(out, comment);
+		var temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+		try {
+			try (var out = Files.newOutputStream(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				properties.store(out, comment);
+			}
+			move(temp, path);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static void move(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
 		}
 	}
 }
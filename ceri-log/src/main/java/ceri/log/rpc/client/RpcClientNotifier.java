@@ -119,7 +119,7 @@ public class RpcClientNotifier<T, V> extends LoopingExecutor implements Listenab
 
 	@Override
 	protected void loop() throws InterruptedException {
-		Action action = waitForAction();
+		Action action = idleGet(this::waitForAction);
 		logger.trace("Action: {}", action);
 		if (action != Action.receive) stopReceiving();
 		if (action != Action.stop) startReceiving();
@@ -0,0 +1,66 @@
+package ceri.log.rpc.service;
+
+import static ceri.log.rpc.service.RpcServices.respond;
+import java.util.Objects;
+import com.google.protobuf.Empty;
+import com.google.protobuf.StringValue;
+import ceri.common.metric.Histogram;
+import ceri.common.metric.Metrics;
+import ceri.log.rpc.MetricsGrpc;
+import ceri.log.rpc.MetricsProto.HistogramSnapshot;
+import ceri.log.rpc.MetricsProto.MetricsSnapshot;
+import ceri.log.rpc.util.Rpc;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Exports a metrics registry snapshot, as structured values or as a text dump.
+ */
+public class MetricsRpcService extends MetricsGrpc.MetricsImplBase implements RpcService {
+	private final Metrics metrics;
+
+	public static MetricsRpcService of(Metrics metrics) {
+		return new MetricsRpcService(metrics);
+	}
+
+	private MetricsRpcService(Metrics metrics) {
+		this.metrics = Objects.requireNonNull(metrics);
+	}
+
+	/**
+	 * Converts a registry snapshot to its rpc message.
+	 */
+	public static MetricsSnapshot snapshot(Metrics.Snapshot snapshot) {
+		var b = MetricsSnapshot.newBuilder().putAllCounters(snapshot.counters())
+			.putAllGauges(snapshot.gauges());
+		snapshot.histograms().forEach((name, h) -> b.putHistograms(name, histogram(h)));
+		return b.build();
+	}
+
+	/**
+	 * Converts a histogram snapshot to its rpc message.
+	 */
+	public static HistogramSnapshot histogram(Histogram.Snapshot snapshot) {
+		return HistogramSnapshot.newBuilder().setCount(snapshot.count()).setSum(snapshot.sum())
+			.setMin(snapshot.min()).setMax(snapshot.max()).setP50(snapshot.percentile(50))
+			.setP90(snapshot.percentile(90)).setP99(snapshot.percentile(99))
+			.setP999(snapshot.percentile(99.9)).build();
+	}
+
+	@Override
+	public String name() {
+		return "metrics";
+	}
+
+	@Override
+	public void snapshot(Empty request, StreamObserver<MetricsSnapshot> observer) {
+		respond(observer, () -> snapshot(metrics.snapshot()));
+	}
+
+	@Override
+	public void text(Empty request, StreamObserver<StringValue> observer) {
+		respond(observer, () -> Rpc.string(metrics.text()));
+	}
+
+	@Override
+	public void close() {}
+}
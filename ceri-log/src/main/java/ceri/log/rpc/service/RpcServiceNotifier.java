@@ -1,19 +1,25 @@
 package ceri.log.rpc.service;
 
-import java.util.Set;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import com.google.protobuf.Empty;
+import ceri.common.collect.Immutable;
 import ceri.common.collect.Lists;
-import ceri.common.collect.Sets;
+import ceri.common.concurrent.Locker;
 import ceri.common.concurrent.SafeReadWrite;
 import ceri.common.concurrent.ValueCondition;
 import ceri.common.event.Listenable;
 import ceri.common.function.Enclosure;
 import ceri.common.function.Functions;
+import ceri.common.text.ToString;
+import ceri.common.util.Validate;
 import ceri.log.rpc.util.Rpc;
 import ceri.log.util.Logs;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 /**
@@ -27,25 +33,69 @@ import io.grpc.stub.StreamObserver;
  *   returns (stream &lt;notify-type&gt;) {}
  * </pre>
  *
- * This class receives local notifications, transforms to the rpc notify-type and uses the rpc
- * stream observers to notify remote clients.
+ * This class receives local notifications, transforms to the rpc notify-type once, and uses the
+ * rpc stream observers to notify remote clients. Each observer has a bounded queue that is drained
+ * while the call is ready for more messages, so a slow client does not hold up other clients or
+ * the notifying thread. A policy determines what happens when the queue is full.
  */
 public class RpcServiceNotifier<T, V> implements Functions.Closeable {
 	static final Logger logger = LogManager.getLogger();
 	private final SafeReadWrite safe = SafeReadWrite.of();
 	/** Used to notify whenever a listener is added or removed */
 	private final ValueCondition<Integer> listenerSync = ValueCondition.of(safe.conditionLock());
-	private final Set<StreamObserver<V>> observers = Sets.link(); // rpc clients
+	private final Config config;
+	private volatile List<Observer> observers = List.of(); // rpc clients, replaced on change
 	private final Enclosure<?> listener; // listen on create, unlisten on close
 	private final Functions.Function<T, V> transform; // transforms T to grpc value type V
 
+	/**
+	 * Determines how notifications are queued when an observer is not ready.
+	 */
+	public enum Policy {
+		/** Queues notifications; new notifications are dropped when the queue is full. */
+		BUFFER,
+		/** Queues notifications; the oldest notification is dropped when the queue is full. */
+		DROP_OLDEST,
+		/** Only keeps the latest notification. */
+		CONFLATE;
+	}
+
+	/**
+	 * Observer queue configuration.
+	 */
+	public record Config(Policy policy, int capacity) {
+		public static final Config DEFAULT = new Config(Policy.BUFFER, 1024);
+		public static final Config CONFLATE = new Config(Policy.CONFLATE, 1);
+
+		public Config {
+			Validate.min(capacity, 1);
+		}
+	}
+
+	/**
+	 * Notification statistics, summed over current observers.
+	 */
+	public record Stats(int observers, int queued, int maxQueued, long sent, long dropped) {
+		@Override
+		public String toString() {
+			return ToString.forClass(this, observers, queued, maxQueued, sent, dropped);
+		}
+	}
+
 	public static <T, V> RpcServiceNotifier<T, V> of(Listenable<T> listenable,
 		Functions.Function<T, V> transform) {
-		return new RpcServiceNotifier<>(listenable, transform);
+		return of(listenable, transform, Config.DEFAULT);
+	}
+
+	public static <T, V> RpcServiceNotifier<T, V> of(Listenable<T> listenable,
+		Functions.Function<T, V> transform, Config config) {
+		return new RpcServiceNotifier<>(listenable, transform, config);
 	}
 
-	private RpcServiceNotifier(Listenable<T> listenable, Functions.Function<T, V> transform) {
+	private RpcServiceNotifier(Listenable<T> listenable, Functions.Function<T, V> transform,
+		Config config) {
 		this.transform = transform;
+		this.config = config;
 		listener = listenable.enclose(this::notification);
 		logger.debug("Started");
 	}
@@ -64,9 +114,34 @@ public class RpcServiceNotifier<T, V> implements Functions.Closeable {
 	 * has called onNext(EMPTY).
 	 */
 	public StreamObserver<Empty> listen(StreamObserver<V> response) {
+		return listen(response, config);
+	}
+
+	/**
+	 * Called by service when a client has requested to listen, with a specific queue
+	 * configuration. Must be called from the service rpc method, before it returns.
+	 */
+	public StreamObserver<Empty> listen(StreamObserver<V> response, Config config) {
 		logger.trace("Listen: {}", Logs.hashId(response));
-		return Rpc.observer(_ -> add(response), () -> remove(response),
-			t -> error(response, t));
+		var observer = new Observer(response, config);
+		return Rpc.observer(_ -> add(observer), () -> remove(observer), t -> error(observer, t));
+	}
+
+	/**
+	 * Returns current queue and notification statistics.
+	 */
+	public Stats stats() {
+		int queued = 0, maxQueued = 0;
+		long sent = 0, dropped = 0;
+		var observers = this.observers;
+		for (var observer : observers) {
+			var stats = observer.stats();
+			queued += stats.queued;
+			maxQueued = Math.max(maxQueued, stats.queued);
+			sent += stats.sent;
+			dropped += stats.dropped;
+		}
+		return new Stats(observers.size(), queued, maxQueued, sent, dropped);
 	}
 
 	@Override
@@ -78,28 +153,112 @@ public class RpcServiceNotifier<T, V> implements Functions.Closeable {
 	private void notification(T t) {
 		logger.debug("Notification: {}", t);
 		V v = transform.apply(t);
-		var observers = safe.read(() -> Lists.of(this.observers));
-		observers.forEach(observer -> observer.onNext(v));
+		for (var observer : observers)
+			observer.offer(v);
 	}
 
-	private void add(StreamObserver<V> response) {
-		logger.debug("Listener added: {}", Logs.hashId(response));
+	private void add(Observer observer) {
+		logger.debug("Listener added: {}", Logs.hashId(observer.response));
 		safe.write(() -> {
-			observers.add(response);
-			listenerSync.signal(observers.size());
+			if (observers.contains(observer)) return;
+			var list = Lists.of(observers);
+			list.add(observer);
+			observers = Immutable.wrap(list);
+			listenerSync.signal(list.size());
 		});
 	}
 
-	private void remove(StreamObserver<V> response) {
-		logger.debug("Listener removed: {}", Logs.hashId(response));
+	private void remove(Observer observer) {
+		logger.debug("Listener removed: {}", Logs.hashId(observer.response));
 		safe.write(() -> {
-			observers.remove(response);
-			listenerSync.signal(observers.size());
+			var list = Lists.of(observers);
+			list.remove(observer);
+			observers = Immutable.wrap(list);
+			listenerSync.signal(list.size());
 		});
+		observer.clear();
 	}
 
-	private void error(StreamObserver<V> response, Throwable t) {
+	private void error(Observer observer, Throwable t) {
 		if (!RpcServices.ignorable(t)) logger.catching(Level.WARN, t);
-		remove(response);
+		remove(observer);
+	}
+
+	/**
+	 * Queue statistics for an observer.
+	 */
+	private record ObserverStats(int queued, long sent, long dropped) {}
+
+	/**
+	 * A remote client with a bounded notification queue. The queue is drained while the call is
+	 * ready, on the notifying thread or the call's ready handler.
+	 */
+	private class Observer {
+		private final Locker locker = Locker.of();
+		private final Queue<V> queue = new ArrayDeque<>();
+		public final StreamObserver<V> response;
+		private final ServerCallStreamObserver<V> call; // null if readiness is not available
+		private final Policy policy;
+		private final int capacity;
+		private long sent = 0;
+		private long dropped = 0;
+
+		public Observer(StreamObserver<V> response, Config config) {
+			this.response = response;
+			policy = config.policy();
+			capacity = policy == Policy.CONFLATE ? 1 : config.capacity();
+			if (response instanceof ServerCallStreamObserver<V> call) {
+				this.call = call;
+				call.setOnReadyHandler(this::drain);
+			} else this.call = null;
+		}
+
+		public void offer(V v) {
+			try {
+				locker.run(() -> {
+					enqueue(v);
+					drainQueue();
+				});
+			} catch (RuntimeException e) {
+				error(this, e);
+			}
+		}
+
+		public ObserverStats stats() {
+			return locker.get(() -> new ObserverStats(queue.size(), sent, dropped));
+		}
+
+		public void clear() {
+			locker.run(queue::clear);
+		}
+
+		private void drain() {
+			try {
+				locker.run(this::drainQueue);
+			} catch (RuntimeException e) {
+				error(this, e);
+			}
+		}
+
+		private void enqueue(V v) {
+			if (queue.size() >= capacity) {
+				dropped++;
+				if (policy == Policy.BUFFER) return;
+				queue.poll();
+			}
+			queue.add(v);
+		}
+
+		private void drainQueue() {
+			while (!queue.isEmpty() && ready()) {
+				response.onNext(queue.poll());
+				sent++;
+			}
+		}
+
+		private boolean ready() {
+			if (call == null) return true;
+			return !call.isCancelled() && call.isReady();
+		}
 	}
 }
@@ -17,6 +17,7 @@ import ceri.common.test.Testing;
 	ceri.log.concurrent.SocketListenerBehavior.class, //
 	// io
 	ceri.log.io.LogPrintStreamBehavior.class, //
+	ceri.log.io.ReconnectPolicyBehavior.class, //
 	ceri.log.io.SelfHealingBehavior.class, //
 	// io.test
 	ceri.log.io.test.TestTcpSocketBehavior.class, //
@@ -33,6 +34,7 @@ import ceri.common.test.Testing;
 	ceri.log.rpc.client.RpcClientNotifierBehavior.class, //
 	ceri.log.rpc.client.RpcClientsTest.class, //
 	// rpc.service
+	ceri.log.rpc.service.MetricsRpcServiceBehavior.class, //
 	ceri.log.rpc.service.RpcServerBehavior.class, //
 	ceri.log.rpc.service.RpcServiceBehavior.class, //
 	ceri.log.rpc.service.RpcServiceNotifierBehavior.class, //
@@ -26,6 +26,21 @@ public class DispatcherBehavior {
 		}
 	}
 
+	@Test
+	public void shouldProvideMetrics() throws InterruptedException {
+		var sync = ValueCondition.<String>of();
+		try (var disp = Dispatcher.<String>direct(0)) {
+			try (var _ = disp.listen(sync::signal)) {
+				disp.dispatch("test");
+				Assert.equal(sync.await(), "test");
+			}
+			disp.close(); // wait for dispatch to complete
+			var snapshot = disp.metrics().snapshot();
+			Assert.equal(snapshot.gauges().get("queue"), 0L);
+			Assert.equal(snapshot.histograms().get("dispatch").count(), 1L);
+		}
+	}
+
 	@Test
 	public void shouldAdaptTypeForListeners() throws InterruptedException {
 		var sync = ValueCondition.<Integer>of();
@@ -4,6 +4,7 @@ import static ceri.common.concurrent.Concurrent.delayMicros;
 import java.io.IOException;
 import org.apache.logging.log4j.Level;
 import org.junit.Test;
+import ceri.common.concurrent.Concurrent;
 import ceri.common.concurrent.ValueCondition;
 import ceri.common.function.Excepts;
 import ceri.common.test.Assert;
@@ -42,6 +43,62 @@ public class LoopingExecutorBehavior {
 		}, Level.OFF, LoopingExecutor.class);
 	}
 
+	@Test
+	public void shouldLoopOnVirtualThread() throws InterruptedException {
+		ValueCondition<Boolean> sync = ValueCondition.of();
+		try (var _ = new TestLoop(LoopingExecutor.Execution.VIRTUAL,
+			_ -> sync.signal(Thread.currentThread().isVirtual()))) {
+			Assert.equal(sync.await(), true);
+		}
+	}
+
+	@Test
+	public void shouldSetDefaultExecution() throws InterruptedException {
+		ValueCondition<Boolean> sync = ValueCondition.of();
+		Assert.thrown(() -> LoopingExecutor.defaultExecution(null));
+		LoopingExecutor.defaultExecution(LoopingExecutor.Execution.VIRTUAL);
+		try (var _ = new TestLoop(_ -> sync.signal(Thread.currentThread().isVirtual()))) {
+			Assert.equal(sync.await(), true);
+		} finally {
+			LoopingExecutor.defaultExecution(LoopingExecutor.Execution.PLATFORM);
+		}
+		Assert.same(LoopingExecutor.defaultExecution(), LoopingExecutor.Execution.PLATFORM);
+	}
+
+	@Test
+	public void shouldProvideStats() throws InterruptedException {
+		LogModifier.run(() -> {
+			try (var loop = new LoopingExecutor() {
+				private int i = 0;
+
+				{
+					start();
+				}
+
+				@Override
+				protected void loop() throws Exception {
+					switch (i++) {
+						case 0 -> idleRun(() -> Concurrent.delay(2));
+						case 1 -> Assert.equal(idleGet(() -> i), 2);
+						case 2 -> caught();
+						default -> throwIoException();
+					}
+				}
+			}) {
+				loop.waitUntilStopped();
+				var stats = loop.loopStats();
+				Assert.equal(stats.iterations(), 4L);
+				Assert.equal(stats.exceptions(), 2L);
+				Assert.yes(stats.idleNs() >= 2000000);
+				Assert.yes(stats.busyNs() >= 0);
+				var snapshot = loop.metrics().snapshot();
+				Assert.equal(snapshot.counters().get("iterations"), 4L);
+				Assert.equal(snapshot.counters().get("exceptions"), 2L);
+				Assert.equal(snapshot.histograms().get("busy").count(), 4L);
+			}
+		}, Level.OFF, LoopingExecutor.class);
+	}
+
 	@Test
 	public void shouldUseLogName() {
 		try (var _ = new TestLoop("testloop", _ -> delayMicros(10))) {}
@@ -66,6 +123,12 @@ public class LoopingExecutorBehavior {
 			start();
 		}
 
+		TestLoop(LoopingExecutor.Execution execution, Excepts.IntConsumer<?> looper) {
+			super(null, 1000, execution);
+			this.looper = looper;
+			start();
+		}
+
 		@Override
 		protected void loop() throws Exception {
 			looper.accept(count++);
@@ -0,0 +1,107 @@
+package ceri.log.io;
+
+import org.junit.Test;
+import ceri.common.metric.Metrics;
+import ceri.common.test.Assert;
+
+public class ReconnectPolicyBehavior {
+
+	@Test
+	public void shouldBackOffWithJitterUpToMax() {
+		var policy = policy(SelfHealing.Config.builder().fixRetryDelayMs(10).maxRetryDelayMs(100));
+		int prev = 10;
+		for (int i = 0; i < 20; i++) {
+			int delayMs = policy.failed();
+			Assert.range(delayMs, 10, Math.min(100, prev * 3));
+			prev = delayMs;
+		}
+	}
+
+	@Test
+	public void shouldResetBackOffWhenFixed() {
+		var policy = policy(SelfHealing.Config.builder().fixRetryDelayMs(10).maxRetryDelayMs(100));
+		for (int i = 0; i < 10; i++)
+			policy.failed();
+		policy.fixed();
+		Assert.range(policy.failed(), 10, 30);
+	}
+
+	@Test
+	public void shouldNotBackOffByDefault() {
+		var policy = policy(SelfHealing.Config.builder().fixRetryDelayMs(10));
+		for (int i = 0; i < 10; i++)
+			Assert.equal(policy.failed(), 10);
+	}
+
+	@Test
+	public void shouldTrackCircuitState() throws Exception {
+		var metrics = Metrics.of();
+		var policy = new ReconnectPolicy(
+			SelfHealing.Config.builder().fixRetryDelayMs(0).failFast(true).build(), metrics);
+		policy.check();
+		policy.broken(() -> true);
+		Assert.equal(policy.state(), ReconnectPolicy.State.open);
+		Assert.thrown(ReconnectPolicy.CircuitOpenException.class, policy::check);
+		policy.attempt();
+		Assert.equal(policy.state(), ReconnectPolicy.State.halfOpen);
+		Assert.thrown(ReconnectPolicy.CircuitOpenException.class, policy::check);
+		policy.failed();
+		Assert.equal(policy.state(), ReconnectPolicy.State.open);
+		policy.attempt();
+		policy.fixed();
+		Assert.equal(policy.state(), ReconnectPolicy.State.closed);
+		policy.check();
+		var snapshot = metrics.snapshot();
+		Assert.equal(snapshot.counters().get("attempts"), 2L);
+		Assert.equal(snapshot.counters().get("failures"), 1L);
+		Assert.equal(snapshot.histograms().get("outage").count(), 1L);
+	}
+
+	@Test
+	public void shouldNotFailFastByDefault() throws Exception {
+		var policy = policy(SelfHealing.Config.builder());
+		policy.broken(() -> true);
+		policy.check();
+	}
+
+	@Test
+	public void shouldValidateBudget() {
+		Assert.illegalArg(() -> ReconnectPolicy.Budget.of(0, 1));
+		Assert.illegalArg(() -> ReconnectPolicy.Budget.of(1, 0));
+	}
+
+	@Test
+	public void shouldShareBudgetByName() {
+		var budget = ReconnectPolicy.Budget.shared("shouldShareBudgetByName", 1, 2);
+		Assert.same(ReconnectPolicy.Budget.shared("shouldShareBudgetByName", 3, 4), budget);
+		Assert.notSame(ReconnectPolicy.Budget.shared("shouldShareBudgetByName2", 1, 2), budget);
+	}
+
+	@Test
+	public void shouldLimitAttemptsToBudget() {
+		var budget = ReconnectPolicy.Budget.of(100, 2);
+		long t0 = System.nanoTime();
+		budget.acquire();
+		budget.acquire();
+		Assert.range(budget.permits(), 0.0, 1.0);
+		budget.acquire(); // waits ~10ms for refill
+		Assert.yes(System.nanoTime() - t0 >= 5_000_000L);
+	}
+
+	@Test
+	public void shouldNotLimitNullBudget() {
+		for (int i = 0; i < 100; i++)
+			ReconnectPolicy.Budget.NULL.acquire();
+		Assert.equal(ReconnectPolicy.Budget.NULL.permits(), Double.POSITIVE_INFINITY);
+	}
+
+	@Test
+	public void shouldProvideStringRepresentation() {
+		Assert.find(ReconnectPolicy.Budget.of(1.5, 3), "1.5,3");
+		Assert.find(policy(SelfHealing.Config.builder()), "closed");
+	}
+
+	private static ReconnectPolicy policy(SelfHealing.Config.Builder builder) {
+		return new ReconnectPolicy(builder.build(), Metrics.of());
+	}
+}
@@ -4,7 +4,9 @@ import java.io.IOException;
 import org.apache.logging.log4j.Level;
 import org.junit.After;
 import org.junit.Test;
+import ceri.common.concurrent.BoolCondition;
 import ceri.common.function.Closeables;
+import ceri.common.io.StateChange;
 import ceri.common.test.Assert;
 import ceri.common.test.ErrorGen;
 import ceri.common.test.TestFixable;
@@ -20,10 +22,18 @@ public class SelfHealingBehavior {
 
 	private static class TestSelfHealingDevice extends SelfHealing<TestFixable> {
 		private final TestFixable testFixable;
+		private final BoolCondition fixed = BoolCondition.of();
 
 		private TestSelfHealingDevice(Config config, TestFixable testFixable) {
 			super(config);
 			this.testFixable = testFixable;
+			listeners().listen(state -> {
+				if (state == StateChange.fixed) fixed.signal();
+			});
+		}
+
+		private void waitUntilFixed() throws InterruptedException {
+			fixed.awaitPeek();
 		}
 
 		@Override
@@ -42,10 +52,14 @@ public class SelfHealingBehavior {
 
 	@Test
 	public void shouldCopyConfigExceptForDefaultBrokenPredicate() {
-		var conf = SelfHealing.Config.builder().fixRetryDelayMs(1).recoveryDelayMs(3)
+		var conf = SelfHealing.Config.builder().fixRetryDelayMs(1).maxRetryDelayMs(2)
+			.recoveryDelayMs(3).failFast(true).budget(ReconnectPolicy.Budget.of(1, 1))
 			.brokenPredicate(_ -> true).apply(SelfHealing.Config.DEFAULT).build();
 		Assert.equal(conf.fixRetryDelayMs, SelfHealing.Config.DEFAULT.fixRetryDelayMs);
+		Assert.equal(conf.maxRetryDelayMs, SelfHealing.Config.DEFAULT.maxRetryDelayMs);
 		Assert.equal(conf.recoveryDelayMs, SelfHealing.Config.DEFAULT.recoveryDelayMs);
+		Assert.equal(conf.failFast, SelfHealing.Config.DEFAULT.failFast);
+		Assert.same(conf.budget, ReconnectPolicy.Budget.NULL);
 		Assert.yes(conf.hasBrokenPredicate());
 		Assert.yes(conf.broken(null));
 	}
@@ -56,6 +70,50 @@ public class SelfHealingBehavior {
 			new SelfHealing.Properties(Testing.properties("self-healing"), "device").config();
 		Assert.equal(config.fixRetryDelayMs, 123);
 		Assert.equal(config.recoveryDelayMs, 456);
+		Assert.equal(config.maxRetryDelayMs, 789);
+		Assert.equal(config.failFast, true);
+		Assert.same(config.budget, ReconnectPolicy.Budget.shared("test", 1, 1));
+		Assert.equal(config.budget.permits(), 3.0);
+	}
+
+	@Test
+	public void shouldFailFastWhileBroken() throws Exception {
+		fixable = TestFixable.of();
+		device = new TestSelfHealingDevice(SelfHealing.Config.builder().apply(CONF)
+			.failFast(true).build(), fixable);
+		device.open();
+		fixable.open.assertAuto(true);
+		Assert.equal(device.policy().state(), ReconnectPolicy.State.closed);
+		fixable.open.autoResponse(false);
+		device.broken();
+		Assert.thrown(ReconnectPolicy.CircuitOpenException.class,
+			() -> device.device.acceptValid(_ -> {}));
+		fixable.open.await();
+		device.waitUntilFixed();
+		device.device.acceptValid(_ -> {});
+	}
+
+	@Test
+	public void shouldTrackReconnectMetrics() throws Exception {
+		init();
+		LogModifier.run(() -> {
+			fixable.open.autoResponse(false);
+			fixable.open.error.setFrom(ErrorGen.IOX, ErrorGen.IOX, null);
+			try (var exec = Testing.threadRun(() -> {
+				fixable.open.await(); // IOX
+				fixable.open.await(); // IOX
+				fixable.open.await(); // success
+			})) {
+				Assert.thrown(device::open);
+				exec.get();
+			}
+			device.waitUntilFixed();
+			var snapshot = device.metrics().snapshot();
+			Assert.equal(snapshot.counters().get("broken"), 1L);
+			Assert.equal(snapshot.counters().get("attempts"), 2L);
+			Assert.equal(snapshot.counters().get("failures"), 1L);
+			Assert.equal(snapshot.histograms().get("outage").count(), 1L);
+		}, Level.OFF, SelfHealing.class);
 	}
 
 	@Test
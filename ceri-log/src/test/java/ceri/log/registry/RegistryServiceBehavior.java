@@ -120,6 +120,35 @@ public class RegistryServiceBehavior {
 		service.close();
 		var p = save.awaitAuto();
 		Assert.equal(p.getProperty("a.b.c"), "123");
+		service.registry.accept(r -> r.set(456, "a.b.c"));
+		Assert.equal(p.getProperty("a.b.c"), "123"); // snapshot
+		Assert.equal(service.stats().saves(), 1L);
+	}
+
+	@Test
+	public void shouldSkipUnchangedSnapshot() throws IOException {
+		init("a.b.c=123");
+		service.registry.accept(p -> p.set(456, "a.b.c"));
+		service.registry.accept(p -> p.set(123, "a.b.c"));
+		service.close();
+		Assert.equal(files.readString(REG_FILENAME), "a.b.c=123");
+		Assert.equal(service.stats().saves(), 0L);
+		Assert.equal(service.stats().skipped(), 1L);
+	}
+
+	@Test
+	public void shouldReplaceFileContent() throws IOException {
+		init("a.b.c=123", "x.y.z=abcdefghijklmnopqrstuvwxyz");
+		service.registry.accept(p -> p.set(null, "x.y.z"));
+		service.close();
+		var content = files.readString(REG_FILENAME);
+		Assert.find(content, "a\\.b\\.c=123");
+		Assert.no(content.contains("x.y.z"));
+		Assert.no(files.path(REG_FILENAME + ".tmp").toFile().exists());
+		var stats = service.stats();
+		Assert.equal(stats.saves(), 1L);
+		Assert.yes(stats.totalSaveMs() >= stats.lastSaveMs());
+		Assert.yes(stats.maxSaveMs() >= stats.lastSaveMs());
 	}
 
 	@Test
@@ -0,0 +1,43 @@
+package ceri.log.rpc.service;
+
+import org.junit.Test;
+import com.google.protobuf.StringValue;
+import ceri.common.metric.Metrics;
+import ceri.common.test.Assert;
+import ceri.log.rpc.MetricsProto.MetricsSnapshot;
+import ceri.log.rpc.test.TestStreamObserver;
+import ceri.log.rpc.util.Rpc;
+
+public class MetricsRpcServiceBehavior {
+
+	@Test
+	public void shouldExportSnapshot() {
+		var metrics = Metrics.of();
+		metrics.counter("c").add(3);
+		metrics.child("x").gauge("g").set(5);
+		metrics.histogram("h").record(7);
+		try (var service = MetricsRpcService.of(metrics)) {
+			var observer = TestStreamObserver.<MetricsSnapshot>of();
+			service.snapshot(Rpc.EMPTY, observer);
+			var snapshot = observer.next.awaitAuto();
+			observer.completed.awaitAuto();
+			Assert.equal(snapshot.getCountersOrThrow("c"), 3L);
+			Assert.equal(snapshot.getGaugesOrThrow("x.g"), 5L);
+			var h = snapshot.getHistogramsOrThrow("h");
+			Assert.equal(h.getCount(), 1L);
+			Assert.equal(h.getP99(), 7L);
+		}
+	}
+
+	@Test
+	public void shouldExportText() {
+		var metrics = Metrics.of();
+		metrics.counter("c").increment();
+		try (var service = MetricsRpcService.of(metrics)) {
+			Assert.equal(service.name(), "metrics");
+			var observer = TestStreamObserver.<StringValue>of();
+			service.text(Rpc.EMPTY, observer);
+			Assert.equal(observer.next.awaitAuto().getValue(), "counter c 1\n");
+		}
+	}
+}
@@ -6,6 +6,8 @@ import org.apache.logging.log4j.Level;
 import org.junit.Test;
 import com.google.protobuf.Empty;
 import ceri.common.event.Listeners;
+import ceri.common.test.Assert;
+import ceri.log.rpc.test.TestServerCallObserver;
 import ceri.log.rpc.test.TestStreamObserver;
 import ceri.log.test.LogModifier;
 import io.grpc.Status;
@@ -30,6 +32,76 @@ public class RpcServiceNotifierBehavior {
 		}
 	}
 
+	@Test
+	public void shouldNotifyWhenReady() throws InterruptedException {
+		Listeners<String> listeners = Listeners.of();
+		try (var notifier = RpcServiceNotifier.of(listeners, Integer::parseInt)) {
+			var client = TestServerCallObserver.<Integer>of();
+			notifier.listen(client).onNext(EMPTY);
+			notifier.waitForListener(i -> i == 1);
+			listeners.accept("1");
+			client.ready = false;
+			listeners.accept("2");
+			listeners.accept("3");
+			Assert.ordered(client.values, 1);
+			Assert.equal(notifier.stats(), new RpcServiceNotifier.Stats(1, 2, 2, 1, 0));
+			client.ready(true);
+			Assert.ordered(client.values, 1, 2, 3);
+			Assert.equal(notifier.stats(), new RpcServiceNotifier.Stats(1, 0, 0, 3, 0));
+		}
+	}
+
+	@Test
+	public void shouldDropNewNotificationsWhenBufferIsFull() throws InterruptedException {
+		var client = assertQueued(new RpcServiceNotifier.Config(RpcServiceNotifier.Policy.BUFFER, 2),
+			new RpcServiceNotifier.Stats(1, 2, 2, 0, 2));
+		Assert.ordered(client.values, 1, 2);
+	}
+
+	@Test
+	public void shouldDropOldestNotificationsWhenBufferIsFull() throws InterruptedException {
+		var client = assertQueued(
+			new RpcServiceNotifier.Config(RpcServiceNotifier.Policy.DROP_OLDEST, 2),
+			new RpcServiceNotifier.Stats(1, 2, 2, 0, 2));
+		Assert.ordered(client.values, 3, 4);
+	}
+
+	@Test
+	public void shouldConflateNotifications() throws InterruptedException {
+		var client = assertQueued(RpcServiceNotifier.Config.CONFLATE,
+			new RpcServiceNotifier.Stats(1, 1, 1, 0, 3));
+		Assert.ordered(client.values, 4);
+	}
+
+	@Test
+	public void shouldRemoveObserverOnNotificationFailure() throws InterruptedException {
+		Listeners<String> listeners = Listeners.of();
+		try (var notifier = RpcServiceNotifier.of(listeners, Integer::parseInt)) {
+			TestStreamObserver<Integer> client = TestStreamObserver.of();
+			client.next.error.setFrom(RpcServiceNotifierBehavior::halfCloseException);
+			notifier.listen(client).onNext(EMPTY);
+			notifier.waitForListener(i -> i == 1);
+			listeners.accept("1");
+			notifier.waitForListener(i -> i == 0);
+		}
+	}
+
+	private static TestServerCallObserver<Integer> assertQueued(RpcServiceNotifier.Config config,
+		RpcServiceNotifier.Stats stats) throws InterruptedException {
+		Listeners<String> listeners = Listeners.of();
+		try (var notifier = RpcServiceNotifier.of(listeners, Integer::parseInt)) {
+			var client = TestServerCallObserver.<Integer>of();
+			client.ready = false;
+			notifier.listen(client, config).onNext(EMPTY);
+			notifier.waitForListener(i -> i == 1);
+			for (int i = 1; i <= 4; i++)
+				listeners.accept(String.valueOf(i));
+			Assert.equal(notifier.stats(), stats);
+			client.ready(true);
+			return client;
+		}
+	}
+
 	private static StatusRuntimeException halfCloseException() {
 		return Status.CANCELLED.withDescription("cancelled before receiving half close")
 			.asRuntimeException();
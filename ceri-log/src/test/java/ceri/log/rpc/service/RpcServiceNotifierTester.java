@@ -0,0 +1,58 @@
+package ceri.log.rpc.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ceri.common.concurrent.Concurrent;
+import ceri.log.rpc.client.TestRpcClient;
+
+/**
+ * Measures notification fan-out over the Test rpc service on localhost, with one fast and one
+ * slow client. Prints publish and delivery rates, and queue statistics for each policy.
+ */
+public class RpcServiceNotifierTester {
+	private static final int PORT = 12346;
+	private static final int NOTIFICATIONS = 20000;
+	private static final int SLOW_CLIENT_DELAY_MS = 1;
+	private static final int TIMEOUT_S = 10;
+
+	public static void main(String[] args) throws Exception {
+		run(RpcServiceNotifier.Config.DEFAULT);
+		run(new RpcServiceNotifier.Config(RpcServiceNotifier.Policy.DROP_OLDEST, 64));
+		run(RpcServiceNotifier.Config.CONFLATE);
+	}
+
+	private static void run(RpcServiceNotifier.Config config) throws Exception {
+		var fast = new AtomicInteger();
+		var slow = new AtomicInteger();
+		try (var service = TestRpcService.of(config);
+			var _ = RpcServer.start(service, new RpcServer.Config(PORT, 1000));
+			var fastClient = new TestRpcClient(PORT, 0);
+			var slowClient = new TestRpcClient(PORT, 0);
+			var _ = fastClient.listen(_ -> fast.incrementAndGet());
+			var _ = slowClient.listen(_ -> {
+				slow.incrementAndGet();
+				Concurrent.delay(SLOW_CLIENT_DELAY_MS);
+			})) {
+			service.waitForClients(2);
+			long t0 = System.nanoTime();
+			for (int i = 0; i < NOTIFICATIONS; i++)
+				service.notify(i);
+			long t1 = System.nanoTime();
+			var stats = service.stats();
+			long timeoutNs = TimeUnit.SECONDS.toNanos(TIMEOUT_S);
+			while (fast.get() < NOTIFICATIONS && System.nanoTime() - t1 < timeoutNs)
+				Concurrent.delay(1);
+			long t2 = System.nanoTime();
+			System.out.printf("%s:%n", config);
+			System.out.printf("  publish: %.0f/s%n", rate(NOTIFICATIONS, t1 - t0));
+			System.out.printf("  fast client: %d received, %.0f/s%n", fast.get(),
+				rate(fast.get(), t2 - t0));
+			System.out.printf("  slow client: %d received%n", slow.get());
+			System.out.printf("  after publish: %s%n", stats);
+		}
+	}
+
+	private static double rate(int count, long ns) {
+		return count * 1e9 / Math.max(1, ns);
+	}
+}
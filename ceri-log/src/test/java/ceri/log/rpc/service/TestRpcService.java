@@ -18,14 +18,22 @@ public class TestRpcService extends TestGrpc.TestImplBase implements Functions.C
 	public Excepts.IntSupplier<?> get = null;
 
 	public static TestRpcService of() {
-		return new TestRpcService();
+		return of(RpcServiceNotifier.Config.DEFAULT);
 	}
 
-	private TestRpcService() {
-		notifier = RpcServiceNotifier.of(listeners, UInt32Value::of);
+	public static TestRpcService of(RpcServiceNotifier.Config config) {
+		return new TestRpcService(config);
+	}
+
+	private TestRpcService(RpcServiceNotifier.Config config) {
+		notifier = RpcServiceNotifier.of(listeners, UInt32Value::of, config);
 		reset();
 	}
 
+	public RpcServiceNotifier.Stats stats() {
+		return notifier.stats();
+	}
+
 	public void reset() {
 		run = () -> {};
 		set = _ -> {};
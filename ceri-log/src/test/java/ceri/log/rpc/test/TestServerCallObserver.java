@@ -0,0 +1,70 @@
+package ceri.log.rpc.test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import io.grpc.stub.ServerCallStreamObserver;
+
+/**
+ * Server call observer that collects values, with controllable readiness.
+ */
+public class TestServerCallObserver<T> extends ServerCallStreamObserver<T> {
+	public final List<T> values = new CopyOnWriteArrayList<>();
+	public volatile boolean ready = true;
+	public volatile boolean cancelled = false;
+	private volatile Runnable onReady = () -> {};
+
+	public static <T> TestServerCallObserver<T> of() {
+		return new TestServerCallObserver<>();
+	}
+
+	private TestServerCallObserver() {}
+
+	/**
+	 * Sets the ready state, and calls the ready handler if ready.
+	 */
+	public void ready(boolean ready) {
+		this.ready = ready;
+		if (ready) onReady.run();
+	}
+
+	@Override
+	public boolean isReady() {
+		return ready;
+	}
+
+	@Override
+	public void setOnReadyHandler(Runnable onReadyHandler) {
+		onReady = onReadyHandler;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public void setOnCancelHandler(Runnable onCancelHandler) {}
+
+	@Override
+	public void setCompression(String compression) {}
+
+	@Override
+	public void disableAutoInboundFlowControl() {}
+
+	@Override
+	public void request(int count) {}
+
+	@Override
+	public void setMessageCompression(boolean enable) {}
+
+	@Override
+	public void onNext(T value) {
+		values.add(value);
+	}
+
+	@Override
+	public void onError(Throwable t) {}
+
+	@Override
+	public void onCompleted() {}
+}
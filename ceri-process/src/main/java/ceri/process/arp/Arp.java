@@ -3,6 +3,7 @@ package ceri.process.arp;
 import java.io.IOException;
 import java.util.List;
 import java.util.regex.Pattern;
+import ceri.common.collect.Lists;
 import ceri.common.process.Output;
 import ceri.common.process.Parameters;
 import ceri.common.process.Processor;
@@ -73,6 +74,18 @@ public class Arp {
 		return Output.of(exec(Parameters.of("-a")), Entry::fromOutput);
 	}
 
+	/**
+	 * Parses entries from each line of output as it is received.
+	 */
+	public List<Entry> entries() throws IOException {
+		List<Entry> entries = Lists.of();
+		processor.lines(Parameters.of(ARP, "-a"), line -> {
+			var entry = Entry.fromLine(line);
+			if (entry.nonNull()) entries.add(entry);
+		});
+		return entries;
+	}
+
 	private String exec(Parameters params) throws IOException {
 		return processor.exec(Parameters.of(ARP).addAll(params));
 	}
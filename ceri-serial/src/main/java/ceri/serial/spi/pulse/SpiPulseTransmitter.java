@@ -107,12 +107,13 @@ public class SpiPulseTransmitter extends LoopingExecutor implements ByteReceiver
 	@Override
 	protected void loop() throws InterruptedException {
 		try {
-			syncData();
+			idleRun(this::syncData);
 			xfer.execute();
 			exceptions.clear();
 		} catch (InterruptedException | RuntimeInterruptedException e) {
 			throw e;
 		} catch (Exception e) {
+			caught();
 			if (exceptions.add(e)) logger.catching(e);
 			Concurrent.delay(config.resetDelayMs());
 		}
@@ -141,6 +141,13 @@ public class Cm11aDevice implements Cm11a {
 		return processor.requestStatus();
 	}
 
+	/**
+	 * Returns command transmission statistics.
+	 */
+	public CommandScheduler.Stats stats() {
+		return processor.stats();
+	}
+
 	@Override
 	public Enclosure<Command.Listener> listen(Command.Listener listener) {
 		return dispatcher.listen(listener);
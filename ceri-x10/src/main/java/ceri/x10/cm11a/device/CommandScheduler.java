@@ -0,0 +1,256 @@
+package ceri.x10.cm11a.device;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import ceri.common.collect.Lists;
+import ceri.common.collect.Sets;
+import ceri.common.concurrent.Locker;
+import ceri.common.function.Excepts;
+import ceri.common.reflect.Reflect;
+import ceri.common.text.ToString;
+import ceri.x10.cm11a.protocol.Entry;
+import ceri.x10.command.Command;
+import ceri.x10.command.FunctionGroup;
+import ceri.x10.command.House;
+import ceri.x10.command.Unit;
+
+/**
+ * Collects queued commands, and merges them into the fewest address and function entries for
+ * transmission. A command is merged into the most recent command group on the same house if it has
+ * the same function. Relative functions such as dim, bright and ext are only merged for units not
+ * already in the group, so each unit still receives every step. Groups on other houses in between
+ * do not prevent merging, as X10 unit addressing is per house. Tracks latency from queueing to
+ * completion for each command.
+ */
+public class CommandScheduler {
+	private static final int LATENCY_SAMPLES_DEF = 1024;
+	private final Locker locker = Locker.of();
+	private final Queue<Pending> queue = new ArrayDeque<>();
+	private final long[] latencies;
+	private long commands = 0;
+	private long batches = 0;
+	private long entries = 0;
+	private long merged = 0;
+	private long retries = 0;
+
+	/**
+	 * A queued command, completed when its batch has been sent.
+	 */
+	public static class Pending {
+		public final Command command;
+		private final long t0 = System.nanoTime();
+		private volatile boolean done = false;
+		private Exception ex = null;
+
+		private Pending(Command command) {
+			this.command = command;
+		}
+
+		public boolean done() {
+			return done;
+		}
+
+		private void verify() throws IOException {
+			if (ex == null) return;
+			if (ex instanceof RuntimeException e) throw e;
+			throw Reflect.<IOException>unchecked(ex);
+		}
+	}
+
+	/**
+	 * Command statistics with latency percentiles in microseconds.
+	 */
+	public record Stats(long commands, long batches, long entries, long merged, long retries,
+		long p50Us, long p90Us, long p99Us, long maxUs) {
+
+		public static final Stats ZERO = new Stats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+		@Override
+		public String toString() {
+			return ToString.forClass(this, commands, batches, entries, merged, retries,
+				p50Us + "us", p90Us + "us", p99Us + "us", maxUs + "us");
+		}
+	}
+
+	/**
+	 * Merges commands into the fewest address and function entries, preserving the order of
+	 * functions on each house.
+	 */
+	public static List<Entry> entries(List<Command> commands) {
+		List<Group> groups = Lists.of();
+		for (var command : commands)
+			add(groups, command);
+		List<Entry> entries = Lists.of();
+		for (var group : groups)
+			group.addTo(entries);
+		return entries;
+	}
+
+	public static CommandScheduler of() {
+		return of(LATENCY_SAMPLES_DEF);
+	}
+
+	public static CommandScheduler of(int latencySamples) {
+		return new CommandScheduler(latencySamples);
+	}
+
+	private CommandScheduler(int latencySamples) {
+		latencies = new long[latencySamples];
+	}
+
+	/**
+	 * Queues a command for the next batch.
+	 */
+	public Pending add(Command command) {
+		var pending = new Pending(command);
+		locker.run(() -> queue.add(pending));
+		return pending;
+	}
+
+	/**
+	 * Removes a pending command if it has not been sent.
+	 */
+	public void cancel(Pending pending) {
+		locker.run(() -> queue.remove(pending));
+	}
+
+	/**
+	 * Sends all queued commands as merged entries, unless the pending command has already been
+	 * sent in a previous batch. Returns the commands sent in this call. Any failure is thrown, and
+	 * recorded against each command in the batch.
+	 */
+	public List<Command> send(Pending pending, Excepts.Consumer<IOException, List<Entry>> sender)
+		throws IOException {
+		if (pending.done) {
+			pending.verify();
+			return List.of();
+		}
+		var batch = locker.get(() -> drain());
+		var commands = Lists.adapt(p -> p.command, batch);
+		var entries = entries(commands);
+		try {
+			sender.accept(entries);
+			complete(batch, entries.size(), null);
+			return commands;
+		} catch (RuntimeException | IOException e) {
+			complete(batch, entries.size(), e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Records an entry re-send.
+	 */
+	public void retried() {
+		locker.run(() -> retries++);
+	}
+
+	/**
+	 * Returns current statistics.
+	 */
+	public Stats stats() {
+		return locker.get(() -> {
+			int n = (int) Math.min(commands, latencies.length);
+			if (n == 0) return new Stats(0, batches, entries, merged, retries, 0, 0, 0, 0);
+			var sorted = Arrays.copyOf(latencies, n);
+			Arrays.sort(sorted);
+			return new Stats(commands, batches, entries, merged, retries,
+				percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+				sorted[n - 1]);
+		});
+	}
+
+	@Override
+	public String toString() {
+		return stats().toString();
+	}
+
+	private List<Pending> drain() {
+		List<Pending> batch = Lists.of(queue);
+		queue.clear();
+		return batch;
+	}
+
+	private void complete(List<Pending> batch, int entryCount, Exception ex) {
+		long t = System.nanoTime();
+		locker.run(() -> {
+			batches++;
+			entries += entryCount;
+			for (var pending : batch) {
+				pending.ex = ex; // before volatile done, so readers of done see ex
+				pending.done = true;
+				merged += Entry.allFrom(pending.command).size();
+				latencies[(int) (commands++ % latencies.length)] =
+					TimeUnit.NANOSECONDS.toMicros(t - pending.t0);
+			}
+			merged -= entryCount;
+		});
+	}
+
+	private static long percentile(long[] sorted, int percent) {
+		int i = (int) Math.ceil(sorted.length * percent / 100.0) - 1;
+		return sorted[Math.max(0, i)];
+	}
+
+	private static void add(List<Group> groups, Command command) {
+		var commandEntries = Entry.allFrom(command);
+		if (commandEntries.isEmpty()) return;
+		var function = Lists.last(commandEntries);
+		for (int i = groups.size() - 1; i >= 0; i--) {
+			var group = groups.get(i);
+			if (group.house != command.house()) continue;
+			if (group.canMerge(function, command.units())) {
+				group.units.addAll(command.units());
+				return;
+			}
+			break;
+		}
+		groups.add(new Group(command.house(), function, command.units()));
+	}
+
+	/**
+	 * Returns true if repeating the function has no further effect. Dim, bright and extended
+	 * functions are relative or device-specific, so each one must be sent.
+	 */
+	private static boolean idempotent(Entry function) {
+		var group = function.type.group;
+		return group == FunctionGroup.house || group == FunctionGroup.unit;
+	}
+
+	/**
+	 * Units with a common function on one house.
+	 */
+	private static class Group {
+		public final House house;
+		public final Entry function;
+		public final Set<Unit> units = Sets.tree();
+
+		private Group(House house, Entry function, Set<Unit> units) {
+			this.house = house;
+			this.function = function;
+			this.units.addAll(units);
+		}
+
+		/**
+		 * A command may merge with the same function. Non-idempotent functions only merge if no
+		 * unit would receive the function twice.
+		 */
+		public boolean canMerge(Entry function, Set<Unit> units) {
+			if (!this.function.equals(function)) return false;
+			if (idempotent(function)) return true;
+			return !units.isEmpty() && Collections.disjoint(this.units, units);
+		}
+
+		public void addTo(List<Entry> entries) {
+			for (var unit : units)
+				entries.add(Entry.address(house, unit));
+			entries.add(function);
+		}
+	}
+}
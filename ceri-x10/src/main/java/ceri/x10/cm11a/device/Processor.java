@@ -1,8 +1,8 @@
 package ceri.x10.cm11a.device;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,8 +14,10 @@ import ceri.common.data.ByteStream;
 import ceri.common.except.ExceptionTracker;
 import ceri.common.except.Exceptions;
 import ceri.common.function.Functions;
+import ceri.common.io.CoalescingOutputStream;
 import ceri.common.io.Connector;
 import ceri.common.io.PollingInputStream;
+import ceri.common.metric.Histogram;
 import ceri.log.concurrent.LoopingExecutor;
 import ceri.x10.cm11a.protocol.Clock;
 import ceri.x10.cm11a.protocol.X10Data;
@@ -33,13 +35,17 @@ import ceri.x10.command.Command;
  */
 public class Processor extends LoopingExecutor {
 	private static final Logger logger = LogManager.getFormatterLogger();
+	private static final int CHECKSUM_POLLS_MAX = 8; // device polls processed per checksum
 	private final Cm11aDevice.Config config;
 	private final TaskQueue<IOException> taskQueue;
 	private final Functions.Consumer<Command> dispatcher;
 	private final ByteStream.Reader in;
 	private final ByteStream.Writer out;
 	private final EntryCollector collector;
+	private final CommandScheduler scheduler = CommandScheduler.of();
 	private final ExceptionTracker exceptions = ExceptionTracker.of();
+	private final Histogram commandNs = metrics().histogram("command");
+	private final Histogram entryNs = metrics().histogram("entry");
 
 	@SuppressWarnings("resource")
 	Processor(Cm11aDevice.Config config, Connector connector,
@@ -50,7 +56,9 @@ public class Processor extends LoopingExecutor {
 			PollingInputStream pollIn = new PollingInputStream(
 				new BufferedInputStream(connector.in()), config.readPollMs, config.readTimeoutMs);
 			in = ByteStream.reader(pollIn);
-			out = ByteStream.writer(new BufferedOutputStream(connector.out()));
+			var coalescingOut = CoalescingOutputStream.of(connector.out());
+			metrics().child("out", coalescingOut.metrics());
+			out = ByteStream.writer(coalescingOut);
 			this.dispatcher = dispatcher;
 			collector = new EntryCollector(dispatcher);
 			start();
@@ -60,8 +68,22 @@ public class Processor extends LoopingExecutor {
 		}
 	}
 
+	/**
+	 * Queues the command and waits for it to be sent. Commands queued while the device is busy are
+	 * merged into the next transmission.
+	 */
 	public void command(Command command) throws IOException {
-		taskQueue.execute(() -> sendCommand(command));
+		var pending = scheduler.add(command);
+		try {
+			taskQueue.execute(() -> sendCommands(pending));
+		} catch (RuntimeException e) {
+			if (!pending.done()) scheduler.cancel(pending);
+			throw e;
+		}
+	}
+
+	public CommandScheduler.Stats stats() {
+		return scheduler.stats();
 	}
 
 	public Status requestStatus() throws IOException {
@@ -73,19 +95,32 @@ public class Processor extends LoopingExecutor {
 		try {
 			Concurrent.checkInterrupted();
 			if (in.available() > 0) processInput(in.readUbyte());
-			else taskQueue.processNext(config.queuePollTimeoutMs, TimeUnit.MILLISECONDS);
+			else idleRun(
+				() -> taskQueue.processNext(config.queuePollTimeoutMs, TimeUnit.MILLISECONDS));
 			exceptions.clear();
 		} catch (RuntimeInterruptedException | InterruptedException e) {
 			throw e;
 		} catch (RuntimeException | IOException e) {
+			caught();
 			if (exceptions.add(e)) logger.catching(e);
 		}
 	}
 
-	private void sendCommand(Command command) throws IOException {
-		for (Entry entry : Entry.allFrom(command))
-			sendEntry(entry);
-		dispatcher.accept(command);
+	private void sendCommands(CommandScheduler.Pending pending) throws IOException {
+		var commands = commandNs.time(() -> scheduler.send(pending, this::sendEntries));
+		for (var command : commands)
+			dispatcher.accept(command);
+	}
+
+	/**
+	 * Sends entries in order, processing any device input between entries.
+	 */
+	private void sendEntries(List<Entry> entries) throws IOException {
+		for (var entry : entries) {
+			while (in.available() > 0)
+				processInput(in.readUbyte());
+			entryNs.time(() -> sendEntry(entry));
+		}
 	}
 
 	/**
@@ -104,16 +139,22 @@ public class Processor extends LoopingExecutor {
 
 	/**
 	 * Sends a single entry to the device, waits for checksum, checks the value then sends
-	 * acknowledgment.
+	 * acknowledgment. The entry is re-sent if the checksum does not match, up to the maximum
+	 * number of attempts.
 	 */
 	@SuppressWarnings("resource")
 	private void sendEntry(Entry entry) throws IOException {
 		logger.debug("Sending: %s", entry);
 		ByteProvider data = Transmit.encode(entry);
 		int checksum = X10Data.checksum(data);
-		// TODO: add resend logic if checksum fails
-		out.writeFrom(data);
-		await(checksum);
+		for (int i = 0;; i++) {
+			out.writeFrom(data);
+			if (awaitChecksum(checksum)) break;
+			if (i + 1 >= config.maxSendAttempts) throw Exceptions.io(
+				"Checksum 0x%02x failed in %d attempts", checksum, config.maxSendAttempts);
+			logger.debug("Checksum mismatch, re-sending: %s", entry);
+			scheduler.retried();
+		}
 		out.writeByte(Protocol.OK.value);
 		await(Protocol.READY.value);
 	}
@@ -146,6 +187,25 @@ public class Processor extends LoopingExecutor {
 		out.writeFrom(data).flush();
 	}
 
+	/**
+	 * Waits for the checksum from the device, processing device polls while waiting. Returns false
+	 * if any other byte is received, or if the device keeps polling.
+	 */
+	private boolean awaitChecksum(int checksum) throws IOException {
+		logger.debug("Waiting for checksum 0x%02x", checksum);
+		out.flush();
+		for (int polls = 0;; polls++) {
+			int actual = in.readUbyte();
+			if (actual == checksum) return true;
+			if (!isPoll(actual) || polls >= CHECKSUM_POLLS_MAX) return false;
+			processInput(actual);
+		}
+	}
+
+	private static boolean isPoll(int value) {
+		return value == Protocol.DATA_POLL.value || value == Protocol.TIME_POLL.value;
+	}
+
 	/**
 	 * Waits for a specific byte from the device. If the byte is a protocol input value, process
 	 * that then wait again. Only retry the given maximum number of times.
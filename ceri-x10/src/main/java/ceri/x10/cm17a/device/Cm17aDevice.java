@@ -8,6 +8,7 @@ import org.apache.logging.log4j.Logger;
 import ceri.common.event.Listenable;
 import ceri.common.function.Enclosure;
 import ceri.common.io.StateChange;
+import ceri.common.metric.Metrics;
 import ceri.common.text.ToString;
 import ceri.log.concurrent.Dispatcher;
 import ceri.log.util.Logs;
@@ -151,6 +152,13 @@ public class Cm17aDevice implements Cm17a {
 		dispatcher.dispatch(command);
 	}
 
+	/**
+	 * Returns the processor metrics, including command times and waveform jitter.
+	 */
+	public Metrics metrics() {
+		return processor.metrics();
+	}
+
 	@Override
 	public void close() {
 		Logs.close(processor, dispatcher);
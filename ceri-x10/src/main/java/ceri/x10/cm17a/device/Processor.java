@@ -6,10 +6,11 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import ceri.common.concurrent.Concurrent;
+import ceri.common.concurrent.PrecisionDelay;
 import ceri.common.concurrent.RuntimeInterruptedException;
 import ceri.common.concurrent.TaskQueue;
-import ceri.common.data.Bytes;
 import ceri.common.except.ExceptionTracker;
+import ceri.common.metric.Histogram;
 import ceri.log.concurrent.LoopingExecutor;
 import ceri.x10.command.Address;
 import ceri.x10.command.Command;
@@ -26,112 +27,94 @@ public class Processor extends LoopingExecutor {
 	private final TaskQueue<IOException> taskQueue;
 	private final Cm17aConnector connector;
 	private final ExceptionTracker exceptions = ExceptionTracker.of();
+	private final Histogram commandNs = metrics().histogram("command");
+	private final Histogram jitterNs = metrics().histogram("jitter");
+	private final PrecisionDelay delay = PrecisionDelay.calibrated();
+	private final Waveform reset;
 	private Address lastOn = null;
 
 	Processor(Cm17aDevice.Config config, Cm17aConnector connector) {
 		this.config = config;
 		this.connector = connector;
 		taskQueue = TaskQueue.of(config.queueSize);
+		reset = Waveform.builder(config).reset().build();
 		start();
 	}
 
 	public void command(Command command) throws IOException {
-		taskQueue.execute(() -> sendCommand(command));
+		taskQueue.execute(() -> commandNs.time(() -> sendCommand(command)));
 	}
 
 	@Override
 	protected void loop() throws IOException, InterruptedException {
 		try {
-			sendReset();
+			logger.debug("Sending reset");
+			reset.play(connector, delay, jitterNs);
 			lastOn = null;
 			while (true) {
-				if (taskQueue.processNext(config.queuePollTimeoutMs, TimeUnit.MILLISECONDS))
+				if (idleGet(() -> taskQueue.processNext(config.queuePollTimeoutMs,
+					TimeUnit.MILLISECONDS)))
 					Concurrent.delayMicros(config.commandIntervalMicros);
 			}
 		} catch (RuntimeInterruptedException e) {
 			throw e;
 		} catch (RuntimeException | IOException e) {
+			caught();
 			if (exceptions.add(e)) logger.catching(Level.WARN, e);
 			Concurrent.delay(config.errorDelayMs);
 		}
 	}
 
 	private void sendCommand(Command command) throws IOException {
-		if (command.group() == FunctionGroup.dim) sendDimCommand((Command.Dim) command);
-		else sendUnitCommand(command);
+		var waveform = Waveform.builder(config);
+		if (command.group() == FunctionGroup.dim) addDimCommand(waveform, (Command.Dim) command);
+		else addUnitCommand(waveform, command);
+		try {
+			play(waveform.build());
+		} catch (RuntimeException | IOException e) {
+			lastOn = null; // device state is unknown
+			throw e;
+		}
 	}
 
-	private void sendUnitCommand(Command command) throws IOException {
+	private void addUnitCommand(Waveform.Builder waveform, Command command) {
 		for (Address address : command.addresses()) {
-			if (command.type() == FunctionType.on) sendOn(address);
-			else sendOff(address);
+			if (command.type() == FunctionType.on) addOn(waveform, address);
+			else addOff(waveform, address);
 		}
 	}
 
-	private void sendDimCommand(Command.Dim command) throws IOException {
+	/**
+	 * Dim codes for all addresses are batched into a single waveform.
+	 */
+	private void addDimCommand(Waveform.Builder waveform, Command.Dim command) {
 		int count = Data.toDimCount(command.percent());
 		int dimCode = Data.code(command.house(), command.type());
 		for (Address address : command.addresses()) {
-			sendOn(address);
+			addOn(waveform, address);
 			for (int i = 0; i < count; i++)
-				send(dimCode);
+				waveform.code(dimCode);
 		}
 	}
 
-	private void sendOff(Address address) throws IOException {
-		int code = Data.code(address.house, address.unit, FunctionType.off);
-		send(code);
+	private void addOff(Waveform.Builder waveform, Address address) {
+		waveform.code(Data.code(address.house, address.unit, FunctionType.off));
 		lastOn = null;
 	}
 
-	private void sendOn(Address address) throws IOException {
+	private void addOn(Waveform.Builder waveform, Address address) {
 		if (address.equals(lastOn)) return; // already on
-		int code = Data.code(address.house, address.unit, FunctionType.on);
-		send(code);
+		waveform.code(Data.code(address.house, address.unit, FunctionType.on));
 		lastOn = address;
 	}
 
 	/**
-	 * Sends a binary transmission to the device by toggling RTS(0) and DTS(1).
-	 */
-	private void send(int code) throws IOException {
-		logger.debug("Sending: 0x%02x", code);
-		sendByte(Data.HEADER1);
-		sendByte(Data.HEADER2);
-		sendByte(Bytes.ubyteAt(code, 1));
-		sendByte(Bytes.ubyteAt(code, 0));
-		sendByte(Data.FOOTER);
-	}
-
-	/**
-	 * Sends bits to the device by toggling DTR(1) and RTS(0).
-	 */
-	private void sendByte(int b) throws IOException {
-		for (int i = Byte.SIZE - 1; i >= 0; i--) {
-			if (Bytes.bit(b, i)) {
-				connector.dtr(false);
-				Concurrent.delayMicros(config.waitIntervalMicros);
-				connector.dtr(true);
-				Concurrent.delayMicros(config.waitIntervalMicros);
-			} else {
-				connector.rts(false);
-				Concurrent.delayMicros(config.waitIntervalMicros);
-				connector.rts(true);
-				Concurrent.delayMicros(config.waitIntervalMicros);
-			}
-		}
-	}
-
-	/**
-	 * Resets the device by powering it off then on.
+	 * Plays the line changes to the device by toggling DTR(1) and RTS(0).
 	 */
-	private void sendReset() throws IOException {
-		logger.debug("Sending reset");
-		connector.dtr(false);
-		connector.rts(false);
-		Concurrent.delayMicros(config.resetIntervalMicros);
-		connector.dtr(true);
-		connector.rts(true);
-		Concurrent.delayMicros(config.resetIntervalMicros);
+	private void play(Waveform waveform) throws IOException {
+		if (waveform.size() == 0) return;
+		logger.debug("Sending: %s", waveform);
+		long maxLateNs = waveform.play(connector, delay, jitterNs);
+		logger.debug("Max jitter: %dns", maxLateNs);
 	}
 }
@@ -0,0 +1,172 @@
+package ceri.x10.cm17a.device;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import ceri.common.concurrent.PrecisionDelay;
+import ceri.common.data.Bytes;
+import ceri.common.metric.Histogram;
+
+/**
+ * A precomputed sequence of RTS and DTR line changes for a transmission, each scheduled at a fixed
+ * offset from the start. Playing against offsets from a single start time keeps per-call overhead
+ * and wait overshoot from accumulating across bits, and allows a whole command, including repeated
+ * dim codes, to be sent as one sequence. If a change is late by more than a fraction of the wait
+ * interval, for example after a GC pause or preemption, the remaining changes are shifted by the
+ * lateness, so overdue changes are not sent back-to-back as pulses the device cannot decode.
+ */
+public class Waveform {
+	private static final int DTR_MASK = 0x2;
+	private static final int ON_MASK = 0x1;
+	private static final int RESYNC_DIVISOR = 10;
+	public static final Waveform EMPTY = new Waveform(new byte[0], new long[0], 0, 0);
+	private final byte[] changes;
+	private final long[] offsetsNs;
+	private final long durationNs;
+	private final long resyncNs;
+
+	public static Builder builder(Cm17aDevice.Config config) {
+		return builder(TimeUnit.MICROSECONDS.toNanos(config.waitIntervalMicros),
+			TimeUnit.MICROSECONDS.toNanos(config.resetIntervalMicros));
+	}
+
+	public static Builder builder(long waitNs, long resetNs) {
+		return new Builder(waitNs, resetNs);
+	}
+
+	public static class Builder {
+		private final long waitNs;
+		private final long resetNs;
+		private byte[] changes = new byte[64];
+		private long[] offsetsNs = new long[64];
+		private int size = 0;
+		private long offsetNs = 0;
+
+		Builder(long waitNs, long resetNs) {
+			this.waitNs = waitNs;
+			this.resetNs = resetNs;
+		}
+
+		/**
+		 * Resets the device by powering it off then on.
+		 */
+		public Builder reset() {
+			dtr(false).rts(false).gap(resetNs);
+			return dtr(true).rts(true).gap(resetNs);
+		}
+
+		/**
+		 * Adds a complete transmission for the code: headers, code bytes and footer.
+		 */
+		public Builder code(int code) {
+			bits(Data.HEADER1);
+			bits(Data.HEADER2);
+			bits(Bytes.ubyteAt(code, 1));
+			bits(Bytes.ubyteAt(code, 0));
+			return bits(Data.FOOTER);
+		}
+
+		/**
+		 * Adds the bits of a byte, most significant first. A 1-bit pulses DTR low, and a 0-bit
+		 * pulses RTS low.
+		 */
+		public Builder bits(int b) {
+			for (int i = Byte.SIZE - 1; i >= 0; i--) {
+				boolean dtr = Bytes.bit(b, i);
+				change(dtr, false).gap(waitNs);
+				change(dtr, true).gap(waitNs);
+			}
+			return this;
+		}
+
+		/**
+		 * Adds a delay before the next change.
+		 */
+		public Builder gap(long ns) {
+			offsetNs += ns;
+			return this;
+		}
+
+		public Builder rts(boolean on) {
+			return change(false, on);
+		}
+
+		public Builder dtr(boolean on) {
+			return change(true, on);
+		}
+
+		public Waveform build() {
+			if (size == 0 && offsetNs == 0) return EMPTY;
+			return new Waveform(Arrays.copyOf(changes, size), Arrays.copyOf(offsetsNs, size),
+				offsetNs, waitNs / RESYNC_DIVISOR);
+		}
+
+		private Builder change(boolean dtr, boolean on) {
+			if (size == changes.length) {
+				changes = Arrays.copyOf(changes, size << 1);
+				offsetsNs = Arrays.copyOf(offsetsNs, size << 1);
+			}
+			changes[size] = (byte) ((dtr ? DTR_MASK : 0) | (on ? ON_MASK : 0));
+			offsetsNs[size++] = offsetNs;
+			return this;
+		}
+	}
+
+	private Waveform(byte[] changes, long[] offsetsNs, long durationNs, long resyncNs) {
+		this.changes = changes;
+		this.offsetsNs = offsetsNs;
+		this.durationNs = durationNs;
+		this.resyncNs = resyncNs;
+	}
+
+	/**
+	 * The number of line changes.
+	 */
+	public int size() {
+		return changes.length;
+	}
+
+	/**
+	 * The total time to play the sequence, including the wait after the last change.
+	 */
+	public long durationNs() {
+		return durationNs;
+	}
+
+	/**
+	 * The lateness above which the remaining changes are shifted, keeping each pulse within this
+	 * amount of its scheduled width.
+	 */
+	public long resyncNs() {
+		return resyncNs;
+	}
+
+	/**
+	 * Plays the sequence to the connector, waiting for each change offset from the start time.
+	 * The lateness of each change is recorded in the jitter histogram. A change later than the
+	 * resync time moves the start time by the lateness. Returns the maximum lateness in
+	 * nanoseconds.
+	 */
+	public long play(Cm17aConnector connector, PrecisionDelay delay, Histogram jitter)
+		throws IOException {
+		long maxLateNs = 0;
+		long t0 = System.nanoTime();
+		for (int i = 0; i < changes.length; i++) {
+			long lateNs = delay.until(t0 + offsetsNs[i]);
+			jitter.record(lateNs);
+			maxLateNs = Math.max(maxLateNs, lateNs);
+			if (lateNs > resyncNs) t0 += lateNs;
+			boolean on = (changes[i] & ON_MASK) != 0;
+			if ((changes[i] & DTR_MASK) != 0) connector.dtr(on);
+			else connector.rts(on);
+		}
+		delay.until(t0 + durationNs);
+		return maxLateNs;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s(%d changes, %dus)", getClass().getSimpleName(), size(),
+			TimeUnit.NANOSECONDS.toMicros(durationNs));
+	}
+}
@@ -15,6 +15,7 @@ import ceri.common.test.Testing;
 	ceri.x10.cm11a.device.Cm11aBehavior.class, //
 	ceri.x10.cm11a.device.Cm11aDeviceBehavior.class, //
 	ceri.x10.cm11a.device.Cm11aEmulatorBehavior.class, //
+	ceri.x10.cm11a.device.CommandSchedulerBehavior.class, //
 	// cm11a.protocol
 	ceri.x10.cm11a.protocol.ClockBehavior.class, //
 	ceri.x10.cm11a.protocol.DataBehavior.class, //
@@ -32,6 +33,7 @@ import ceri.common.test.Testing;
 	ceri.x10.cm17a.device.Cm17aDeviceBehavior.class, //
 	ceri.x10.cm17a.device.Cm17aEmulatorBehavior.class, //
 	ceri.x10.cm17a.device.DataTest.class, //
+	ceri.x10.cm17a.device.WaveformBehavior.class, //
 	// command
 	ceri.x10.command.AddressBehavior.class, //
 	ceri.x10.command.CommandBehavior.class, //
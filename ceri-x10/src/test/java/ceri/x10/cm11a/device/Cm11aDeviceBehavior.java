@@ -125,6 +125,71 @@ public class Cm11aDeviceBehavior {
 		Assert.thrown(() -> cm11a.command(UnsupportedCommand.hailReq(House.I, Unit._1)));
 	}
 
+	@SuppressWarnings("resource")
+	@Test
+	public void shouldResendEntryOnChecksumMismatch() throws IOException {
+		init();
+		try (var exec = SimpleExecutor.run(() -> cm11a.command(Command.on(House.H, Unit._10)))) {
+			Assert.array(con.out.from.readBytes(2), 0x4, 0xdf);
+			con.in.to.writeBytes(0xe2).flush(); // bad checksum
+			Assert.array(con.out.from.readBytes(2), 0x4, 0xdf);
+			con.in.to.writeBytes(0xe3).flush();
+			Assert.array(con.out.from.readBytes(1), 0);
+			con.in.to.writeBytes(0x55).flush();
+			Assert.array(con.out.from.readBytes(2), 0x6, 0xd2);
+			con.in.to.writeBytes(0xd8).flush();
+			Assert.array(con.out.from.readBytes(1), 0);
+			con.in.to.writeBytes(0x55).flush();
+			exec.get();
+		}
+		var stats = cm11a.stats();
+		Assert.equal(stats.commands(), 1L);
+		Assert.equal(stats.retries(), 1L);
+	}
+
+	@SuppressWarnings("resource")
+	@Test
+	public void shouldProcessClockRequestWhileAwaitingChecksum() throws IOException {
+		init();
+		try (var exec = SimpleExecutor.run(() -> cm11a.command(Command.on(House.H, Unit._10)))) {
+			Assert.array(con.out.from.readBytes(2), 0x4, 0xdf);
+			con.in.to.writeBytes(0xa5).flush();
+			Assert.equal(Clock.decode(con.out.from).house, House.A);
+			con.in.to.writeBytes(0xe3).flush();
+			Assert.array(con.out.from.readBytes(1), 0);
+			con.in.to.writeBytes(0x55).flush();
+			Assert.array(con.out.from.readBytes(2), 0x6, 0xd2);
+			con.in.to.writeBytes(0xd8).flush();
+			Assert.array(con.out.from.readBytes(1), 0);
+			con.in.to.writeBytes(0x55).flush();
+			exec.get();
+		}
+		Assert.equal(cm11a.stats().retries(), 0L);
+	}
+
+	@SuppressWarnings("resource")
+	@Test
+	public void shouldProcessClockRequestWithSingleSendAttempt() throws IOException {
+		init(Cm11aDevice.Config.builder().maxSendAttempts(1).queuePollTimeoutMs(0).readPollMs(0)
+			.readTimeoutMs(10000).build());
+		try (var exec = SimpleExecutor.run(() -> cm11a.command(Command.on(House.H, Unit._10)))) {
+			Assert.array(con.out.from.readBytes(2), 0x4, 0xdf);
+			con.in.to.writeBytes(0xa5).flush();
+			Assert.equal(Clock.decode(con.out.from).house, House.A);
+			con.in.to.writeBytes(0xa5).flush();
+			Assert.equal(Clock.decode(con.out.from).house, House.A);
+			con.in.to.writeBytes(0xe3).flush();
+			Assert.array(con.out.from.readBytes(1), 0);
+			con.in.to.writeBytes(0x55).flush();
+			Assert.array(con.out.from.readBytes(2), 0x6, 0xd2);
+			con.in.to.writeBytes(0xd8).flush();
+			Assert.array(con.out.from.readBytes(1), 0);
+			con.in.to.writeBytes(0x55).flush();
+			exec.get();
+		}
+		Assert.equal(cm11a.stats().retries(), 0L);
+	}
+
 	@SuppressWarnings("resource")
 	@Test
 	public void shouldRequestStatus() throws IOException {
@@ -197,6 +262,7 @@ public class Cm11aDeviceBehavior {
 				con.in.to
 					.writeBytes(Protocol.READY.value, Protocol.READY.value, Protocol.READY.value)
 					.flush();
+				Assert.array(con.out.from.readBytes(4), 0x4, 0xdf, 0x4, 0xdf); // re-sent
 				con.in.awaitFeed();
 				Assert.thrown(() -> exec.get());
 			}
@@ -205,6 +271,7 @@ public class Cm11aDeviceBehavior {
 				con.in.to
 					.writeBytes(Protocol.READY.value, Protocol.READY.value, Protocol.READY.value)
 					.flush();
+				Assert.array(con.out.from.readBytes(4), 0x4, 0xdf, 0x4, 0xdf); // re-sent
 				con.in.awaitFeed();
 				Assert.thrown(() -> exec.get());
 			}
@@ -230,6 +297,10 @@ public class Cm11aDeviceBehavior {
 	}
 
 	private void init() throws IOException {
+		init(config);
+	}
+
+	private void init(Cm11aDevice.Config config) throws IOException {
 		con = TestConnector.of();
 		con.open();
 		cm11a = Cm11aDevice.of(config, con);
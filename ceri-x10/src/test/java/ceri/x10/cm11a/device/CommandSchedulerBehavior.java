@@ -0,0 +1,128 @@
+package ceri.x10.cm11a.device;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+import ceri.common.collect.Lists;
+import ceri.common.test.Assert;
+import ceri.x10.cm11a.protocol.Entry;
+import ceri.x10.command.Command;
+import ceri.x10.command.FunctionType;
+import ceri.x10.command.House;
+import ceri.x10.command.Unit;
+
+public class CommandSchedulerBehavior {
+
+	@Test
+	public void shouldMergeUnitsWithSameFunction() {
+		var entries = CommandScheduler.entries(List.of(Command.on(House.A, Unit._3),
+			Command.on(House.A, Unit._1), Command.on(House.A, Unit._3, Unit._2)));
+		Assert.ordered(entries, Entry.address(House.A, Unit._1), Entry.address(House.A, Unit._2),
+			Entry.address(House.A, Unit._3), Entry.function(House.A, FunctionType.on));
+	}
+
+	@Test
+	public void shouldMergeAcrossOtherHouses() {
+		var entries = CommandScheduler.entries(List.of(Command.on(House.A, Unit._1),
+			Command.off(House.B, Unit._1), Command.on(House.A, Unit._2)));
+		Assert.ordered(entries, Entry.address(House.A, Unit._1), Entry.address(House.A, Unit._2),
+			Entry.function(House.A, FunctionType.on), Entry.address(House.B, Unit._1),
+			Entry.function(House.B, FunctionType.off));
+	}
+
+	@Test
+	public void shouldNotMergeAcrossOtherFunctionsOnSameHouse() {
+		var entries = CommandScheduler.entries(List.of(Command.on(House.A, Unit._1),
+			Command.off(House.A, Unit._1), Command.on(House.A, Unit._2)));
+		Assert.ordered(entries, Entry.address(House.A, Unit._1),
+			Entry.function(House.A, FunctionType.on), Entry.address(House.A, Unit._1),
+			Entry.function(House.A, FunctionType.off), Entry.address(House.A, Unit._2),
+			Entry.function(House.A, FunctionType.on));
+	}
+
+	@Test
+	public void shouldOnlyMergeMatchingFunctionData() {
+		var entries = CommandScheduler.entries(List.of(Command.dim(House.C, 50, Unit._1),
+			Command.dim(House.C, 50, Unit._2), Command.dim(House.C, 20, Unit._3)));
+		Assert.ordered(entries, Entry.address(House.C, Unit._1), Entry.address(House.C, Unit._2),
+			Entry.dim(House.C, FunctionType.dim, 50), Entry.address(House.C, Unit._3),
+			Entry.dim(House.C, FunctionType.dim, 20));
+	}
+
+	@Test
+	public void shouldSendRepeatedDimsToSameUnit() {
+		var entries = CommandScheduler.entries(List.of(Command.dim(House.C, 50, Unit._1),
+			Command.dim(House.C, 50, Unit._2), Command.dim(House.C, 50, Unit._1)));
+		Assert.ordered(entries, Entry.address(House.C, Unit._1), Entry.address(House.C, Unit._2),
+			Entry.dim(House.C, FunctionType.dim, 50), Entry.address(House.C, Unit._1),
+			Entry.dim(House.C, FunctionType.dim, 50));
+	}
+
+	@Test
+	public void shouldSendRepeatedExtCommandsToSameUnit() {
+		var entries = CommandScheduler.entries(
+			List.of(Command.ext(House.E, 1, 2, Unit._5), Command.ext(House.E, 1, 2, Unit._5)));
+		Assert.ordered(entries, Entry.address(House.E, Unit._5), Entry.ext(House.E, 1, 2),
+			Entry.address(House.E, Unit._5), Entry.ext(House.E, 1, 2));
+	}
+
+	@Test
+	public void shouldMergeHouseCommands() {
+		var entries = CommandScheduler.entries(List.of(Command.allUnitsOff(House.D),
+			Command.on(House.D), Command.allUnitsOff(House.D)));
+		Assert.ordered(entries, Entry.function(House.D, FunctionType.allUnitsOff));
+	}
+
+	@Test
+	public void shouldSendQueuedCommandsInOneBatch() throws IOException {
+		var scheduler = CommandScheduler.of(4);
+		var p0 = scheduler.add(Command.on(House.A, Unit._1));
+		var p1 = scheduler.add(Command.on(House.A, Unit._2));
+		List<Entry> sent = Lists.of();
+		Assert.ordered(scheduler.send(p0, sent::addAll), p0.command, p1.command);
+		Assert.ordered(sent, Entry.address(House.A, Unit._1), Entry.address(House.A, Unit._2),
+			Entry.function(House.A, FunctionType.on));
+		Assert.yes(p1.done());
+		Assert.ordered(scheduler.send(p1, sent::addAll));
+		var stats = scheduler.stats();
+		Assert.equal(stats.commands(), 2L);
+		Assert.equal(stats.batches(), 1L);
+		Assert.equal(stats.entries(), 3L);
+		Assert.equal(stats.merged(), 1L);
+	}
+
+	@Test
+	public void shouldFailAllCommandsInBatch() {
+		var scheduler = CommandScheduler.of();
+		var p0 = scheduler.add(Command.on(House.A, Unit._1));
+		var p1 = scheduler.add(Command.off(House.A, Unit._2));
+		Assert.thrown(IOException.class, () -> scheduler.send(p0, _ -> {
+			throw new IOException();
+		}));
+		Assert.thrown(IOException.class, () -> scheduler.send(p1, _ -> {}));
+	}
+
+	@Test
+	public void shouldCancelPendingCommand() throws IOException {
+		var scheduler = CommandScheduler.of();
+		var p0 = scheduler.add(Command.on(House.A, Unit._1));
+		var p1 = scheduler.add(Command.off(House.A, Unit._2));
+		scheduler.cancel(p1);
+		Assert.ordered(scheduler.send(p0, _ -> {}), p0.command);
+		Assert.no(p1.done());
+	}
+
+	@Test
+	public void shouldProvideLatencyPercentiles() throws IOException {
+		var scheduler = CommandScheduler.of(2);
+		Assert.equal(scheduler.stats().p99Us(), 0L);
+		for (int i = 0; i < 3; i++)
+			scheduler.send(scheduler.add(Command.on(House.A, Unit._1)), _ -> {});
+		var stats = scheduler.stats();
+		Assert.equal(stats.commands(), 3L);
+		Assert.yes(stats.p50Us() <= stats.p90Us());
+		Assert.yes(stats.p90Us() <= stats.p99Us());
+		Assert.yes(stats.p99Us() <= stats.maxUs());
+		Assert.find(scheduler, "Stats\\(3,3,6,0,0,\\d+us,");
+	}
+}
@@ -0,0 +1,48 @@
+package ceri.x10.cm17a.device;
+
+import java.io.IOException;
+import java.util.List;
+import ceri.common.collect.Lists;
+
+/**
+ * Records line changes with timestamps, for replay and timing checks.
+ */
+public class Cm17aRecordingConnector implements Cm17aConnector.Null {
+	private final List<Change> changes = Lists.of();
+
+	public record Change(boolean dtr, boolean on, long ns) {}
+
+	public static Cm17aRecordingConnector of() {
+		return new Cm17aRecordingConnector();
+	}
+
+	private Cm17aRecordingConnector() {}
+
+	public synchronized List<Change> changes() {
+		return List.copyOf(changes);
+	}
+
+	public synchronized void clear() {
+		changes.clear();
+	}
+
+	/**
+	 * Replays the recorded changes to the connector.
+	 */
+	public void replay(Cm17aConnector connector) throws IOException {
+		for (var change : changes()) {
+			if (change.dtr()) connector.dtr(change.on());
+			else connector.rts(change.on());
+		}
+	}
+
+	@Override
+	public synchronized void rts(boolean on) {
+		changes.add(new Change(false, on, System.nanoTime()));
+	}
+
+	@Override
+	public synchronized void dtr(boolean on) {
+		changes.add(new Change(true, on, System.nanoTime()));
+	}
+}
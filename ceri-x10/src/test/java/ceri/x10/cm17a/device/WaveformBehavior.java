@@ -0,0 +1,159 @@
+package ceri.x10.cm17a.device;
+
+import java.io.IOException;
+import org.junit.After;
+import org.junit.Test;
+import ceri.common.concurrent.PrecisionDelay;
+import ceri.common.function.Closeables;
+import ceri.common.metric.Histogram;
+import ceri.common.test.Assert;
+import ceri.x10.command.Command;
+import ceri.x10.command.FunctionType;
+import ceri.x10.command.House;
+import ceri.x10.command.TestCommandListener;
+import ceri.x10.command.Unit;
+
+public class WaveformBehavior {
+	private static final int WAIT_US = 50;
+	private static final Cm17aDevice.Config config = Cm17aDevice.Config.builder()
+		.waitIntervalMicros(WAIT_US).resetIntervalMicros(100).commandIntervalMicros(0)
+		.queuePollTimeoutMs(0).errorDelayMs(0).build();
+	private Cm17aRecordingConnector con;
+	private Cm17aTestConnector decoder;
+	private Cm17aDevice cm17a;
+	private Cm17aEmulator emulator;
+
+	@After
+	public void after() {
+		Closeables.close(cm17a, emulator, decoder);
+		cm17a = null;
+		emulator = null;
+		decoder = null;
+		con = null;
+	}
+
+	@Test
+	public void shouldBuildEmptyWaveform() {
+		Assert.same(Waveform.builder(Cm17aDevice.Config.NULL).build(), Waveform.EMPTY);
+		Assert.equal(Waveform.EMPTY.size(), 0);
+		Assert.equal(Waveform.EMPTY.durationNs(), 0L);
+	}
+
+	@Test
+	public void shouldBuildCodeTransmission() {
+		var waveform = Waveform.builder(1000, 5000).reset().code(0x1234).gap(7).build();
+		Assert.equal(waveform.size(), 4 + 5 * 8 * 2);
+		Assert.equal(waveform.durationNs(), 10000L + 5 * 8 * 2 * 1000 + 7);
+		Assert.find(waveform, "\\(84 changes, 90us\\)");
+	}
+
+	@Test
+	public void shouldPlayChangesAtOffsets() throws IOException {
+		con = Cm17aRecordingConnector.of();
+		var jitter = Histogram.of();
+		var waveform = Waveform.builder(100_000, 0).bits(0x80).build();
+		long t0 = System.nanoTime();
+		long maxLateNs = waveform.play(con, PrecisionDelay.SPIN, jitter);
+		Assert.yes(System.nanoTime() - t0 >= waveform.durationNs());
+		var changes = con.changes();
+		Assert.equal(changes.size(), 16);
+		Assert.yes(changes.get(0).dtr());
+		Assert.no(changes.get(2).dtr());
+		for (int i = 0; i < changes.size(); i++)
+			Assert.yes(changes.get(i).ns() - t0 >= i * 100_000L);
+		Assert.equal(jitter.snapshot().count(), 16L);
+		Assert.equal(jitter.snapshot().max(), maxLateNs);
+	}
+
+	@Test
+	public void shouldShiftRemainingChangesAfterLateChange() throws IOException {
+		con = Cm17aRecordingConnector.of();
+		long waitNs = 100_000;
+		var waveform = Waveform.builder(waitNs, 0).bits(0xa5).build();
+		Assert.equal(waveform.resyncNs(), waitNs / 10);
+		var lateCon = new Cm17aConnector.Null() {
+			private int count = 0;
+
+			@Override
+			public void rts(boolean on) throws IOException {
+				con.rts(on);
+				stall();
+			}
+
+			@Override
+			public void dtr(boolean on) throws IOException {
+				con.dtr(on);
+				stall();
+			}
+
+			private void stall() {
+				if (count++ == 3) PrecisionDelay.SPIN.delay(waitNs * 5);
+			}
+		};
+		long maxLateNs = waveform.play(lateCon, PrecisionDelay.SPIN, Histogram.of());
+		Assert.yes(maxLateNs >= waitNs * 4);
+		var changes = con.changes();
+		Assert.equal(changes.size(), 16);
+		for (int i = 1; i < changes.size(); i++)
+			Assert.yes(changes.get(i).ns() - changes.get(i - 1).ns() >= waitNs / 2);
+	}
+
+	@Test
+	public void shouldMatchEmulatorCommands() throws IOException, InterruptedException {
+		init();
+		var command = Command.dim(House.L, 10, Unit._5, Unit._9);
+		send(command);
+		con.replay(decoder);
+		int dim = Data.code(House.L, FunctionType.dim);
+		decoder.assertCodes(Data.code(House.L, Unit._5, FunctionType.on), dim, dim,
+			Data.code(House.L, Unit._9, FunctionType.on), dim, dim);
+		var snapshot = processorJitter();
+		Assert.equal(snapshot.count(), 4L + 6 * 5 * 8 * 2);
+	}
+
+	@Test
+	public void shouldSkipRepeatedOnCodes() throws IOException, InterruptedException {
+		init();
+		send(Command.from("A10:on"));
+		send(Command.from("A10:on"));
+		send(Command.from("A10:off"));
+		con.replay(decoder);
+		decoder.assertCodes(Data.code(House.A, Unit._10, FunctionType.on),
+			Data.code(House.A, Unit._10, FunctionType.off));
+	}
+
+	@Test
+	public void shouldHoldBitTiming() throws IOException, InterruptedException {
+		init();
+		send(Command.from("B3:on"));
+		con.clear();
+		long t0 = System.nanoTime();
+		send(Command.from("B3:off"));
+		var changes = con.changes();
+		Assert.equal(changes.size(), 5 * 8 * 2);
+		long bitNs = WAIT_US * 1000L;
+		for (int i = 0; i < changes.size(); i++)
+			Assert.yes(changes.get(i).ns() - t0 >= i * bitNs);
+		Assert.yes(System.nanoTime() - t0 >= changes.size() * bitNs);
+	}
+
+	private Histogram.Snapshot processorJitter() {
+		return cm17a.metrics().snapshot().histograms().get("jitter");
+	}
+
+	private void send(Command command) throws IOException, InterruptedException {
+		var listener = TestCommandListener.of();
+		try (var _ = emulator.listen(listener)) {
+			cm17a.command(command);
+			emulator.command(command);
+			Assert.equal(listener.sync.await(), command);
+		}
+	}
+
+	private void init() {
+		con = Cm17aRecordingConnector.of();
+		decoder = Cm17aTestConnector.of();
+		cm17a = Cm17aDevice.of(config, con);
+		emulator = Cm17aEmulator.of(0);
+	}
+}